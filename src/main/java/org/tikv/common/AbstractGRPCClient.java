@@ -20,6 +20,10 @@ package org.tikv.common;
 import static io.grpc.stub.ClientCalls.asyncBidiStreamingCall;
 import static io.grpc.stub.ClientCalls.blockingServerStreamingCall;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import io.grpc.ManagedChannel;
 import io.grpc.MethodDescriptor;
 import io.grpc.health.v1.HealthCheckRequest;
@@ -29,6 +33,8 @@ import io.grpc.stub.AbstractFutureStub;
 import io.grpc.stub.AbstractStub;
 import io.grpc.stub.ClientCalls;
 import io.grpc.stub.StreamObserver;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
@@ -123,6 +129,51 @@ public abstract class AbstractGRPCClient<
     logger.debug(String.format("leaving %s...", method.getFullMethodName()));
   }
 
+  /**
+   * Calls the method with retries like callWithRetry, through the future stub. No thread is held
+   * while waiting for the responses or for the back offs, which are waited on the timer.
+   */
+  protected <ReqT, RespT> CompletableFuture<RespT> callWithRetryAsync(
+      BackOffer backOffer,
+      MethodDescriptor<ReqT, RespT> method,
+      Supplier<ReqT> requestFactory,
+      ErrorHandler<RespT> handler,
+      ScheduledExecutorService timer) {
+    RetryPolicy<RespT> policy = new Builder<RespT>(backOffer).create(handler);
+    return policy.callWithRetryAsync(
+        () -> {
+          FutureStubT stub = getAsyncStub();
+          ListenableFuture<RespT> call =
+              ClientCalls.futureUnaryCall(
+                  stub.getChannel().newCall(method, stub.getCallOptions()), requestFactory.get());
+          CompletableFuture<RespT> future = new CompletableFuture<>();
+          Futures.addCallback(
+              call,
+              new FutureCallback<RespT>() {
+                @Override
+                public void onSuccess(RespT resp) {
+                  future.complete(resp);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                  future.completeExceptionally(t);
+                }
+              },
+              MoreExecutors.directExecutor());
+          future.whenComplete(
+              (resp, e) -> {
+                if (future.isCancelled()) {
+                  call.cancel(true);
+                }
+              });
+          return future;
+        },
+        method.getFullMethodName(),
+        backOffer,
+        timer);
+  }
+
   <ReqT, RespT> StreamObserver<ReqT> callBidiStreamingWithRetry(
       BackOffer backOffer,
       MethodDescriptor<ReqT, RespT> method,
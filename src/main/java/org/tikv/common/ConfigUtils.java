@@ -36,6 +36,20 @@ public class ConfigUtils {
   public static final String TIKV_GRPC_KEEPALIVE_TIME = "tikv.grpc.keepalive_time";
   public static final String TIKV_GRPC_KEEPALIVE_TIMEOUT = "tikv.grpc.keepalive_timeout";
   public static final String TIKV_GRPC_IDLE_TIMEOUT = "tikv.grpc.idle_timeout";
+  public static final String TIKV_GRPC_CHANNEL_POOL_SIZE = "tikv.grpc.channel_pool_size";
+  public static final String TIKV_GRPC_EPOLL_ENABLE = "tikv.grpc.epoll.enable";
+  public static final String TIKV_GRPC_EVENT_LOOP_THREADS = "tikv.grpc.event_loop_threads";
+  public static final String TIKV_GRPC_TCP_NO_DELAY = "tikv.grpc.tcp_no_delay";
+  public static final String TIKV_GRPC_RECEIVE_BUFFER_SIZE = "tikv.grpc.receive_buffer_size";
+  public static final String TIKV_GRPC_COMPRESSION_CODEC = "tikv.grpc.compression.codec";
+  public static final String TIKV_GRPC_COMPRESSION_BATCH_WRITE_ENABLE =
+      "tikv.grpc.compression.batch_write.enable";
+  public static final String TIKV_GRPC_COMPRESSION_SCAN_ENABLE =
+      "tikv.grpc.compression.scan.enable";
+  public static final String TIKV_GRPC_COMPRESSION_COPROCESSOR_ENABLE =
+      "tikv.grpc.compression.coprocessor.enable";
+  public static final String TIKV_GRPC_COMPRESSION_MIN_MESSAGE_SIZE =
+      "tikv.grpc.compression.min_message_size";
   public static final String TIKV_CONN_RECYCLE_TIME = "tikv.conn.recycle_time";
 
   public static final String TIKV_INDEX_SCAN_BATCH_SIZE = "tikv.index.scan_batch_size";
@@ -47,6 +61,8 @@ public class ConfigUtils {
   public static final String TIKV_BATCH_DELETE_CONCURRENCY = "tikv.batch_delete_concurrency";
   public static final String TIKV_BATCH_SCAN_CONCURRENCY = "tikv.batch_scan_concurrency";
   public static final String TIKV_DELETE_RANGE_CONCURRENCY = "tikv.delete_range_concurrency";
+  public static final String TIKV_RAWKV_ASYNC_RETRY_CONCURRENCY =
+      "tikv.rawkv.async_retry_concurrency";
 
   public static final String TIKV_REQUEST_COMMAND_PRIORITY = "tikv.request.command.priority";
   public static final String TIKV_REQUEST_ISOLATION_LEVEL = "tikv.request.isolation.level";
@@ -57,6 +73,7 @@ public class ConfigUtils {
 
   public static final String TIKV_KV_MODE = "tikv.kv_mode";
   public static final String TIKV_REPLICA_READ = "tikv.replica_read";
+  public static final String TIKV_REPLICA_READ_LATENCY_AWARE = "tikv.replica_read.latency_aware";
 
   public static final String TIKV_METRICS_ENABLE = "tikv.metrics.enable";
   public static final String TIKV_METRICS_PORT = "tikv.metrics.port";
@@ -83,6 +100,8 @@ public class ConfigUtils {
       "tikv.rawkv.batch_write_timeout_in_ms";
   public static final String TIKV_RAWKV_SCAN_TIMEOUT_IN_MS = "tikv.rawkv.scan_timeout_in_ms";
   public static final String TIKV_RAWKV_CLEAN_TIMEOUT_IN_MS = "tikv.rawkv.clean_timeout_in_ms";
+  public static final String TIKV_RAWKV_CHECKSUM_TIMEOUT_IN_MS =
+      "tikv.rawkv.checksum_timeout_in_ms";
   public static final String TIKV_BO_REGION_MISS_BASE_IN_MS = "tikv.bo_region_miss_base_in_ms";
   public static final String TIKV_RAWKV_READ_SLOWLOG_IN_MS = "tikv.rawkv.read_slowlog_in_ms";
   public static final String TIKV_RAWKV_WRITE_SLOWLOG_IN_MS = "tikv.rawkv.write_slowlog_in_ms";
@@ -119,8 +138,62 @@ public class ConfigUtils {
 
   public static final String TIKV_SCAN_REGIONS_LIMIT = "tikv.scan_regions_limit";
 
+  public static final String TIKV_BATCH_COMMANDS_ENABLE = "tikv.batch_commands.enable";
+  public static final String TIKV_BATCH_COMMANDS_MAX_BATCH_SIZE =
+      "tikv.batch_commands.max_batch_size";
+  public static final String TIKV_BATCH_COMMANDS_MAX_WAIT_IN_US =
+      "tikv.batch_commands.max_wait_in_us";
+
+  public static final String TIKV_RAWKV_READ_CACHE_ENABLE = "tikv.rawkv.read_cache.enable";
+  public static final String TIKV_RAWKV_READ_CACHE_CAPACITY = "tikv.rawkv.read_cache.capacity";
+  public static final String TIKV_RAWKV_READ_CACHE_TTL_IN_MS = "tikv.rawkv.read_cache.ttl_in_ms";
+
+  public static final String TIKV_SCAN_PREFETCH_DEPTH = "tikv.scan.prefetch_depth";
+  public static final String TIKV_SCAN_PREFETCH_MAX_BYTES = "tikv.scan.prefetch_max_bytes";
+  public static final String TIKV_SCAN_PREFETCH_CONCURRENCY = "tikv.scan.prefetch_concurrency";
+
+  public static final String TIKV_RAWKV_PARALLEL_SCAN_CONCURRENCY =
+      "tikv.rawkv.parallel_scan.concurrency";
+  public static final String TIKV_RAWKV_PARALLEL_SCAN_MAX_BUFFERED_BYTES =
+      "tikv.rawkv.parallel_scan.max_buffered_bytes";
+
+  public static final String TIKV_RAWKV_ADAPTIVE_BATCH_ENABLE = "tikv.rawkv.adaptive_batch.enable";
+  public static final String TIKV_RAWKV_ADAPTIVE_BATCH_TARGET_LATENCY_IN_MS =
+      "tikv.rawkv.adaptive_batch.target_latency_in_ms";
+  public static final String TIKV_RAWKV_ZERO_COPY_READ_ENABLE = "tikv.rawkv.zero_copy_read.enable";
+  public static final String TIKV_RAWKV_HEDGED_READ_ENABLE = "tikv.rawkv.hedged_read.enable";
+  public static final String TIKV_RAWKV_HEDGED_READ_DELAY_IN_MS =
+      "tikv.rawkv.hedged_read.delay_in_ms";
+  public static final String TIKV_RAWKV_HEDGED_READ_PERCENTILE =
+      "tikv.rawkv.hedged_read.percentile";
+  public static final String TIKV_RAWKV_NON_BLOCKING_BACKOFF_ENABLE =
+      "tikv.rawkv.non_blocking_backoff.enable";
+
+  public static final String TIKV_STORE_CONCURRENCY_LIMIT_ENABLE =
+      "tikv.store.concurrency_limit.enable";
+  public static final String TIKV_STORE_CONCURRENCY_LIMIT_INITIAL =
+      "tikv.store.concurrency_limit.initial";
+  public static final String TIKV_STORE_CONCURRENCY_LIMIT_MAX = "tikv.store.concurrency_limit.max";
+  public static final String TIKV_STORE_CONCURRENCY_LIMIT_MAX_WAIT_IN_MS =
+      "tikv.store.concurrency_limit.max_wait_in_ms";
+
+  public static final String TIKV_TSO_BATCH_MAX_SIZE = "tikv.tso.batch.max_size";
+
+  public static final String TIKV_REGION_PREFETCH_WINDOW = "tikv.region.prefetch_window";
+
+  public static final String TIKV_REGION_CACHE_SNAPSHOT_PATH = "tikv.region_cache.snapshot.path";
+  public static final String TIKV_REGION_CACHE_SNAPSHOT_INTERVAL_IN_MS =
+      "tikv.region_cache.snapshot.interval_in_ms";
+
+  public static final String TIKV_REGION_CACHE_MAX_SIZE = "tikv.region_cache.max_size";
+  public static final String TIKV_REGION_CACHE_REFRESH_INTERVAL_IN_MS =
+      "tikv.region_cache.refresh.interval_in_ms";
+  public static final String TIKV_REGION_CACHE_REFRESH_MAX_REGIONS =
+      "tikv.region_cache.refresh.max_regions";
+
   public static final String TIFLASH_ENABLE = "tiflash.enable";
   public static final String TIKV_WARM_UP_ENABLE = "tikv.warm_up.enable";
+  public static final String TIKV_WARM_UP_CONCURRENCY = "tikv.warm_up.concurrency";
 
   public static final String TIKV_API_VERSION = "tikv.api_version";
 
@@ -149,6 +222,7 @@ public class ConfigUtils {
   public static final int DEF_BATCH_DELETE_CONCURRENCY = 20;
   public static final int DEF_BATCH_SCAN_CONCURRENCY = 5;
   public static final int DEF_DELETE_RANGE_CONCURRENCY = 20;
+  public static final int DEF_TIKV_RAWKV_ASYNC_RETRY_CONCURRENCY = 2;
   public static final Kvrpcpb.CommandPri DEF_COMMAND_PRIORITY = Kvrpcpb.CommandPri.Low;
   public static final Kvrpcpb.IsolationLevel DEF_ISOLATION_LEVEL = Kvrpcpb.IsolationLevel.SI;
   public static final boolean DEF_SHOW_ROWID = false;
@@ -156,6 +230,7 @@ public class ConfigUtils {
   public static final int DEF_KV_CLIENT_CONCURRENCY = 10;
   public static final TiConfiguration.KVMode DEF_KV_MODE = TiConfiguration.KVMode.TXN;
   public static final String DEF_REPLICA_READ = "LEADER";
+  public static final boolean DEF_REPLICA_READ_LATENCY_AWARE = false;
   public static final boolean DEF_METRICS_ENABLE = false;
   public static final int DEF_METRICS_PORT = 3140;
   public static final String DEF_TIKV_NETWORK_MAPPING_NAME = "";
@@ -173,6 +248,7 @@ public class ConfigUtils {
   public static final int DEF_TIKV_RAWKV_BATCH_WRITE_TIMEOUT_IN_MS = 2000;
   public static final int DEF_TIKV_RAWKV_SCAN_TIMEOUT_IN_MS = 10000;
   public static final int DEF_TIKV_RAWKV_CLEAN_TIMEOUT_IN_MS = 600000;
+  public static final int DEF_TIKV_RAWKV_CHECKSUM_TIMEOUT_IN_MS = 600000;
 
   public static final int DEF_TIKV_BO_REGION_MISS_BASE_IN_MS = 20;
   public static final String DEF_TIKV_RAWKV_SCAN_SLOWLOG_IN_MS = "5000";
@@ -194,10 +270,23 @@ public class ConfigUtils {
   public static final int DEF_TIKV_GRPC_KEEPALIVE_TIME = 10;
   public static final int DEF_TIKV_GRPC_KEEPALIVE_TIMEOUT = 3;
   public static final int DEF_TIKV_GRPC_IDLE_TIMEOUT = 60;
+  public static final int DEF_TIKV_GRPC_CHANNEL_POOL_SIZE = 1;
+  public static final boolean DEF_TIKV_GRPC_EPOLL_ENABLE = false;
+  // the event loop group of gRPC
+  public static final int DEF_TIKV_GRPC_EVENT_LOOP_THREADS = 0;
+  public static final boolean DEF_TIKV_GRPC_TCP_NO_DELAY = true;
+  // the default of the OS
+  public static final int DEF_TIKV_GRPC_RECEIVE_BUFFER_SIZE = 0;
+  public static final String DEF_TIKV_GRPC_COMPRESSION_CODEC = "gzip";
+  public static final boolean DEF_TIKV_GRPC_COMPRESSION_BATCH_WRITE_ENABLE = false;
+  public static final boolean DEF_TIKV_GRPC_COMPRESSION_SCAN_ENABLE = false;
+  public static final boolean DEF_TIKV_GRPC_COMPRESSION_COPROCESSOR_ENABLE = false;
+  public static final int DEF_TIKV_GRPC_COMPRESSION_MIN_MESSAGE_SIZE = 1024;
   public static final boolean DEF_TIKV_TLS_ENABLE = false;
   public static final boolean DEF_TIKV_USE_JKS = false;
   public static final boolean DEF_TIFLASH_ENABLE = false;
   public static final boolean DEF_TIKV_WARM_UP_ENABLE = true;
+  public static final int DEF_TIKV_WARM_UP_CONCURRENCY = 8;
 
   public static final boolean DEF_TiKV_CIRCUIT_BREAK_ENABLE = false;
   public static final int DEF_TiKV_CIRCUIT_BREAK_AVAILABILITY_WINDOW_IN_SECONDS = 60;
@@ -208,5 +297,47 @@ public class ConfigUtils {
 
   public static final int DEF_TIKV_SCAN_REGIONS_LIMIT = 1000;
 
+  public static final boolean DEF_TIKV_BATCH_COMMANDS_ENABLE = false;
+  public static final int DEF_TIKV_BATCH_COMMANDS_MAX_BATCH_SIZE = 128;
+  public static final int DEF_TIKV_BATCH_COMMANDS_MAX_WAIT_IN_US = 0;
+
+  public static final boolean DEF_TIKV_RAWKV_READ_CACHE_ENABLE = false;
+  public static final int DEF_TIKV_RAWKV_READ_CACHE_CAPACITY = 10000;
+  public static final int DEF_TIKV_RAWKV_READ_CACHE_TTL_IN_MS = 1000;
+
+  public static final int DEF_TIKV_SCAN_PREFETCH_DEPTH = 1;
+  public static final int DEF_TIKV_SCAN_PREFETCH_MAX_BYTES = 32 * 1024 * 1024;
+  public static final int DEF_TIKV_SCAN_PREFETCH_CONCURRENCY = 16;
+
+  public static final int DEF_TIKV_RAWKV_PARALLEL_SCAN_CONCURRENCY = 8;
+  public static final int DEF_TIKV_RAWKV_PARALLEL_SCAN_MAX_BUFFERED_BYTES = 64 * 1024 * 1024;
+
+  public static final boolean DEF_TIKV_RAWKV_ADAPTIVE_BATCH_ENABLE = false;
+  public static final int DEF_TIKV_RAWKV_ADAPTIVE_BATCH_TARGET_LATENCY_IN_MS = 100;
+  public static final boolean DEF_TIKV_RAWKV_ZERO_COPY_READ_ENABLE = false;
+  public static final boolean DEF_TIKV_RAWKV_HEDGED_READ_ENABLE = false;
+  public static final int DEF_TIKV_RAWKV_HEDGED_READ_DELAY_IN_MS = 10;
+  // a fixed delay
+  public static final int DEF_TIKV_RAWKV_HEDGED_READ_PERCENTILE = 0;
+  public static final boolean DEF_TIKV_RAWKV_NON_BLOCKING_BACKOFF_ENABLE = false;
+
+  public static final boolean DEF_TIKV_STORE_CONCURRENCY_LIMIT_ENABLE = false;
+  public static final int DEF_TIKV_STORE_CONCURRENCY_LIMIT_INITIAL = 64;
+  public static final int DEF_TIKV_STORE_CONCURRENCY_LIMIT_MAX = 1024;
+  // fail fast
+  public static final int DEF_TIKV_STORE_CONCURRENCY_LIMIT_MAX_WAIT_IN_MS = 0;
+
+  public static final int DEF_TIKV_TSO_BATCH_MAX_SIZE = 10000;
+
+  public static final int DEF_TIKV_REGION_PREFETCH_WINDOW = 16;
+
+  public static final String DEF_TIKV_REGION_CACHE_SNAPSHOT_PATH = "";
+  public static final int DEF_TIKV_REGION_CACHE_SNAPSHOT_INTERVAL_IN_MS = 5 * 60 * 1000;
+
+  // no limit
+  public static final int DEF_TIKV_REGION_CACHE_MAX_SIZE = 0;
+  public static final int DEF_TIKV_REGION_CACHE_REFRESH_INTERVAL_IN_MS = 60 * 1000;
+  public static final int DEF_TIKV_REGION_CACHE_REFRESH_MAX_REGIONS = 1000;
+
   public static final int DEF_TIKV_API_VERSION = 1;
 }
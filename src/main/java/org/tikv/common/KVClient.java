@@ -47,12 +47,14 @@ public class KVClient implements AutoCloseable {
   private final RegionStoreClientBuilder clientBuilder;
   private final TiConfiguration conf;
   private final ExecutorService batchGetThreadPool;
+  private final ExecutorService scanPrefetchThreadPool;
 
   public KVClient(TiSession session, RegionStoreClientBuilder clientBuilder) {
     Objects.requireNonNull(clientBuilder, "clientBuilder is null");
     this.conf = session.getConf();
     this.clientBuilder = clientBuilder;
     this.batchGetThreadPool = session.getThreadPoolForBatchGet();
+    this.scanPrefetchThreadPool = session.getThreadPoolForScanPrefetch();
   }
 
   @Override
@@ -184,7 +186,8 @@ public class KVClient implements AutoCloseable {
       ByteString startKey,
       ByteString endKey,
       long version) {
-    return new ConcreteScanIterator(conf, builder, startKey, endKey, version);
+    return new ConcreteScanIterator(
+        conf, builder, startKey, endKey, version, scanPrefetchThreadPool);
   }
 
   private Iterator<KvPair> scanIterator(
@@ -193,6 +196,7 @@ public class KVClient implements AutoCloseable {
       ByteString startKey,
       long version,
       int limit) {
-    return new ConcreteScanIterator(conf, builder, startKey, version, limit);
+    return new ConcreteScanIterator(
+        conf, builder, startKey, version, limit, scanPrefetchThreadPool);
   }
 }
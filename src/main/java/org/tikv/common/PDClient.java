@@ -55,6 +55,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -101,9 +102,6 @@ import org.tikv.kvproto.Pdpb.RequestHeader;
 import org.tikv.kvproto.Pdpb.ResponseHeader;
 import org.tikv.kvproto.Pdpb.ScatterRegionRequest;
 import org.tikv.kvproto.Pdpb.ScatterRegionResponse;
-import org.tikv.kvproto.Pdpb.Timestamp;
-import org.tikv.kvproto.Pdpb.TsoRequest;
-import org.tikv.kvproto.Pdpb.TsoResponse;
 import org.tikv.kvproto.Pdpb.UpdateServiceGCSafePointRequest;
 
 public class PDClient extends AbstractGRPCClient<PDBlockingStub, PDFutureStub>
@@ -116,7 +114,7 @@ public class PDClient extends AbstractGRPCClient<PDBlockingStub, PDFutureStub>
 
   private final RequestKeyCodec codec;
   private RequestHeader header;
-  private TsoRequest tsoReq;
+  private TsoDispatcher tsoDispatcher;
   private volatile PDClientWrapper pdClientWrapper;
   private ScheduledExecutorService service;
   private ScheduledExecutorService tiflashReplicaService;
@@ -160,16 +158,27 @@ public class PDClient extends AbstractGRPCClient<PDBlockingStub, PDFutureStub>
 
   @Override
   public TiTimestamp getTimestamp(BackOffer backOffer) {
-    Supplier<TsoRequest> request = () -> tsoReq;
-
-    PDErrorHandler<TsoResponse> handler =
-        new PDErrorHandler<>(
-            r -> r.getHeader().hasError() ? buildFromPdpbError(r.getHeader().getError()) : null,
-            this);
+    while (true) {
+      CompletableFuture<TiTimestamp> future = getTimestampAsync();
+      try {
+        // the request may wait for the batch in flight before its own batch is sent
+        return future.get(2 * getTimeout(), TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new GrpcException("interrupted while getting timestamp", e);
+      } catch (ExecutionException e) {
+        backOffer.doBackOff(BackOffFuncType.BoPDRPC, new GrpcException(e.getCause()));
+      } catch (TimeoutException e) {
+        future.cancel(true);
+        backOffer.doBackOff(
+            BackOffFuncType.BoPDRPC, new GrpcException("wait tso response timeout", e));
+      }
+    }
+  }
 
-    TsoResponse resp = callWithRetry(backOffer, PDGrpc.getTsoMethod(), request, handler);
-    Timestamp timestamp = resp.getTimestamp();
-    return new TiTimestamp(timestamp.getPhysical(), timestamp.getLogical());
+  @Override
+  public CompletableFuture<TiTimestamp> getTimestampAsync() {
+    return tsoDispatcher.getTimestampAsync();
   }
 
   public synchronized void keepPauseChecker(PDChecker checker) {
@@ -340,6 +349,22 @@ public class PDClient extends AbstractGRPCClient<PDBlockingStub, PDFutureStub>
     }
   }
 
+  @Override
+  public Pair<Metapb.Region, Metapb.Peer> getPrevRegion(BackOffer backOffer, ByteString key) {
+    Supplier<GetRegionRequest> request =
+        () ->
+            GetRegionRequest.newBuilder()
+                .setHeader(header)
+                .setRegionKey(codec.encodePdQuery(key))
+                .build();
+    PDErrorHandler<GetRegionResponse> handler =
+        new PDErrorHandler<>(getRegionResponseErrorExtractor, this);
+
+    GetRegionResponse resp =
+        callWithRetry(backOffer, PDGrpc.getGetPrevRegionMethod(), request, handler);
+    return new Pair<>(codec.decodeRegion(resp.getRegion()), resp.getLeader());
+  }
+
   @Override
   public Pair<Metapb.Region, Metapb.Peer> getRegionByID(BackOffer backOffer, long id) {
     Supplier<GetRegionByIDRequest> request =
@@ -448,6 +473,9 @@ public class PDClient extends AbstractGRPCClient<PDBlockingStub, PDFutureStub>
   @Override
   public void close() throws InterruptedException {
     etcdClient.close();
+    if (tsoDispatcher != null) {
+      tsoDispatcher.close();
+    }
     if (service != null) {
       service.shutdownNow();
     }
@@ -783,7 +811,6 @@ public class PDClient extends AbstractGRPCClient<PDBlockingStub, PDFutureStub>
     checkNotNull(resp, "Failed to init client for PD cluster.");
     long clusterId = resp.getHeader().getClusterId();
     header = RequestHeader.newBuilder().setClusterId(clusterId).build();
-    tsoReq = TsoRequest.newBuilder().setHeader(header).setCount(1).build();
     this.tiflashReplicaMap = new ConcurrentHashMap<>();
     this.pdAddrs =
         resp.getMembersList()
@@ -797,6 +824,7 @@ public class PDClient extends AbstractGRPCClient<PDBlockingStub, PDFutureStub>
     logger.info("createLeaderClientWrapper with leader " + leaderUrlStr + ": start");
     createLeaderClientWrapper(leaderUrlStr);
     logger.info("createLeaderClientWrapper with leader " + leaderUrlStr + ": end");
+    tsoDispatcher = new TsoDispatcher(this, header, conf.getTsoBatchMaxSize());
     service =
         Executors.newSingleThreadScheduledExecutor(
             new ThreadFactoryBuilder()
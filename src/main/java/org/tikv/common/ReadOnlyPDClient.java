@@ -19,6 +19,7 @@ package org.tikv.common;
 
 import com.google.protobuf.ByteString;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.tikv.common.apiversion.RequestKeyCodec;
 import org.tikv.common.meta.TiTimestamp;
 import org.tikv.common.util.BackOffer;
@@ -36,6 +37,14 @@ public interface ReadOnlyPDClient {
    */
   TiTimestamp getTimestamp(BackOffer backOffer);
 
+  /**
+   * Get Timestamp from Placement Driver asynchronously. Concurrent requests are sent to PD in one
+   * batch. The request is not retried on failure.
+   *
+   * @return a future of the timestamp object
+   */
+  CompletableFuture<TiTimestamp> getTimestampAsync();
+
   /**
    * Get Region from PD by key specified
    *
@@ -44,6 +53,14 @@ public interface ReadOnlyPDClient {
    */
   Pair<Metapb.Region, Metapb.Peer> getRegionByKey(BackOffer backOffer, ByteString key);
 
+  /**
+   * Get the Region right before the Region containing the key specified
+   *
+   * @param key key in bytes for locating a region
+   * @return the region whose endKey is the startKey of the region covering the given key
+   */
+  Pair<Metapb.Region, Metapb.Peer> getPrevRegion(BackOffer backOffer, ByteString key);
+
   /**
    * Get Region by Region Id
    *
@@ -157,7 +157,8 @@ public class Snapshot {
         session.getRegionStoreClientBuilder(),
         startKey,
         timestamp.getVersion(),
-        Integer.MAX_VALUE);
+        Integer.MAX_VALUE,
+        session.getThreadPoolForScanPrefetch());
   }
 
   /**
@@ -173,7 +174,8 @@ public class Snapshot {
         session.getRegionStoreClientBuilder(),
         prefix,
         nextPrefix,
-        timestamp.getVersion());
+        timestamp.getVersion(),
+        session.getThreadPoolForScanPrefetch());
   }
 
   public TiConfiguration getConf() {
@@ -35,37 +35,80 @@ import static org.tikv.common.ConfigUtils.DEF_METRICS_ENABLE;
 import static org.tikv.common.ConfigUtils.DEF_METRICS_PORT;
 import static org.tikv.common.ConfigUtils.DEF_PD_ADDRESSES;
 import static org.tikv.common.ConfigUtils.DEF_REPLICA_READ;
+import static org.tikv.common.ConfigUtils.DEF_REPLICA_READ_LATENCY_AWARE;
 import static org.tikv.common.ConfigUtils.DEF_SCAN_BATCH_SIZE;
 import static org.tikv.common.ConfigUtils.DEF_SCAN_TIMEOUT;
 import static org.tikv.common.ConfigUtils.DEF_SHOW_ROWID;
 import static org.tikv.common.ConfigUtils.DEF_TABLE_SCAN_CONCURRENCY;
 import static org.tikv.common.ConfigUtils.DEF_TIFLASH_ENABLE;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_API_VERSION;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_BATCH_COMMANDS_ENABLE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_BATCH_COMMANDS_MAX_BATCH_SIZE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_BATCH_COMMANDS_MAX_WAIT_IN_US;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_BO_REGION_MISS_BASE_IN_MS;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_CONN_RECYCLE_TIME;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_ENABLE_ATOMIC_FOR_CAS;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_GRPC_CHANNEL_POOL_SIZE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_GRPC_COMPRESSION_BATCH_WRITE_ENABLE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_GRPC_COMPRESSION_CODEC;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_GRPC_COMPRESSION_COPROCESSOR_ENABLE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_GRPC_COMPRESSION_MIN_MESSAGE_SIZE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_GRPC_COMPRESSION_SCAN_ENABLE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_GRPC_EPOLL_ENABLE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_GRPC_EVENT_LOOP_THREADS;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_GRPC_IDLE_TIMEOUT;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_GRPC_INGEST_TIMEOUT;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_GRPC_KEEPALIVE_TIME;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_GRPC_KEEPALIVE_TIMEOUT;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_GRPC_RECEIVE_BUFFER_SIZE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_GRPC_TCP_NO_DELAY;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_GRPC_WARM_UP_TIMEOUT;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_IMPORTER_MAX_KV_BATCH_BYTES;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_IMPORTER_MAX_KV_BATCH_SIZE;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_NETWORK_MAPPING_NAME;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_PD_FIRST_GET_MEMBER_TIMEOUT;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_ADAPTIVE_BATCH_ENABLE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_ADAPTIVE_BATCH_TARGET_LATENCY_IN_MS;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_ASYNC_RETRY_CONCURRENCY;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_BATCH_READ_TIMEOUT_IN_MS;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_BATCH_WRITE_TIMEOUT_IN_MS;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_CHECKSUM_TIMEOUT_IN_MS;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_CLEAN_TIMEOUT_IN_MS;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_DEFAULT_BACKOFF_IN_MS;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_HEDGED_READ_DELAY_IN_MS;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_HEDGED_READ_ENABLE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_HEDGED_READ_PERCENTILE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_NON_BLOCKING_BACKOFF_ENABLE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_PARALLEL_SCAN_CONCURRENCY;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_PARALLEL_SCAN_MAX_BUFFERED_BYTES;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_READ_CACHE_CAPACITY;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_READ_CACHE_ENABLE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_READ_CACHE_TTL_IN_MS;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_READ_TIMEOUT_IN_MS;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_SCAN_SLOWLOG_IN_MS;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_SCAN_TIMEOUT_IN_MS;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_WRITE_TIMEOUT_IN_MS;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_RAWKV_ZERO_COPY_READ_ENABLE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_REGION_CACHE_MAX_SIZE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_REGION_CACHE_REFRESH_INTERVAL_IN_MS;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_REGION_CACHE_REFRESH_MAX_REGIONS;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_REGION_CACHE_SNAPSHOT_INTERVAL_IN_MS;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_REGION_CACHE_SNAPSHOT_PATH;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_REGION_PREFETCH_WINDOW;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_SCAN_PREFETCH_CONCURRENCY;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_SCAN_PREFETCH_DEPTH;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_SCAN_PREFETCH_MAX_BYTES;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_SCAN_REGIONS_LIMIT;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_SCATTER_WAIT_SECONDS;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_STORE_CONCURRENCY_LIMIT_ENABLE;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_STORE_CONCURRENCY_LIMIT_INITIAL;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_STORE_CONCURRENCY_LIMIT_MAX;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_STORE_CONCURRENCY_LIMIT_MAX_WAIT_IN_MS;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_TLS_ENABLE;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_TLS_RELOAD_INTERVAL;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_TSO_BATCH_MAX_SIZE;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_USE_JKS;
+import static org.tikv.common.ConfigUtils.DEF_TIKV_WARM_UP_CONCURRENCY;
 import static org.tikv.common.ConfigUtils.DEF_TIKV_WARM_UP_ENABLE;
 import static org.tikv.common.ConfigUtils.DEF_TIMEOUT;
 import static org.tikv.common.ConfigUtils.DEF_TiKV_CIRCUIT_BREAK_ATTEMPT_REQUEST_COUNT;
@@ -84,6 +127,9 @@ import static org.tikv.common.ConfigUtils.READ_COMMITTED_ISOLATION_LEVEL;
 import static org.tikv.common.ConfigUtils.SNAPSHOT_ISOLATION_LEVEL;
 import static org.tikv.common.ConfigUtils.TIFLASH_ENABLE;
 import static org.tikv.common.ConfigUtils.TIKV_API_VERSION;
+import static org.tikv.common.ConfigUtils.TIKV_BATCH_COMMANDS_ENABLE;
+import static org.tikv.common.ConfigUtils.TIKV_BATCH_COMMANDS_MAX_BATCH_SIZE;
+import static org.tikv.common.ConfigUtils.TIKV_BATCH_COMMANDS_MAX_WAIT_IN_US;
 import static org.tikv.common.ConfigUtils.TIKV_BATCH_DELETE_CONCURRENCY;
 import static org.tikv.common.ConfigUtils.TIKV_BATCH_GET_CONCURRENCY;
 import static org.tikv.common.ConfigUtils.TIKV_BATCH_PUT_CONCURRENCY;
@@ -94,6 +140,14 @@ import static org.tikv.common.ConfigUtils.TIKV_DB_PREFIX;
 import static org.tikv.common.ConfigUtils.TIKV_DELETE_RANGE_CONCURRENCY;
 import static org.tikv.common.ConfigUtils.TIKV_ENABLE_ATOMIC_FOR_CAS;
 import static org.tikv.common.ConfigUtils.TIKV_ENABLE_GRPC_FORWARD;
+import static org.tikv.common.ConfigUtils.TIKV_GRPC_CHANNEL_POOL_SIZE;
+import static org.tikv.common.ConfigUtils.TIKV_GRPC_COMPRESSION_BATCH_WRITE_ENABLE;
+import static org.tikv.common.ConfigUtils.TIKV_GRPC_COMPRESSION_CODEC;
+import static org.tikv.common.ConfigUtils.TIKV_GRPC_COMPRESSION_COPROCESSOR_ENABLE;
+import static org.tikv.common.ConfigUtils.TIKV_GRPC_COMPRESSION_MIN_MESSAGE_SIZE;
+import static org.tikv.common.ConfigUtils.TIKV_GRPC_COMPRESSION_SCAN_ENABLE;
+import static org.tikv.common.ConfigUtils.TIKV_GRPC_EPOLL_ENABLE;
+import static org.tikv.common.ConfigUtils.TIKV_GRPC_EVENT_LOOP_THREADS;
 import static org.tikv.common.ConfigUtils.TIKV_GRPC_FORWARD_TIMEOUT;
 import static org.tikv.common.ConfigUtils.TIKV_GRPC_HEALTH_CHECK_TIMEOUT;
 import static org.tikv.common.ConfigUtils.TIKV_GRPC_IDLE_TIMEOUT;
@@ -101,8 +155,10 @@ import static org.tikv.common.ConfigUtils.TIKV_GRPC_INGEST_TIMEOUT;
 import static org.tikv.common.ConfigUtils.TIKV_GRPC_KEEPALIVE_TIME;
 import static org.tikv.common.ConfigUtils.TIKV_GRPC_KEEPALIVE_TIMEOUT;
 import static org.tikv.common.ConfigUtils.TIKV_GRPC_MAX_FRAME_SIZE;
+import static org.tikv.common.ConfigUtils.TIKV_GRPC_RECEIVE_BUFFER_SIZE;
 import static org.tikv.common.ConfigUtils.TIKV_GRPC_SCAN_BATCH_SIZE;
 import static org.tikv.common.ConfigUtils.TIKV_GRPC_SCAN_TIMEOUT;
+import static org.tikv.common.ConfigUtils.TIKV_GRPC_TCP_NO_DELAY;
 import static org.tikv.common.ConfigUtils.TIKV_GRPC_TIMEOUT;
 import static org.tikv.common.ConfigUtils.TIKV_GRPC_WARM_UP_TIMEOUT;
 import static org.tikv.common.ConfigUtils.TIKV_HEALTH_CHECK_PERIOD_DURATION;
@@ -123,12 +179,25 @@ import static org.tikv.common.ConfigUtils.TIKV_METRICS_PORT;
 import static org.tikv.common.ConfigUtils.TIKV_NETWORK_MAPPING_NAME;
 import static org.tikv.common.ConfigUtils.TIKV_PD_ADDRESSES;
 import static org.tikv.common.ConfigUtils.TIKV_PD_FIRST_GET_MEMBER_TIMEOUT;
+import static org.tikv.common.ConfigUtils.TIKV_RAWKV_ADAPTIVE_BATCH_ENABLE;
+import static org.tikv.common.ConfigUtils.TIKV_RAWKV_ADAPTIVE_BATCH_TARGET_LATENCY_IN_MS;
+import static org.tikv.common.ConfigUtils.TIKV_RAWKV_ASYNC_RETRY_CONCURRENCY;
 import static org.tikv.common.ConfigUtils.TIKV_RAWKV_BATCH_READ_SLOWLOG_IN_MS;
 import static org.tikv.common.ConfigUtils.TIKV_RAWKV_BATCH_READ_TIMEOUT_IN_MS;
 import static org.tikv.common.ConfigUtils.TIKV_RAWKV_BATCH_WRITE_SLOWLOG_IN_MS;
 import static org.tikv.common.ConfigUtils.TIKV_RAWKV_BATCH_WRITE_TIMEOUT_IN_MS;
+import static org.tikv.common.ConfigUtils.TIKV_RAWKV_CHECKSUM_TIMEOUT_IN_MS;
 import static org.tikv.common.ConfigUtils.TIKV_RAWKV_CLEAN_TIMEOUT_IN_MS;
 import static org.tikv.common.ConfigUtils.TIKV_RAWKV_DEFAULT_BACKOFF_IN_MS;
+import static org.tikv.common.ConfigUtils.TIKV_RAWKV_HEDGED_READ_DELAY_IN_MS;
+import static org.tikv.common.ConfigUtils.TIKV_RAWKV_HEDGED_READ_ENABLE;
+import static org.tikv.common.ConfigUtils.TIKV_RAWKV_HEDGED_READ_PERCENTILE;
+import static org.tikv.common.ConfigUtils.TIKV_RAWKV_NON_BLOCKING_BACKOFF_ENABLE;
+import static org.tikv.common.ConfigUtils.TIKV_RAWKV_PARALLEL_SCAN_CONCURRENCY;
+import static org.tikv.common.ConfigUtils.TIKV_RAWKV_PARALLEL_SCAN_MAX_BUFFERED_BYTES;
+import static org.tikv.common.ConfigUtils.TIKV_RAWKV_READ_CACHE_CAPACITY;
+import static org.tikv.common.ConfigUtils.TIKV_RAWKV_READ_CACHE_ENABLE;
+import static org.tikv.common.ConfigUtils.TIKV_RAWKV_READ_CACHE_TTL_IN_MS;
 import static org.tikv.common.ConfigUtils.TIKV_RAWKV_READ_SLOWLOG_IN_MS;
 import static org.tikv.common.ConfigUtils.TIKV_RAWKV_READ_TIMEOUT_IN_MS;
 import static org.tikv.common.ConfigUtils.TIKV_RAWKV_SCAN_SLOWLOG_IN_MS;
@@ -136,17 +205,34 @@ import static org.tikv.common.ConfigUtils.TIKV_RAWKV_SCAN_TIMEOUT_IN_MS;
 import static org.tikv.common.ConfigUtils.TIKV_RAWKV_SERVER_SLOWLOG_FACTOR;
 import static org.tikv.common.ConfigUtils.TIKV_RAWKV_WRITE_SLOWLOG_IN_MS;
 import static org.tikv.common.ConfigUtils.TIKV_RAWKV_WRITE_TIMEOUT_IN_MS;
+import static org.tikv.common.ConfigUtils.TIKV_RAWKV_ZERO_COPY_READ_ENABLE;
+import static org.tikv.common.ConfigUtils.TIKV_REGION_CACHE_MAX_SIZE;
+import static org.tikv.common.ConfigUtils.TIKV_REGION_CACHE_REFRESH_INTERVAL_IN_MS;
+import static org.tikv.common.ConfigUtils.TIKV_REGION_CACHE_REFRESH_MAX_REGIONS;
+import static org.tikv.common.ConfigUtils.TIKV_REGION_CACHE_SNAPSHOT_INTERVAL_IN_MS;
+import static org.tikv.common.ConfigUtils.TIKV_REGION_CACHE_SNAPSHOT_PATH;
+import static org.tikv.common.ConfigUtils.TIKV_REGION_PREFETCH_WINDOW;
 import static org.tikv.common.ConfigUtils.TIKV_REPLICA_READ;
+import static org.tikv.common.ConfigUtils.TIKV_REPLICA_READ_LATENCY_AWARE;
 import static org.tikv.common.ConfigUtils.TIKV_REQUEST_COMMAND_PRIORITY;
 import static org.tikv.common.ConfigUtils.TIKV_REQUEST_ISOLATION_LEVEL;
+import static org.tikv.common.ConfigUtils.TIKV_SCAN_PREFETCH_CONCURRENCY;
+import static org.tikv.common.ConfigUtils.TIKV_SCAN_PREFETCH_DEPTH;
+import static org.tikv.common.ConfigUtils.TIKV_SCAN_PREFETCH_MAX_BYTES;
 import static org.tikv.common.ConfigUtils.TIKV_SCAN_REGIONS_LIMIT;
 import static org.tikv.common.ConfigUtils.TIKV_SCATTER_WAIT_SECONDS;
 import static org.tikv.common.ConfigUtils.TIKV_SHOW_ROWID;
+import static org.tikv.common.ConfigUtils.TIKV_STORE_CONCURRENCY_LIMIT_ENABLE;
+import static org.tikv.common.ConfigUtils.TIKV_STORE_CONCURRENCY_LIMIT_INITIAL;
+import static org.tikv.common.ConfigUtils.TIKV_STORE_CONCURRENCY_LIMIT_MAX;
+import static org.tikv.common.ConfigUtils.TIKV_STORE_CONCURRENCY_LIMIT_MAX_WAIT_IN_MS;
 import static org.tikv.common.ConfigUtils.TIKV_TABLE_SCAN_CONCURRENCY;
 import static org.tikv.common.ConfigUtils.TIKV_TLS_ENABLE;
 import static org.tikv.common.ConfigUtils.TIKV_TLS_RELOAD_INTERVAL;
 import static org.tikv.common.ConfigUtils.TIKV_TRUST_CERT_COLLECTION;
+import static org.tikv.common.ConfigUtils.TIKV_TSO_BATCH_MAX_SIZE;
 import static org.tikv.common.ConfigUtils.TIKV_USE_JKS;
+import static org.tikv.common.ConfigUtils.TIKV_WARM_UP_CONCURRENCY;
 import static org.tikv.common.ConfigUtils.TIKV_WARM_UP_ENABLE;
 import static org.tikv.common.ConfigUtils.TXN_KV_MODE;
 import static org.tikv.common.ConfigUtils.TiKV_CIRCUIT_BREAK_ATTEMPT_REQUEST_COUNT;
@@ -157,6 +243,7 @@ import static org.tikv.common.ConfigUtils.TiKV_CIRCUIT_BREAK_ENABLE;
 import static org.tikv.common.ConfigUtils.TiKV_CIRCUIT_BREAK_SLEEP_WINDOW_IN_SECONDS;
 
 import com.google.protobuf.ByteString;
+import io.grpc.CompressorRegistry;
 import io.grpc.Metadata;
 import java.io.IOException;
 import java.io.InputStream;
@@ -175,6 +262,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tikv.common.pd.PDUtils;
+import org.tikv.common.replica.LatencyAwareReplicaSelector;
 import org.tikv.common.replica.ReplicaSelector;
 import org.tikv.kvproto.Kvrpcpb;
 import org.tikv.kvproto.Kvrpcpb.CommandPri;
@@ -251,6 +339,7 @@ public class TiConfiguration implements Serializable {
     setIfMissing(TIKV_BATCH_DELETE_CONCURRENCY, DEF_BATCH_DELETE_CONCURRENCY);
     setIfMissing(TIKV_BATCH_SCAN_CONCURRENCY, DEF_BATCH_SCAN_CONCURRENCY);
     setIfMissing(TIKV_DELETE_RANGE_CONCURRENCY, DEF_DELETE_RANGE_CONCURRENCY);
+    setIfMissing(TIKV_RAWKV_ASYNC_RETRY_CONCURRENCY, DEF_TIKV_RAWKV_ASYNC_RETRY_CONCURRENCY);
     setIfMissing(TIKV_REQUEST_COMMAND_PRIORITY, LOW_COMMAND_PRIORITY);
     setIfMissing(TIKV_REQUEST_ISOLATION_LEVEL, SNAPSHOT_ISOLATION_LEVEL);
     setIfMissing(TIKV_REQUEST_ISOLATION_LEVEL, SNAPSHOT_ISOLATION_LEVEL);
@@ -260,6 +349,7 @@ public class TiConfiguration implements Serializable {
     setIfMissing(TIKV_KV_CLIENT_CONCURRENCY, DEF_KV_CLIENT_CONCURRENCY);
     setIfMissing(TIKV_KV_MODE, TXN_KV_MODE);
     setIfMissing(TIKV_REPLICA_READ, DEF_REPLICA_READ);
+    setIfMissing(TIKV_REPLICA_READ_LATENCY_AWARE, DEF_REPLICA_READ_LATENCY_AWARE);
     setIfMissing(TIKV_METRICS_ENABLE, DEF_METRICS_ENABLE);
     setIfMissing(TIKV_METRICS_PORT, DEF_METRICS_PORT);
     setIfMissing(TIKV_NETWORK_MAPPING_NAME, DEF_TIKV_NETWORK_MAPPING_NAME);
@@ -274,16 +364,31 @@ public class TiConfiguration implements Serializable {
     setIfMissing(TIKV_GRPC_KEEPALIVE_TIME, DEF_TIKV_GRPC_KEEPALIVE_TIME);
     setIfMissing(TIKV_GRPC_KEEPALIVE_TIMEOUT, DEF_TIKV_GRPC_KEEPALIVE_TIMEOUT);
     setIfMissing(TIKV_GRPC_IDLE_TIMEOUT, DEF_TIKV_GRPC_IDLE_TIMEOUT);
+    setIfMissing(TIKV_GRPC_CHANNEL_POOL_SIZE, DEF_TIKV_GRPC_CHANNEL_POOL_SIZE);
+    setIfMissing(TIKV_GRPC_EPOLL_ENABLE, DEF_TIKV_GRPC_EPOLL_ENABLE);
+    setIfMissing(TIKV_GRPC_EVENT_LOOP_THREADS, DEF_TIKV_GRPC_EVENT_LOOP_THREADS);
+    setIfMissing(TIKV_GRPC_TCP_NO_DELAY, DEF_TIKV_GRPC_TCP_NO_DELAY);
+    setIfMissing(TIKV_GRPC_RECEIVE_BUFFER_SIZE, DEF_TIKV_GRPC_RECEIVE_BUFFER_SIZE);
+    setIfMissing(TIKV_GRPC_COMPRESSION_CODEC, DEF_TIKV_GRPC_COMPRESSION_CODEC);
+    setIfMissing(
+        TIKV_GRPC_COMPRESSION_BATCH_WRITE_ENABLE, DEF_TIKV_GRPC_COMPRESSION_BATCH_WRITE_ENABLE);
+    setIfMissing(TIKV_GRPC_COMPRESSION_SCAN_ENABLE, DEF_TIKV_GRPC_COMPRESSION_SCAN_ENABLE);
+    setIfMissing(
+        TIKV_GRPC_COMPRESSION_COPROCESSOR_ENABLE, DEF_TIKV_GRPC_COMPRESSION_COPROCESSOR_ENABLE);
+    setIfMissing(
+        TIKV_GRPC_COMPRESSION_MIN_MESSAGE_SIZE, DEF_TIKV_GRPC_COMPRESSION_MIN_MESSAGE_SIZE);
     setIfMissing(TIKV_TLS_ENABLE, DEF_TIKV_TLS_ENABLE);
     setIfMissing(TIKV_USE_JKS, DEF_TIKV_USE_JKS);
     setIfMissing(TIFLASH_ENABLE, DEF_TIFLASH_ENABLE);
     setIfMissing(TIKV_WARM_UP_ENABLE, DEF_TIKV_WARM_UP_ENABLE);
+    setIfMissing(TIKV_WARM_UP_CONCURRENCY, DEF_TIKV_WARM_UP_CONCURRENCY);
     setIfMissing(TIKV_RAWKV_READ_TIMEOUT_IN_MS, DEF_TIKV_RAWKV_READ_TIMEOUT_IN_MS);
     setIfMissing(TIKV_RAWKV_WRITE_TIMEOUT_IN_MS, DEF_TIKV_RAWKV_WRITE_TIMEOUT_IN_MS);
     setIfMissing(TIKV_RAWKV_BATCH_READ_TIMEOUT_IN_MS, DEF_TIKV_RAWKV_BATCH_READ_TIMEOUT_IN_MS);
     setIfMissing(TIKV_RAWKV_BATCH_WRITE_TIMEOUT_IN_MS, DEF_TIKV_RAWKV_BATCH_WRITE_TIMEOUT_IN_MS);
     setIfMissing(TIKV_RAWKV_SCAN_TIMEOUT_IN_MS, DEF_TIKV_RAWKV_SCAN_TIMEOUT_IN_MS);
     setIfMissing(TIKV_RAWKV_CLEAN_TIMEOUT_IN_MS, DEF_TIKV_RAWKV_CLEAN_TIMEOUT_IN_MS);
+    setIfMissing(TIKV_RAWKV_CHECKSUM_TIMEOUT_IN_MS, DEF_TIKV_RAWKV_CHECKSUM_TIMEOUT_IN_MS);
     setIfMissing(TIKV_BO_REGION_MISS_BASE_IN_MS, DEF_TIKV_BO_REGION_MISS_BASE_IN_MS);
     setIfMissing(TIKV_RAWKV_SCAN_SLOWLOG_IN_MS, DEF_TIKV_RAWKV_SCAN_SLOWLOG_IN_MS);
     setIfMissing(TiKV_CIRCUIT_BREAK_ENABLE, DEF_TiKV_CIRCUIT_BREAK_ENABLE);
@@ -301,6 +406,44 @@ public class TiConfiguration implements Serializable {
     setIfMissing(
         TiKV_CIRCUIT_BREAK_ATTEMPT_REQUEST_COUNT, DEF_TiKV_CIRCUIT_BREAK_ATTEMPT_REQUEST_COUNT);
     setIfMissing(TIKV_SCAN_REGIONS_LIMIT, DEF_TIKV_SCAN_REGIONS_LIMIT);
+    setIfMissing(TIKV_BATCH_COMMANDS_ENABLE, DEF_TIKV_BATCH_COMMANDS_ENABLE);
+    setIfMissing(TIKV_BATCH_COMMANDS_MAX_BATCH_SIZE, DEF_TIKV_BATCH_COMMANDS_MAX_BATCH_SIZE);
+    setIfMissing(TIKV_BATCH_COMMANDS_MAX_WAIT_IN_US, DEF_TIKV_BATCH_COMMANDS_MAX_WAIT_IN_US);
+    setIfMissing(TIKV_RAWKV_READ_CACHE_ENABLE, DEF_TIKV_RAWKV_READ_CACHE_ENABLE);
+    setIfMissing(TIKV_RAWKV_READ_CACHE_CAPACITY, DEF_TIKV_RAWKV_READ_CACHE_CAPACITY);
+    setIfMissing(TIKV_RAWKV_READ_CACHE_TTL_IN_MS, DEF_TIKV_RAWKV_READ_CACHE_TTL_IN_MS);
+    setIfMissing(TIKV_SCAN_PREFETCH_DEPTH, DEF_TIKV_SCAN_PREFETCH_DEPTH);
+    setIfMissing(TIKV_SCAN_PREFETCH_MAX_BYTES, DEF_TIKV_SCAN_PREFETCH_MAX_BYTES);
+    setIfMissing(TIKV_SCAN_PREFETCH_CONCURRENCY, DEF_TIKV_SCAN_PREFETCH_CONCURRENCY);
+    setIfMissing(TIKV_RAWKV_PARALLEL_SCAN_CONCURRENCY, DEF_TIKV_RAWKV_PARALLEL_SCAN_CONCURRENCY);
+    setIfMissing(
+        TIKV_RAWKV_PARALLEL_SCAN_MAX_BUFFERED_BYTES,
+        DEF_TIKV_RAWKV_PARALLEL_SCAN_MAX_BUFFERED_BYTES);
+    setIfMissing(TIKV_RAWKV_ADAPTIVE_BATCH_ENABLE, DEF_TIKV_RAWKV_ADAPTIVE_BATCH_ENABLE);
+    setIfMissing(
+        TIKV_RAWKV_ADAPTIVE_BATCH_TARGET_LATENCY_IN_MS,
+        DEF_TIKV_RAWKV_ADAPTIVE_BATCH_TARGET_LATENCY_IN_MS);
+    setIfMissing(TIKV_RAWKV_ZERO_COPY_READ_ENABLE, DEF_TIKV_RAWKV_ZERO_COPY_READ_ENABLE);
+    setIfMissing(TIKV_RAWKV_HEDGED_READ_ENABLE, DEF_TIKV_RAWKV_HEDGED_READ_ENABLE);
+    setIfMissing(TIKV_RAWKV_HEDGED_READ_DELAY_IN_MS, DEF_TIKV_RAWKV_HEDGED_READ_DELAY_IN_MS);
+    setIfMissing(TIKV_RAWKV_HEDGED_READ_PERCENTILE, DEF_TIKV_RAWKV_HEDGED_READ_PERCENTILE);
+    setIfMissing(
+        TIKV_RAWKV_NON_BLOCKING_BACKOFF_ENABLE, DEF_TIKV_RAWKV_NON_BLOCKING_BACKOFF_ENABLE);
+    setIfMissing(TIKV_STORE_CONCURRENCY_LIMIT_ENABLE, DEF_TIKV_STORE_CONCURRENCY_LIMIT_ENABLE);
+    setIfMissing(TIKV_STORE_CONCURRENCY_LIMIT_INITIAL, DEF_TIKV_STORE_CONCURRENCY_LIMIT_INITIAL);
+    setIfMissing(TIKV_STORE_CONCURRENCY_LIMIT_MAX, DEF_TIKV_STORE_CONCURRENCY_LIMIT_MAX);
+    setIfMissing(
+        TIKV_STORE_CONCURRENCY_LIMIT_MAX_WAIT_IN_MS,
+        DEF_TIKV_STORE_CONCURRENCY_LIMIT_MAX_WAIT_IN_MS);
+    setIfMissing(TIKV_TSO_BATCH_MAX_SIZE, DEF_TIKV_TSO_BATCH_MAX_SIZE);
+    setIfMissing(TIKV_REGION_PREFETCH_WINDOW, DEF_TIKV_REGION_PREFETCH_WINDOW);
+    setIfMissing(TIKV_REGION_CACHE_SNAPSHOT_PATH, DEF_TIKV_REGION_CACHE_SNAPSHOT_PATH);
+    setIfMissing(
+        TIKV_REGION_CACHE_SNAPSHOT_INTERVAL_IN_MS, DEF_TIKV_REGION_CACHE_SNAPSHOT_INTERVAL_IN_MS);
+    setIfMissing(TIKV_REGION_CACHE_MAX_SIZE, DEF_TIKV_REGION_CACHE_MAX_SIZE);
+    setIfMissing(
+        TIKV_REGION_CACHE_REFRESH_INTERVAL_IN_MS, DEF_TIKV_REGION_CACHE_REFRESH_INTERVAL_IN_MS);
+    setIfMissing(TIKV_REGION_CACHE_REFRESH_MAX_REGIONS, DEF_TIKV_REGION_CACHE_REFRESH_MAX_REGIONS);
 
     setIfMissing(TIKV_API_VERSION, DEF_TIKV_API_VERSION);
   }
@@ -480,6 +623,7 @@ public class TiConfiguration implements Serializable {
   private int batchDeleteConcurrency = getInt(TIKV_BATCH_DELETE_CONCURRENCY);
   private int batchScanConcurrency = getInt(TIKV_BATCH_SCAN_CONCURRENCY);
   private int deleteRangeConcurrency = getInt(TIKV_DELETE_RANGE_CONCURRENCY);
+  private int rawKVAsyncRetryConcurrency = getInt(TIKV_RAWKV_ASYNC_RETRY_CONCURRENCY);
   private CommandPri commandPriority = getCommandPri(TIKV_REQUEST_COMMAND_PRIORITY);
   private IsolationLevel isolationLevel = getIsolationLevel(TIKV_REQUEST_ISOLATION_LEVEL);
   private boolean showRowId = getBoolean(TIKV_SHOW_ROWID);
@@ -489,6 +633,7 @@ public class TiConfiguration implements Serializable {
 
   private int kvClientConcurrency = getInt(TIKV_KV_CLIENT_CONCURRENCY);
   private ReplicaRead replicaRead = getReplicaRead(TIKV_REPLICA_READ);
+  private boolean replicaReadLatencyAware = getBoolean(TIKV_REPLICA_READ_LATENCY_AWARE);
   private ReplicaSelector internalReplicaSelector = getReplicaSelector(replicaRead);
   private ReplicaSelector replicaSelector;
 
@@ -515,6 +660,7 @@ public class TiConfiguration implements Serializable {
   private int rawKVBatchWriteTimeoutInMS = getInt(TIKV_RAWKV_BATCH_WRITE_TIMEOUT_IN_MS);
   private int rawKVScanTimeoutInMS = getInt(TIKV_RAWKV_SCAN_TIMEOUT_IN_MS);
   private int rawKVCleanTimeoutInMS = getInt(TIKV_RAWKV_CLEAN_TIMEOUT_IN_MS);
+  private int rawKVChecksumTimeoutInMS = getInt(TIKV_RAWKV_CHECKSUM_TIMEOUT_IN_MS);
   private Integer rawKVReadSlowLogInMS = getIntOption(TIKV_RAWKV_READ_SLOWLOG_IN_MS).orElse(null);
   private Integer rawKVWriteSlowLogInMS = getIntOption(TIKV_RAWKV_WRITE_SLOWLOG_IN_MS).orElse(null);
   private Integer rawKVBatchReadSlowLogInMS =
@@ -539,12 +685,25 @@ public class TiConfiguration implements Serializable {
 
   private final boolean tiFlashEnable = getBoolean(TIFLASH_ENABLE);
   private boolean warmUpEnable = getBoolean(TIKV_WARM_UP_ENABLE);
+  private int warmUpConcurrency = getInt(TIKV_WARM_UP_CONCURRENCY);
 
   private boolean isTest = false;
 
   private int keepaliveTime = getInt(TIKV_GRPC_KEEPALIVE_TIME);
   private int keepaliveTimeout = getInt(TIKV_GRPC_KEEPALIVE_TIMEOUT);
   private int idleTimeout = getInt(TIKV_GRPC_IDLE_TIMEOUT);
+  private int channelPoolSize = getInt(TIKV_GRPC_CHANNEL_POOL_SIZE);
+  private boolean grpcEpollEnable = getBoolean(TIKV_GRPC_EPOLL_ENABLE);
+  private int grpcEventLoopThreads = getInt(TIKV_GRPC_EVENT_LOOP_THREADS);
+  private boolean grpcTcpNoDelay = getBoolean(TIKV_GRPC_TCP_NO_DELAY);
+  private int grpcReceiveBufferSize = getInt(TIKV_GRPC_RECEIVE_BUFFER_SIZE);
+  private String grpcCompressionCodec = get(TIKV_GRPC_COMPRESSION_CODEC);
+  private boolean grpcCompressionBatchWriteEnable =
+      getBoolean(TIKV_GRPC_COMPRESSION_BATCH_WRITE_ENABLE);
+  private boolean grpcCompressionScanEnable = getBoolean(TIKV_GRPC_COMPRESSION_SCAN_ENABLE);
+  private boolean grpcCompressionCoprocessorEnable =
+      getBoolean(TIKV_GRPC_COMPRESSION_COPROCESSOR_ENABLE);
+  private int grpcCompressionMinMessageSize = getInt(TIKV_GRPC_COMPRESSION_MIN_MESSAGE_SIZE);
 
   private boolean circuitBreakEnable = getBoolean(TiKV_CIRCUIT_BREAK_ENABLE);
   private int circuitBreakAvailabilityWindowInSeconds =
@@ -558,6 +717,52 @@ public class TiConfiguration implements Serializable {
 
   private int scanRegionsLimit = getInt(TIKV_SCAN_REGIONS_LIMIT);
 
+  private boolean batchCommandsEnable = getBoolean(TIKV_BATCH_COMMANDS_ENABLE);
+  private int batchCommandsMaxBatchSize = getInt(TIKV_BATCH_COMMANDS_MAX_BATCH_SIZE);
+  private int batchCommandsMaxWaitInUs = getInt(TIKV_BATCH_COMMANDS_MAX_WAIT_IN_US);
+
+  private boolean rawKVReadCacheEnable = getBoolean(TIKV_RAWKV_READ_CACHE_ENABLE);
+  private int rawKVReadCacheCapacity = getInt(TIKV_RAWKV_READ_CACHE_CAPACITY);
+  private int rawKVReadCacheTtlInMS = getInt(TIKV_RAWKV_READ_CACHE_TTL_IN_MS);
+
+  private int scanPrefetchDepth = getInt(TIKV_SCAN_PREFETCH_DEPTH);
+  private int scanPrefetchMaxBytes = getInt(TIKV_SCAN_PREFETCH_MAX_BYTES);
+  private int scanPrefetchConcurrency = getInt(TIKV_SCAN_PREFETCH_CONCURRENCY);
+
+  private int rawKVParallelScanConcurrency = getInt(TIKV_RAWKV_PARALLEL_SCAN_CONCURRENCY);
+  private int rawKVParallelScanMaxBufferedBytes =
+      getInt(TIKV_RAWKV_PARALLEL_SCAN_MAX_BUFFERED_BYTES);
+
+  private boolean rawKVAdaptiveBatchEnable = getBoolean(TIKV_RAWKV_ADAPTIVE_BATCH_ENABLE);
+  private int rawKVAdaptiveBatchTargetLatencyInMS =
+      getInt(TIKV_RAWKV_ADAPTIVE_BATCH_TARGET_LATENCY_IN_MS);
+
+  private boolean rawKVZeroCopyReadEnable = getBoolean(TIKV_RAWKV_ZERO_COPY_READ_ENABLE);
+
+  private boolean rawKVHedgedReadEnable = getBoolean(TIKV_RAWKV_HEDGED_READ_ENABLE);
+  private int rawKVHedgedReadDelayInMS = getInt(TIKV_RAWKV_HEDGED_READ_DELAY_IN_MS);
+  private int rawKVHedgedReadPercentile = getInt(TIKV_RAWKV_HEDGED_READ_PERCENTILE);
+
+  private boolean rawKVNonBlockingBackOffEnable =
+      getBoolean(TIKV_RAWKV_NON_BLOCKING_BACKOFF_ENABLE);
+
+  private boolean storeConcurrencyLimitEnable = getBoolean(TIKV_STORE_CONCURRENCY_LIMIT_ENABLE);
+  private int storeConcurrencyLimitInitial = getInt(TIKV_STORE_CONCURRENCY_LIMIT_INITIAL);
+  private int storeConcurrencyLimitMax = getInt(TIKV_STORE_CONCURRENCY_LIMIT_MAX);
+  private int storeConcurrencyLimitMaxWaitInMS =
+      getInt(TIKV_STORE_CONCURRENCY_LIMIT_MAX_WAIT_IN_MS);
+
+  private int tsoBatchMaxSize = getInt(TIKV_TSO_BATCH_MAX_SIZE);
+
+  private int regionPrefetchWindow = getInt(TIKV_REGION_PREFETCH_WINDOW);
+
+  private String regionCacheSnapshotPath = get(TIKV_REGION_CACHE_SNAPSHOT_PATH);
+  private int regionCacheSnapshotIntervalInMS = getInt(TIKV_REGION_CACHE_SNAPSHOT_INTERVAL_IN_MS);
+
+  private int regionCacheMaxSize = getInt(TIKV_REGION_CACHE_MAX_SIZE);
+  private int regionCacheRefreshIntervalInMS = getInt(TIKV_REGION_CACHE_REFRESH_INTERVAL_IN_MS);
+  private int regionCacheRefreshMaxRegions = getInt(TIKV_REGION_CACHE_REFRESH_MAX_REGIONS);
+
   private ApiVersion apiVersion = ApiVersion.fromInt(getInt(TIKV_API_VERSION));
 
   public enum KVMode {
@@ -776,6 +981,15 @@ public class TiConfiguration implements Serializable {
     return this;
   }
 
+  public int getRawKVAsyncRetryConcurrency() {
+    return rawKVAsyncRetryConcurrency;
+  }
+
+  public TiConfiguration setRawKVAsyncRetryConcurrency(int rawKVAsyncRetryConcurrency) {
+    this.rawKVAsyncRetryConcurrency = rawKVAsyncRetryConcurrency;
+    return this;
+  }
+
   public CommandPri getCommandPriority() {
     return commandPriority;
   }
@@ -848,13 +1062,31 @@ public class TiConfiguration implements Serializable {
     return this;
   }
 
+  public boolean isReplicaReadLatencyAware() {
+    return replicaReadLatencyAware;
+  }
+
+  /**
+   * Select the fastest replica for follower and leader-and-follower reads, from the latencies and
+   * the requests in flight of the stores, instead of a random one.
+   */
+  public TiConfiguration setReplicaReadLatencyAware(boolean replicaReadLatencyAware) {
+    this.replicaReadLatencyAware = replicaReadLatencyAware;
+    this.internalReplicaSelector = getReplicaSelector(this.replicaRead);
+    return this;
+  }
+
   private ReplicaSelector getReplicaSelector(ReplicaRead replicaRead) {
     if (TiConfiguration.ReplicaRead.LEADER.equals(replicaRead)) {
       return ReplicaSelector.LEADER;
     } else if (TiConfiguration.ReplicaRead.FOLLOWER.equals(replicaRead)) {
-      return ReplicaSelector.FOLLOWER;
+      return replicaReadLatencyAware
+          ? new LatencyAwareReplicaSelector(false)
+          : ReplicaSelector.FOLLOWER;
     } else if (TiConfiguration.ReplicaRead.LEADER_AND_FOLLOWER.equals(replicaRead)) {
-      return ReplicaSelector.LEADER_AND_FOLLOWER;
+      return replicaReadLatencyAware
+          ? new LatencyAwareReplicaSelector(true)
+          : ReplicaSelector.LEADER_AND_FOLLOWER;
     } else {
       return null;
     }
@@ -998,6 +1230,125 @@ public class TiConfiguration implements Serializable {
     this.idleTimeout = timeout;
   }
 
+  public int getChannelPoolSize() {
+    return channelPoolSize;
+  }
+
+  /** Set the number of connections to each TiKV or PD address. */
+  public TiConfiguration setChannelPoolSize(int channelPoolSize) {
+    if (channelPoolSize <= 0) {
+      throw new IllegalArgumentException("grpc.channel_pool_size must be positive");
+    }
+    this.channelPoolSize = channelPoolSize;
+    return this;
+  }
+
+  public boolean isGrpcEpollEnable() {
+    return grpcEpollEnable;
+  }
+
+  /** Use the native epoll transport of Netty, it falls back to NIO if epoll is not available. */
+  public TiConfiguration setGrpcEpollEnable(boolean grpcEpollEnable) {
+    this.grpcEpollEnable = grpcEpollEnable;
+    return this;
+  }
+
+  public int getGrpcEventLoopThreads() {
+    return grpcEventLoopThreads;
+  }
+
+  /**
+   * Set the number of threads of the event loop group shared by all the channels, 0 to use the
+   * default event loop group of gRPC unless epoll is enabled.
+   */
+  public TiConfiguration setGrpcEventLoopThreads(int grpcEventLoopThreads) {
+    if (grpcEventLoopThreads < 0) {
+      throw new IllegalArgumentException("grpc.event_loop_threads must not be negative");
+    }
+    this.grpcEventLoopThreads = grpcEventLoopThreads;
+    return this;
+  }
+
+  public boolean isGrpcTcpNoDelay() {
+    return grpcTcpNoDelay;
+  }
+
+  public TiConfiguration setGrpcTcpNoDelay(boolean grpcTcpNoDelay) {
+    this.grpcTcpNoDelay = grpcTcpNoDelay;
+    return this;
+  }
+
+  public int getGrpcReceiveBufferSize() {
+    return grpcReceiveBufferSize;
+  }
+
+  /** Set SO_RCVBUF of the connections, 0 to use the default of the OS. */
+  public TiConfiguration setGrpcReceiveBufferSize(int grpcReceiveBufferSize) {
+    if (grpcReceiveBufferSize < 0) {
+      throw new IllegalArgumentException("grpc.receive_buffer_size must not be negative");
+    }
+    this.grpcReceiveBufferSize = grpcReceiveBufferSize;
+    return this;
+  }
+
+  public String getGrpcCompressionCodec() {
+    return grpcCompressionCodec;
+  }
+
+  /** Set the compressor of the compressed requests, it must be registered in gRPC, e.g. gzip. */
+  public TiConfiguration setGrpcCompressionCodec(String grpcCompressionCodec) {
+    if (CompressorRegistry.getDefaultInstance().lookupCompressor(grpcCompressionCodec) == null) {
+      throw new IllegalArgumentException("unknown grpc.compression.codec: " + grpcCompressionCodec);
+    }
+    this.grpcCompressionCodec = grpcCompressionCodec;
+    return this;
+  }
+
+  public boolean isGrpcCompressionBatchWriteEnable() {
+    return grpcCompressionBatchWriteEnable;
+  }
+
+  /** Compress the requests of batch writes, i.e. raw batch put and delete and prewrite. */
+  public TiConfiguration setGrpcCompressionBatchWriteEnable(
+      boolean grpcCompressionBatchWriteEnable) {
+    this.grpcCompressionBatchWriteEnable = grpcCompressionBatchWriteEnable;
+    return this;
+  }
+
+  public boolean isGrpcCompressionScanEnable() {
+    return grpcCompressionScanEnable;
+  }
+
+  /** Compress the requests of scans and batch gets. */
+  public TiConfiguration setGrpcCompressionScanEnable(boolean grpcCompressionScanEnable) {
+    this.grpcCompressionScanEnable = grpcCompressionScanEnable;
+    return this;
+  }
+
+  public boolean isGrpcCompressionCoprocessorEnable() {
+    return grpcCompressionCoprocessorEnable;
+  }
+
+  /** Compress the requests of coprocessor, which carry the DAG requests and their ranges. */
+  public TiConfiguration setGrpcCompressionCoprocessorEnable(
+      boolean grpcCompressionCoprocessorEnable) {
+    this.grpcCompressionCoprocessorEnable = grpcCompressionCoprocessorEnable;
+    return this;
+  }
+
+  public int getGrpcCompressionMinMessageSize() {
+    return grpcCompressionMinMessageSize;
+  }
+
+  /** Set the size in bytes under which a request is sent uncompressed. */
+  public TiConfiguration setGrpcCompressionMinMessageSize(int grpcCompressionMinMessageSize) {
+    if (grpcCompressionMinMessageSize < 0) {
+      throw new IllegalArgumentException("grpc.compression.min_message_size must not be negative");
+    }
+    this.grpcCompressionMinMessageSize = grpcCompressionMinMessageSize;
+    return this;
+  }
+
   public boolean isTiFlashEnabled() {
     return tiFlashEnable;
   }
@@ -1010,6 +1361,18 @@ public class TiConfiguration implements Serializable {
     this.warmUpEnable = warmUpEnable;
   }
 
+  public int getWarmUpConcurrency() {
+    return warmUpConcurrency;
+  }
+
+  public TiConfiguration setWarmUpConcurrency(int warmUpConcurrency) {
+    if (warmUpConcurrency <= 0) {
+      throw new IllegalArgumentException("warm_up.concurrency must be positive");
+    }
+    this.warmUpConcurrency = warmUpConcurrency;
+    return this;
+  }
+
   public boolean isTlsEnable() {
     return tlsEnable;
   }
@@ -1139,6 +1502,14 @@ public class TiConfiguration implements Serializable {
     this.rawKVCleanTimeoutInMS = rawKVCleanTimeoutInMS;
   }
 
+  public int getRawKVChecksumTimeoutInMS() {
+    return rawKVChecksumTimeoutInMS;
+  }
+
+  public void setRawKVChecksumTimeoutInMS(int rawKVChecksumTimeoutInMS) {
+    this.rawKVChecksumTimeoutInMS = rawKVChecksumTimeoutInMS;
+  }
+
   public Integer getRawKVReadSlowLogInMS() {
     return Optional.ofNullable(rawKVReadSlowLogInMS).orElse((int) (getTimeout() * 2));
   }
@@ -1251,6 +1622,364 @@ public class TiConfiguration implements Serializable {
     this.scanRegionsLimit = scanRegionsLimit;
   }
 
+  public boolean isBatchCommandsEnable() {
+    return batchCommandsEnable;
+  }
+
+  public TiConfiguration setBatchCommandsEnable(boolean batchCommandsEnable) {
+    this.batchCommandsEnable = batchCommandsEnable;
+    return this;
+  }
+
+  public int getBatchCommandsMaxBatchSize() {
+    return batchCommandsMaxBatchSize;
+  }
+
+  public TiConfiguration setBatchCommandsMaxBatchSize(int batchCommandsMaxBatchSize) {
+    if (batchCommandsMaxBatchSize <= 0) {
+      throw new IllegalArgumentException("batch_commands.max_batch_size must be positive");
+    }
+    this.batchCommandsMaxBatchSize = batchCommandsMaxBatchSize;
+    return this;
+  }
+
+  public int getBatchCommandsMaxWaitInUs() {
+    return batchCommandsMaxWaitInUs;
+  }
+
+  public TiConfiguration setBatchCommandsMaxWaitInUs(int batchCommandsMaxWaitInUs) {
+    if (batchCommandsMaxWaitInUs < 0) {
+      throw new IllegalArgumentException("batch_commands.max_wait_in_us cannot be negative");
+    }
+    this.batchCommandsMaxWaitInUs = batchCommandsMaxWaitInUs;
+    return this;
+  }
+
+  public boolean isRawKVReadCacheEnable() {
+    return rawKVReadCacheEnable;
+  }
+
+  public TiConfiguration setRawKVReadCacheEnable(boolean rawKVReadCacheEnable) {
+    this.rawKVReadCacheEnable = rawKVReadCacheEnable;
+    return this;
+  }
+
+  public int getRawKVReadCacheCapacity() {
+    return rawKVReadCacheCapacity;
+  }
+
+  public TiConfiguration setRawKVReadCacheCapacity(int rawKVReadCacheCapacity) {
+    if (rawKVReadCacheCapacity <= 0) {
+      throw new IllegalArgumentException("rawkv.read_cache.capacity must be positive");
+    }
+    this.rawKVReadCacheCapacity = rawKVReadCacheCapacity;
+    return this;
+  }
+
+  public int getRawKVReadCacheTtlInMS() {
+    return rawKVReadCacheTtlInMS;
+  }
+
+  public TiConfiguration setRawKVReadCacheTtlInMS(int rawKVReadCacheTtlInMS) {
+    if (rawKVReadCacheTtlInMS <= 0) {
+      throw new IllegalArgumentException("rawkv.read_cache.ttl_in_ms must be positive");
+    }
+    this.rawKVReadCacheTtlInMS = rawKVReadCacheTtlInMS;
+    return this;
+  }
+
+  public int getScanPrefetchDepth() {
+    return scanPrefetchDepth;
+  }
+
+  public TiConfiguration setScanPrefetchDepth(int scanPrefetchDepth) {
+    if (scanPrefetchDepth < 0) {
+      throw new IllegalArgumentException("scan.prefetch_depth cannot be negative");
+    }
+    this.scanPrefetchDepth = scanPrefetchDepth;
+    return this;
+  }
+
+  public int getScanPrefetchMaxBytes() {
+    return scanPrefetchMaxBytes;
+  }
+
+  public TiConfiguration setScanPrefetchMaxBytes(int scanPrefetchMaxBytes) {
+    if (scanPrefetchMaxBytes <= 0) {
+      throw new IllegalArgumentException("scan.prefetch_max_bytes must be positive");
+    }
+    this.scanPrefetchMaxBytes = scanPrefetchMaxBytes;
+    return this;
+  }
+
+  public int getScanPrefetchConcurrency() {
+    return scanPrefetchConcurrency;
+  }
+
+  public TiConfiguration setScanPrefetchConcurrency(int scanPrefetchConcurrency) {
+    if (scanPrefetchConcurrency <= 0) {
+      throw new IllegalArgumentException("scan.prefetch_concurrency must be positive");
+    }
+    this.scanPrefetchConcurrency = scanPrefetchConcurrency;
+    return this;
+  }
+
+  public int getRawKVParallelScanConcurrency() {
+    return rawKVParallelScanConcurrency;
+  }
+
+  public TiConfiguration setRawKVParallelScanConcurrency(int rawKVParallelScanConcurrency) {
+    if (rawKVParallelScanConcurrency <= 0) {
+      throw new IllegalArgumentException("rawkv.parallel_scan.concurrency must be positive");
+    }
+    this.rawKVParallelScanConcurrency = rawKVParallelScanConcurrency;
+    return this;
+  }
+
+  public int getRawKVParallelScanMaxBufferedBytes() {
+    return rawKVParallelScanMaxBufferedBytes;
+  }
+
+  public TiConfiguration setRawKVParallelScanMaxBufferedBytes(
+      int rawKVParallelScanMaxBufferedBytes) {
+    if (rawKVParallelScanMaxBufferedBytes <= 0) {
+      throw new IllegalArgumentException("rawkv.parallel_scan.max_buffered_bytes must be positive");
+    }
+    this.rawKVParallelScanMaxBufferedBytes = rawKVParallelScanMaxBufferedBytes;
+    return this;
+  }
+
+  public boolean isRawKVAdaptiveBatchEnable() {
+    return rawKVAdaptiveBatchEnable;
+  }
+
+  public TiConfiguration setRawKVAdaptiveBatchEnable(boolean rawKVAdaptiveBatchEnable) {
+    this.rawKVAdaptiveBatchEnable = rawKVAdaptiveBatchEnable;
+    return this;
+  }
+
+  public int getRawKVAdaptiveBatchTargetLatencyInMS() {
+    return rawKVAdaptiveBatchTargetLatencyInMS;
+  }
+
+  public TiConfiguration setRawKVAdaptiveBatchTargetLatencyInMS(
+      int rawKVAdaptiveBatchTargetLatencyInMS) {
+    if (rawKVAdaptiveBatchTargetLatencyInMS <= 0) {
+      throw new IllegalArgumentException(
+          "rawkv.adaptive_batch.target_latency_in_ms must be positive");
+    }
+    this.rawKVAdaptiveBatchTargetLatencyInMS = rawKVAdaptiveBatchTargetLatencyInMS;
+    return this;
+  }
+
+  public boolean isRawKVZeroCopyReadEnable() {
+    return rawKVZeroCopyReadEnable;
+  }
+
+  /**
+   * Parse the responses of raw batch get and raw scan without copying the keys and values out of
+   * the received message. A key or value returned then retains the whole response it was read
+   * from, copy it if only a few of a large response are kept for long.
+   */
+  public TiConfiguration setRawKVZeroCopyReadEnable(boolean rawKVZeroCopyReadEnable) {
+    this.rawKVZeroCopyReadEnable = rawKVZeroCopyReadEnable;
+    return this;
+  }
+
+  public boolean isRawKVHedgedReadEnable() {
+    return rawKVHedgedReadEnable;
+  }
+
+  /**
+   * Send a raw get to a follower as well if the leader has not answered within the hedging delay,
+   * and take the first answer.
+   */
+  public TiConfiguration setRawKVHedgedReadEnable(boolean rawKVHedgedReadEnable) {
+    this.rawKVHedgedReadEnable = rawKVHedgedReadEnable;
+    return this;
+  }
+
+  public int getRawKVHedgedReadDelayInMS() {
+    return rawKVHedgedReadDelayInMS;
+  }
+
+  /** Set the hedging delay, or its lower bound if the delay is adaptive. */
+  public TiConfiguration setRawKVHedgedReadDelayInMS(int rawKVHedgedReadDelayInMS) {
+    if (rawKVHedgedReadDelayInMS < 0) {
+      throw new IllegalArgumentException("rawkv.hedged_read.delay_in_ms must not be negative");
+    }
+    this.rawKVHedgedReadDelayInMS = rawKVHedgedReadDelayInMS;
+    return this;
+  }
+
+  public int getRawKVHedgedReadPercentile() {
+    return rawKVHedgedReadPercentile;
+  }
+
+  /**
+   * Make the hedging delay follow the given percentile of the recent raw get latencies, e.g. 95 to
+   * hedge about 5% of the reads, or 0 to use the fixed delay.
+   */
+  public TiConfiguration setRawKVHedgedReadPercentile(int rawKVHedgedReadPercentile) {
+    if (rawKVHedgedReadPercentile < 0 || rawKVHedgedReadPercentile >= 100) {
+      throw new IllegalArgumentException("rawkv.hedged_read.percentile must be in [0, 100)");
+    }
+    this.rawKVHedgedReadPercentile = rawKVHedgedReadPercentile;
+    return this;
+  }
+
+  public boolean isRawKVNonBlockingBackOffEnable() {
+    return rawKVNonBlockingBackOffEnable;
+  }
+
+  /**
+   * Wait for the back off of a failed batch of batch get, put or delete on a timer, instead of
+   * sleeping in a thread of the batch thread pool.
+   */
+  public TiConfiguration setRawKVNonBlockingBackOffEnable(boolean rawKVNonBlockingBackOffEnable) {
+    this.rawKVNonBlockingBackOffEnable = rawKVNonBlockingBackOffEnable;
+    return this;
+  }
+
+  public boolean isStoreConcurrencyLimitEnable() {
+    return storeConcurrencyLimitEnable;
+  }
+
+  /**
+   * Limit the requests in flight to each store, with a limit adjusted from the latencies of the
+   * store, so that an overloaded store is not sent more requests than it can serve.
+   */
+  public TiConfiguration setStoreConcurrencyLimitEnable(boolean storeConcurrencyLimitEnable) {
+    this.storeConcurrencyLimitEnable = storeConcurrencyLimitEnable;
+    return this;
+  }
+
+  public int getStoreConcurrencyLimitInitial() {
+    return storeConcurrencyLimitInitial;
+  }
+
+  public TiConfiguration setStoreConcurrencyLimitInitial(int storeConcurrencyLimitInitial) {
+    if (storeConcurrencyLimitInitial <= 0) {
+      throw new IllegalArgumentException("store.concurrency_limit.initial must be positive");
+    }
+    this.storeConcurrencyLimitInitial = storeConcurrencyLimitInitial;
+    return this;
+  }
+
+  public int getStoreConcurrencyLimitMax() {
+    return storeConcurrencyLimitMax;
+  }
+
+  public TiConfiguration setStoreConcurrencyLimitMax(int storeConcurrencyLimitMax) {
+    if (storeConcurrencyLimitMax <= 0) {
+      throw new IllegalArgumentException("store.concurrency_limit.max must be positive");
+    }
+    this.storeConcurrencyLimitMax = storeConcurrencyLimitMax;
+    return this;
+  }
+
+  public int getStoreConcurrencyLimitMaxWaitInMS() {
+    return storeConcurrencyLimitMaxWaitInMS;
+  }
+
+  /**
+   * Set how long a request over the limit waits for a request in flight to finish, bounded by its
+   * deadline, before it fails. 0 fails it at once.
+   */
+  public TiConfiguration setStoreConcurrencyLimitMaxWaitInMS(int storeConcurrencyLimitMaxWaitInMS) {
+    if (storeConcurrencyLimitMaxWaitInMS < 0) {
+      throw new IllegalArgumentException(
+          "store.concurrency_limit.max_wait_in_ms must not be negative");
+    }
+    this.storeConcurrencyLimitMaxWaitInMS = storeConcurrencyLimitMaxWaitInMS;
+    return this;
+  }
+
+  public int getTsoBatchMaxSize() {
+    return tsoBatchMaxSize;
+  }
+
+  public TiConfiguration setTsoBatchMaxSize(int tsoBatchMaxSize) {
+    if (tsoBatchMaxSize <= 0) {
+      throw new IllegalArgumentException("tso.batch.max_size must be positive");
+    }
+    this.tsoBatchMaxSize = tsoBatchMaxSize;
+    return this;
+  }
+
+  public int getRegionPrefetchWindow() {
+    return regionPrefetchWindow;
+  }
+
+  public TiConfiguration setRegionPrefetchWindow(int regionPrefetchWindow) {
+    if (regionPrefetchWindow <= 0) {
+      throw new IllegalArgumentException("region.prefetch_window must be positive");
+    }
+    this.regionPrefetchWindow = regionPrefetchWindow;
+    return this;
+  }
+
+  public String getRegionCacheSnapshotPath() {
+    return regionCacheSnapshotPath;
+  }
+
+  public TiConfiguration setRegionCacheSnapshotPath(String regionCacheSnapshotPath) {
+    this.regionCacheSnapshotPath = regionCacheSnapshotPath;
+    return this;
+  }
+
+  public int getRegionCacheSnapshotIntervalInMS() {
+    return regionCacheSnapshotIntervalInMS;
+  }
+
+  public TiConfiguration setRegionCacheSnapshotIntervalInMS(int regionCacheSnapshotIntervalInMS) {
+    if (regionCacheSnapshotIntervalInMS < 0) {
+      throw new IllegalArgumentException(
+          "region_cache.snapshot.interval_in_ms must not be negative");
+    }
+    this.regionCacheSnapshotIntervalInMS = regionCacheSnapshotIntervalInMS;
+    return this;
+  }
+
+  public int getRegionCacheMaxSize() {
+    return regionCacheMaxSize;
+  }
+
+  /** Set the maximum number of cached regions, 0 for no limit. */
+  public TiConfiguration setRegionCacheMaxSize(int regionCacheMaxSize) {
+    if (regionCacheMaxSize < 0) {
+      throw new IllegalArgumentException("region_cache.max_size must not be negative");
+    }
+    this.regionCacheMaxSize = regionCacheMaxSize;
+    return this;
+  }
+
+  public int getRegionCacheRefreshIntervalInMS() {
+    return regionCacheRefreshIntervalInMS;
+  }
+
+  /** Set the interval to refresh the recently used regions from PD, 0 to disable it. */
+  public TiConfiguration setRegionCacheRefreshIntervalInMS(int regionCacheRefreshIntervalInMS) {
+    if (regionCacheRefreshIntervalInMS < 0) {
+      throw new IllegalArgumentException(
+          "region_cache.refresh.interval_in_ms must not be negative");
+    }
+    this.regionCacheRefreshIntervalInMS = regionCacheRefreshIntervalInMS;
+    return this;
+  }
+
+  public int getRegionCacheRefreshMaxRegions() {
+    return regionCacheRefreshMaxRegions;
+  }
+
+  public TiConfiguration setRegionCacheRefreshMaxRegions(int regionCacheRefreshMaxRegions) {
+    if (regionCacheRefreshMaxRegions <= 0) {
+      throw new IllegalArgumentException("region_cache.refresh.max_regions must be positive");
+    }
+    this.regionCacheRefreshMaxRegions = regionCacheRefreshMaxRegions;
+    return this;
+  }
+
   public ApiVersion getApiVersion() {
     return apiVersion;
   }
@@ -20,16 +20,26 @@ package org.tikv.common;
 import static org.tikv.common.util.ClientUtils.groupKeysByRegion;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.primitives.Longs;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.protobuf.ByteString;
+import io.prometheus.client.Histogram;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,11 +62,14 @@ import org.tikv.common.util.BackOffFunction;
 import org.tikv.common.util.BackOffer;
 import org.tikv.common.util.ChannelFactory;
 import org.tikv.common.util.ConcreteBackOffer;
+import org.tikv.common.util.FastByteComparisons;
+import org.tikv.common.util.NettyTransport;
 import org.tikv.common.util.Pair;
 import org.tikv.kvproto.Errorpb;
 import org.tikv.kvproto.ImportSstpb;
 import org.tikv.kvproto.Metapb;
 import org.tikv.kvproto.Pdpb;
+import org.tikv.raw.RawKVAsyncClient;
 import org.tikv.raw.RawKVClient;
 import org.tikv.raw.SmartRawKVClient;
 import org.tikv.service.failsafe.CircuitBreaker;
@@ -74,6 +87,13 @@ import org.tikv.txn.TxnKVClient;
 public class TiSession implements AutoCloseable {
   private static final Logger logger = LoggerFactory.getLogger(TiSession.class);
   private static final Map<String, TiSession> sessionCachedMap = new HashMap<>();
+  public static final Histogram WARM_UP_DURATION =
+      Histogram.build()
+          .exponentialBuckets(0.1, 2, 12)
+          .name("client_java_warm_up_duration")
+          .help("duration of warming up the caches and connections of a session.")
+          .labelNames("cluster")
+          .register();
   private final TiConfiguration conf;
   private final RequestKeyCodec keyCodec;
   private final ChannelFactory channelFactory;
@@ -87,6 +107,9 @@ public class TiSession implements AutoCloseable {
   private volatile ExecutorService batchDeleteThreadPool;
   private volatile ExecutorService batchScanThreadPool;
   private volatile ExecutorService deleteRangeThreadPool;
+  private volatile ScheduledExecutorService asyncRetryThreadPool;
+  private volatile ExecutorService scanPrefetchThreadPool;
+  private volatile ScheduledExecutorService regionCacheSnapshotService;
   private volatile RegionManager regionManager;
   private final boolean enableGrpcForward;
   private volatile RegionStoreClient.RegionStoreClientBuilder clientBuilder;
@@ -138,6 +161,12 @@ public class TiSession implements AutoCloseable {
       }
     }
 
+    NettyTransport nettyTransport =
+        new NettyTransport(
+            conf.isGrpcEpollEnable(),
+            conf.getGrpcEventLoopThreads(),
+            conf.isGrpcTcpNoDelay(),
+            conf.getGrpcReceiveBufferSize());
     if (conf.isTlsEnable()) {
       if (conf.isJksEnable()) {
         this.channelFactory =
@@ -146,6 +175,8 @@ public class TiSession implements AutoCloseable {
                 conf.getKeepaliveTime(),
                 conf.getKeepaliveTimeout(),
                 conf.getIdleTimeout(),
+                conf.getChannelPoolSize(),
+                nettyTransport,
                 conf.getConnRecycleTimeInSeconds(),
                 conf.getCertReloadIntervalInSeconds(),
                 conf.getJksKeyPath(),
@@ -159,6 +190,8 @@ public class TiSession implements AutoCloseable {
                 conf.getKeepaliveTime(),
                 conf.getKeepaliveTimeout(),
                 conf.getIdleTimeout(),
+                conf.getChannelPoolSize(),
+                nettyTransport,
                 conf.getConnRecycleTimeInSeconds(),
                 conf.getCertReloadIntervalInSeconds(),
                 conf.getTrustCertCollectionFile(),
@@ -171,7 +204,9 @@ public class TiSession implements AutoCloseable {
               conf.getMaxFrameSize(),
               conf.getKeepaliveTime(),
               conf.getKeepaliveTimeout(),
-              conf.getIdleTimeout());
+              conf.getIdleTimeout(),
+              conf.getChannelPoolSize(),
+              nettyTransport);
     }
 
     this.client = PDClient.createRaw(conf, keyCodec, channelFactory);
@@ -184,7 +219,8 @@ public class TiSession implements AutoCloseable {
     if (this.enableGrpcForward) {
       logger.info("enable grpc forward for high available");
     }
-    if (conf.isWarmUpEnable() && conf.isRawKVMode()) {
+    boolean snapshotLoaded = loadRegionCacheSnapshot();
+    if (conf.isWarmUpEnable() && conf.isRawKVMode() && !snapshotLoaded) {
       warmUp();
     }
     this.circuitBreaker = new CircuitBreakerImpl(conf, client.getClusterId());
@@ -221,29 +257,7 @@ public class TiSession implements AutoCloseable {
 
       this.client = getPDClient();
       this.regionManager = getRegionManager();
-      List<Metapb.Store> stores = this.client.getAllStores(backOffer);
-      // warm up store cache
-      for (Metapb.Store store : stores) {
-        this.regionManager.updateStore(
-            null, new TiStore(this.client.getStore(backOffer, store.getId())));
-      }
-
-      // use scan region to load region cache with limit
-      ByteString startKey = ByteString.EMPTY;
-      do {
-        List<Pdpb.Region> regions =
-            regionManager.scanRegions(
-                backOffer, startKey, ByteString.EMPTY, conf.getScanRegionsLimit());
-        if (regions == null || regions.isEmpty()) {
-          // something went wrong, but the warm-up process could continue
-          break;
-        }
-        for (Pdpb.Region region : regions) {
-          regionManager.insertRegionToCache(
-              regionManager.createRegion(region.getRegion(), backOffer));
-        }
-        startKey = regions.get(regions.size() - 1).getRegion().getEndKey();
-      } while (!startKey.isEmpty());
+      loadRegionCache(backOffer);
 
       try (RawKVClient rawKVClient = createRawClient()) {
         ByteString exampleKey = ByteString.EMPTY;
@@ -262,9 +276,170 @@ public class TiSession implements AutoCloseable {
       // ignore error
       logger.info("warm up fails, ignored ", e);
     } finally {
+      long duration = System.nanoTime() - warmUpStartTime;
+      WARM_UP_DURATION.labels(getPDClient().getClusterId().toString()).observe(duration / 1e9);
+      logger.info(String.format("warm up duration %d ms", duration / 1_000_000));
+    }
+  }
+
+  /**
+   * Load the store cache and the region cache from PD. The stores are fetched and connected in
+   * parallel. If regions are already cached, e.g. from a snapshot, the keyspace is split at their
+   * boundaries into up to `tikv.warm_up.concurrency` ranges of about the same number of regions,
+   * which are scanned concurrently. Otherwise the first page of regions is scanned to find where
+   * the keys begin, and the rest of the keyspace is split by {@link #splitByKeyPrefix}.
+   */
+  @VisibleForTesting
+  void loadRegionCache(BackOffer backOffer)
+      throws InterruptedException, ExecutionException {
+    int concurrency = conf.getWarmUpConcurrency();
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            concurrency,
+            new ThreadFactoryBuilder().setNameFormat("warm-up-pool-%d").setDaemon(true).build());
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (Metapb.Store store : getPDClient().getAllStores(backOffer)) {
+        BackOffer storeBackOffer = ConcreteBackOffer.create(backOffer);
+        futures.add(executor.submit(() -> loadStore(store.getId(), storeBackOffer)));
+      }
+      List<ByteString> boundaries = getRegionManager().splitByCachedRegions(concurrency);
+      if (boundaries.size() == 2 && concurrency > 1) {
+        ByteString startKey =
+            loadRegionPage(ByteString.EMPTY, ByteString.EMPTY, ConcreteBackOffer.create(backOffer));
+        boundaries =
+            startKey.isEmpty() ? new ArrayList<>() : splitByKeyPrefix(startKey, concurrency);
+      }
+      for (int i = 0; i + 1 < boundaries.size(); i++) {
+        ByteString startKey = boundaries.get(i);
+        ByteString endKey = boundaries.get(i + 1);
+        BackOffer rangeBackOffer = ConcreteBackOffer.create(backOffer);
+        futures.add(executor.submit(() -> loadRegions(startKey, endKey, rangeBackOffer)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  // warm up the store cache and establish the connection, including the TLS handshake
+  private void loadStore(long storeId, BackOffer backOffer) {
+    TiStore store = new TiStore(getPDClient().getStore(backOffer, storeId));
+    getRegionManager().updateStore(null, store);
+    if (store.getStore().getState() == Metapb.StoreState.Up) {
+      channelFactory
+          .getChannel(store.getStore().getAddress(), getPDClient().getHostMapping())
+          .getState(true);
+    }
+  }
+
+  // use scan region to load the region cache of [startKey, endKey) with limit
+  private void loadRegions(ByteString startKey, ByteString endKey, BackOffer backOffer) {
+    do {
+      startKey = loadRegionPage(startKey, endKey, backOffer);
+    } while (!startKey.isEmpty()
+        && (endKey.isEmpty() || FastByteComparisons.compareTo(startKey, endKey) < 0));
+  }
+
+  // load a page of regions from startKey, return the key after it, empty if there is none
+  private ByteString loadRegionPage(ByteString startKey, ByteString endKey, BackOffer backOffer) {
+    RegionManager regionManager = getRegionManager();
+    List<Pdpb.Region> regions =
+        regionManager.scanRegions(backOffer, startKey, endKey, conf.getScanRegionsLimit());
+    if (regions == null || regions.isEmpty()) {
+      // something went wrong, but the warm-up process could continue
+      return ByteString.EMPTY;
+    }
+    for (Pdpb.Region region : regions) {
+      regionManager.insertRegionToCache(region.getRegion(), region.getLeader());
+    }
+    return regions.get(regions.size() - 1).getRegion().getEndKey();
+  }
+
+  /**
+   * Split [startKey, +inf) into up to n ranges at keys evenly spaced by their first 8 bytes. PD
+   * tells nothing about the distribution of the regions without scanning them, so the boundaries
+   * only balance the ranges if the keys are spread evenly, but any boundaries partition the
+   * keyspace correctly.
+   *
+   * @return the boundaries of the ranges, beginning with `startKey` and ending with the empty key
+   */
+  @VisibleForTesting
+  static List<ByteString> splitByKeyPrefix(ByteString startKey, int n) {
+    List<ByteString> boundaries = new ArrayList<>();
+    boundaries.add(startKey);
+    long low = Longs.fromByteArray(Arrays.copyOf(startKey.toByteArray(), Long.BYTES));
+    long step = Long.divideUnsigned(-1L - low, n);
+    for (int i = 1; i < n; i++) {
+      ByteString key = ByteString.copyFrom(Longs.toByteArray(low + i * step));
+      if (FastByteComparisons.compareTo(key, boundaries.get(boundaries.size() - 1)) > 0) {
+        boundaries.add(key);
+      }
+    }
+    boundaries.add(ByteString.EMPTY);
+    return boundaries;
+  }
+
+  /**
+   * Load the region cache snapshot saved by a previous session, and schedule the snapshot to be
+   * saved periodically. A loaded cache is refreshed from PD in the background.
+   *
+   * @return true if the snapshot is loaded
+   */
+  private boolean loadRegionCacheSnapshot() {
+    if (conf.getRegionCacheSnapshotPath().isEmpty()) {
+      return false;
+    }
+    Path path = Paths.get(conf.getRegionCacheSnapshotPath());
+    regionCacheSnapshotService =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("region-cache-snapshot-pool-%d")
+                .setDaemon(true)
+                .build());
+    long interval = conf.getRegionCacheSnapshotIntervalInMS();
+    if (interval > 0) {
+      regionCacheSnapshotService.scheduleAtFixedRate(
+          this::saveRegionCacheSnapshot, interval, interval, TimeUnit.MILLISECONDS);
+    }
+    if (!Files.exists(path)) {
+      return false;
+    }
+
+    long startTime = System.nanoTime();
+    try {
+      int regions = getRegionManager().loadCacheSnapshot(path);
       logger.info(
           String.format(
-              "warm up duration %d ms", (System.nanoTime() - warmUpStartTime) / 1_000_000));
+              "loaded %d regions from region cache snapshot %s in %d ms",
+              regions, path, (System.nanoTime() - startTime) / 1_000_000));
+    } catch (Exception e) {
+      logger.warn("failed to load region cache snapshot " + path + ", ignored", e);
+      return false;
+    }
+    regionCacheSnapshotService.submit(
+        () -> {
+          try {
+            loadRegionCache(ConcreteBackOffer.newRawKVBackOff(getPDClient().getClusterId()));
+          } catch (Exception e) {
+            logger.info("refresh region cache fails, ignored", e);
+          }
+        });
+    return true;
+  }
+
+  private void saveRegionCacheSnapshot() {
+    RegionManager regionManager = this.regionManager;
+    if (regionManager == null) {
+      return;
+    }
+    Path path = Paths.get(conf.getRegionCacheSnapshotPath());
+    try {
+      regionManager.saveCacheSnapshot(path);
+    } catch (Exception e) {
+      logger.warn("failed to save region cache snapshot " + path, e);
     }
   }
 
@@ -293,6 +468,12 @@ public class TiSession implements AutoCloseable {
     return new RawKVClient(this, this.getRegionStoreClientBuilder());
   }
 
+  public RawKVAsyncClient createRawAsyncClient() {
+    checkIsClosed();
+
+    return new RawKVAsyncClient(this, this.getRegionStoreClientBuilder());
+  }
+
   public SmartRawKVClient createSmartRawClient() {
     RawKVClient rawKVClient = createRawClient();
     return new SmartRawKVClient(rawKVClient, circuitBreaker);
@@ -565,6 +746,48 @@ public class TiSession implements AutoCloseable {
     return res;
   }
 
+  public ScheduledExecutorService getThreadPoolForAsyncRetry() {
+    checkIsClosed();
+
+    ScheduledExecutorService res = asyncRetryThreadPool;
+    if (res == null) {
+      synchronized (this) {
+        if (asyncRetryThreadPool == null) {
+          asyncRetryThreadPool =
+              Executors.newScheduledThreadPool(
+                  conf.getRawKVAsyncRetryConcurrency(),
+                  new ThreadFactoryBuilder()
+                      .setNameFormat("asyncRetry-thread-%d")
+                      .setDaemon(true)
+                      .build());
+        }
+        res = asyncRetryThreadPool;
+      }
+    }
+    return res;
+  }
+
+  public ExecutorService getThreadPoolForScanPrefetch() {
+    checkIsClosed();
+
+    ExecutorService res = scanPrefetchThreadPool;
+    if (res == null) {
+      synchronized (this) {
+        if (scanPrefetchThreadPool == null) {
+          scanPrefetchThreadPool =
+              Executors.newFixedThreadPool(
+                  conf.getScanPrefetchConcurrency(),
+                  new ThreadFactoryBuilder()
+                      .setNameFormat("scanPrefetch-thread-%d")
+                      .setDaemon(true)
+                      .build());
+        }
+        res = scanPrefetchThreadPool;
+      }
+    }
+    return res;
+  }
+
   @VisibleForTesting
   public ChannelFactory getChannelFactory() {
     checkIsClosed();
@@ -770,6 +993,10 @@ public class TiSession implements AutoCloseable {
       if (circuitBreaker != null) {
         circuitBreaker.close();
       }
+
+      if (regionCacheSnapshotService != null) {
+        saveRegionCacheSnapshot();
+      }
     }
 
     if (now) {
@@ -781,6 +1008,9 @@ public class TiSession implements AutoCloseable {
   }
 
   private synchronized void cleanAfterTerminated() throws InterruptedException {
+    if (clientBuilder != null) {
+      clientBuilder.close();
+    }
     if (regionManager != null) {
       regionManager.close();
     }
@@ -794,6 +1024,9 @@ public class TiSession implements AutoCloseable {
     if (switchTiKVModeClient != null) {
       switchTiKVModeClient.stopKeepTiKVToImportMode();
     }
+
+    // also shuts down the shared event loop group of the channels
+    channelFactory.close();
   }
 
   private List<ExecutorService> getExecutorServices() {
@@ -819,6 +1052,15 @@ public class TiSession implements AutoCloseable {
     if (deleteRangeThreadPool != null) {
       executorServiceList.add(deleteRangeThreadPool);
     }
+    if (asyncRetryThreadPool != null) {
+      executorServiceList.add(asyncRetryThreadPool);
+    }
+    if (regionCacheSnapshotService != null) {
+      executorServiceList.add(regionCacheSnapshotService);
+    }
+    if (scanPrefetchThreadPool != null) {
+      executorServiceList.add(scanPrefetchThreadPool);
+    }
     return executorServiceList;
   }
 
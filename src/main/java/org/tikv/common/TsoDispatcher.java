@@ -0,0 +1,235 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.grpc.ClientCall;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.StreamObserver;
+import io.prometheus.client.Histogram;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tikv.common.exception.GrpcException;
+import org.tikv.common.meta.TiTimestamp;
+import org.tikv.common.util.HistogramUtils;
+import org.tikv.kvproto.PDGrpc;
+import org.tikv.kvproto.PDGrpc.PDFutureStub;
+import org.tikv.kvproto.Pdpb.RequestHeader;
+import org.tikv.kvproto.Pdpb.Timestamp;
+import org.tikv.kvproto.Pdpb.TsoRequest;
+import org.tikv.kvproto.Pdpb.TsoResponse;
+
+/**
+ * Collects the concurrent timestamp requests into one `TsoRequest` with `count = N`, sends it over
+ * a long-lived `Tso` stream to the PD leader and hands out the N consecutive logical timestamps of
+ * the response to the callers. The stream is reopened after a failure or a leader change.
+ */
+class TsoDispatcher implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(TsoDispatcher.class);
+
+  public static final Histogram TSO_BATCH_SIZE =
+      Histogram.build()
+          .exponentialBuckets(1, 2, 15)
+          .name("client_java_pd_tso_batch_size")
+          .help("number of timestamps requested by one tso request.")
+          .labelNames("cluster")
+          .register();
+
+  public static final Histogram TSO_WAIT_DURATION =
+      HistogramUtils.buildDuration()
+          .name("client_java_pd_tso_wait_duration")
+          .help("time from requesting a timestamp to receiving it from the tso dispatcher.")
+          .labelNames("cluster")
+          .register();
+
+  private final PDClient client;
+  private final RequestHeader header;
+  private final int maxBatchSize;
+  private final String clusterId;
+  private final BlockingQueue<Request> pendingRequests = new LinkedBlockingQueue<>();
+  private final ExecutorService dispatcher =
+      Executors.newSingleThreadExecutor(
+          new ThreadFactoryBuilder()
+              .setNameFormat("PDClient-tso-dispatcher-pool-%d")
+              .setDaemon(true)
+              .build());
+  private volatile boolean closed = false;
+  // only accessed by the dispatcher thread
+  private TsoStream stream;
+
+  TsoDispatcher(PDClient client, RequestHeader header, int maxBatchSize) {
+    this.client = client;
+    this.header = header;
+    this.maxBatchSize = maxBatchSize;
+    this.clusterId = String.valueOf(header.getClusterId());
+    dispatcher.submit(this::dispatchLoop);
+  }
+
+  /** Request a timestamp, which will be sent to PD together with the concurrent requests. */
+  CompletableFuture<TiTimestamp> getTimestampAsync() {
+    Request request = new Request();
+    if (closed) {
+      request.future.completeExceptionally(new GrpcException("PDClient is closed"));
+      return request.future;
+    }
+    pendingRequests.add(request);
+    // the dispatcher may have stopped before the request was added
+    if (closed) {
+      failPendingRequests();
+    }
+    return request.future;
+  }
+
+  private void dispatchLoop() {
+    List<Request> batch = new ArrayList<>();
+    try {
+      while (!closed) {
+        batch.add(pendingRequests.take());
+        pendingRequests.drainTo(batch, maxBatchSize - 1);
+        dispatch(batch);
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      closeStream();
+      batch.forEach(r -> r.future.completeExceptionally(new GrpcException("PDClient is closed")));
+      failPendingRequests();
+    }
+  }
+
+  private void failPendingRequests() {
+    List<Request> requests = new ArrayList<>();
+    pendingRequests.drainTo(requests);
+    requests.forEach(r -> r.future.completeExceptionally(new GrpcException("PDClient is closed")));
+  }
+
+  private void dispatch(List<Request> batch) {
+    int count = batch.size();
+    TSO_BATCH_SIZE.labels(clusterId).observe(count);
+    try {
+      PDClient.PDClientWrapper wrapper = client.getPdClientWrapper();
+      if (stream == null || stream.wrapper != wrapper) {
+        closeStream();
+        stream = new TsoStream(wrapper);
+      }
+      TsoResponse resp =
+          stream.call(TsoRequest.newBuilder().setHeader(header).setCount(count).build());
+      if (resp.getHeader().hasError()) {
+        throw new GrpcException(resp.getHeader().getError().toString());
+      }
+      if (resp.getCount() != count) {
+        throw new GrpcException(
+            String.format("tso count mismatch, expect %d, got %d", count, resp.getCount()));
+      }
+      // the response carries the largest timestamp of the batch
+      Timestamp timestamp = resp.getTimestamp();
+      long firstLogical = timestamp.getLogical() - count + 1;
+      for (int i = 0; i < count; i++) {
+        batch.get(i).complete(new TiTimestamp(timestamp.getPhysical(), firstLogical + i));
+      }
+    } catch (Exception e) {
+      logger.warn("failed to get " + count + " timestamps from PD", e);
+      closeStream();
+      batch.forEach(r -> r.future.completeExceptionally(e));
+      if (!closed) {
+        client.tryUpdateLeaderOrForwardFollower();
+      }
+    }
+  }
+
+  private void closeStream() {
+    if (stream != null) {
+      stream.close();
+      stream = null;
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    dispatcher.shutdownNow();
+    failPendingRequests();
+  }
+
+  private class Request {
+    private final CompletableFuture<TiTimestamp> future = new CompletableFuture<>();
+    private final long startNanos = System.nanoTime();
+
+    private void complete(TiTimestamp timestamp) {
+      TSO_WAIT_DURATION.labels(clusterId).observe((System.nanoTime() - startNanos) / 1e9);
+      future.complete(timestamp);
+    }
+  }
+
+  private class TsoStream implements StreamObserver<TsoResponse> {
+    private final PDClient.PDClientWrapper wrapper;
+    // a TsoResponse or the Throwable that broke the stream
+    private final BlockingQueue<Object> responses = new LinkedBlockingQueue<>();
+    private final ClientCall<TsoRequest, TsoResponse> call;
+    private final StreamObserver<TsoRequest> requests;
+
+    private TsoStream(PDClient.PDClientWrapper wrapper) {
+      this.wrapper = wrapper;
+      // no deadline, the stream lives until it fails or the leader changes
+      PDFutureStub stub = wrapper.getAsyncStub();
+      this.call = stub.getChannel().newCall(PDGrpc.getTsoMethod(), stub.getCallOptions());
+      this.requests = ClientCalls.asyncBidiStreamingCall(call, this);
+    }
+
+    private TsoResponse call(TsoRequest request) throws InterruptedException {
+      requests.onNext(request);
+      Object resp = responses.poll(client.getTimeout(), TimeUnit.MILLISECONDS);
+      if (resp == null) {
+        throw new GrpcException("wait tso response timeout");
+      }
+      if (resp instanceof Throwable) {
+        throw new GrpcException("tso stream is broken", (Throwable) resp);
+      }
+      return (TsoResponse) resp;
+    }
+
+    // cancel rather than half-close the call, PD may never answer the half-closed stream
+    private void close() {
+      call.cancel("tso stream is closed", null);
+    }
+
+    @Override
+    public void onNext(TsoResponse value) {
+      responses.add(value);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      responses.add(t);
+    }
+
+    @Override
+    public void onCompleted() {
+      responses.add(new GrpcException("tso stream is closed by PD"));
+    }
+  }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.exception;
+
+/** A request rejected by the client because too many requests to the store are in flight. */
+public class StoreOverloadedException extends TiKVException {
+
+  public StoreOverloadedException(String storeAddress) {
+    super(String.format("the concurrency limit of store %s is reached", storeAddress));
+  }
+}
@@ -20,6 +20,8 @@ package org.tikv.common.operation.iterator;
 import static java.util.Objects.requireNonNull;
 
 import com.google.protobuf.ByteString;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tikv.common.TiConfiguration;
@@ -45,8 +47,18 @@ public class ConcreteScanIterator extends ScanIterator {
       ByteString startKey,
       long version,
       int limit) {
+    this(conf, builder, startKey, version, limit, null);
+  }
+
+  public ConcreteScanIterator(
+      TiConfiguration conf,
+      RegionStoreClientBuilder builder,
+      ByteString startKey,
+      long version,
+      int limit,
+      ExecutorService prefetchExecutor) {
     // Passing endKey as ByteString.EMPTY means that endKey is +INF by default,
-    this(conf, builder, startKey, ByteString.EMPTY, version, limit);
+    this(conf, builder, startKey, ByteString.EMPTY, version, limit, prefetchExecutor);
   }
 
   public ConcreteScanIterator(
@@ -55,8 +67,18 @@ public class ConcreteScanIterator extends ScanIterator {
       ByteString startKey,
       ByteString endKey,
       long version) {
+    this(conf, builder, startKey, endKey, version, null);
+  }
+
+  public ConcreteScanIterator(
+      TiConfiguration conf,
+      RegionStoreClientBuilder builder,
+      ByteString startKey,
+      ByteString endKey,
+      long version,
+      ExecutorService prefetchExecutor) {
     // Passing endKey as ByteString.EMPTY means that endKey is +INF by default,
-    this(conf, builder, startKey, endKey, version, Integer.MAX_VALUE);
+    this(conf, builder, startKey, endKey, version, Integer.MAX_VALUE, prefetchExecutor);
   }
 
   private ConcreteScanIterator(
@@ -65,24 +87,24 @@ public class ConcreteScanIterator extends ScanIterator {
       ByteString startKey,
       ByteString endKey,
       long version,
-      int limit) {
-    super(conf, builder, startKey, endKey, limit, false);
+      int limit,
+      ExecutorService prefetchExecutor) {
+    super(conf, builder, startKey, endKey, limit, false, prefetchExecutor);
     this.version = version;
   }
 
   @Override
-  TiRegion loadCurrentRegionToCache() throws GrpcException {
-    TiRegion region;
+  Pair<TiRegion, List<Kvrpcpb.KvPair>> loadRegion(ByteString startKey, int limit)
+      throws GrpcException {
     try (RegionStoreClient client = builder.build(startKey)) {
       client.setTimeout(conf.getScanTimeout());
       BackOffer backOffer = ConcreteBackOffer.newScannerNextMaxBackOff();
-      currentCache = client.scan(backOffer, startKey, version);
+      List<Kvrpcpb.KvPair> pairs = client.scan(backOffer, startKey, version);
       // If we get region before scan, we will use region from cache which
       // may have wrong end key. This may miss some regions that split from old region.
       // Client will get the newest region during scan. So we need to
       // update region after scan.
-      region = client.getRegion();
-      return region;
+      return Pair.create(client.getRegion(), pairs);
     }
   }
 
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.operation.iterator;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.protobuf.ByteString;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.tikv.common.TiConfiguration;
+import org.tikv.common.exception.GrpcException;
+import org.tikv.common.exception.TiClientInternalException;
+import org.tikv.common.exception.TiKVException;
+import org.tikv.common.region.RegionStoreClient;
+import org.tikv.common.region.RegionStoreClient.RegionStoreClientBuilder;
+import org.tikv.common.region.TiRegion;
+import org.tikv.common.util.BackOffFunction;
+import org.tikv.common.util.BackOffer;
+import org.tikv.common.util.FastByteComparisons;
+import org.tikv.common.util.Pair;
+import org.tikv.kvproto.Kvrpcpb;
+
+/**
+ * Iterates over the raw kv pairs of range [startKey, endKey) in descending order, walking the
+ * regions backwards from the one containing the keys right before `endKey`.
+ */
+public class RawReverseScanIterator implements Iterator<Kvrpcpb.KvPair> {
+  private final TiConfiguration conf;
+  private final RegionStoreClientBuilder builder;
+  private final ByteString startKey;
+  private final boolean keyOnly;
+  private final BackOffer scanBackOffer;
+
+  // exclusive upper bound of the next batch, null if no more keys should be scanned
+  private ByteString nextEndKey;
+  private int limit;
+  private List<Kvrpcpb.KvPair> currentCache;
+  private int index = 0;
+
+  public RawReverseScanIterator(
+      TiConfiguration conf,
+      RegionStoreClientBuilder builder,
+      ByteString startKey,
+      ByteString endKey,
+      int limit,
+      boolean keyOnly,
+      BackOffer scanBackOffer) {
+    this.conf = conf;
+    this.builder = builder;
+    this.startKey = requireNonNull(startKey, "start key is null");
+    this.nextEndKey = requireNonNull(endKey, "end key is null");
+    if (endKey.isEmpty()) {
+      throw new IllegalArgumentException("end key of a reverse scan can not be empty");
+    }
+    this.limit = limit;
+    this.keyOnly = keyOnly;
+    this.scanBackOffer = scanBackOffer;
+    if (!isAfterStartKey(endKey)) {
+      this.nextEndKey = null;
+    }
+  }
+
+  /**
+   * Scan at most `limit` kv pairs of [startKey, endKey) in descending order from the region
+   * containing the keys right before `endKey`.
+   *
+   * @return the region scanned, refreshed after the scan, and the kv pairs found.
+   * @throws GrpcException if scan still fails after backoff
+   */
+  Pair<TiRegion, List<Kvrpcpb.KvPair>> loadRegion(ByteString endKey, int limit)
+      throws GrpcException {
+    BackOffer backOffer = scanBackOffer;
+    while (true) {
+      TiRegion region = builder.getRegionManager().getRegionByEndKey(endKey, backOffer);
+      if (region == null) {
+        throw new TiClientInternalException(
+            "Region not found for the keys before " + endKey.toStringUtf8());
+      }
+      try (RegionStoreClient client = builder.build(region, backOffer)) {
+        client.setTimeout(conf.getRawKVScanTimeoutInMS());
+        try {
+          List<Kvrpcpb.KvPair> pairs =
+              client.rawReverseScan(backOffer, startKey, endKey, limit, keyOnly);
+          return Pair.create(client.getRegion(), pairs);
+        } catch (final TiKVException e) {
+          backOffer.doBackOff(BackOffFunction.BackOffFuncType.BoRegionMiss, e);
+        }
+      }
+    }
+  }
+
+  private boolean isAfterStartKey(ByteString key) {
+    return startKey.isEmpty() || FastByteComparisons.compareTo(key, startKey) > 0;
+  }
+
+  // return true if a non-empty batch is loaded
+  private boolean loadNextBatch() {
+    while (nextEndKey != null && limit > 0) {
+      int scanLimit = Math.min(limit, conf.getScanBatchSize());
+      Pair<TiRegion, List<Kvrpcpb.KvPair>> loaded;
+      try {
+        loaded = loadRegion(nextEndKey, scanLimit);
+      } catch (Exception e) {
+        throw new TiClientInternalException("Error scanning data from region.", e);
+      }
+      List<Kvrpcpb.KvPair> pairs = loaded.second;
+      if (pairs.size() < scanLimit) {
+        // the region is drained, continue with the previous region
+        nextEndKey = loaded.first.getStartKey();
+      } else if (pairs.size() > scanLimit) {
+        throw new IndexOutOfBoundsException(
+            "current cache size = " + pairs.size() + ", larger than " + scanLimit);
+      } else {
+        // continue before the smallest key scanned in current region
+        nextEndKey = pairs.get(pairs.size() - 1).getKey();
+      }
+      if (nextEndKey.isEmpty() || !isAfterStartKey(nextEndKey)) {
+        nextEndKey = null;
+      }
+      if (!pairs.isEmpty()) {
+        currentCache = pairs;
+        index = 0;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (limit <= 0) {
+      return false;
+    }
+    if (currentCache != null && index < currentCache.size()) {
+      return true;
+    }
+    return loadNextBatch();
+  }
+
+  @Override
+  public Kvrpcpb.KvPair next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    --limit;
+    return currentCache.get(index++);
+  }
+}
@@ -18,6 +18,8 @@
 package org.tikv.common.operation.iterator;
 
 import com.google.protobuf.ByteString;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 import org.tikv.common.TiConfiguration;
 import org.tikv.common.exception.GrpcException;
 import org.tikv.common.exception.TiKVException;
@@ -27,6 +29,7 @@ import org.tikv.common.region.RegionStoreClient.RegionStoreClientBuilder;
 import org.tikv.common.region.TiRegion;
 import org.tikv.common.util.BackOffFunction;
 import org.tikv.common.util.BackOffer;
+import org.tikv.common.util.Pair;
 import org.tikv.kvproto.Kvrpcpb;
 
 public class RawScanIterator extends ScanIterator {
@@ -40,32 +43,38 @@ public class RawScanIterator extends ScanIterator {
       int limit,
       boolean keyOnly,
       BackOffer scanBackOffer) {
-    super(conf, builder, startKey, endKey, limit, keyOnly);
+    this(conf, builder, startKey, endKey, limit, keyOnly, scanBackOffer, null);
+  }
+
+  public RawScanIterator(
+      TiConfiguration conf,
+      RegionStoreClientBuilder builder,
+      ByteString startKey,
+      ByteString endKey,
+      int limit,
+      boolean keyOnly,
+      BackOffer scanBackOffer,
+      ExecutorService prefetchExecutor) {
+    super(conf, builder, startKey, endKey, limit, keyOnly, prefetchExecutor);
 
     this.scanBackOffer = scanBackOffer;
   }
 
   @Override
-  TiRegion loadCurrentRegionToCache() throws GrpcException {
+  Pair<TiRegion, List<Kvrpcpb.KvPair>> loadRegion(ByteString startKey, int limit)
+      throws GrpcException {
     BackOffer backOffer = scanBackOffer;
     while (true) {
       try (RegionStoreClient client = builder.build(startKey, backOffer)) {
         client.setTimeout(conf.getRawKVScanTimeoutInMS());
-        TiRegion region = client.getRegion();
-        if (limit <= 0) {
-          currentCache = null;
-        } else {
-          try {
-            currentCache = client.rawScan(backOffer, startKey, limit, keyOnly);
-            // Client will get the newest region during scan. So we need to
-            // update region after scan.
-            region = client.getRegion();
-          } catch (final TiKVException e) {
-            backOffer.doBackOff(BackOffFunction.BackOffFuncType.BoRegionMiss, e);
-            continue;
-          }
+        try {
+          List<Kvrpcpb.KvPair> pairs = client.rawScan(backOffer, startKey, limit, keyOnly);
+          // Client will get the newest region during scan. So we need to
+          // update region after scan.
+          return Pair.create(client.getRegion(), pairs);
+        } catch (final TiKVException e) {
+          backOffer.doBackOff(BackOffFunction.BackOffFuncType.BoRegionMiss, e);
         }
-        return region;
       }
     }
   }
@@ -20,21 +20,32 @@ package org.tikv.common.operation.iterator;
 import static java.util.Objects.requireNonNull;
 
 import com.google.protobuf.ByteString;
+import java.util.ArrayDeque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
 import org.tikv.common.TiConfiguration;
 import org.tikv.common.exception.GrpcException;
 import org.tikv.common.exception.TiClientInternalException;
 import org.tikv.common.key.Key;
 import org.tikv.common.region.RegionStoreClient.RegionStoreClientBuilder;
 import org.tikv.common.region.TiRegion;
+import org.tikv.common.util.Pair;
 import org.tikv.kvproto.Kvrpcpb;
 
+/**
+ * Iterates over the kv pairs of a range batch by batch.
+ *
+ * <p>Batches are scanned one after another, because a batch starts right after the last key of the
+ * previous one. With a prefetch executor, the next batches are scanned in the background while the
+ * caller consumes the current one, up to {@link TiConfiguration#getScanPrefetchDepth()} batches
+ * and {@link TiConfiguration#getScanPrefetchMaxBytes()} bytes ahead.
+ */
 public abstract class ScanIterator implements Iterator<Kvrpcpb.KvPair> {
   protected final TiConfiguration conf;
   protected final RegionStoreClientBuilder builder;
   protected List<Kvrpcpb.KvPair> currentCache;
-  protected ByteString startKey;
   protected int index = -1;
   protected int limit;
   protected boolean keyOnly;
@@ -44,6 +55,12 @@ public abstract class ScanIterator implements Iterator<Kvrpcpb.KvPair> {
   protected boolean hasEndKey;
   protected boolean processingLastBatch = false;
 
+  // start key and remaining limit of the next batch to scan, only accessed by the batch loader
+  private ByteString nextStartKey;
+  private int nextLimit;
+
+  private final Prefetcher prefetcher;
+
   ScanIterator(
       TiConfiguration conf,
       RegionStoreClientBuilder builder,
@@ -51,68 +68,227 @@ public abstract class ScanIterator implements Iterator<Kvrpcpb.KvPair> {
       ByteString endKey,
       int limit,
       boolean keyOnly) {
-    this.startKey = requireNonNull(startKey, "start key is null");
+    this(conf, builder, startKey, endKey, limit, keyOnly, null);
+  }
+
+  ScanIterator(
+      TiConfiguration conf,
+      RegionStoreClientBuilder builder,
+      ByteString startKey,
+      ByteString endKey,
+      int limit,
+      boolean keyOnly,
+      ExecutorService prefetchExecutor) {
+    this.nextStartKey = requireNonNull(startKey, "start key is null");
     this.endKey = Key.toRawKey(requireNonNull(endKey, "end key is null"));
     this.hasEndKey = !endKey.isEmpty();
     this.limit = limit;
+    this.nextLimit = limit;
     this.keyOnly = keyOnly;
     this.conf = conf;
     this.builder = builder;
+    if (prefetchExecutor != null && conf.getScanPrefetchDepth() > 0) {
+      this.prefetcher =
+          new Prefetcher(
+              prefetchExecutor, conf.getScanPrefetchDepth(), conf.getScanPrefetchMaxBytes());
+    } else {
+      this.prefetcher = null;
+    }
   }
 
   /**
-   * Load current region to cache, returns the region if loaded.
+   * Scan at most `limit` kv pairs from the region containing `startKey`.
    *
-   * @return TiRegion of current data loaded to cache
+   * @return the region scanned, refreshed after the scan, and the kv pairs found. The kv pairs are
+   *     null if no more keys should be scanned.
    * @throws GrpcException if scan still fails after backoff
-   *     <p>TODO : Add test to check it correctness
    */
-  abstract TiRegion loadCurrentRegionToCache() throws GrpcException;
+  abstract Pair<TiRegion, List<Kvrpcpb.KvPair>> loadRegion(ByteString startKey, int limit)
+      throws GrpcException;
 
   // return true if current cache is not loaded or empty
   boolean cacheLoadFails() {
     if (endOfScan || processingLastBatch) {
       return true;
     }
-    if (startKey == null) {
+    ScanBatch batch;
+    try {
+      batch = prefetcher == null ? loadNextBatch() : prefetcher.take();
+    } catch (Exception e) {
+      throw new TiClientInternalException("Error scanning data from region.", e);
+    }
+    // currentCache is null means no keys found, whereas currentCache is empty means no values
+    // found. The difference lies in whether to continue scanning, because chances are that
+    // an empty region exists due to deletion, region split, e.t.c.
+    // See https://github.com/pingcap/tispark/issues/393 for details
+    currentCache = batch.pairs;
+    if (currentCache == null) {
       return true;
     }
-    try {
-      TiRegion region = loadCurrentRegionToCache();
-      ByteString curRegionEndKey = region.getEndKey();
-      // currentCache is null means no keys found, whereas currentCache is empty means no values
-      // found. The difference lies in whether to continue scanning, because chances are that
-      // an empty region exists due to deletion, region split, e.t.c.
-      // See https://github.com/pingcap/tispark/issues/393 for details
-      if (currentCache == null) {
-        return true;
+    index = 0;
+    processingLastBatch = batch.last;
+    return false;
+  }
+
+  /** Scan the next batch and move to the batch after it. Never called concurrently. */
+  private ScanBatch loadNextBatch() {
+    if (nextStartKey == null || nextLimit <= 0) {
+      return ScanBatch.END;
+    }
+    Pair<TiRegion, List<Kvrpcpb.KvPair>> loaded = loadRegion(nextStartKey, nextLimit);
+    List<Kvrpcpb.KvPair> pairs = loaded.second;
+    if (pairs == null) {
+      nextStartKey = null;
+      return ScanBatch.END;
+    }
+    ByteString curRegionEndKey = loaded.first.getEndKey();
+    Key lastKey;
+    // Session should be single-threaded itself
+    // so that we don't worry about conf change in the middle
+    // of a transaction. Otherwise, below code might lose data
+    int scanLimit = Math.min(nextLimit, conf.getScanBatchSize());
+    if (pairs.size() < scanLimit) {
+      nextStartKey = curRegionEndKey;
+      lastKey = Key.toRawKey(curRegionEndKey);
+    } else if (pairs.size() > scanLimit) {
+      throw new IndexOutOfBoundsException(
+          "current cache size = " + pairs.size() + ", larger than " + scanLimit);
+    } else {
+      // Start new scan from exact next key in current region
+      lastKey = Key.toRawKey(pairs.get(pairs.size() - 1).getKey());
+      nextStartKey = lastKey.next().toByteString();
+    }
+    nextLimit -= pairs.size();
+    // notify last batch if lastKey is greater than or equal to endKey
+    // if startKey is empty, it indicates +∞
+    boolean last = false;
+    if (hasEndKey && lastKey.compareTo(endKey) >= 0 || nextStartKey.isEmpty()) {
+      last = true;
+      nextStartKey = null;
+    }
+    return new ScanBatch(pairs, last);
+  }
+
+  private static final class ScanBatch {
+    private static final ScanBatch END = new ScanBatch(null, true);
+
+    private final List<Kvrpcpb.KvPair> pairs;
+    private final boolean last;
+    private final long bytes;
+    private final Throwable error;
+
+    private ScanBatch(List<Kvrpcpb.KvPair> pairs, boolean last) {
+      this.pairs = pairs;
+      this.last = last;
+      this.error = null;
+      long size = 0;
+      if (pairs != null) {
+        for (Kvrpcpb.KvPair pair : pairs) {
+          size += pair.getSerializedSize();
+        }
       }
-      index = 0;
-      Key lastKey = Key.EMPTY;
-      // Session should be single-threaded itself
-      // so that we don't worry about conf change in the middle
-      // of a transaction. Otherwise, below code might lose data
-      int scanLimit = Math.min(limit, conf.getScanBatchSize());
-      if (currentCache.size() < scanLimit) {
-        startKey = curRegionEndKey;
-        lastKey = Key.toRawKey(curRegionEndKey);
-      } else if (currentCache.size() > scanLimit) {
-        throw new IndexOutOfBoundsException(
-            "current cache size = " + currentCache.size() + ", larger than " + scanLimit);
-      } else {
-        // Start new scan from exact next key in current region
-        lastKey = Key.toRawKey(currentCache.get(currentCache.size() - 1).getKey());
-        startKey = lastKey.next().toByteString();
+      this.bytes = size;
+    }
+
+    private ScanBatch(Throwable error) {
+      this.pairs = null;
+      this.last = true;
+      this.bytes = 0;
+      this.error = error;
+    }
+
+    private boolean isTerminal() {
+      return pairs == null || last;
+    }
+  }
+
+  /**
+   * Loads batches ahead of the caller on an executor. At most one batch is loaded at a time, and
+   * loading pauses once `depth` batches or `maxBytes` bytes are buffered.
+   */
+  private final class Prefetcher {
+    private final ExecutorService executor;
+    private final int depth;
+    private final long maxBytes;
+    private final Queue<ScanBatch> buffered = new ArrayDeque<>();
+    private long bufferedBytes = 0;
+    private boolean loading = false;
+    // the terminal batch has been loaded
+    private boolean done = false;
+
+    private Prefetcher(ExecutorService executor, int depth, long maxBytes) {
+      this.executor = executor;
+      this.depth = depth;
+      this.maxBytes = maxBytes;
+    }
+
+    private ScanBatch take() throws Exception {
+      ScanBatch batch;
+      synchronized (this) {
+        while (buffered.isEmpty() && loading) {
+          wait();
+        }
+        batch = buffered.poll();
+        if (batch != null) {
+          bufferedBytes -= batch.bytes;
+        } else if (done) {
+          return ScanBatch.END;
+        } else {
+          // nothing is buffered or in flight, load it in the caller thread rather than waiting
+          loading = true;
+        }
       }
-      // notify last batch if lastKey is greater than or equal to endKey
-      // if startKey is empty, it indicates +∞
-      if (hasEndKey && lastKey.compareTo(endKey) >= 0 || startKey.isEmpty()) {
-        processingLastBatch = true;
-        startKey = null;
+      if (batch == null) {
+        try {
+          batch = loadNextBatch();
+        } catch (Throwable e) {
+          batch = new ScanBatch(e);
+        }
+        synchronized (this) {
+          loading = false;
+          done = batch.isTerminal();
+        }
+      }
+      synchronized (this) {
+        prefetch();
+      }
+      if (batch.error instanceof Exception) {
+        throw (Exception) batch.error;
+      } else if (batch.error != null) {
+        throw (Error) batch.error;
+      }
+      return batch;
+    }
+
+    // must be called with the monitor held
+    private void prefetch() {
+      if (loading || done || buffered.size() >= depth || bufferedBytes >= maxBytes) {
+        return;
+      }
+      loading = true;
+      try {
+        executor.execute(this::load);
+      } catch (Exception e) {
+        // e.g. the session is closing, the caller will load the batch itself
+        loading = false;
+      }
+    }
+
+    private void load() {
+      ScanBatch batch;
+      try {
+        batch = loadNextBatch();
+      } catch (Throwable e) {
+        batch = new ScanBatch(e);
+      }
+      synchronized (this) {
+        loading = false;
+        done = batch.isTerminal();
+        buffered.add(batch);
+        bufferedBytes += batch.bytes;
+        notifyAll();
+        prefetch();
       }
-    } catch (Exception e) {
-      throw new TiClientInternalException("Error scanning data from region.", e);
     }
-    return false;
   }
 }
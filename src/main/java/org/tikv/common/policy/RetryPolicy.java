@@ -22,7 +22,14 @@ import io.grpc.Status;
 import io.prometheus.client.Counter;
 import io.prometheus.client.Histogram;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import org.tikv.common.exception.GrpcException;
+import org.tikv.common.exception.StoreOverloadedException;
 import org.tikv.common.log.SlowLogSpan;
 import org.tikv.common.operation.ErrorHandler;
 import org.tikv.common.util.BackOffer;
@@ -66,6 +73,10 @@ public abstract class RetryPolicy<RespT> {
 
   private void rethrowNotRecoverableException(Exception e) {
     Status status = Status.fromThrowable(e);
+    // rejected by the client, the store is fine but busy
+    if (status.getCause() instanceof StoreOverloadedException) {
+      throw (StoreOverloadedException) status.getCause();
+    }
     if (unrecoverableStatus.contains(status.getCode())) {
       throw new GrpcException(e);
     }
@@ -119,6 +130,88 @@ public abstract class RetryPolicy<RespT> {
     }
   }
 
+  /**
+   * The same as {@link #callWithRetry}, for a call returning a future. The back offs requested by
+   * the handler are waited on the timer between the attempts instead of in a thread, see {@link
+   * ConcreteBackOffer#newNonBlockingBackOff}.
+   */
+  public CompletableFuture<RespT> callWithRetryAsync(
+      Supplier<CompletableFuture<RespT>> proc,
+      String methodName,
+      BackOffer backOffer,
+      ScheduledExecutorService timer) {
+    String[] labels = new String[] {methodName, backOffer.getClusterId().toString()};
+    Histogram.Timer callWithRetryTimer = CALL_WITH_RETRY_DURATION.labels(labels).startTimer();
+    CompletableFuture<RespT> result = new CompletableFuture<>();
+    attemptAsync(proc, labels, ConcreteBackOffer.newNonBlockingBackOff(backOffer), timer, result);
+    result.whenComplete((resp, e) -> callWithRetryTimer.observeDuration());
+    return result;
+  }
+
+  private void attemptAsync(
+      Supplier<CompletableFuture<RespT>> proc,
+      String[] labels,
+      ConcreteBackOffer backOffer,
+      ScheduledExecutorService timer,
+      CompletableFuture<RespT> result) {
+    if (result.isDone()) {
+      return;
+    }
+    Histogram.Timer requestTimer = GRPC_SINGLE_REQUEST_LATENCY.labels(labels).startTimer();
+    CompletableFuture<RespT> future;
+    try {
+      future = proc.get();
+    } catch (Exception e) {
+      future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+    }
+    CompletableFuture<RespT> attempt = future;
+    // stop the attempt in flight if the caller gives up
+    result.whenComplete(
+        (resp, e) -> {
+          if (result.isCancelled()) {
+            attempt.cancel(true);
+          }
+        });
+    future.whenComplete(
+        (resp, error) -> {
+          requestTimer.observeDuration();
+          try {
+            boolean retry;
+            if (error != null) {
+              Exception e = unwrap(error);
+              rethrowNotRecoverableException(e);
+              backOffer.checkTimeout();
+              retry = handler.handleRequestError(backOffer, e);
+            } else {
+              retry = handler != null && handler.handleResponseError(backOffer, resp);
+            }
+            if (!retry) {
+              result.complete(error == null ? resp : null);
+              return;
+            }
+            GRPC_REQUEST_RETRY_NUM.labels(labels).inc();
+            timer.schedule(
+                () -> attemptAsync(proc, labels, backOffer, timer, result),
+                backOffer.takeDeferredSleepMs(),
+                TimeUnit.MILLISECONDS);
+          } catch (Exception e) {
+            result.completeExceptionally(e);
+          }
+        });
+  }
+
+  private static Exception unwrap(Throwable error) {
+    while ((error instanceof CompletionException || error instanceof ExecutionException)
+        && error.getCause() != null) {
+      error = error.getCause();
+    }
+    if (error instanceof Exception) {
+      return (Exception) error;
+    }
+    throw new CompletionException(error);
+  }
+
   public interface Builder<T> {
     RetryPolicy<T> create(ErrorHandler<T> handler);
   }
@@ -40,6 +40,7 @@ import org.tikv.common.log.SlowLog;
 import org.tikv.common.log.SlowLogSpan;
 import org.tikv.common.util.BackOffer;
 import org.tikv.common.util.ChannelFactory;
+import org.tikv.common.util.GrpcCompression;
 import org.tikv.common.util.HistogramUtils;
 import org.tikv.kvproto.Kvrpcpb;
 import org.tikv.kvproto.Metapb;
@@ -176,13 +177,14 @@ public abstract class AbstractRegionStoreClient
   }
 
   protected Kvrpcpb.Context makeContext(TiStoreType storeType, SlowLog slowLog) {
-    Kvrpcpb.Context context = region.getReplicaContext(java.util.Collections.emptySet(), storeType);
+    Kvrpcpb.Context context =
+        region.getReplicaContext(store, java.util.Collections.emptySet(), storeType);
     return addTraceId(context, slowLog);
   }
 
   protected Kvrpcpb.Context makeContext(
       Set<Long> resolvedLocks, TiStoreType storeType, SlowLog slowLog) {
-    Kvrpcpb.Context context = region.getReplicaContext(resolvedLocks, storeType);
+    Kvrpcpb.Context context = region.getReplicaContext(store, resolvedLocks, storeType);
     return addTraceId(context, slowLog);
   }
 
@@ -206,6 +208,17 @@ public abstract class AbstractRegionStoreClient
     blockingStub =
         TikvGrpc.newBlockingStub(channel).withDeadlineAfter(deadline, TimeUnit.MILLISECONDS);
     asyncStub = TikvGrpc.newFutureStub(channel).withDeadlineAfter(deadline, TimeUnit.MILLISECONDS);
+    GrpcCompression compression = GrpcCompression.create(conf);
+    if (compression != null) {
+      blockingStub = compression.apply(blockingStub);
+      asyncStub = compression.apply(asyncStub);
+    }
+    blockingStub = StoreLatencyInterceptor.apply(blockingStub, conf, store.getStore().getAddress());
+    asyncStub = StoreLatencyInterceptor.apply(asyncStub, conf, store.getStore().getAddress());
+    StoreConcurrencyLimiter limiter =
+        regionManager.getConcurrencyLimiter(store.getStore().getAddress());
+    blockingStub = StoreConcurrencyLimiter.apply(blockingStub, limiter);
+    asyncStub = StoreConcurrencyLimiter.apply(asyncStub, limiter);
     if (store.getProxyStore() != null) {
       Metadata header = new Metadata();
       header.put(TiConfiguration.FORWARD_META_DATA_KEY, store.getStore().getAddress());
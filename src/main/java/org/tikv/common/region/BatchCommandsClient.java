@@ -0,0 +1,330 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.region;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import io.prometheus.client.Histogram;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tikv.common.exception.GrpcException;
+import org.tikv.common.util.HistogramUtils;
+import org.tikv.kvproto.TikvGrpc;
+import org.tikv.kvproto.Tikvpb.BatchCommandsRequest;
+import org.tikv.kvproto.Tikvpb.BatchCommandsResponse;
+
+/**
+ * BatchCommandsClient multiplexes requests from many threads onto one long-lived
+ * `Tikv/BatchCommands` stream of a single store. Callers enqueue a request and block on its
+ * future; a sender thread drains the queue into one BatchCommandsRequest (up to `maxBatchSize`
+ * requests, optionally waiting `maxWaitInUs` for more) and the responses are routed back by
+ * request id.
+ */
+public class BatchCommandsClient implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(BatchCommandsClient.class);
+
+  public static final Histogram BATCH_COMMANDS_SIZE =
+      Histogram.build()
+          .name("client_java_batch_commands_size")
+          .help("number of requests sent in one BatchCommands message.")
+          .exponentialBuckets(1, 2, 12)
+          .labelNames("cluster")
+          .register();
+
+  public static final Histogram BATCH_COMMANDS_WAIT_DURATION =
+      HistogramUtils.buildDuration()
+          .name("client_java_batch_commands_wait_duration")
+          .help("time a request waits in the BatchCommands queue.")
+          .labelNames("cluster")
+          .register();
+
+  public static final Histogram BATCH_COMMANDS_REQUEST_DURATION =
+      HistogramUtils.buildDuration()
+          .name("client_java_batch_commands_request_duration")
+          .help("time from enqueueing a BatchCommands request to getting its response.")
+          .labelNames("type", "cluster")
+          .register();
+
+  private static final long POLL_INTERVAL_MS = 100;
+
+  private final String address;
+  private final Supplier<ManagedChannel> channelSupplier;
+  private final int maxBatchSize;
+  private final long maxWaitInNs;
+  private final String clusterId;
+  private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+  private final AtomicLong idAllocator = new AtomicLong(0);
+  private final Thread sender;
+  private volatile boolean closed = false;
+  // only accessed by the sender thread, except for being reset by a failed stream
+  private volatile Stream stream;
+
+  public BatchCommandsClient(
+      String address,
+      Supplier<ManagedChannel> channelSupplier,
+      int maxBatchSize,
+      int maxWaitInUs,
+      Long clusterId) {
+    this.address = address;
+    this.channelSupplier = channelSupplier;
+    this.maxBatchSize = maxBatchSize;
+    this.maxWaitInNs = TimeUnit.MICROSECONDS.toNanos(maxWaitInUs);
+    this.clusterId = clusterId.toString();
+    this.sender = new Thread(this::runSender, "batch-commands-" + address);
+    this.sender.setDaemon(true);
+    this.sender.start();
+  }
+
+  /**
+   * Send one request through the shared BatchCommands stream and wait for its response.
+   *
+   * @param request the wrapped request
+   * @param timeoutInMs how long to wait for the response
+   * @return the response paired with the request
+   */
+  public BatchCommandsResponse.Response sendRequest(
+      BatchCommandsRequest.Request request, long timeoutInMs) {
+    if (closed) {
+      throw new GrpcException("BatchCommands client of " + address + " is closed");
+    }
+    Histogram.Timer requestTimer =
+        BATCH_COMMANDS_REQUEST_DURATION.labels(request.getCmdCase().name(), clusterId).startTimer();
+    Entry entry = new Entry(request);
+    queue.offer(entry);
+    try {
+      return entry.future.get(timeoutInMs, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      entry.cancel();
+      throw Status.DEADLINE_EXCEEDED
+          .withDescription("BatchCommands request to " + address + " timed out")
+          .asRuntimeException();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      entry.cancel();
+      throw new GrpcException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new GrpcException(cause);
+    } finally {
+      requestTimer.observeDuration();
+    }
+  }
+
+  public String getAddress() {
+    return address;
+  }
+
+  private void runSender() {
+    List<Entry> batch = new ArrayList<>(maxBatchSize);
+    while (!closed) {
+      try {
+        Entry first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        collect(batch);
+        flush(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      } catch (Exception e) {
+        logger.warn("failed to send BatchCommands to " + address, e);
+        for (Entry entry : batch) {
+          entry.fail(e);
+        }
+        resetStream(stream, e);
+      } finally {
+        batch.clear();
+      }
+    }
+
+    GrpcException closedError = new GrpcException("BatchCommands client is closed");
+    Stream current = stream;
+    if (current != null) {
+      try {
+        current.requestObserver.onCompleted();
+      } catch (Exception ignore) {
+      }
+      resetStream(current, closedError);
+    }
+    for (Entry entry : queue) {
+      entry.fail(closedError);
+    }
+    queue.clear();
+  }
+
+  private void collect(List<Entry> batch) throws InterruptedException {
+    if (maxWaitInNs <= 0) {
+      queue.drainTo(batch, maxBatchSize - batch.size());
+      return;
+    }
+    long deadline = System.nanoTime() + maxWaitInNs;
+    while (batch.size() < maxBatchSize) {
+      long remain = deadline - System.nanoTime();
+      if (remain <= 0) {
+        break;
+      }
+      Entry entry = queue.poll(remain, TimeUnit.NANOSECONDS);
+      if (entry == null) {
+        break;
+      }
+      batch.add(entry);
+    }
+  }
+
+  private void flush(List<Entry> batch) {
+    Stream current = getStream();
+    BatchCommandsRequest.Builder builder = BatchCommandsRequest.newBuilder();
+    long now = System.nanoTime();
+    for (Entry entry : batch) {
+      if (entry.future.isDone()) {
+        continue;
+      }
+      entry.id = idAllocator.incrementAndGet();
+      entry.stream = current;
+      current.pending.put(entry.id, entry);
+      // cancelled before it could see the stream
+      if (entry.future.isDone()) {
+        current.pending.remove(entry.id);
+        continue;
+      }
+      builder.addRequests(entry.request).addRequestIds(entry.id);
+      BATCH_COMMANDS_WAIT_DURATION.labels(clusterId).observe((now - entry.enqueueTime) / 1e9);
+    }
+    if (builder.getRequestsCount() == 0) {
+      return;
+    }
+    BATCH_COMMANDS_SIZE.labels(clusterId).observe(builder.getRequestsCount());
+    current.requestObserver.onNext(builder.build());
+  }
+
+  private Stream getStream() {
+    Stream current = stream;
+    if (current == null) {
+      current = new Stream();
+      current.requestObserver =
+          TikvGrpc.newStub(channelSupplier.get()).batchCommands(new ResponseObserver(current));
+      stream = current;
+    }
+    return current;
+  }
+
+  private void resetStream(Stream target, Throwable t) {
+    if (target == null) {
+      return;
+    }
+    if (stream == target) {
+      stream = null;
+    }
+    for (Entry entry : target.pending.values()) {
+      entry.fail(t);
+    }
+    target.pending.clear();
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    sender.interrupt();
+  }
+
+  private static class Stream {
+    private final Map<Long, Entry> pending = new ConcurrentHashMap<>();
+    private StreamObserver<BatchCommandsRequest> requestObserver;
+  }
+
+  private static class Entry {
+    private final BatchCommandsRequest.Request request;
+    private final CompletableFuture<BatchCommandsResponse.Response> future =
+        new CompletableFuture<>();
+    private final long enqueueTime = System.nanoTime();
+    private volatile long id;
+    private volatile Stream stream;
+
+    private Entry(BatchCommandsRequest.Request request) {
+      this.request = request;
+    }
+
+    /** Give up waiting, e.g. on timeout, so that the entry is not kept until the stream breaks. */
+    private void cancel() {
+      future.cancel(false);
+      Stream owner = stream;
+      if (owner != null) {
+        owner.pending.remove(id);
+      }
+    }
+
+    private void fail(Throwable t) {
+      if (stream != null) {
+        stream.pending.remove(id);
+      }
+      future.completeExceptionally(t);
+    }
+  }
+
+  private class ResponseObserver implements StreamObserver<BatchCommandsResponse> {
+    private final Stream owner;
+
+    private ResponseObserver(Stream owner) {
+      this.owner = owner;
+    }
+
+    @Override
+    public void onNext(BatchCommandsResponse resp) {
+      int count = Math.min(resp.getRequestIdsCount(), resp.getResponsesCount());
+      for (int i = 0; i < count; i++) {
+        Entry entry = owner.pending.remove(resp.getRequestIds(i));
+        if (entry != null) {
+          entry.future.complete(resp.getResponses(i));
+        }
+      }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      logger.warn("BatchCommands stream to {} failed: {}", address, t.getMessage());
+      resetStream(owner, t);
+    }
+
+    @Override
+    public void onCompleted() {
+      resetStream(
+          owner,
+          Status.UNAVAILABLE
+              .withDescription("BatchCommands stream to " + address + " is closed by server")
+              .asRuntimeException());
+    }
+  }
+}
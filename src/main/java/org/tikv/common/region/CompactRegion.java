@@ -0,0 +1,177 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.region;
+
+import com.google.protobuf.ByteString;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import org.tikv.kvproto.Metapb;
+
+/**
+ * A region of the {@link RegionCache} in a compact form: the epoch is kept as longs, the peers as
+ * a primitive array, and the boundary keys are the same instances as the ones of the neighbour
+ * regions. The {@link TiRegion} of the region is only created when it is looked up, and is then
+ * kept as the view of the entry.
+ *
+ * <p>The view is softly referenced, so the views of the regions that are not in use are dropped
+ * under memory pressure and created again by the next lookup. Its identity still holds while it
+ * is used: a view held by a caller, e.g. to {@link RegionCache#invalidateRegion} it, is strongly
+ * reachable and can not be dropped.
+ */
+final class CompactRegion {
+  private static final byte VOTER = (byte) Metapb.PeerRole.Voter_VALUE;
+
+  final long id;
+  final long confVer;
+  final long version;
+  final ByteString startKey;
+  final ByteString endKey;
+  // peer i is peers[2 * i] on store peers[2 * i + 1]
+  private final long[] peers;
+  // the role of each peer, null if all of them are voters
+  private final byte[] roles;
+  // the index of the leader in the peers, -1 if the leader is unknown
+  private final int leaderIndex;
+  // the view of the entry, null if it has never been created
+  private volatile SoftReference<TiRegion> view;
+  // the last time the region is looked up or inserted, written without synchronization since an
+  // approximate access order is enough for eviction
+  long lastAccessNanos;
+  // the index of the entry in the eviction samples of the cache, guarded by the cache monitor
+  int sampleIndex;
+
+  CompactRegion(
+      Metapb.Region meta,
+      Metapb.Peer leader,
+      ByteString startKey,
+      ByteString endKey,
+      TiRegion view) {
+    this.id = meta.getId();
+    this.confVer = meta.getRegionEpoch().getConfVer();
+    this.version = meta.getRegionEpoch().getVersion();
+    this.startKey = startKey;
+    this.endKey = endKey;
+    int count = meta.getPeersCount();
+    long[] peers = new long[count * 2];
+    byte[] roles = null;
+    int leaderIndex = -1;
+    for (int i = 0; i < count; i++) {
+      Metapb.Peer peer = meta.getPeers(i);
+      peers[2 * i] = peer.getId();
+      peers[2 * i + 1] = peer.getStoreId();
+      if (peer.getRoleValue() != VOTER) {
+        if (roles == null) {
+          roles = new byte[count];
+          Arrays.fill(roles, VOTER);
+        }
+        roles[i] = (byte) peer.getRoleValue();
+      }
+      if (leader != null && leader.getId() != 0 && leader.getId() == peer.getId()) {
+        leaderIndex = i;
+      }
+    }
+    this.peers = peers;
+    this.roles = roles;
+    this.leaderIndex = leaderIndex;
+    this.view = view == null ? null : new SoftReference<>(view);
+    this.lastAccessNanos = System.nanoTime();
+  }
+
+  /** The view of the entry, null if it has not been created or has been dropped. */
+  TiRegion getView() {
+    SoftReference<TiRegion> ref = view;
+    return ref == null ? null : ref.get();
+  }
+
+  /** Set the view unless another one is kept, and return the view of the entry. */
+  synchronized TiRegion setViewIfAbsent(TiRegion region) {
+    TiRegion current = getView();
+    if (current != null) {
+      return current;
+    }
+    view = new SoftReference<>(region);
+    return region;
+  }
+
+  /** The leader, or the default instance if it is unknown. */
+  Metapb.Peer getLeader() {
+    return leaderIndex < 0 ? Metapb.Peer.getDefaultInstance() : getPeer(leaderIndex);
+  }
+
+  long getLeaderStoreId() {
+    TiRegion region = getView();
+    if (region != null) {
+      return region.getLeader().getStoreId();
+    }
+    if (peers.length == 0) {
+      return 0;
+    }
+    // the same as TiRegion, the first peer is the leader if it is unknown
+    return peers[2 * Math.max(leaderIndex, 0) + 1];
+  }
+
+  private Metapb.Peer getPeer(int i) {
+    return Metapb.Peer.newBuilder()
+        .setId(peers[2 * i])
+        .setStoreId(peers[2 * i + 1])
+        .setRoleValue(roles == null ? VOTER : roles[i])
+        .build();
+  }
+
+  /** Rebuild the region meta. */
+  Metapb.Region toMeta() {
+    Metapb.Region.Builder builder =
+        Metapb.Region.newBuilder()
+            .setId(id)
+            .setStartKey(startKey)
+            .setEndKey(endKey)
+            .setRegionEpoch(
+                Metapb.RegionEpoch.newBuilder().setConfVer(confVer).setVersion(version));
+    for (int i = 0; i < peers.length / 2; i++) {
+      builder.addPeers(getPeer(i));
+    }
+    return builder.build();
+  }
+
+  /** Whether the epoch of the entry is ahead of the one of `meta`, i.e. `meta` is stale. */
+  boolean isNewerThan(Metapb.Region meta) {
+    return meta.getRegionEpoch().getConfVer() < confVer
+        || meta.getRegionEpoch().getVersion() < version;
+  }
+
+  /** Whether the entry has the same range, epoch and peers as `meta`. */
+  boolean matches(Metapb.Region meta) {
+    if (meta.getId() != id
+        || meta.getRegionEpoch().getConfVer() != confVer
+        || meta.getRegionEpoch().getVersion() != version
+        || meta.getPeersCount() * 2 != peers.length
+        || !meta.getStartKey().equals(startKey)
+        || !meta.getEndKey().equals(endKey)) {
+      return false;
+    }
+    for (int i = 0; i < meta.getPeersCount(); i++) {
+      Metapb.Peer peer = meta.getPeers(i);
+      if (peer.getId() != peers[2 * i]
+          || peer.getStoreId() != peers[2 * i + 1]
+          || peer.getRoleValue() != (roles == null ? VOTER : roles[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.region;
+
+import io.prometheus.client.Counter;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.tikv.common.TiConfiguration;
+
+/**
+ * The delay after which a raw read still unanswered by the leader is sent to a follower as well.
+ * The delay is either fixed, or follows a percentile of the latencies of the recent reads, bounded
+ * below by the fixed delay, so that only the reads slower than the percentile are hedged.
+ */
+public class HedgedReadPolicy {
+  public static final Counter HEDGED_READS =
+      Counter.build()
+          .name("client_java_hedged_raw_reads")
+          .help("hedged raw reads, by the replica whose answer was taken.")
+          .labelNames("winner")
+          .register();
+
+  // the number of recent latencies kept
+  private static final int SAMPLES = 256;
+  // the number of latencies recorded between two computations of the delay
+  private static final int RECOMPUTE_INTERVAL = 32;
+
+  private final long minDelayNanos;
+  private final int percentile;
+  private final AtomicLongArray samples = new AtomicLongArray(SAMPLES);
+  private final AtomicInteger recorded = new AtomicInteger();
+  private volatile long delayNanos;
+
+  HedgedReadPolicy(long minDelayMs, int percentile) {
+    this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMs);
+    this.percentile = percentile;
+    this.delayNanos = minDelayNanos;
+  }
+
+  /** Returns null if hedged reads are not enabled. */
+  static HedgedReadPolicy create(TiConfiguration conf) {
+    if (!conf.isRawKVHedgedReadEnable()) {
+      return null;
+    }
+    return new HedgedReadPolicy(
+        conf.getRawKVHedgedReadDelayInMS(), conf.getRawKVHedgedReadPercentile());
+  }
+
+  long getDelayNanos() {
+    return delayNanos;
+  }
+
+  /**
+   * Record the latency of a read answered by the leader, or the time the leader had not answered
+   * yet when a follower answered first.
+   */
+  void record(long latencyNanos) {
+    if (percentile == 0) {
+      return;
+    }
+    int count = recorded.getAndIncrement() & Integer.MAX_VALUE;
+    samples.set(count % SAMPLES, latencyNanos);
+    if ((count + 1) % RECOMPUTE_INTERVAL == 0) {
+      int size = Math.min(count + 1, SAMPLES);
+      long[] sorted = new long[size];
+      for (int i = 0; i < size; i++) {
+        sorted[i] = samples.get(i);
+      }
+      Arrays.sort(sorted);
+      long quantile = sorted[Math.min(size - 1, size * percentile / 100)];
+      delayNanos = Math.max(minDelayNanos, quantile);
+    }
+  }
+}
@@ -17,104 +17,260 @@
 package org.tikv.common.region;
 
 import static org.tikv.common.codec.KeyUtils.formatBytesUTF8;
-import static org.tikv.common.util.KeyRangeUtils.makeRange;
 
-import com.google.common.collect.RangeMap;
-import com.google.common.collect.TreeRangeMap;
 import com.google.protobuf.ByteString;
+import io.prometheus.client.Counter;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.tikv.common.key.Key;
 import org.tikv.common.util.BackOffer;
+import org.tikv.common.util.FastByteComparisons;
+import org.tikv.common.util.Pair;
+import org.tikv.kvproto.Metapb;
 
+/**
+ * RegionCache keeps regions indexed by id and by start key. Lookups never take a lock; updates are
+ * serialized by the cache monitor, so a reader may briefly miss a region that is being replaced and
+ * fall back to PD.
+ *
+ * <p>Regions are kept as {@link CompactRegion}s. The regions loaded in bulk, from a warm-up, a
+ * snapshot, a prefetch or a refresh, are inserted by their meta, and their {@link TiRegion}s are
+ * created by the region factory when they are looked up. The factory only reads cached data, so a
+ * lookup never waits for PD.
+ *
+ * <p>With a max size, the least recently used regions are evicted when the cache is full. The
+ * access order is approximate: a lookup only records its time in the entry, and the eviction drops
+ * the least recently used of a few randomly sampled entries.
+ */
 public class RegionCache {
   private static final Logger logger = LoggerFactory.getLogger(RegionCache.class);
 
-  private final Map<Long, TiRegion> regionCache;
+  public static final Counter REGION_CACHE_HIT =
+      Counter.build()
+          .name("client_java_region_cache_hit")
+          .help("region cache hit count.")
+          .register();
+
+  public static final Counter REGION_CACHE_MISS =
+      Counter.build()
+          .name("client_java_region_cache_miss")
+          .help("region cache miss count.")
+          .register();
+
+  public static final Counter REGION_CACHE_EVICTION =
+      Counter.build()
+          .name("client_java_region_cache_eviction")
+          .help("number of least recently used regions evicted from the region cache.")
+          .register();
+
+  public static final Counter REGION_CACHE_REFRESH =
+      Counter.build()
+          .name("client_java_region_cache_refresh")
+          .help("number of cached regions updated by the background refresh.")
+          .register();
+
+  private static final Comparator<ByteString> KEY_COMPARATOR = FastByteComparisons::compareTo;
+  // the number of entries sampled to pick the one to evict
+  private static final int EVICTION_SAMPLES = 16;
+
+  private final Map<Long, CompactRegion> regionCache;
   private final Map<Long, TiStore> storeCache;
-  private final RangeMap<Key, Long> keyToRegionIdCache;
+  // start key -> region, the empty start key is the beginning of the key space
+  private final ConcurrentSkipListMap<ByteString, CompactRegion> keyToRegionCache;
+  // creates the TiRegion of a region inserted by its meta and leader, null if it can not be created
+  // without loading from PD
+  private final BiFunction<Metapb.Region, Metapb.Peer, TiRegion> regionFactory;
+  // the max number of cached regions, 0 for no limit
+  private final int maxSize;
+  // the entries of regionCache in no particular order, to sample the ones to evict, guarded by the
+  // cache monitor
+  private final List<CompactRegion> entries = new ArrayList<>();
 
   public RegionCache() {
-    regionCache = new HashMap<>();
-    storeCache = new HashMap<>();
+    this(null, 0);
+  }
 
-    keyToRegionIdCache = TreeRangeMap.create();
+  public RegionCache(
+      BiFunction<Metapb.Region, Metapb.Peer, TiRegion> regionFactory, int maxSize) {
+    regionCache = new ConcurrentHashMap<>();
+    storeCache = new ConcurrentHashMap<>();
+
+    keyToRegionCache = new ConcurrentSkipListMap<>(KEY_COMPARATOR);
+    this.regionFactory = regionFactory;
+    this.maxSize = maxSize;
   }
 
   public synchronized void invalidateAll() {
     regionCache.clear();
+    entries.clear();
     storeCache.clear();
-    keyToRegionIdCache.clear();
+    keyToRegionCache.clear();
   }
 
-  public synchronized TiRegion getRegionByKey(ByteString key, BackOffer backOffer) {
-    Long regionId;
-    if (key.isEmpty()) {
-      // if key is empty, it must be the start key.
-      regionId = keyToRegionIdCache.get(Key.toRawKey(key, true));
+  public TiRegion getRegionByKey(ByteString key, BackOffer backOffer) {
+    // the region containing the key is the one with the greatest start key not after the key
+    ByteString startKey = keyToRegionCache.floorKey(key);
+    CompactRegion entry = startKey == null ? null : keyToRegionCache.get(startKey);
+    TiRegion region = null;
+    if (entry != null && isKeyBeforeEnd(key, entry.endKey)) {
+      region = getView(entry);
+    }
+    if (region == null) {
+      REGION_CACHE_MISS.inc();
     } else {
-      regionId = keyToRegionIdCache.get(Key.toRawKey(key));
+      REGION_CACHE_HIT.inc();
     }
     if (logger.isDebugEnabled()) {
       logger.debug(
-          String.format("getRegionByKey key[%s] -> ID[%s]", formatBytesUTF8(key), regionId));
+          String.format("getRegionByKey key[%s] -> Region[%s]", formatBytesUTF8(key), region));
     }
+    return region;
+  }
 
-    if (regionId == null) {
-      return null;
+  /** Get the region containing the keys right before `key`, i.e. startKey < key <= endKey. */
+  public TiRegion getRegionByEndKey(ByteString key) {
+    Map.Entry<ByteString, CompactRegion> entry = keyToRegionCache.lowerEntry(key);
+    TiRegion region = null;
+    if (entry != null
+        && (entry.getValue().endKey.isEmpty()
+            || KEY_COMPARATOR.compare(key, entry.getValue().endKey) <= 0)) {
+      region = getView(entry.getValue());
     }
-    TiRegion region;
-    region = regionCache.get(regionId);
-    if (logger.isDebugEnabled()) {
-      logger.debug(String.format("getRegionByKey ID[%s] -> Region[%s]", regionId, region));
+    if (region == null) {
+      REGION_CACHE_MISS.inc();
+    } else {
+      REGION_CACHE_HIT.inc();
     }
     return region;
   }
 
+  /**
+   * Get the range around `key` which is not covered by the cached regions: from the end of the
+   * cached region before `key` to the start of the cached region after it. If the region containing
+   * `key` is not cached, it lies in this range. An empty end means +∞.
+   */
+  Pair<ByteString, ByteString> getUncachedRange(ByteString key) {
+    Map.Entry<ByteString, CompactRegion> lower = keyToRegionCache.floorEntry(key);
+    ByteString startKey = ByteString.EMPTY;
+    if (lower != null && !isKeyBeforeEnd(key, lower.getValue().endKey)) {
+      startKey = lower.getValue().endKey;
+    }
+    ByteString endKey = keyToRegionCache.higherKey(key);
+    return Pair.create(startKey, endKey == null ? ByteString.EMPTY : endKey);
+  }
+
+  /**
+   * Split the key space into at most `n` ranges holding about the same number of cached regions.
+   *
+   * @return the boundaries of the ranges, beginning and ending with the empty key
+   */
+  public List<ByteString> splitByRegions(int n) {
+    List<ByteString> startKeys = new ArrayList<>(keyToRegionCache.keySet());
+    List<ByteString> boundaries = new ArrayList<>();
+    boundaries.add(ByteString.EMPTY);
+    for (int i = 1; i < n && !startKeys.isEmpty(); i++) {
+      ByteString key = startKeys.get((int) ((long) i * startKeys.size() / n));
+      if (!key.equals(boundaries.get(boundaries.size() - 1))) {
+        boundaries.add(key);
+      }
+    }
+    boundaries.add(ByteString.EMPTY);
+    return boundaries;
+  }
+
+  private static boolean isKeyBeforeEnd(ByteString key, ByteString endKey) {
+    return endKey.isEmpty() || KEY_COMPARATOR.compare(key, endKey) < 0;
+  }
+
+  /** Get the TiRegion of the entry, created on the first lookup, null if it can not be created. */
+  private TiRegion getView(CompactRegion entry) {
+    entry.lastAccessNanos = System.nanoTime();
+    TiRegion region = entry.getView();
+    if (region != null || regionFactory == null) {
+      return region;
+    }
+    try {
+      region = regionFactory.apply(entry.toMeta(), entry.getLeader());
+    } catch (Exception e) {
+      logger.warn(String.format("failed to create region %d", entry.id), e);
+      return null;
+    }
+    // the region is looked up again from PD if it can not be created
+    return region == null ? null : entry.setViewIfAbsent(region);
+  }
+
+  // whether the entry is the same region as `meta` or a newer one
+  private static boolean isCached(CompactRegion entry, Metapb.Region meta) {
+    return entry != null && (entry.isNewerThan(meta) || isSameRegion(entry, meta));
+  }
+
+  // whether the entry is the same region as `meta`, compared by the meta of its TiRegion if any
+  private static boolean isSameRegion(CompactRegion entry, Metapb.Region meta) {
+    TiRegion view = entry.getView();
+    return view != null ? view.getMeta().equals(meta) : entry.matches(meta);
+  }
+
+  /**
+   * Create the entry of a region, reusing the boundary keys of its cached neighbours so that a
+   * boundary shared by two regions is kept once.
+   */
+  private CompactRegion newEntry(Metapb.Region meta, Metapb.Peer leader, TiRegion view) {
+    ByteString startKey = meta.getStartKey();
+    ByteString endKey = meta.getEndKey();
+    Map.Entry<ByteString, CompactRegion> lower = keyToRegionCache.lowerEntry(startKey);
+    if (lower != null && lower.getValue().endKey.equals(startKey)) {
+      startKey = lower.getValue().endKey;
+    }
+    CompactRegion upper = endKey.isEmpty() ? null : keyToRegionCache.get(endKey);
+    if (upper != null) {
+      endKey = upper.startKey;
+    }
+    return new CompactRegion(meta, leader, startKey, endKey, view);
+  }
+
   public synchronized TiRegion putRegion(TiRegion region) {
     if (logger.isDebugEnabled()) {
       logger.debug("putRegion: " + region);
     }
-    TiRegion oldRegion = regionCache.get(region.getId());
-    if (oldRegion != null) {
-      if (oldRegion.getMeta().equals(region.getMeta())) {
-        return oldRegion;
+    CompactRegion oldEntry = regionCache.get(region.getId());
+    if (oldEntry != null) {
+      if (isSameRegion(oldEntry, region.getMeta())) {
+        return oldEntry.setViewIfAbsent(region);
       } else {
-        invalidateRegion(oldRegion);
+        removeEntry(oldEntry);
       }
     }
-    regionCache.put(region.getId(), region);
-    keyToRegionIdCache.put(makeRange(region.getStartKey(), region.getEndKey()), region.getId());
+    putEntry(newEntry(region.getMeta(), region.getLeader(), region));
     return region;
   }
 
   @Deprecated
-  public synchronized TiRegion getRegionById(long regionId) {
-    TiRegion region = regionCache.get(regionId);
+  public TiRegion getRegionById(long regionId) {
+    CompactRegion entry = regionCache.get(regionId);
+    TiRegion region = entry == null ? null : getView(entry);
     if (logger.isDebugEnabled()) {
       logger.debug(String.format("getRegionByKey ID[%s] -> Region[%s]", regionId, region));
     }
     return region;
   }
 
-  private synchronized TiRegion getRegionFromCache(long regionId) {
-    return regionCache.get(regionId);
-  }
-
   /** Removes region associated with regionId from regionCache. */
   public synchronized void invalidateRegion(TiRegion region) {
     try {
       if (logger.isDebugEnabled()) {
         logger.debug(String.format("invalidateRegion ID[%s]", region.getId()));
       }
-      TiRegion oldRegion = regionCache.get(region.getId());
-      if (oldRegion != null && oldRegion == region) {
-        keyToRegionIdCache.remove(makeRange(region.getStartKey(), region.getEndKey()));
-        regionCache.remove(region.getId());
+      CompactRegion oldEntry = regionCache.get(region.getId());
+      if (oldEntry != null && oldEntry.getView() == region) {
+        removeEntry(oldEntry);
       }
     } catch (Exception ignore) {
     }
@@ -122,12 +278,30 @@ public class RegionCache {
 
   public synchronized void insertRegionToCache(TiRegion region) {
     try {
-      TiRegion oldRegion = regionCache.get(region.getId());
-      if (oldRegion != null) {
-        keyToRegionIdCache.remove(makeRange(oldRegion.getStartKey(), oldRegion.getEndKey()));
+      CompactRegion oldEntry = regionCache.get(region.getId());
+      if (oldEntry != null) {
+        removeKeyRange(oldEntry);
+      }
+      putEntry(newEntry(region.getMeta(), region.getLeader(), region));
+    } catch (Exception ignore) {
+    }
+  }
+
+  /**
+   * Insert a region by its meta and leader, its TiRegion is created when it is looked up. A cached
+   * region with the same meta or a newer epoch is kept as is, since the meta loaded in bulk may be
+   * older than a region updated meanwhile, e.g. by an EpochNotMatch error.
+   */
+  public synchronized void insertRegionToCache(Metapb.Region region, Metapb.Peer leader) {
+    try {
+      CompactRegion oldEntry = regionCache.get(region.getId());
+      if (isCached(oldEntry, region)) {
+        return;
       }
-      regionCache.put(region.getId(), region);
-      keyToRegionIdCache.put(makeRange(region.getStartKey(), region.getEndKey()), region.getId());
+      if (oldEntry != null) {
+        removeKeyRange(oldEntry);
+      }
+      putEntry(newEntry(region, leader, null));
     } catch (Exception ignore) {
     }
   }
@@ -137,15 +311,12 @@ public class RegionCache {
       if (logger.isDebugEnabled()) {
         logger.debug(String.format("invalidateRegion ID[%s]", region.getId()));
       }
-      TiRegion oldRegion = regionCache.get(region.getId());
-      if (!expected.getMeta().equals(oldRegion.getMeta())) {
+      CompactRegion oldEntry = regionCache.get(region.getId());
+      if (!isSameRegion(oldEntry, expected.getMeta())) {
         return false;
       } else {
-        if (oldRegion != null) {
-          keyToRegionIdCache.remove(makeRange(oldRegion.getStartKey(), oldRegion.getEndKey()));
-        }
-        regionCache.put(region.getId(), region);
-        keyToRegionIdCache.put(makeRange(region.getStartKey(), region.getEndKey()), region.getId());
+        removeKeyRange(oldEntry);
+        putEntry(newEntry(region.getMeta(), region.getLeader(), region));
         return true;
       }
     } catch (Exception ignore) {
@@ -153,6 +324,125 @@ public class RegionCache {
     }
   }
 
+  /**
+   * Replace a cached region with the meta and leader from PD if it has changed. The regions that
+   * are not cached are ignored.
+   *
+   * @return whether the cached region is replaced
+   */
+  public synchronized boolean refreshRegion(Metapb.Region region, Metapb.Peer leader) {
+    CompactRegion oldEntry = regionCache.get(region.getId());
+    if (oldEntry == null || isUpToDate(oldEntry, region, leader)) {
+      return false;
+    }
+    removeKeyRange(oldEntry);
+    CompactRegion entry = newEntry(region, leader, null);
+    // a refresh is not an access
+    entry.lastAccessNanos = oldEntry.lastAccessNanos;
+    putEntry(entry);
+    REGION_CACHE_REFRESH.inc();
+    return true;
+  }
+
+  private static boolean isUpToDate(
+      CompactRegion entry, Metapb.Region region, Metapb.Peer leader) {
+    return isSameRegion(entry, region)
+        && (leader.getId() == 0 || entry.getLeaderStoreId() == leader.getStoreId());
+  }
+
+  /**
+   * Get at most `limit` regions looked up or inserted since `sinceNanos`, keeping the most recently
+   * used ones, in the order of their start keys.
+   */
+  List<CompactRegion> getRegionsUsedSince(long sinceNanos, int limit) {
+    List<CompactRegion> regions = new ArrayList<>();
+    for (CompactRegion entry : keyToRegionCache.values()) {
+      if (entry.lastAccessNanos - sinceNanos >= 0) {
+        regions.add(entry);
+      }
+    }
+    if (regions.size() > limit) {
+      regions.sort(Comparator.comparingLong((CompactRegion e) -> e.lastAccessNanos).reversed());
+      regions = new ArrayList<>(regions.subList(0, limit));
+      regions.sort(Comparator.comparing(e -> e.startKey, KEY_COMPARATOR));
+    }
+    return regions;
+  }
+
+  private void putEntry(CompactRegion entry) {
+    CompactRegion oldEntry = regionCache.put(entry.id, entry);
+    if (oldEntry != null) {
+      removeSample(oldEntry);
+    }
+    entry.sampleIndex = entries.size();
+    entries.add(entry);
+    putKeyRange(entry);
+    evictIfFull();
+  }
+
+  // evict the least recently used of EVICTION_SAMPLES random entries until the cache fits, so that
+  // an insert does not have to sort the whole cache
+  private void evictIfFull() {
+    if (maxSize <= 0) {
+      return;
+    }
+    int count = 0;
+    while (entries.size() > maxSize) {
+      removeEntry(sampleLeastRecentlyUsed());
+      count++;
+    }
+    if (count > 0) {
+      REGION_CACHE_EVICTION.inc(count);
+    }
+  }
+
+  private CompactRegion sampleLeastRecentlyUsed() {
+    int size = entries.size();
+    boolean all = size <= EVICTION_SAMPLES;
+    CompactRegion oldest = null;
+    for (int i = 0; i < Math.min(size, EVICTION_SAMPLES); i++) {
+      CompactRegion entry = entries.get(all ? i : ThreadLocalRandom.current().nextInt(size));
+      if (oldest == null || entry.lastAccessNanos - oldest.lastAccessNanos < 0) {
+        oldest = entry;
+      }
+    }
+    return oldest;
+  }
+
+  private void removeEntry(CompactRegion entry) {
+    removeKeyRange(entry);
+    if (regionCache.remove(entry.id, entry)) {
+      removeSample(entry);
+    }
+  }
+
+  // remove the entry from the samples by moving the last one to its place
+  private void removeSample(CompactRegion entry) {
+    CompactRegion last = entries.remove(entries.size() - 1);
+    if (last != entry) {
+      entries.set(entry.sampleIndex, last);
+      last.sampleIndex = entry.sampleIndex;
+    }
+  }
+
+  /**
+   * Index the region by its start key. Stale regions starting inside the new region are dropped,
+   * the same as overwriting them in a range map.
+   */
+  private void putKeyRange(CompactRegion entry) {
+    NavigableMap<ByteString, CompactRegion> overlapped =
+        entry.endKey.isEmpty()
+            ? keyToRegionCache.tailMap(entry.startKey, false)
+            : keyToRegionCache.subMap(entry.startKey, false, entry.endKey, false);
+    overlapped.clear();
+    keyToRegionCache.put(entry.startKey, entry);
+  }
+
+  /** Removes the start key index of the region unless it has been taken by another region. */
+  private void removeKeyRange(CompactRegion entry) {
+    keyToRegionCache.remove(entry.startKey, entry);
+  }
+
   public synchronized boolean updateStore(TiStore oldStore, TiStore newStore) {
     if (!newStore.isValid()) {
       return false;
@@ -175,11 +465,11 @@ public class RegionCache {
     if (oldStore != store) {
       return;
     }
-    List<TiRegion> regionToRemove = new ArrayList<>();
-    for (TiRegion r : regionCache.values()) {
-      if (r.getLeader().getStoreId() == store.getId()) {
+    List<CompactRegion> regionToRemove = new ArrayList<>();
+    for (CompactRegion r : regionCache.values()) {
+      if (r.getLeaderStoreId() == store.getId()) {
         if (logger.isDebugEnabled()) {
-          logger.debug(String.format("invalidateAllRegionForStore Region[%s]", r));
+          logger.debug(String.format("invalidateAllRegionForStore Region[%s]", r.id));
         }
         regionToRemove.add(r);
       }
@@ -187,9 +477,8 @@ public class RegionCache {
 
     logger.warn(String.format("invalid store [%d]", store.getId()));
     // remove region
-    for (TiRegion r : regionToRemove) {
-      keyToRegionIdCache.remove(makeRange(r.getStartKey(), r.getEndKey()));
-      regionCache.remove(r.getId());
+    for (CompactRegion r : regionToRemove) {
+      removeEntry(r);
     }
   }
 
@@ -200,7 +489,7 @@ public class RegionCache {
     }
   }
 
-  public synchronized TiStore getStoreById(long id) {
+  public TiStore getStoreById(long id) {
     return storeCache.get(id);
   }
 
@@ -217,8 +506,26 @@ public class RegionCache {
     return true;
   }
 
+  /** Get the meta and leader of all the cached regions, without creating their TiRegions. */
+  public synchronized List<Pair<Metapb.Region, Metapb.Peer>> getAllRegionMetas() {
+    List<Pair<Metapb.Region, Metapb.Peer>> regions = new ArrayList<>(regionCache.size());
+    for (CompactRegion entry : regionCache.values()) {
+      TiRegion view = entry.getView();
+      regions.add(
+          view != null
+              ? Pair.create(view.getMeta(), view.getLeader())
+              : Pair.create(entry.toMeta(), entry.getLeader()));
+    }
+    return regions;
+  }
+
+  public synchronized List<TiStore> getAllStores() {
+    return new ArrayList<>(storeCache.values());
+  }
+
   public synchronized void clearAll() {
-    keyToRegionIdCache.clear();
+    keyToRegionCache.clear();
     regionCache.clear();
+    entries.clear();
   }
 }
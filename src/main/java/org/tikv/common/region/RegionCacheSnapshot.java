@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.region;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.tikv.common.util.Pair;
+import org.tikv.kvproto.Metapb;
+
+/**
+ * A snapshot of the stores and regions of a {@link RegionCache} saved to a local file, so that a
+ * new session can fill its cache without scanning all regions from PD.
+ *
+ * <p>The file holds a header (magic, version and cluster id) followed by the length-delimited
+ * `Metapb.Store` messages and the length-delimited `Metapb.Region` and leader `Metapb.Peer`
+ * messages. It is written to a temporary file and moved in place, and read through a memory map.
+ */
+final class RegionCacheSnapshot {
+  private static final int MAGIC = 0x544b5243;
+  private static final int VERSION = 1;
+
+  private final List<Metapb.Store> stores;
+  private final List<Pair<Metapb.Region, Metapb.Peer>> regions;
+
+  private RegionCacheSnapshot(
+      List<Metapb.Store> stores, List<Pair<Metapb.Region, Metapb.Peer>> regions) {
+    this.stores = stores;
+    this.regions = regions;
+  }
+
+  List<Metapb.Store> getStores() {
+    return stores;
+  }
+
+  List<Pair<Metapb.Region, Metapb.Peer>> getRegions() {
+    return regions;
+  }
+
+  static void save(
+      Path path,
+      long clusterId,
+      Collection<TiStore> stores,
+      Collection<Pair<Metapb.Region, Metapb.Peer>> regions)
+      throws IOException {
+    Path parent = path.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+      CodedOutputStream output = CodedOutputStream.newInstance(out);
+      output.writeFixed32NoTag(MAGIC);
+      output.writeUInt32NoTag(VERSION);
+      output.writeUInt64NoTag(clusterId);
+      output.writeUInt32NoTag(stores.size());
+      for (TiStore store : stores) {
+        output.writeMessageNoTag(store.getStore());
+      }
+      output.writeUInt32NoTag(regions.size());
+      for (Pair<Metapb.Region, Metapb.Peer> region : regions) {
+        output.writeMessageNoTag(region.first);
+        output.writeMessageNoTag(region.second);
+      }
+      output.flush();
+    }
+    Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  static RegionCacheSnapshot load(Path path, long clusterId) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      CodedInputStream input = CodedInputStream.newInstance(buffer);
+      ExtensionRegistryLite registry = ExtensionRegistryLite.getEmptyRegistry();
+      if (input.readFixed32() != MAGIC || input.readUInt32() != VERSION) {
+        throw new IOException("unknown region cache snapshot format: " + path);
+      }
+      long snapshotClusterId = input.readUInt64();
+      if (snapshotClusterId != clusterId) {
+        throw new IOException(
+            String.format(
+                "region cache snapshot of cluster %d, expect %d", snapshotClusterId, clusterId));
+      }
+      int storeCount = input.readUInt32();
+      List<Metapb.Store> stores = new ArrayList<>(storeCount);
+      for (int i = 0; i < storeCount; i++) {
+        stores.add(input.readMessage(Metapb.Store.parser(), registry));
+      }
+      int regionCount = input.readUInt32();
+      List<Pair<Metapb.Region, Metapb.Peer>> regions = new ArrayList<>(regionCount);
+      for (int i = 0; i < regionCount; i++) {
+        Metapb.Region region = input.readMessage(Metapb.Region.parser(), registry);
+        Metapb.Peer leader = input.readMessage(Metapb.Peer.parser(), registry);
+        regions.add(Pair.create(region, leader));
+      }
+      return new RegionCacheSnapshot(stores, regions);
+    }
+  }
+}
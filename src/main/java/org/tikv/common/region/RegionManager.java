@@ -20,14 +20,22 @@ package org.tikv.common.region;
 import static org.tikv.common.codec.KeyUtils.formatBytesUTF8;
 
 import com.google.protobuf.ByteString;
+import io.prometheus.client.Counter;
 import io.prometheus.client.Histogram;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import org.slf4j.Logger;
@@ -42,6 +50,7 @@ import org.tikv.common.log.SlowLogSpan;
 import org.tikv.common.util.BackOffer;
 import org.tikv.common.util.ChannelFactory;
 import org.tikv.common.util.ConcreteBackOffer;
+import org.tikv.common.util.FastByteComparisons;
 import org.tikv.common.util.HistogramUtils;
 import org.tikv.common.util.Pair;
 import org.tikv.kvproto.Metapb;
@@ -65,6 +74,12 @@ public class RegionManager {
           .help("scanRegions request latency.")
           .labelNames("cluster")
           .register();
+  public static final Counter COALESCED_REGION_LOOKUPS =
+      Counter.build()
+          .name("client_java_coalesced_region_lookups")
+          .help("region cache misses served by a concurrent PD lookup.")
+          .labelNames("cluster")
+          .register();
 
   // TODO: the region cache logic need rewrite.
   // https://github.com/pingcap/tispark/issues/1170
@@ -77,6 +92,12 @@ public class RegionManager {
       cacheInvalidateCallbackList;
   private final ExecutorService callBackThreadPool;
   private AtomicInteger tiflashStoreIndex = new AtomicInteger(0);
+  // the in-flight PD lookups of missing regions
+  private final List<PendingLookup> pendingLookups = new ArrayList<>();
+  // only accessed by the refresh task
+  private long lastRefreshNanos = System.nanoTime();
+  private final Map<String, StoreConcurrencyLimiter> concurrencyLimiters =
+      new ConcurrentHashMap<>();
 
   public RegionManager(
       TiConfiguration conf, ReadOnlyPDClient pdClient, ChannelFactory channelFactory) {
@@ -89,7 +110,10 @@ public class RegionManager {
 
   public RegionManager(
       TiConfiguration conf, ReadOnlyPDClient pdClient, int callBackExecutorThreadNum) {
-    this.cache = new RegionCache();
+    this.cache =
+        new RegionCache(
+            this::createRegionFromCachedStores,
+            conf.getRegionCacheMaxSize());
     this.pdClient = pdClient;
     this.conf = conf;
     this.storeChecker = null;
@@ -103,7 +127,10 @@ public class RegionManager {
       ReadOnlyPDClient pdClient,
       ChannelFactory channelFactory,
       int callBackExecutorThreadNum) {
-    this.cache = new RegionCache();
+    this.cache =
+        new RegionCache(
+            this::createRegionFromCachedStores,
+            conf.getRegionCacheMaxSize());
     this.pdClient = pdClient;
     this.conf = conf;
     long period = conf.getHealthCheckPeriodDuration();
@@ -113,6 +140,11 @@ public class RegionManager {
     this.storeChecker = storeChecker;
     this.executor = Executors.newScheduledThreadPool(1);
     this.executor.scheduleAtFixedRate(storeChecker, period, period, TimeUnit.MILLISECONDS);
+    long refreshInterval = conf.getRegionCacheRefreshIntervalInMS();
+    if (refreshInterval > 0) {
+      this.executor.scheduleWithFixedDelay(
+          this::refreshRegions, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+    }
     this.cacheInvalidateCallbackList = new CopyOnWriteArrayList<>();
     this.callBackThreadPool = Executors.newFixedThreadPool(callBackExecutorThreadNum);
   }
@@ -166,6 +198,18 @@ public class RegionManager {
   }
 
   public TiRegion getRegionByKey(ByteString key, BackOffer backOffer) {
+    return getRegionByKey(key, null, backOffer);
+  }
+
+  /**
+   * Get the region containing `key`. On a cache miss of a range caller, the regions following it
+   * are loaded into the cache by the same ScanRegions call, at most `tikv.region.prefetch_window`
+   * regions in total and only those starting before `prefetchEndKey`.
+   *
+   * @param prefetchEndKey exclusive end of the prefetched range, empty for unbounded, or null to
+   *     load only the region of `key`
+   */
+  public TiRegion getRegionByKey(ByteString key, ByteString prefetchEndKey, BackOffer backOffer) {
     Long clusterId = pdClient.getClusterId();
     Histogram.Timer requestTimer =
         GET_REGION_BY_KEY_REQUEST_LATENCY.labels(clusterId.toString()).startTimer();
@@ -174,9 +218,7 @@ public class RegionManager {
     try {
       if (region == null) {
         logger.debug("Key not found in keyToRegionIdCache:" + formatBytesUTF8(key));
-        Pair<Metapb.Region, Metapb.Peer> regionAndLeader = pdClient.getRegionByKey(backOffer, key);
-        region =
-            cache.putRegion(createRegion(regionAndLeader.first, regionAndLeader.second, backOffer));
+        region = lookupRegion(key, prefetchEndKey, backOffer);
         logger.debug(
             String.format(
                 "get region id: %d with leader: %d",
@@ -193,6 +235,152 @@ public class RegionManager {
     return region;
   }
 
+  /**
+   * Load the missing region containing `key` from PD. Concurrent misses are coalesced: a miss
+   * first waits for the lookups in flight that may load its region, i.e. those of the keys in the
+   * same range not covered by the cached regions, and only asks PD itself if none of them loaded
+   * it.
+   */
+  private TiRegion lookupRegion(ByteString key, ByteString prefetchEndKey, BackOffer backOffer) {
+    PendingLookup lookup = new PendingLookup(key);
+    Pair<ByteString, ByteString> uncached = cache.getUncachedRange(key);
+    List<PendingLookup> inflight = new ArrayList<>();
+    synchronized (pendingLookups) {
+      for (PendingLookup pending : pendingLookups) {
+        if (pending.isIn(uncached)) {
+          inflight.add(pending);
+        }
+      }
+      if (inflight.isEmpty()) {
+        pendingLookups.add(lookup);
+      }
+    }
+    if (!inflight.isEmpty()) {
+      TiRegion region = waitForLookups(key, inflight, backOffer);
+      if (region != null) {
+        COALESCED_REGION_LOOKUPS.labels(pdClient.getClusterId().toString()).inc();
+        return region;
+      }
+      synchronized (pendingLookups) {
+        pendingLookups.add(lookup);
+      }
+    }
+
+    try {
+      TiRegion region = prefetchRegions(key, prefetchEndKey, backOffer);
+      if (region == null) {
+        Pair<Metapb.Region, Metapb.Peer> regionAndLeader = pdClient.getRegionByKey(backOffer, key);
+        region =
+            cache.putRegion(createRegion(regionAndLeader.first, regionAndLeader.second, backOffer));
+      }
+      lookup.future.complete(region);
+      return region;
+    } catch (Exception e) {
+      lookup.future.completeExceptionally(e);
+      throw e;
+    } finally {
+      synchronized (pendingLookups) {
+        pendingLookups.remove(lookup);
+      }
+    }
+  }
+
+  // return the region containing `key` loaded by the lookups, or null if it is not loaded
+  private TiRegion waitForLookups(
+      ByteString key, List<PendingLookup> lookups, BackOffer backOffer) {
+    for (PendingLookup lookup : lookups) {
+      try {
+        TiRegion region = lookup.future.get(conf.getTimeout(), TimeUnit.MILLISECONDS);
+        if (region.contains(key)) {
+          return region;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new TiClientInternalException("interrupted while waiting for region lookups", e);
+      } catch (ExecutionException | TimeoutException e) {
+        // ask PD itself
+      }
+    }
+    // the lookups may have loaded the region by ScanRegions
+    return cache.getRegionByKey(key, backOffer);
+  }
+
+  // load the regions from the one containing `key` with one ScanRegions call, and return the one
+  // containing `key`, or null if it is not loaded
+  private TiRegion prefetchRegions(ByteString key, ByteString endKey, BackOffer backOffer) {
+    int window = conf.getRegionPrefetchWindow();
+    if (endKey == null || window <= 1) {
+      return null;
+    }
+    TiRegion found = null;
+    for (Pdpb.Region r : scanRegions(backOffer, key, endKey, window)) {
+      if (found == null && contains(r.getRegion(), key)) {
+        found = cache.putRegion(createRegion(r.getRegion(), r.getLeader(), backOffer));
+      } else {
+        cache.insertRegionToCache(r.getRegion(), r.getLeader());
+      }
+    }
+    return found;
+  }
+
+  private static boolean contains(Metapb.Region region, ByteString key) {
+    return FastByteComparisons.compareTo(region.getStartKey(), key) <= 0
+        && (region.getEndKey().isEmpty()
+            || FastByteComparisons.compareTo(key, region.getEndKey()) < 0);
+  }
+
+  private static final class PendingLookup {
+    private final ByteString key;
+    private final CompletableFuture<TiRegion> future = new CompletableFuture<>();
+
+    private PendingLookup(ByteString key) {
+      this.key = key;
+    }
+
+    // whether the key of the lookup is in [range.first, range.second), an empty end means +∞
+    private boolean isIn(Pair<ByteString, ByteString> range) {
+      return FastByteComparisons.compareTo(range.first, key) <= 0
+          && (range.second.isEmpty() || FastByteComparisons.compareTo(key, range.second) < 0);
+    }
+  }
+
+  /**
+   * Get the region containing the keys right before `key`, that is the region whose range
+   * (startKey, endKey] covers `key`. Used to walk regions backwards.
+   *
+   * @param key a non-empty key
+   */
+  public TiRegion getRegionByEndKey(ByteString key, BackOffer backOffer) {
+    if (key.isEmpty()) {
+      throw new IllegalArgumentException("can not locate the region before an empty key");
+    }
+    Long clusterId = pdClient.getClusterId();
+    Histogram.Timer requestTimer =
+        GET_REGION_BY_KEY_REQUEST_LATENCY.labels(clusterId.toString()).startTimer();
+    SlowLogSpan slowLogSpan = backOffer.getSlowLog().start("getRegionByEndKey");
+    TiRegion region = cache.getRegionByEndKey(key);
+    try {
+      if (region == null) {
+        logger.debug("End key not found in keyToRegionIdCache:" + formatBytesUTF8(key));
+        Pair<Metapb.Region, Metapb.Peer> regionAndLeader = pdClient.getRegionByKey(backOffer, key);
+        if (regionAndLeader.first.getStartKey().equals(key)) {
+          // the keys before a region start key belong to the previous region
+          regionAndLeader = pdClient.getPrevRegion(backOffer, key);
+        }
+        region =
+            cache.putRegion(createRegion(regionAndLeader.first, regionAndLeader.second, backOffer));
+      }
+    } catch (Exception e) {
+      logger.warn("Get region failed: ", e);
+      return null;
+    } finally {
+      requestTimer.observeDuration();
+      slowLogSpan.end();
+    }
+
+    return region;
+  }
+
   @Deprecated
   // Do not use GetRegionByID when retrying request.
   //
@@ -233,14 +421,11 @@ public class RegionManager {
 
     TiStore store = null;
     if (storeType == TiStoreType.TiKV) {
-      // check from the first replica in case it recovers
-      List<Peer> replicaList = region.getReplicaList();
-      for (int i = 0; i < replicaList.size(); i++) {
-        Peer peer = replicaList.get(i);
+      // check from the first replica in case it recovers, the request addresses the replica on
+      // the returned store
+      for (Peer peer : region.selectReplicaList()) {
         store = getStoreById(peer.getStoreId(), backOffer);
         if (store.isReachable()) {
-          // update replica's index
-          region.setReplicaIdx(i);
           break;
         }
         logger.info("Store {} is unreachable, try to get the next replica", peer.getStoreId());
@@ -279,6 +464,24 @@ public class RegionManager {
     return createRegion(region, null, backOffer);
   }
 
+  /**
+   * Create the TiRegion of a cached region from the cached stores only, so that a region cache hit
+   * never waits for PD.
+   *
+   * @return the TiRegion, or null if a store of the region is not cached
+   */
+  private TiRegion createRegionFromCachedStores(Metapb.Region region, Metapb.Peer leader) {
+    List<TiStore> stores = new ArrayList<>();
+    for (Metapb.Peer peer : region.getPeersList()) {
+      TiStore store = cache.getStoreById(peer.getStoreId());
+      if (store == null) {
+        return null;
+      }
+      stores.add(store);
+    }
+    return new TiRegion(conf, region, leader, region.getPeersList(), stores);
+  }
+
   private TiRegion createRegion(Metapb.Region region, Metapb.Peer leader, BackOffer backOffer) {
     List<Metapb.Peer> peers = new ArrayList<>();
     List<TiStore> stores = new ArrayList<>();
@@ -336,6 +539,15 @@ public class RegionManager {
     return store;
   }
 
+  /** The concurrency limiter of the store at the address, or null if the limiters are disabled. */
+  StoreConcurrencyLimiter getConcurrencyLimiter(String storeAddress) {
+    if (!conf.isStoreConcurrencyLimitEnable()) {
+      return null;
+    }
+    return concurrencyLimiters.computeIfAbsent(
+        storeAddress, address -> StoreConcurrencyLimiter.create(conf, address));
+  }
+
   public void onRegionStale(TiRegion region) {
     cache.invalidateRegion(region);
   }
@@ -386,6 +598,76 @@ public class RegionManager {
     cache.insertRegionToCache(region);
   }
 
+  /** Insert a region by its meta, its TiRegion is created when it is looked up. */
+  public void insertRegionToCache(Metapb.Region region, Metapb.Peer leader) {
+    cache.insertRegionToCache(region, leader);
+  }
+
+  /**
+   * Revalidate the regions used since the last refresh with ScanRegions, so that a region changed
+   * by a split, a merge or a leader transfer is updated before a request fails on it. Adjacent
+   * regions are scanned by one call.
+   */
+  public void refreshRegions() {
+    try {
+      long now = System.nanoTime();
+      List<CompactRegion> regions =
+          cache.getRegionsUsedSince(lastRefreshNanos, conf.getRegionCacheRefreshMaxRegions());
+      lastRefreshNanos = now;
+      BackOffer backOffer = defaultBackOff();
+      int i = 0;
+      while (i < regions.size()) {
+        int j = i;
+        while (j + 1 < regions.size()
+            && regions.get(j + 1).startKey.equals(regions.get(j).endKey)) {
+          j++;
+        }
+        ByteString startKey = regions.get(i).startKey;
+        ByteString endKey = regions.get(j).endKey;
+        for (Pdpb.Region r : scanRegions(backOffer, startKey, endKey, j - i + 1)) {
+          cache.refreshRegion(r.getRegion(), r.getLeader());
+        }
+        i = j + 1;
+      }
+    } catch (Exception e) {
+      logger.warn("failed to refresh the region cache", e);
+    }
+  }
+
+  /**
+   * Split the key space into at most `n` ranges holding about the same number of cached regions,
+   * a single range if no region is cached.
+   *
+   * @return the boundaries of the ranges, beginning and ending with the empty key
+   */
+  public List<ByteString> splitByCachedRegions(int n) {
+    return cache.splitByRegions(n);
+  }
+
+  /** Save the cached stores and regions to `path`, to be loaded by a later session. */
+  public void saveCacheSnapshot(Path path) throws IOException {
+    RegionCacheSnapshot.save(
+        path, pdClient.getClusterId(), cache.getAllStores(), cache.getAllRegionMetas());
+  }
+
+  /**
+   * Load the stores and regions saved by {@link #saveCacheSnapshot(Path)} into the cache. The
+   * regions are trusted optimistically, a stale one is invalidated by the region error of the first
+   * request sent to it.
+   *
+   * @return the number of regions loaded
+   */
+  public int loadCacheSnapshot(Path path) throws IOException {
+    RegionCacheSnapshot snapshot = RegionCacheSnapshot.load(path, pdClient.getClusterId());
+    for (Metapb.Store store : snapshot.getStores()) {
+      updateStore(null, new TiStore(store));
+    }
+    for (Pair<Metapb.Region, Metapb.Peer> region : snapshot.getRegions()) {
+      insertRegionToCache(region.first, region.second);
+    }
+    return snapshot.getRegions().size();
+  }
+
   private BackOffer defaultBackOff() {
     return ConcreteBackOffer.newCustomBackOff(
         conf.getRawKVDefaultBackoffInMS(), pdClient.getClusterId());
@@ -23,12 +23,18 @@ import static org.tikv.common.util.BackOffFunction.BackOffFuncType.BoTxnLock;
 import static org.tikv.common.util.BackOffFunction.BackOffFuncType.BoTxnLockFast;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.pingcap.tidb.tipb.DAGRequest;
 import com.pingcap.tidb.tipb.SelectResponse;
 import io.grpc.ManagedChannel;
 import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.stub.ClientCalls;
 import io.grpc.stub.MetadataUtils;
 import io.prometheus.client.Histogram;
 import java.util.ArrayList;
@@ -42,6 +48,15 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -59,26 +74,34 @@ import org.tikv.common.exception.SelectException;
 import org.tikv.common.exception.TiClientInternalException;
 import org.tikv.common.exception.TiKVException;
 import org.tikv.common.log.SlowLogEmptyImpl;
+import org.tikv.common.operation.ErrorHandler;
 import org.tikv.common.operation.KVErrorHandler;
 import org.tikv.common.operation.RegionErrorHandler;
+import org.tikv.common.policy.RetryMaxMs;
+import org.tikv.common.policy.RetryPolicy;
 import org.tikv.common.streaming.StreamingResponse;
+import org.tikv.common.util.AliasingMarshaller;
 import org.tikv.common.util.BackOffFunction;
 import org.tikv.common.util.BackOffer;
 import org.tikv.common.util.Batch;
 import org.tikv.common.util.ChannelFactory;
 import org.tikv.common.util.ConcreteBackOffer;
+import org.tikv.common.util.GrpcCompression;
 import org.tikv.common.util.HistogramUtils;
 import org.tikv.common.util.Pair;
 import org.tikv.common.util.RangeSplitter;
+import org.tikv.common.util.RawChecksum;
 import org.tikv.kvproto.Coprocessor;
 import org.tikv.kvproto.Errorpb;
 import org.tikv.kvproto.Kvrpcpb.BatchGetRequest;
 import org.tikv.kvproto.Kvrpcpb.BatchGetResponse;
+import org.tikv.kvproto.Kvrpcpb.ChecksumAlgorithm;
 import org.tikv.kvproto.Kvrpcpb.CommitRequest;
 import org.tikv.kvproto.Kvrpcpb.CommitResponse;
 import org.tikv.kvproto.Kvrpcpb.GetRequest;
 import org.tikv.kvproto.Kvrpcpb.GetResponse;
 import org.tikv.kvproto.Kvrpcpb.KeyError;
+import org.tikv.kvproto.Kvrpcpb.KeyRange;
 import org.tikv.kvproto.Kvrpcpb.KvPair;
 import org.tikv.kvproto.Kvrpcpb.Mutation;
 import org.tikv.kvproto.Kvrpcpb.PrewriteRequest;
@@ -91,6 +114,8 @@ import org.tikv.kvproto.Kvrpcpb.RawBatchPutRequest;
 import org.tikv.kvproto.Kvrpcpb.RawBatchPutResponse;
 import org.tikv.kvproto.Kvrpcpb.RawCASRequest;
 import org.tikv.kvproto.Kvrpcpb.RawCASResponse;
+import org.tikv.kvproto.Kvrpcpb.RawChecksumRequest;
+import org.tikv.kvproto.Kvrpcpb.RawChecksumResponse;
 import org.tikv.kvproto.Kvrpcpb.RawDeleteRangeRequest;
 import org.tikv.kvproto.Kvrpcpb.RawDeleteRangeResponse;
 import org.tikv.kvproto.Kvrpcpb.RawDeleteRequest;
@@ -113,9 +138,13 @@ import org.tikv.kvproto.Metapb;
 import org.tikv.kvproto.TikvGrpc;
 import org.tikv.kvproto.TikvGrpc.TikvBlockingStub;
 import org.tikv.kvproto.TikvGrpc.TikvFutureStub;
+import org.tikv.kvproto.Tikvpb.BatchCommandsRequest;
+import org.tikv.kvproto.Tikvpb.BatchCommandsResponse;
 import org.tikv.txn.AbstractLockResolverClient;
 import org.tikv.txn.Lock;
 import org.tikv.txn.ResolveLockResult;
+import org.tikv.txn.ResolvedTxnCache;
+import org.tikv.txn.TxnStatus;
 import org.tikv.txn.exception.LockException;
 
 // TODO:
@@ -128,12 +157,14 @@ import org.tikv.txn.exception.LockException;
 /** Note that RegionStoreClient itself is not thread-safe */
 public class RegionStoreClient extends AbstractRegionStoreClient {
   private static final Logger logger = LoggerFactory.getLogger(RegionStoreClient.class);
-  @VisibleForTesting public final AbstractLockResolverClient lockResolverClient;
+  /** Created on first use, so that raw requests never pay for building it. */
+  private AbstractLockResolverClient lockResolverClient;
   private final TiStoreType storeType;
   /** startTS -> List(locks) */
   private final Map<Long, Set<Long>> resolvedLocks = new HashMap<>();
 
   private final PDClient pdClient;
+  private final RegionStoreClientBuilder clientBuilder;
   private Boolean isV4 = null;
 
   public static final Histogram GRPC_RAW_REQUEST_LATENCY =
@@ -143,6 +174,14 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
           .labelNames("type", "cluster")
           .register();
 
+  private static final MethodDescriptor<RawBatchGetRequest, RawBatchGetResponse>
+      ALIASED_RAW_BATCH_GET_METHOD =
+          AliasingMarshaller.aliasResponses(
+              TikvGrpc.getRawBatchGetMethod(), RawBatchGetResponse.getDefaultInstance());
+  private static final MethodDescriptor<RawScanRequest, RawScanResponse> ALIASED_RAW_SCAN_METHOD =
+      AliasingMarshaller.aliasResponses(
+          TikvGrpc.getRawScanMethod(), RawScanResponse.getDefaultInstance());
+
   private synchronized Boolean getIsV4() {
     if (isV4 == null) {
       isV4 = StoreVersion.minTiKVVersion(Version.RESOLVE_LOCK_V4, pdClient);
@@ -163,46 +202,43 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
       RegionStoreClient.RegionStoreClientBuilder clientBuilder) {
     super(conf, region, store, channelFactory, blockingStub, asyncStub, regionManager);
     this.storeType = storeType;
+    this.pdClient = pdClient;
+    this.clientBuilder = clientBuilder;
+  }
 
-    if (this.storeType == TiStoreType.TiKV) {
-      this.lockResolverClient =
-          AbstractLockResolverClient.getInstance(
-              conf,
-              region,
-              store,
-              this.blockingStub,
-              this.asyncStub,
-              channelFactory,
-              regionManager,
-              pdClient,
-              clientBuilder);
-
-    } else {
-      TiStore tikvStore =
-          regionManager.getRegionStorePairByKey(region.getStartKey(), TiStoreType.TiKV).second;
-
-      String addressStr = tikvStore.getStore().getAddress();
-      if (logger.isDebugEnabled()) {
-        logger.debug(String.format("Create region store client on address %s", addressStr));
+  public synchronized AbstractLockResolverClient getLockResolverClient() {
+    if (lockResolverClient == null) {
+      if (storeType == TiStoreType.TiKV) {
+        lockResolverClient =
+            AbstractLockResolverClient.getInstance(
+                conf,
+                region,
+                store,
+                blockingStub,
+                asyncStub,
+                channelFactory,
+                regionManager,
+                pdClient,
+                clientBuilder);
+      } else {
+        // locks of TiFlash data are resolved on the TiKV leader of the same region
+        TiStore tikvStore =
+            regionManager.getRegionStorePairByKey(region.getStartKey(), TiStoreType.TiKV).second;
+        TikvStubs stubs = clientBuilder.getStubs(tikvStore.getStore().getAddress(), null);
+        lockResolverClient =
+            AbstractLockResolverClient.getInstance(
+                conf,
+                region,
+                tikvStore,
+                stubs.blockingStub,
+                stubs.asyncStub,
+                channelFactory,
+                regionManager,
+                pdClient,
+                clientBuilder);
       }
-      ManagedChannel channel = channelFactory.getChannel(addressStr, pdClient.getHostMapping());
-
-      TikvBlockingStub tikvBlockingStub = TikvGrpc.newBlockingStub(channel);
-      TikvGrpc.TikvFutureStub tikvAsyncStub = TikvGrpc.newFutureStub(channel);
-
-      this.lockResolverClient =
-          AbstractLockResolverClient.getInstance(
-              conf,
-              region,
-              tikvStore,
-              tikvBlockingStub,
-              tikvAsyncStub,
-              channelFactory,
-              regionManager,
-              pdClient,
-              clientBuilder);
     }
-    this.pdClient = pdClient;
+    return lockResolverClient;
   }
 
   public synchronized boolean addResolvedLocks(Long version, Set<Long> locks) {
@@ -245,7 +281,7 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
         new KVErrorHandler<>(
             regionManager,
             this,
-            lockResolverClient,
+            getLockResolverClient(),
             resp -> resp.hasRegionError() ? resp.getRegionError() : null,
             resp -> resp.hasError() ? resp.getError() : null,
             resolveLockResult -> addResolvedLocks(version, resolveLockResult.getResolvedLocks()),
@@ -290,7 +326,7 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
         new KVErrorHandler<>(
             regionManager,
             this,
-            lockResolverClient,
+            getLockResolverClient(),
             resp -> resp.hasRegionError() ? resp.getRegionError() : null,
             resp -> null,
             resolveLockResult -> addResolvedLocks(version, resolveLockResult.getResolvedLocks()),
@@ -326,7 +362,7 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
 
     if (!locks.isEmpty()) {
       ResolveLockResult resolveLockResult =
-          lockResolverClient.resolveLocks(backOffer, version, locks, forWrite);
+          getLockResolverClient().resolveLocks(backOffer, version, locks, forWrite);
       addResolvedLocks(version, resolveLockResult.getResolvedLocks());
       // resolveLocks already retried, just throw error to upper logic.
       throw new TiKVException("locks not resolved, retry");
@@ -355,7 +391,7 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
           new KVErrorHandler<>(
               regionManager,
               this,
-              lockResolverClient,
+              getLockResolverClient(),
               resp -> resp.hasRegionError() ? resp.getRegionError() : null,
               resp -> resp.hasError() ? resp.getError() : null,
               resolveLockResult -> addResolvedLocks(version, resolveLockResult.getResolvedLocks()),
@@ -397,7 +433,7 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
     }
     if (!locks.isEmpty()) {
       ResolveLockResult resolveLockResult =
-          lockResolverClient.resolveLocks(backOffer, version, locks, forWrite);
+          getLockResolverClient().resolveLocks(backOffer, version, locks, forWrite);
       addResolvedLocks(version, resolveLockResult.getResolvedLocks());
 
       long msBeforeExpired = resolveLockResult.getMsBeforeTxnExpired();
@@ -477,7 +513,7 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
           new KVErrorHandler<>(
               regionManager,
               this,
-              lockResolverClient,
+              getLockResolverClient(),
               resp -> resp.hasRegionError() ? resp.getRegionError() : null,
               resp -> null,
               resolveLockResult -> null,
@@ -527,7 +563,7 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
     }
 
     ResolveLockResult resolveLockResult =
-        lockResolverClient.resolveLocks(backOffer, startTs, locks, forWrite);
+        getLockResolverClient().resolveLocks(backOffer, startTs, locks, forWrite);
     addResolvedLocks(startTs, resolveLockResult.getResolvedLocks());
     long msBeforeExpired = resolveLockResult.getMsBeforeTxnExpired();
     if (msBeforeExpired > 0) {
@@ -553,7 +589,7 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
           new KVErrorHandler<>(
               regionManager,
               this,
-              lockResolverClient,
+              getLockResolverClient(),
               resp -> resp.hasRegionError() ? resp.getRegionError() : null,
               resp -> resp.hasError() ? resp.getError() : null,
               resolveLockResult -> null,
@@ -611,7 +647,7 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
         new KVErrorHandler<>(
             regionManager,
             this,
-            lockResolverClient,
+            getLockResolverClient(),
             resp -> resp.hasRegionError() ? resp.getRegionError() : null,
             resp -> resp.hasError() ? resp.getError() : null,
             resolveLockResult -> null,
@@ -679,7 +715,7 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
         new KVErrorHandler<>(
             regionManager,
             this,
-            lockResolverClient,
+            getLockResolverClient(),
             resp -> resp.hasRegionError() ? resp.getRegionError() : null,
             resp -> null,
             resolveLockResult -> addResolvedLocks(startTs, resolveLockResult.getResolvedLocks()),
@@ -726,7 +762,7 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
       Lock lock = new Lock(response.getLocked(), codec);
       logger.debug(String.format("coprocessor encounters locks: %s", lock));
       ResolveLockResult resolveLockResult =
-          lockResolverClient.resolveLocks(
+          getLockResolverClient().resolveLocks(
               backOffer, startTs, Collections.singletonList(lock), forWrite);
       addResolvedLocks(startTs, resolveLockResult.getResolvedLocks());
       long msBeforeExpired = resolveLockResult.getMsBeforeTxnExpired();
@@ -803,7 +839,7 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
         new KVErrorHandler<>(
             regionManager,
             this,
-            lockResolverClient,
+            getLockResolverClient(),
             StreamingResponse::getFirstRegionError, // TODO: handle all errors in streaming response
             resp -> null,
             resolveLockResult -> addResolvedLocks(startTs, resolveLockResult.getResolvedLocks()),
@@ -870,6 +906,54 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
     return resp.getRegionsList().stream().map(codec::decodeRegion).collect(Collectors.toList());
   }
 
+  /**
+   * Send the request through the store's shared BatchCommands stream when batch commands is
+   * enabled, and fall back to the unary call otherwise. The stream is not a call of the stubs, so
+   * the batched requests skip the interceptors of the stubs, i.e. the compression and the
+   * concurrency limit of the store; their latency is reported to the replica selector here.
+   */
+  private <ReqT, RespT> RespT callWithRetryInBatch(
+      BackOffer backOffer,
+      MethodDescriptor<ReqT, RespT> method,
+      Supplier<ReqT> requestFactory,
+      ErrorHandler<RespT> handler,
+      Function<ReqT, BatchCommandsRequest.Request> wrapper,
+      Function<BatchCommandsResponse.Response, RespT> unwrapper) {
+    if (!conf.isBatchCommandsEnable() || storeType != TiStoreType.TiKV) {
+      return callWithRetry(backOffer, method, requestFactory, handler);
+    }
+    RetryPolicy<RespT> policy = new RetryMaxMs.Builder<RespT>(backOffer).create(handler);
+    return policy.callWithRetry(
+        () -> {
+          // the store may be switched by region error handling, so look it up for every attempt
+          if (store.getProxyStore() != null) {
+            TikvBlockingStub stub = getBlockingStub();
+            return ClientCalls.blockingUnaryCall(
+                stub.getChannel(), method, stub.getCallOptions(), requestFactory.get());
+          }
+          String address = store.getAddress();
+          BatchCommandsClient client = clientBuilder.getBatchCommandsClient(address);
+          return unwrapper.apply(
+              StoreLatencyInterceptor.record(
+                  conf,
+                  address,
+                  () -> client.sendRequest(wrapper.apply(requestFactory.get()), getTimeout())));
+        },
+        method.getFullMethodName(),
+        backOffer);
+  }
+
+  /** The keys and values of the responses alias the received messages if zero copy is enabled. */
+  private MethodDescriptor<RawBatchGetRequest, RawBatchGetResponse> rawBatchGetMethod() {
+    return conf.isRawKVZeroCopyReadEnable()
+        ? ALIASED_RAW_BATCH_GET_METHOD
+        : TikvGrpc.getRawBatchGetMethod();
+  }
+
+  private MethodDescriptor<RawScanRequest, RawScanResponse> rawScanMethod() {
+    return conf.isRawKVZeroCopyReadEnable() ? ALIASED_RAW_SCAN_METHOD : TikvGrpc.getRawScanMethod();
+  }
+
   // APIs for Raw Scan/Put/Get/Delete
 
   public Optional<ByteString> rawGet(BackOffer backOffer, ByteString key) {
@@ -886,13 +970,156 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
       RegionErrorHandler<RawGetResponse> handler =
           new RegionErrorHandler<RawGetResponse>(
               regionManager, this, resp -> resp.hasRegionError() ? resp.getRegionError() : null);
-      RawGetResponse resp = callWithRetry(backOffer, TikvGrpc.getRawGetMethod(), factory, handler);
+      HedgedReadPolicy hedgedReadPolicy = clientBuilder.getHedgedReadPolicy();
+      if (hedgedReadPolicy != null
+          && storeType == TiStoreType.TiKV
+          && store.getProxyStore() == null
+          && !region.getFollowerList().isEmpty()) {
+        RawGetResponse resp = hedgedRawGet(hedgedReadPolicy, backOffer, factory.get(), key);
+        // a region error of the leader is handled before the read is retried
+        if (resp != null && !handler.handleResponseError(backOffer, resp)) {
+          return rawGetHelper(resp);
+        }
+      }
+      RawGetResponse resp =
+          callWithRetryInBatch(
+              backOffer,
+              TikvGrpc.getRawGetMethod(),
+              factory,
+              handler,
+              req -> BatchCommandsRequest.Request.newBuilder().setRawGet(req).build(),
+              BatchCommandsResponse.Response::getRawGet);
       return rawGetHelper(resp);
     } finally {
       requestTimer.observeDuration();
     }
   }
 
+  /**
+   * Send the read to the leader, and to a follower as well if the leader has not answered within
+   * the hedging delay. Returns the first good answer and cancels the other call. A bad or failed
+   * answer of the follower does not end the read, the answer of the leader is awaited instead.
+   *
+   * @return the first good answer, or the answer of the leader, or null if the leader call failed
+   *     and no replica gave a good answer
+   */
+  private RawGetResponse hedgedRawGet(
+      HedgedReadPolicy policy, BackOffer backOffer, RawGetRequest request, ByteString key) {
+    long start = System.nanoTime();
+    ListenableFuture<RawGetResponse> leader = getAsyncStub().rawGet(request);
+    ListenableFuture<RawGetResponse> follower = null;
+    try {
+      try {
+        RawGetResponse resp = leader.get(policy.getDelayNanos(), TimeUnit.NANOSECONDS);
+        policy.record(System.nanoTime() - start);
+        return resp;
+      } catch (TimeoutException e) {
+        follower = rawGetOnFollower(backOffer, key);
+      }
+      if (follower == null) {
+        RawGetResponse resp = leader.get();
+        policy.record(System.nanoTime() - start);
+        return resp;
+      }
+      CompletableFuture<RawGetResponse> answer = new CompletableFuture<>();
+      AtomicInteger pending = new AtomicInteger(2);
+      Futures.addCallback(
+          leader,
+          new FutureCallback<RawGetResponse>() {
+            @Override
+            public void onSuccess(RawGetResponse resp) {
+              policy.record(System.nanoTime() - start);
+              if (answer.complete(resp)) {
+                HedgedReadPolicy.HEDGED_READS.labels(isGoodRawGet(resp) ? "leader" : "none").inc();
+              }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+              onHedgedRawGetFailure(answer, pending);
+            }
+          },
+          MoreExecutors.directExecutor());
+      Futures.addCallback(
+          follower,
+          new FutureCallback<RawGetResponse>() {
+            @Override
+            public void onSuccess(RawGetResponse resp) {
+              if (isGoodRawGet(resp) && answer.complete(resp)) {
+                HedgedReadPolicy.HEDGED_READS.labels("follower").inc();
+                // the leader is cancelled, its latency is censored at the time of this answer, so
+                // that the delay still grows when the leader slows down
+                policy.record(System.nanoTime() - start);
+              } else {
+                onFailure(null);
+              }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+              onHedgedRawGetFailure(answer, pending);
+            }
+          },
+          MoreExecutors.directExecutor());
+      return answer.get();
+    } catch (ExecutionException e) {
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GrpcException(e);
+    } finally {
+      leader.cancel(true);
+      if (follower != null) {
+        follower.cancel(true);
+      }
+    }
+  }
+
+  private static boolean isGoodRawGet(RawGetResponse resp) {
+    return resp != null && !resp.hasRegionError() && resp.getError().isEmpty();
+  }
+
+  // complete the hedged read with null once both calls have failed
+  private static void onHedgedRawGetFailure(
+      CompletableFuture<RawGetResponse> answer, AtomicInteger pending) {
+    if (pending.decrementAndGet() == 0 && answer.complete(null)) {
+      HedgedReadPolicy.HEDGED_READS.labels("none").inc();
+    }
+  }
+
+  /** Send the read to a random follower of the region, or return null if it can not be sent. */
+  private ListenableFuture<RawGetResponse> rawGetOnFollower(BackOffer backOffer, ByteString key) {
+    List<Metapb.Peer> followers = region.getFollowerList();
+    Metapb.Peer peer = followers.get(ThreadLocalRandom.current().nextInt(followers.size()));
+    try {
+      TiStore followerStore = regionManager.getStoreById(peer.getStoreId(), backOffer);
+      if (followerStore == null || !followerStore.isReachable()) {
+        return null;
+      }
+      ManagedChannel channel =
+          channelFactory.getChannel(followerStore.getAddress(), pdClient.getHostMapping());
+      RawGetRequest request =
+          RawGetRequest.newBuilder()
+              .setContext(region.getReplicaReadContext(peer))
+              .setKey(codec.encodeKey(key))
+              .build();
+      TikvFutureStub stub =
+          StoreLatencyInterceptor.apply(
+              TikvGrpc.newFutureStub(channel), conf, followerStore.getAddress());
+      return StoreConcurrencyLimiter.apply(
+              stub, regionManager.getConcurrencyLimiter(followerStore.getAddress()))
+          .withDeadlineAfter(getTimeout(), TimeUnit.MILLISECONDS)
+          .rawGet(request);
+    } catch (Exception e) {
+      logger.warn(
+          "failed to hedge the raw get of region {} to store {}",
+          region.getId(),
+          peer.getStoreId(),
+          e);
+      return null;
+    }
+  }
+
   private Optional<ByteString> rawGetHelper(RawGetResponse resp) {
     if (resp == null) {
       this.regionManager.onRequestFail(region);
@@ -973,7 +1200,13 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
           new RegionErrorHandler<RawDeleteResponse>(
               regionManager, this, resp -> resp.hasRegionError() ? resp.getRegionError() : null);
       RawDeleteResponse resp =
-          callWithRetry(backOffer, TikvGrpc.getRawDeleteMethod(), factory, handler);
+          callWithRetryInBatch(
+              backOffer,
+              TikvGrpc.getRawDeleteMethod(),
+              factory,
+              handler,
+              req -> BatchCommandsRequest.Request.newBuilder().setRawDelete(req).build(),
+              BatchCommandsResponse.Response::getRawDelete);
       rawDeleteHelper(resp, region);
     } finally {
       requestTimer.observeDuration();
@@ -1013,7 +1246,14 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
       RegionErrorHandler<RawPutResponse> handler =
           new RegionErrorHandler<RawPutResponse>(
               regionManager, this, resp -> resp.hasRegionError() ? resp.getRegionError() : null);
-      RawPutResponse resp = callWithRetry(backOffer, TikvGrpc.getRawPutMethod(), factory, handler);
+      RawPutResponse resp =
+          callWithRetryInBatch(
+              backOffer,
+              TikvGrpc.getRawPutMethod(),
+              factory,
+              handler,
+              req -> BatchCommandsRequest.Request.newBuilder().setRawPut(req).build(),
+              BatchCommandsResponse.Response::getRawPut);
       rawPutHelper(resp);
     } finally {
       requestTimer.observeDuration();
@@ -1113,7 +1353,13 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
           new RegionErrorHandler<RawBatchGetResponse>(
               regionManager, this, resp -> resp.hasRegionError() ? resp.getRegionError() : null);
       RawBatchGetResponse resp =
-          callWithRetry(backoffer, TikvGrpc.getRawBatchGetMethod(), factory, handler);
+          callWithRetryInBatch(
+              backoffer,
+              rawBatchGetMethod(),
+              factory,
+              handler,
+              req -> BatchCommandsRequest.Request.newBuilder().setRawBatchGet(req).build(),
+              BatchCommandsResponse.Response::getRawBatchGet);
       return handleRawBatchGet(resp);
     } finally {
       requestTimer.observeDuration();
@@ -1156,7 +1402,13 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
           new RegionErrorHandler<RawBatchPutResponse>(
               regionManager, this, resp -> resp.hasRegionError() ? resp.getRegionError() : null);
       RawBatchPutResponse resp =
-          callWithRetry(backOffer, TikvGrpc.getRawBatchPutMethod(), factory, handler);
+          callWithRetryInBatch(
+              backOffer,
+              TikvGrpc.getRawBatchPutMethod(),
+              factory,
+              handler,
+              req -> BatchCommandsRequest.Request.newBuilder().setRawBatchPut(req).build(),
+              BatchCommandsResponse.Response::getRawBatchPut);
       handleRawBatchPut(resp);
     } finally {
       requestTimer.observeDuration();
@@ -1210,7 +1462,13 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
           new RegionErrorHandler<RawBatchDeleteResponse>(
               regionManager, this, resp -> resp.hasRegionError() ? resp.getRegionError() : null);
       RawBatchDeleteResponse resp =
-          callWithRetry(backoffer, TikvGrpc.getRawBatchDeleteMethod(), factory, handler);
+          callWithRetryInBatch(
+              backoffer,
+              TikvGrpc.getRawBatchDeleteMethod(),
+              factory,
+              handler,
+              req -> BatchCommandsRequest.Request.newBuilder().setRawBatchDelete(req).build(),
+              BatchCommandsResponse.Response::getRawBatchDelete);
       handleRawBatchDelete(resp);
     } finally {
       requestTimer.observeDuration();
@@ -1261,7 +1519,7 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
           new RegionErrorHandler<RawScanResponse>(
               regionManager, this, resp -> resp.hasRegionError() ? resp.getRegionError() : null);
       RawScanResponse resp =
-          callWithRetry(backOffer, TikvGrpc.getRawScanMethod(), factory, handler);
+          callWithRetry(backOffer, rawScanMethod(), factory, handler);
       // RegionErrorHandler may refresh region cache due to outdated region info,
       // This region need to get newest info from cache.
       region = regionManager.getRegionByKey(key, backOffer);
@@ -1275,6 +1533,52 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
     return rawScan(backOffer, key, getConf().getScanBatchSize(), keyOnly);
   }
 
+  /**
+   * Return a batch KvPair list containing limited key-value pairs of range [startKey, endKey) in
+   * descending order, starting from the keys right before `endKey`, which are in the same region
+   *
+   * @param backOffer BackOffer
+   * @param startKey startKey, inclusive
+   * @param endKey endKey, exclusive
+   * @param keyOnly true if value of KvPair is not needed
+   * @return KvPair list
+   */
+  public List<KvPair> rawReverseScan(
+      BackOffer backOffer, ByteString startKey, ByteString endKey, int limit, boolean keyOnly) {
+    Long clusterId = pdClient.getClusterId();
+    Histogram.Timer requestTimer =
+        GRPC_RAW_REQUEST_LATENCY
+            .labels("client_grpc_raw_reverse_scan", clusterId.toString())
+            .startTimer();
+    try {
+      Supplier<RawScanRequest> factory =
+          () -> {
+            Pair<ByteString, ByteString> range = codec.encodeRange(startKey, endKey);
+            // a reverse scan starts from the upper bound
+            return RawScanRequest.newBuilder()
+                .setContext(makeContext(storeType, backOffer.getSlowLog()))
+                .setStartKey(range.second)
+                .setEndKey(range.first)
+                .setKeyOnly(keyOnly)
+                .setLimit(limit)
+                .setReverse(true)
+                .build();
+          };
+
+      RegionErrorHandler<RawScanResponse> handler =
+          new RegionErrorHandler<RawScanResponse>(
+              regionManager, this, resp -> resp.hasRegionError() ? resp.getRegionError() : null);
+      RawScanResponse resp =
+          callWithRetry(backOffer, rawScanMethod(), factory, handler);
+      // RegionErrorHandler may refresh region cache due to outdated region info,
+      // This region need to get newest info from cache.
+      region = regionManager.getRegionByEndKey(endKey, backOffer);
+      return rawScanHelper(resp);
+    } finally {
+      requestTimer.observeDuration();
+    }
+  }
+
   private List<KvPair> rawScanHelper(RawScanResponse resp) {
     if (resp == null) {
       this.regionManager.onRequestFail(region);
@@ -1335,6 +1639,241 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
     }
   }
 
+  /**
+   * Compute the checksum of raw keys in the range of [startKey, endKey) on TiKV
+   *
+   * @param backOffer BackOffer
+   * @param startKey startKey
+   * @param endKey endKey
+   * @return checksum of the range
+   */
+  public RawChecksum rawChecksum(BackOffer backOffer, ByteString startKey, ByteString endKey) {
+    Long clusterId = pdClient.getClusterId();
+    Histogram.Timer requestTimer =
+        GRPC_RAW_REQUEST_LATENCY
+            .labels("client_grpc_raw_checksum", clusterId.toString())
+            .startTimer();
+    try {
+      Supplier<RawChecksumRequest> factory =
+          () -> {
+            Pair<ByteString, ByteString> range = codec.encodeRange(startKey, endKey);
+            return RawChecksumRequest.newBuilder()
+                .setContext(makeContext(storeType, backOffer.getSlowLog()))
+                .setAlgorithm(ChecksumAlgorithm.Crc64_Xor)
+                .addRanges(
+                    KeyRange.newBuilder().setStartKey(range.first).setEndKey(range.second).build())
+                .build();
+          };
+
+      RegionErrorHandler<RawChecksumResponse> handler =
+          new RegionErrorHandler<RawChecksumResponse>(
+              regionManager, this, resp -> resp.hasRegionError() ? resp.getRegionError() : null);
+      RawChecksumResponse resp =
+          callWithRetry(backOffer, TikvGrpc.getRawChecksumMethod(), factory, handler);
+      return rawChecksumHelper(resp);
+    } finally {
+      requestTimer.observeDuration();
+    }
+  }
+
+  private RawChecksum rawChecksumHelper(RawChecksumResponse resp) {
+    if (resp == null) {
+      this.regionManager.onRequestFail(region);
+      throw new TiClientInternalException("RawChecksumResponse failed without a cause");
+    }
+    String error = resp.getError();
+    if (!error.isEmpty()) {
+      throw new KeyException(resp.getError());
+    }
+    if (resp.hasRegionError()) {
+      throw new RegionException(resp.getRegionError());
+    }
+    return new RawChecksum(resp.getChecksum(), resp.getTotalKvs(), resp.getTotalBytes());
+  }
+
+  // Async APIs for Raw Get/Put/Delete/Scan. The calls are sent through the future stub and retried
+  // like the blocking ones, but the back offs are waited on the timer, so no thread is held while
+  // waiting for TiKV. An error left after the retries fails the returned future.
+
+  public CompletableFuture<Optional<ByteString>> rawGetAsync(
+      BackOffer backOffer, ByteString key, ScheduledExecutorService timer) {
+    return callAsync(
+            "client_grpc_raw_get",
+            backOffer,
+            TikvGrpc.getRawGetMethod(),
+            () ->
+                RawGetRequest.newBuilder()
+                    .setContext(makeContext(storeType, backOffer.getSlowLog()))
+                    .setKey(codec.encodeKey(key))
+                    .build(),
+            resp -> resp.hasRegionError() ? resp.getRegionError() : null,
+            timer)
+        .thenApply(this::rawGetHelper);
+  }
+
+  public CompletableFuture<Void> rawPutAsync(
+      BackOffer backOffer,
+      ByteString key,
+      ByteString value,
+      long ttl,
+      boolean atomicForCAS,
+      ScheduledExecutorService timer) {
+    return callAsync(
+            "client_grpc_raw_put",
+            backOffer,
+            TikvGrpc.getRawPutMethod(),
+            () ->
+                RawPutRequest.newBuilder()
+                    .setContext(makeContext(storeType, backOffer.getSlowLog()))
+                    .setKey(codec.encodeKey(key))
+                    .setValue(value)
+                    .setTtl(ttl)
+                    .setForCas(atomicForCAS)
+                    .build(),
+            resp -> resp.hasRegionError() ? resp.getRegionError() : null,
+            timer)
+        .thenAccept(this::rawPutHelper);
+  }
+
+  public CompletableFuture<Void> rawDeleteAsync(
+      BackOffer backOffer, ByteString key, boolean atomicForCAS, ScheduledExecutorService timer) {
+    return callAsync(
+            "client_grpc_raw_delete",
+            backOffer,
+            TikvGrpc.getRawDeleteMethod(),
+            () ->
+                RawDeleteRequest.newBuilder()
+                    .setContext(makeContext(storeType, backOffer.getSlowLog()))
+                    .setKey(codec.encodeKey(key))
+                    .setForCas(atomicForCAS)
+                    .build(),
+            resp -> resp.hasRegionError() ? resp.getRegionError() : null,
+            timer)
+        .thenAccept(resp -> rawDeleteHelper(resp, region));
+  }
+
+  public CompletableFuture<List<KvPair>> rawBatchGetAsync(
+      BackOffer backOffer, List<ByteString> keys, ScheduledExecutorService timer) {
+    if (keys.isEmpty()) {
+      return CompletableFuture.completedFuture(new ArrayList<>());
+    }
+    return callAsync(
+            "client_grpc_raw_batch_get",
+            backOffer,
+            rawBatchGetMethod(),
+            () ->
+                RawBatchGetRequest.newBuilder()
+                    .setContext(makeContext(storeType, backOffer.getSlowLog()))
+                    .addAllKeys(codec.encodeKeys(keys))
+                    .build(),
+            resp -> resp.hasRegionError() ? resp.getRegionError() : null,
+            timer)
+        .thenApply(this::handleRawBatchGet);
+  }
+
+  public CompletableFuture<Void> rawBatchPutAsync(
+      BackOffer backOffer,
+      Batch batch,
+      long ttl,
+      boolean atomicForCAS,
+      ScheduledExecutorService timer) {
+    if (batch.getKeys().isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    List<KvPair> pairs = new ArrayList<>();
+    for (int i = 0; i < batch.getKeys().size(); i++) {
+      pairs.add(
+          KvPair.newBuilder()
+              .setKey(codec.encodeKey(batch.getKeys().get(i)))
+              .setValue(batch.getValues().get(i))
+              .build());
+    }
+    return callAsync(
+            "client_grpc_raw_batch_put",
+            backOffer,
+            TikvGrpc.getRawBatchPutMethod(),
+            () ->
+                RawBatchPutRequest.newBuilder()
+                    .setContext(makeContext(storeType, backOffer.getSlowLog()))
+                    .addAllPairs(pairs)
+                    .setTtl(ttl)
+                    .addTtls(ttl)
+                    .setForCas(atomicForCAS)
+                    .build(),
+            resp -> resp.hasRegionError() ? resp.getRegionError() : null,
+            timer)
+        .thenAccept(this::handleRawBatchPut);
+  }
+
+  public CompletableFuture<Void> rawBatchDeleteAsync(
+      BackOffer backOffer,
+      List<ByteString> keys,
+      boolean atomicForCAS,
+      ScheduledExecutorService timer) {
+    if (keys.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return callAsync(
+            "client_grpc_raw_batch_delete",
+            backOffer,
+            TikvGrpc.getRawBatchDeleteMethod(),
+            () ->
+                RawBatchDeleteRequest.newBuilder()
+                    .setContext(makeContext(storeType, backOffer.getSlowLog()))
+                    .addAllKeys(codec.encodeKeys(keys))
+                    .setForCas(atomicForCAS)
+                    .build(),
+            resp -> resp.hasRegionError() ? resp.getRegionError() : null,
+            timer)
+        .thenAccept(this::handleRawBatchDelete);
+  }
+
+  public CompletableFuture<List<KvPair>> rawScanAsync(
+      BackOffer backOffer,
+      ByteString key,
+      int limit,
+      boolean keyOnly,
+      ScheduledExecutorService timer) {
+    Pair<ByteString, ByteString> range = codec.encodeRange(key, ByteString.EMPTY);
+    return callAsync(
+            "client_grpc_raw_scan",
+            backOffer,
+            rawScanMethod(),
+            () ->
+                RawScanRequest.newBuilder()
+                    .setContext(makeContext(storeType, backOffer.getSlowLog()))
+                    .setStartKey(range.first)
+                    .setEndKey(range.second)
+                    .setKeyOnly(keyOnly)
+                    .setLimit(limit)
+                    .build(),
+            resp -> resp.hasRegionError() ? resp.getRegionError() : null,
+            timer)
+        .thenApply(this::rawScanHelper);
+  }
+
+  /**
+   * Send the request with retries through the future stub. Region errors are handled by {@link
+   * RegionErrorHandler} as in the blocking calls, so the region cache is refreshed before the
+   * returned future fails.
+   */
+  private <ReqT, RespT> CompletableFuture<RespT> callAsync(
+      String label,
+      BackOffer backOffer,
+      MethodDescriptor<ReqT, RespT> method,
+      Supplier<ReqT> factory,
+      Function<RespT, Errorpb.Error> getRegionError,
+      ScheduledExecutorService timer) {
+    Histogram.Timer requestTimer =
+        GRPC_RAW_REQUEST_LATENCY.labels(label, pdClient.getClusterId().toString()).startTimer();
+    RegionErrorHandler<RespT> handler =
+        new RegionErrorHandler<>(regionManager, this, getRegionError);
+    CompletableFuture<RespT> result =
+        callWithRetryAsync(backOffer, method, factory, handler, timer);
+    result.whenComplete((resp, e) -> requestTimer.observeDuration());
+    return result;
+  }
+
   public enum RequestTypes {
     REQ_TYPE_SELECT(101),
     REQ_TYPE_INDEX(102),
@@ -1353,12 +1892,54 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
     }
   }
 
+  private static final class TikvStubs {
+    private final ManagedChannel channel;
+    private final TikvBlockingStub blockingStub;
+    private final TikvFutureStub asyncStub;
+
+    private TikvStubs(
+        TiConfiguration conf,
+        ManagedChannel channel,
+        String address,
+        String forwardTo,
+        GrpcCompression compression,
+        StoreConcurrencyLimiter limiter) {
+      this.channel = channel;
+      String storeAddress = forwardTo == null ? address : forwardTo;
+      TikvBlockingStub blockingStub =
+          StoreLatencyInterceptor.apply(TikvGrpc.newBlockingStub(channel), conf, storeAddress);
+      TikvFutureStub asyncStub =
+          StoreLatencyInterceptor.apply(TikvGrpc.newFutureStub(channel), conf, storeAddress);
+      if (compression != null) {
+        blockingStub = compression.apply(blockingStub);
+        asyncStub = compression.apply(asyncStub);
+      }
+      blockingStub = StoreConcurrencyLimiter.apply(blockingStub, limiter);
+      asyncStub = StoreConcurrencyLimiter.apply(asyncStub, limiter);
+      if (forwardTo != null) {
+        Metadata header = new Metadata();
+        header.put(TiConfiguration.FORWARD_META_DATA_KEY, forwardTo);
+        blockingStub = MetadataUtils.attachHeaders(blockingStub, header);
+        asyncStub = MetadataUtils.attachHeaders(asyncStub, header);
+      }
+      this.blockingStub = blockingStub;
+      this.asyncStub = asyncStub;
+    }
+  }
+
   public static class RegionStoreClientBuilder {
 
     private final TiConfiguration conf;
     private final ChannelFactory channelFactory;
     private final RegionManager regionManager;
     private final PDClient pdClient;
+    private final Map<String, BatchCommandsClient> batchCommandsClients =
+        new ConcurrentHashMap<>();
+    private final Map<String, TikvStubs> stubsCache = new ConcurrentHashMap<>();
+    private final GrpcCompression compression;
+    private final HedgedReadPolicy hedgedReadPolicy;
+    private final ResolvedTxnCache<TxnStatus> resolvedTxnCache =
+        new ResolvedTxnCache<>(AbstractLockResolverClient.RESOLVED_TXN_CACHE_SIZE);
 
     public RegionStoreClientBuilder(
         TiConfiguration conf,
@@ -1372,6 +1953,8 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
       this.channelFactory = channelFactory;
       this.regionManager = regionManager;
       this.pdClient = pdClient;
+      this.compression = GrpcCompression.create(conf);
+      this.hedgedReadPolicy = HedgedReadPolicy.create(conf);
     }
 
     public RegionStoreClient build(TiRegion region, TiStore store, TiStoreType storeType)
@@ -1380,27 +1963,11 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
       Objects.requireNonNull(store, "store is null");
       Objects.requireNonNull(storeType, "storeType is null");
 
-      String addressStr = store.getStore().getAddress();
-      if (logger.isDebugEnabled()) {
-        logger.debug(String.format("Create region store client on address %s", addressStr));
-      }
-      ManagedChannel channel = null;
-
-      TikvBlockingStub blockingStub = null;
-      TikvFutureStub asyncStub = null;
-
+      TikvStubs stubs;
       if (conf.getEnableGrpcForward() && store.getProxyStore() != null && !store.isReachable()) {
-        addressStr = store.getProxyStore().getAddress();
-        channel =
-            channelFactory.getChannel(addressStr, regionManager.getPDClient().getHostMapping());
-        Metadata header = new Metadata();
-        header.put(TiConfiguration.FORWARD_META_DATA_KEY, store.getStore().getAddress());
-        blockingStub = MetadataUtils.attachHeaders(TikvGrpc.newBlockingStub(channel), header);
-        asyncStub = MetadataUtils.attachHeaders(TikvGrpc.newFutureStub(channel), header);
+        stubs = getStubs(store.getProxyStore().getAddress(), store.getStore().getAddress());
       } else {
-        channel = channelFactory.getChannel(addressStr, pdClient.getHostMapping());
-        blockingStub = TikvGrpc.newBlockingStub(channel);
-        asyncStub = TikvGrpc.newFutureStub(channel);
+        stubs = getStubs(store.getStore().getAddress(), null);
       }
 
       return new RegionStoreClient(
@@ -1409,13 +1976,52 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
           store,
           storeType,
           channelFactory,
-          blockingStub,
-          asyncStub,
+          stubs.blockingStub,
+          stubs.asyncStub,
           regionManager,
           pdClient,
           this);
     }
 
+    /**
+     * Get the stubs of the store at `address`, or of the proxy at `address` forwarding to
+     * `forwardTo` if it is not null. Stubs are immutable and bound to a channel, so they are shared
+     * by all clients of the store and only recreated when the channel factory hands out a new
+     * channel, e.g. after the certificates are reloaded.
+     */
+    TikvStubs getStubs(String address, String forwardTo) {
+      ManagedChannel channel = channelFactory.getChannel(address, pdClient.getHostMapping());
+      String key = forwardTo == null ? address : address + "/" + forwardTo;
+      TikvStubs stubs = stubsCache.get(key);
+      if (stubs != null && stubs.channel == channel) {
+        return stubs;
+      }
+      if (logger.isDebugEnabled()) {
+        logger.debug(String.format("Create region store client stubs on address %s", key));
+      }
+      String storeAddress = forwardTo == null ? address : forwardTo;
+      stubs =
+          new TikvStubs(
+              conf,
+              channel,
+              address,
+              forwardTo,
+              compression,
+              regionManager.getConcurrencyLimiter(storeAddress));
+      stubsCache.put(key, stubs);
+      return stubs;
+    }
+
+    /** The hedging policy of raw reads shared by all clients, null if hedging is not enabled. */
+    HedgedReadPolicy getHedgedReadPolicy() {
+      return hedgedReadPolicy;
+    }
+
+    /** The resolved txn status cache shared by all lock resolvers of the session. */
+    public ResolvedTxnCache<TxnStatus> getResolvedTxnCache() {
+      return resolvedTxnCache;
+    }
+
     public RegionStoreClient build(TiRegion region, TiStore store) throws GrpcException {
       return build(region, store, TiStoreType.TiKV);
     }
@@ -1452,6 +2058,27 @@ public class RegionStoreClient extends AbstractRegionStoreClient {
       return regionManager;
     }
 
+    /** Get the shared BatchCommands client of the store at `address`, creating it if needed. */
+    public BatchCommandsClient getBatchCommandsClient(String address) {
+      return batchCommandsClients.computeIfAbsent(
+          address,
+          addr ->
+              new BatchCommandsClient(
+                  addr,
+                  () -> channelFactory.getChannel(addr, pdClient.getHostMapping()),
+                  conf.getBatchCommandsMaxBatchSize(),
+                  conf.getBatchCommandsMaxWaitInUs(),
+                  pdClient.getClusterId()));
+    }
+
+    public void close() {
+      for (BatchCommandsClient client : batchCommandsClients.values()) {
+        client.close();
+      }
+      batchCommandsClients.clear();
+      stubsCache.clear();
+    }
+
     private BackOffer defaultBackOff() {
       BackOffer backoffer =
           ConcreteBackOffer.newCustomBackOff(
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.region;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.Deadline;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.stub.AbstractStub;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.tikv.common.TiConfiguration;
+import org.tikv.common.exception.StoreOverloadedException;
+
+/**
+ * Limits the requests in flight to a store. The limit follows the gradient of the latency: it grows
+ * while the recent latency stays close to the long term one, and shrinks when the recent latency
+ * rises above it, i.e. when the requests start to queue in the store, or when requests time out.
+ *
+ * <p>A request over the limit waits for a slot up to the configured time and its deadline, then is
+ * failed with a {@link StoreOverloadedException} instead of being sent.
+ */
+class StoreConcurrencyLimiter implements ClientInterceptor {
+  public static final Gauge STORE_CONCURRENCY_LIMIT =
+      Gauge.build()
+          .name("client_java_store_concurrency_limit")
+          .help("the limit of the requests in flight to a store.")
+          .labelNames("store")
+          .register();
+
+  public static final Counter STORE_CONCURRENCY_REJECTED =
+      Counter.build()
+          .name("client_java_store_concurrency_rejected_requests")
+          .help("requests rejected by the concurrency limit of a store.")
+          .labelNames("store")
+          .register();
+
+  private static final int MIN_LIMIT = 1;
+  // the weights of a latency in the recent and in the long term latencies
+  private static final double SHORT_RTT_WEIGHT = 0.1;
+  private static final double LONG_RTT_WEIGHT = 0.002;
+  // the weight of a new estimation in the limit
+  private static final double SMOOTHING = 0.2;
+  private static final double BACKOFF_RATIO = 0.9;
+
+  private final String storeAddress;
+  private final int maxLimit;
+  private final long maxWaitNanos;
+  private final Gauge.Child limitGauge;
+  private final Counter.Child rejected;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private volatile int waiters;
+  private volatile double limit;
+  // guarded by this
+  private double shortRttNanos;
+  private double longRttNanos;
+
+  StoreConcurrencyLimiter(String storeAddress, int initialLimit, int maxLimit, long maxWaitMs) {
+    this.storeAddress = storeAddress;
+    this.maxLimit = maxLimit;
+    this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+    this.limitGauge = STORE_CONCURRENCY_LIMIT.labels(storeAddress);
+    this.rejected = STORE_CONCURRENCY_REJECTED.labels(storeAddress);
+    this.limit = Math.max(MIN_LIMIT, Math.min(initialLimit, maxLimit));
+    limitGauge.set(limit);
+  }
+
+  static StoreConcurrencyLimiter create(TiConfiguration conf, String storeAddress) {
+    return new StoreConcurrencyLimiter(
+        storeAddress,
+        conf.getStoreConcurrencyLimitInitial(),
+        conf.getStoreConcurrencyLimitMax(),
+        conf.getStoreConcurrencyLimitMaxWaitInMS());
+  }
+
+  /** Attach the limiter to the stub if it is not null. */
+  static <S extends AbstractStub<S>> S apply(S stub, StoreConcurrencyLimiter limiter) {
+    return limiter == null ? stub : stub.withInterceptors(limiter);
+  }
+
+  int getLimit() {
+    return (int) limit;
+  }
+
+  int getInFlight() {
+    return inFlight.get();
+  }
+
+  private boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= (int) limit) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /** Take a slot, waiting at most the given time for one. */
+  boolean acquire(long waitNanos) {
+    if (tryAcquire()) {
+      return true;
+    }
+    if (waitNanos <= 0) {
+      return false;
+    }
+    long deadline = System.nanoTime() + waitNanos;
+    synchronized (this) {
+      waiters++;
+      try {
+        while (!tryAcquire()) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            return false;
+          }
+          TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      } finally {
+        waiters--;
+      }
+    }
+  }
+
+  /**
+   * Give back a slot, and adjust the limit from the latency of the request.
+   *
+   * @param latencyNanos the latency of a successful request, or -1 if the request failed
+   * @param overloaded whether the request failed because the store is overloaded
+   */
+  void release(long latencyNanos, boolean overloaded) {
+    int current = inFlight.getAndDecrement();
+    if (overloaded) {
+      synchronized (this) {
+        setLimit(limit * BACKOFF_RATIO);
+      }
+    } else if (latencyNanos >= 0) {
+      synchronized (this) {
+        update(latencyNanos, current);
+      }
+    }
+    if (waiters > 0) {
+      synchronized (this) {
+        notifyAll();
+      }
+    }
+  }
+
+  private void update(long latencyNanos, int current) {
+    if (longRttNanos == 0) {
+      shortRttNanos = latencyNanos;
+      longRttNanos = latencyNanos;
+      return;
+    }
+    shortRttNanos += (latencyNanos - shortRttNanos) * SHORT_RTT_WEIGHT;
+    longRttNanos += (latencyNanos - longRttNanos) * LONG_RTT_WEIGHT;
+    // the latency dropped for long, e.g. after a slow period, so catch up
+    if (longRttNanos > shortRttNanos * 2) {
+      longRttNanos *= 0.95;
+    }
+    // the limit can not be judged if it is far from being used
+    if (current < limit / 2) {
+      return;
+    }
+    double gradient = Math.max(0.5, Math.min(1.0, longRttNanos / shortRttNanos));
+    double estimated = limit * gradient + Math.sqrt(limit);
+    setLimit(limit * (1 - SMOOTHING) + estimated * SMOOTHING);
+  }
+
+  private void setLimit(double newLimit) {
+    limit = Math.max(MIN_LIMIT, Math.min(maxLimit, newLimit));
+    limitGauge.set(limit);
+  }
+
+  private static boolean isOverloaded(Status status) {
+    switch (status.getCode()) {
+      case DEADLINE_EXCEEDED:
+      case RESOURCE_EXHAUSTED:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+      MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+    long waitNanos = maxWaitNanos;
+    Deadline deadline = callOptions.getDeadline();
+    if (deadline != null) {
+      waitNanos = Math.min(waitNanos, deadline.timeRemaining(TimeUnit.NANOSECONDS));
+    }
+    if (!acquire(waitNanos)) {
+      rejected.inc();
+      return new RejectedCall<>(storeAddress);
+    }
+    ClientCall<ReqT, RespT> call;
+    try {
+      call = next.newCall(method, callOptions);
+    } catch (RuntimeException e) {
+      release(-1, false);
+      throw e;
+    }
+    return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(call) {
+      @Override
+      public void start(Listener<RespT> responseListener, Metadata headers) {
+        long start = System.nanoTime();
+        try {
+          super.start(
+              new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(
+                  responseListener) {
+                @Override
+                public void onClose(Status status, Metadata trailers) {
+                  release(status.isOk() ? System.nanoTime() - start : -1, isOverloaded(status));
+                  super.onClose(status, trailers);
+                }
+              },
+              headers);
+        } catch (RuntimeException e) {
+          release(-1, false);
+          throw e;
+        }
+      }
+    };
+  }
+
+  /** A call closed as soon as it is started, without being sent to the store. */
+  private static class RejectedCall<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+    private final String storeAddress;
+
+    private RejectedCall(String storeAddress) {
+      this.storeAddress = storeAddress;
+    }
+
+    @Override
+    public void start(Listener<RespT> responseListener, Metadata headers) {
+      StoreOverloadedException e = new StoreOverloadedException(storeAddress);
+      responseListener.onClose(
+          Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage()).withCause(e), new Metadata());
+    }
+
+    @Override
+    public void request(int numMessages) {}
+
+    @Override
+    public void cancel(String message, Throwable cause) {}
+
+    @Override
+    public void halfClose() {}
+
+    @Override
+    public void sendMessage(ReqT message) {}
+  }
+}
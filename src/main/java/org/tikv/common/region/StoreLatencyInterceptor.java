@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.region;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.AbstractStub;
+import java.util.function.Supplier;
+import org.tikv.common.TiConfiguration;
+import org.tikv.common.replica.AdaptiveReplicaSelector;
+
+/** Tells an adaptive replica selector how the requests to a store perform. */
+class StoreLatencyInterceptor implements ClientInterceptor {
+  private final AdaptiveReplicaSelector selector;
+  private final String storeAddress;
+
+  private StoreLatencyInterceptor(AdaptiveReplicaSelector selector, String storeAddress) {
+    this.selector = selector;
+    this.storeAddress = storeAddress;
+  }
+
+  /** Attach the interceptor to the stub if the replica selector is adaptive. */
+  static <S extends AbstractStub<S>> S apply(S stub, TiConfiguration conf, String storeAddress) {
+    if (!(conf.getReplicaSelector() instanceof AdaptiveReplicaSelector)) {
+      return stub;
+    }
+    AdaptiveReplicaSelector selector = (AdaptiveReplicaSelector) conf.getReplicaSelector();
+    return stub.withInterceptors(new StoreLatencyInterceptor(selector, storeAddress));
+  }
+
+  /**
+   * Report a request which does not go through the stubs, e.g. one sent through the BatchCommands
+   * stream, to the replica selector if it is adaptive.
+   */
+  static <T> T record(TiConfiguration conf, String storeAddress, Supplier<T> call) {
+    if (!(conf.getReplicaSelector() instanceof AdaptiveReplicaSelector)) {
+      return call.get();
+    }
+    AdaptiveReplicaSelector selector = (AdaptiveReplicaSelector) conf.getReplicaSelector();
+    long start = System.nanoTime();
+    selector.onRequestStart(storeAddress);
+    boolean failed = true;
+    try {
+      T result = call.get();
+      failed = false;
+      return result;
+    } catch (StatusRuntimeException e) {
+      failed = isStoreFailure(e.getStatus());
+      throw e;
+    } finally {
+      selector.onRequestEnd(storeAddress, System.nanoTime() - start, failed);
+    }
+  }
+
+  private static boolean isStoreFailure(Status status) {
+    switch (status.getCode()) {
+      case UNAVAILABLE:
+      case DEADLINE_EXCEEDED:
+      case RESOURCE_EXHAUSTED:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+      MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+    return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(
+        next.newCall(method, callOptions)) {
+      @Override
+      public void start(Listener<RespT> responseListener, Metadata headers) {
+        long start = System.nanoTime();
+        selector.onRequestStart(storeAddress);
+        try {
+          super.start(
+              new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(
+                  responseListener) {
+                @Override
+                public void onClose(Status status, Metadata trailers) {
+                  selector.onRequestEnd(
+                      storeAddress, System.nanoTime() - start, isStoreFailure(status));
+                  super.onClose(status, trailers);
+                }
+              },
+              headers);
+        } catch (RuntimeException e) {
+          selector.onRequestEnd(storeAddress, System.nanoTime() - start, true);
+          throw e;
+        }
+      }
+    };
+  }
+}
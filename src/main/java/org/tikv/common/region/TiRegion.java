@@ -30,6 +30,7 @@ import org.tikv.common.TiConfiguration;
 import org.tikv.common.codec.KeyUtils;
 import org.tikv.common.exception.TiClientInternalException;
 import org.tikv.common.key.Key;
+import org.tikv.common.replica.AdaptiveReplicaSelector;
 import org.tikv.common.replica.ReplicaSelector;
 import org.tikv.common.util.FastByteComparisons;
 import org.tikv.common.util.KeyRangeUtils;
@@ -74,15 +75,18 @@ public class TiRegion implements Serializable {
     }
 
     // init replicaList
-    replicaList =
-        replicaSelector
-            .select(new org.tikv.common.replica.Region(meta, this.leader, peers, stores))
-            .stream()
-            .map(org.tikv.common.replica.Store::getPeer)
-            .collect(Collectors.toList());
+    replicaList = selectReplicas();
     replicaIdx = 0;
   }
 
+  private List<Peer> selectReplicas() {
+    return replicaSelector
+        .select(new org.tikv.common.replica.Region(meta, this.leader, peers, stores))
+        .stream()
+        .map(org.tikv.common.replica.Store::getPeer)
+        .collect(Collectors.toList());
+  }
+
   public TiConfiguration getConf() {
     return conf;
   }
@@ -134,6 +138,21 @@ public class TiRegion implements Serializable {
     return replicaList;
   }
 
+  /**
+   * The replicas to send a request to, in order of preference. An adaptive selector orders them
+   * again for every request, and the order is only returned, never kept in the region shared by
+   * concurrent requests.
+   */
+  public List<Peer> selectReplicaList() {
+    if (replicaSelector instanceof AdaptiveReplicaSelector) {
+      List<Peer> selected = selectReplicas();
+      if (!selected.isEmpty()) {
+        return selected;
+      }
+    }
+    return replicaList;
+  }
+
   private boolean isLeader(Peer peer) {
     return getLeader().equals(peer);
   }
@@ -164,6 +183,22 @@ public class TiRegion implements Serializable {
     return getContext(currentPeer, resolvedLocks, replicaRead);
   }
 
+  /**
+   * The context of a request sent to `store`. A TiKV request addresses the peer on the store it is
+   * routed to, rather than the current replica of the region.
+   */
+  public Kvrpcpb.Context getReplicaContext(
+      TiStore store, Set<Long> resolvedLocks, TiStoreType storeType) {
+    if (TiStoreType.TiKV.equals(storeType)) {
+      for (Peer peer : getMeta().getPeersList()) {
+        if (peer.getStoreId() == store.getId()) {
+          return getContext(peer, resolvedLocks, !isLeader(peer));
+        }
+      }
+    }
+    return getReplicaContext(resolvedLocks, storeType);
+  }
+
   public Kvrpcpb.Context getReplicaContext(Peer currentPeer, Set<Long> resolvedLocks) {
     return getContext(currentPeer, resolvedLocks, false);
   }
@@ -172,6 +207,11 @@ public class TiRegion implements Serializable {
     return getContext(currentPeer, java.util.Collections.emptySet(), false);
   }
 
+  /** The context of a read served by the given follower through a read index. */
+  public Kvrpcpb.Context getReplicaReadContext(Peer follower) {
+    return getContext(follower, java.util.Collections.emptySet(), true);
+  }
+
   private Kvrpcpb.Context getContext(
       Peer currentPeer, Set<Long> resolvedLocks, boolean replicaRead) {
 
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.replica;
+
+/**
+ * A replica selector that is told how the requests to the stores perform. Its selection changes
+ * over time, so the replicas are selected again for every request instead of once per region.
+ */
+public interface AdaptiveReplicaSelector extends ReplicaSelector {
+  /** Called when a request is sent to the store at the address. */
+  void onRequestStart(String storeAddress);
+
+  /**
+   * Called when a request to the store at the address completes.
+   *
+   * @param failed whether the store failed to answer, e.g. it is unavailable or timed out
+   */
+  void onRequestEnd(String storeAddress, long latencyNanos, boolean failed);
+}
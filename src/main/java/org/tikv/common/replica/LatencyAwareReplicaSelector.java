@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.replica;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Selects the replica that answers fastest. An EWMA of the latency and the number of requests in
+ * flight are kept per store, and the replica is the better of two eligible replicas picked at
+ * random (power of two choices), the cost of a store being its EWMA times its requests in flight.
+ * The EWMA decays while the store is not used, so a store that was slow is tried again after a
+ * while. A store that failed recently is only selected if all the eligible stores did.
+ */
+public class LatencyAwareReplicaSelector implements AdaptiveReplicaSelector {
+  private static final long DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+  private static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+  private final boolean leaderEligible;
+  private final Map<String, StoreStats> stats = new ConcurrentHashMap<>();
+
+  /** @param leaderEligible whether the leader may be selected as well as the followers */
+  public LatencyAwareReplicaSelector(boolean leaderEligible) {
+    this.leaderEligible = leaderEligible;
+  }
+
+  @Override
+  public List<Store> select(Region region) {
+    List<Store> eligible = new ArrayList<>();
+    for (Store store : region.getStores()) {
+      if (!store.isLearner() && (leaderEligible || !store.isLeader())) {
+        eligible.add(store);
+      }
+    }
+    if (eligible.size() < 2) {
+      return eligible;
+    }
+    long now = System.nanoTime();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(eligible.size());
+    int second = (first + 1 + random.nextInt(eligible.size() - 1)) % eligible.size();
+    Store winner =
+        cost(eligible.get(second), now) < cost(eligible.get(first), now)
+            ? eligible.remove(second)
+            : eligible.remove(first);
+    // the others by cost, to fall back on if the selected one is unreachable
+    eligible.sort(Comparator.comparingDouble(store -> cost(store, now)));
+    List<Store> selected = new ArrayList<>(eligible.size() + 1);
+    selected.add(winner);
+    selected.addAll(eligible);
+    return selected;
+  }
+
+  private double cost(Store store, long now) {
+    StoreStats storeStats = stats.get(store.getAddress());
+    return storeStats == null ? 0 : storeStats.cost(now);
+  }
+
+  @Override
+  public void onRequestStart(String storeAddress) {
+    stats.computeIfAbsent(storeAddress, address -> new StoreStats()).inFlight.incrementAndGet();
+  }
+
+  @Override
+  public void onRequestEnd(String storeAddress, long latencyNanos, boolean failed) {
+    StoreStats storeStats = stats.get(storeAddress);
+    if (storeStats != null) {
+      storeStats.onRequestEnd(latencyNanos, failed, System.nanoTime());
+    }
+  }
+
+  private static class StoreStats implements Serializable {
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private double ewmaNanos = 0;
+    private long lastUpdateNanos = System.nanoTime();
+    private long lastFailureNanos = 0;
+    private boolean failed = false;
+
+    private synchronized void onRequestEnd(long latencyNanos, boolean failed, long now) {
+      inFlight.decrementAndGet();
+      if (failed) {
+        this.failed = true;
+        this.lastFailureNanos = now;
+        return;
+      }
+      // a latency higher than the average is taken at once, a lower one is averaged in
+      double weight = Math.exp(-(double) (now - lastUpdateNanos) / DECAY_NANOS);
+      if (latencyNanos > ewmaNanos) {
+        ewmaNanos = latencyNanos;
+      } else {
+        ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+      }
+      lastUpdateNanos = now;
+    }
+
+    private synchronized double cost(long now) {
+      double decayed = ewmaNanos * Math.exp(-(double) (now - lastUpdateNanos) / DECAY_NANOS);
+      double cost = decayed * (inFlight.get() + 1);
+      if (failed && now - lastFailureNanos < FAILURE_PENALTY_NANOS) {
+        // after any store that did not fail
+        cost += Double.MAX_VALUE / 4;
+      }
+      return cost;
+    }
+  }
+}
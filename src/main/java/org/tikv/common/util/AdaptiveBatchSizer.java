@@ -0,0 +1,148 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.util;
+
+import io.prometheus.client.Gauge;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import org.tikv.common.region.TiRegion;
+
+/**
+ * Tunes the max bytes and max keys of the batch requests sent to each store with AIMD.
+ *
+ * <p>A batch finishing within the target latency grows the limits of its store by a fixed step, a
+ * slower or failed batch halves them. A `ServerIsBusy` response is retried after a server busy
+ * backoff, so it shows up as a batch far slower than the target. The limits stay between 1/16 and
+ * 4 times the initial ones. When disabled, the initial limits are always used.
+ */
+public class AdaptiveBatchSizer {
+  public static final Gauge BATCH_MAX_BYTES =
+      Gauge.build()
+          .name("client_java_adaptive_batch_max_bytes")
+          .help("max bytes of a batch request sent to a store.")
+          .labelNames("type", "store", "cluster")
+          .register();
+
+  public static final Gauge BATCH_MAX_KEYS =
+      Gauge.build()
+          .name("client_java_adaptive_batch_max_keys")
+          .help("max keys of a batch request sent to a store.")
+          .labelNames("type", "store", "cluster")
+          .register();
+
+  private static final int MIN_DIVISOR = 16;
+  private static final int MAX_MULTIPLIER = 4;
+  private static final int INCREASE_DIVISOR = 8;
+
+  private final String type;
+  private final String clusterId;
+  private final boolean enable;
+  private final long targetLatencyInMS;
+  private final Limits initial;
+  private final Limits min;
+  private final Limits max;
+  private final Limits step;
+  private final Map<Long, Limits> storeLimits = new ConcurrentHashMap<>();
+
+  public AdaptiveBatchSizer(
+      String type,
+      int initialBytes,
+      int initialKeys,
+      boolean enable,
+      long targetLatencyInMS,
+      String clusterId) {
+    this.type = type;
+    this.clusterId = clusterId;
+    this.enable = enable;
+    this.targetLatencyInMS = targetLatencyInMS;
+    this.initial = new Limits(initialBytes, initialKeys);
+    this.min =
+        new Limits(
+            Math.max(1, initialBytes / MIN_DIVISOR), Math.max(1, initialKeys / MIN_DIVISOR));
+    this.max = new Limits(initialBytes * MAX_MULTIPLIER, initialKeys * MAX_MULTIPLIER);
+    this.step =
+        new Limits(
+            Math.max(1, initialBytes / INCREASE_DIVISOR),
+            Math.max(1, initialKeys / INCREASE_DIVISOR));
+  }
+
+  /** Get the limits of the batches sent to the leader store of `region`. */
+  public Limits get(TiRegion region) {
+    if (!enable) {
+      return initial;
+    }
+    return storeLimits.getOrDefault(storeId(region), initial);
+  }
+
+  /** Record a batch sent to the leader store of `region` that succeeded in `latencyInMS`. */
+  public void onSuccess(TiRegion region, long latencyInMS) {
+    if (latencyInMS > targetLatencyInMS) {
+      onFailure(region);
+      return;
+    }
+    update(
+        region,
+        limits ->
+            new Limits(
+                Math.min(max.bytes, limits.bytes + step.bytes),
+                Math.min(max.keys, limits.keys + step.keys)));
+  }
+
+  /** Record a batch sent to the leader store of `region` that failed or timed out. */
+  public void onFailure(TiRegion region) {
+    update(
+        region,
+        limits ->
+            new Limits(Math.max(min.bytes, limits.bytes / 2), Math.max(min.keys, limits.keys / 2)));
+  }
+
+  private void update(TiRegion region, UnaryOperator<Limits> next) {
+    if (!enable) {
+      return;
+    }
+    long storeId = storeId(region);
+    Limits updated =
+        storeLimits.compute(storeId, (id, limits) -> next.apply(limits == null ? initial : limits));
+    String store = String.valueOf(storeId);
+    BATCH_MAX_BYTES.labels(type, store, clusterId).set(updated.bytes);
+    BATCH_MAX_KEYS.labels(type, store, clusterId).set(updated.keys);
+  }
+
+  private static long storeId(TiRegion region) {
+    return region.getLeader().getStoreId();
+  }
+
+  public static final class Limits {
+    private final int bytes;
+    private final int keys;
+
+    private Limits(int bytes, int keys) {
+      this.bytes = bytes;
+      this.keys = keys;
+    }
+
+    public int getBytes() {
+      return bytes;
+    }
+
+    public int getKeys() {
+      return keys;
+    }
+  }
+}
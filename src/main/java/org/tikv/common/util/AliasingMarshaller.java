@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.util;
+
+import com.google.common.io.ByteStreams;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.protobuf.ProtoUtils;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A marshaller that parses a message with aliasing: the bytes fields of the message, e.g. the keys
+ * and values of a raw scan, are views of the received frame instead of copies of it. The frame is
+ * read once into a heap array, which is then shared by all the fields of the message.
+ *
+ * <p>Lifetime: the array is released when no field of the message is reachable, so a key or value
+ * kept by the caller retains the whole response. A caller keeping a few values of a large response
+ * for long should copy them, e.g. by {@code ByteString.copyFrom(value.toByteArray())}.
+ */
+public class AliasingMarshaller<T extends Message> implements MethodDescriptor.Marshaller<T> {
+  private final MethodDescriptor.Marshaller<T> delegate;
+  private final Parser<T> parser;
+
+  @SuppressWarnings("unchecked")
+  public AliasingMarshaller(T defaultInstance) {
+    this.delegate = ProtoUtils.marshaller(defaultInstance);
+    this.parser = (Parser<T>) defaultInstance.getParserForType();
+  }
+
+  /** The method with the responses parsed with aliasing. */
+  public static <ReqT, RespT extends Message> MethodDescriptor<ReqT, RespT> aliasResponses(
+      MethodDescriptor<ReqT, RespT> method, RespT defaultInstance) {
+    return method
+        .toBuilder(method.getRequestMarshaller(), new AliasingMarshaller<>(defaultInstance))
+        .build();
+  }
+
+  @Override
+  public InputStream stream(T value) {
+    return delegate.stream(value);
+  }
+
+  @Override
+  public T parse(InputStream stream) {
+    try {
+      byte[] frame;
+      if (stream instanceof KnownLength) {
+        frame = new byte[stream.available()];
+        ByteStreams.readFully(stream, frame);
+      } else {
+        frame = ByteStreams.toByteArray(stream);
+      }
+      CodedInputStream input = CodedInputStream.newInstance(frame);
+      input.enableAliasing(true);
+      input.setSizeLimit(Integer.MAX_VALUE);
+      return parser.parseFrom(input);
+    } catch (InvalidProtocolBufferException e) {
+      throw Status.INTERNAL
+          .withDescription("Invalid protobuf byte sequence")
+          .withCause(e)
+          .asRuntimeException();
+    } catch (IOException e) {
+      throw Status.INTERNAL
+          .withDescription("Failed to read message")
+          .withCause(e)
+          .asRuntimeException();
+    }
+  }
+}
@@ -57,6 +57,13 @@ public interface BackOffer {
   void doBackOffWithMaxSleep(
       BackOffFunction.BackOffFuncType funcType, long maxSleepMs, Exception err);
 
+  /**
+   * nextBackOffMs records the error and returns how long the caller should wait before the next
+   * retry without sleeping, so that asynchronous callers can schedule the retry on a timer. Will
+   * throw an exception to the caller once the max back off time would be exceeded.
+   */
+  long nextBackOffMs(BackOffFunction.BackOffFuncType funcType, Exception err);
+
   // Back off strategies
   enum BackOffStrategy {
     // NoJitter makes the backoff sequence strict exponential.
@@ -72,4 +79,7 @@ public interface BackOffer {
   SlowLog getSlowLog();
 
   Long getClusterId();
+
+  /** Returns the back off time requested so far, including back offs not slept yet. */
+  long getTotalSleepMs();
 }
@@ -30,6 +30,9 @@ public class Batch {
   private final List<ByteString> keys;
   private final List<ByteString> values;
   private final Map<ByteString, ByteString> map;
+  // whether the batch failed, and has to be regrouped and resent after the delay
+  private final boolean retry;
+  private final long retryDelayMs;
 
   public Batch(BackOffer backOffer, TiRegion region, List<ByteString> keys) {
     this.backOffer = ConcreteBackOffer.create(backOffer);
@@ -37,6 +40,8 @@ public class Batch {
     this.keys = keys;
     this.values = null;
     this.map = null;
+    this.retry = false;
+    this.retryDelayMs = 0;
   }
 
   public Batch(
@@ -46,6 +51,23 @@ public class Batch {
     this.keys = keys;
     this.values = values;
     this.map = toMap(keys, values);
+    this.retry = false;
+    this.retryDelayMs = 0;
+  }
+
+  private Batch(Batch source, BackOffer backOffer, long retryDelayMs) {
+    this.backOffer = ConcreteBackOffer.create(backOffer);
+    this.region = source.region;
+    this.keys = source.keys;
+    this.values = source.values;
+    this.map = source.map;
+    this.retry = true;
+    this.retryDelayMs = retryDelayMs;
+  }
+
+  /** The failed batch, to be regrouped and resent after the delay. */
+  public Batch retryAfter(BackOffer backOffer, long delayMs) {
+    return new Batch(this, backOffer, delayMs);
   }
 
   private Map<ByteString, ByteString> toMap(List<ByteString> keys, List<ByteString> values) {
@@ -76,4 +98,13 @@ public class Batch {
   public Map<ByteString, ByteString> getMap() {
     return map;
   }
+
+  /** Whether the batch failed and has to be regrouped, after {@link #getRetryDelayMs()}. */
+  public boolean isRetry() {
+    return retry;
+  }
+
+  public long getRetryDelayMs() {
+    return retryDelayMs;
+  }
 }
@@ -56,6 +56,10 @@ public class ChannelFactory implements AutoCloseable {
   private final int keepaliveTime;
   private final int keepaliveTimeout;
   private final int idleTimeout;
+  // the number of connections to each address
+  private final int channelPoolSize;
+  // the shared event loop group and socket options, null for the defaults of gRPC
+  private final NettyTransport transport;
   private final CertContext certContext;
   private final CertWatcher certWatcher;
 
@@ -203,10 +207,22 @@ public class ChannelFactory implements AutoCloseable {
 
   public ChannelFactory(
       int maxFrameSize, int keepaliveTime, int keepaliveTimeout, int idleTimeout) {
+    this(maxFrameSize, keepaliveTime, keepaliveTimeout, idleTimeout, 1, null);
+  }
+
+  public ChannelFactory(
+      int maxFrameSize,
+      int keepaliveTime,
+      int keepaliveTimeout,
+      int idleTimeout,
+      int channelPoolSize,
+      NettyTransport transport) {
     this.maxFrameSize = maxFrameSize;
     this.keepaliveTime = keepaliveTime;
     this.keepaliveTimeout = keepaliveTimeout;
     this.idleTimeout = idleTimeout;
+    this.channelPoolSize = channelPoolSize;
+    this.transport = transport;
     this.certWatcher = null;
     this.certContext = null;
     this.recycler = null;
@@ -223,10 +239,38 @@ public class ChannelFactory implements AutoCloseable {
       String trustCertCollectionFilePath,
       String keyCertChainFilePath,
       String keyFilePath) {
+    this(
+        maxFrameSize,
+        keepaliveTime,
+        keepaliveTimeout,
+        idleTimeout,
+        1,
+        null,
+        connRecycleTime,
+        certReloadInterval,
+        trustCertCollectionFilePath,
+        keyCertChainFilePath,
+        keyFilePath);
+  }
+
+  public ChannelFactory(
+      int maxFrameSize,
+      int keepaliveTime,
+      int keepaliveTimeout,
+      int idleTimeout,
+      int channelPoolSize,
+      NettyTransport transport,
+      long connRecycleTime,
+      long certReloadInterval,
+      String trustCertCollectionFilePath,
+      String keyCertChainFilePath,
+      String keyFilePath) {
     this.maxFrameSize = maxFrameSize;
     this.keepaliveTime = keepaliveTime;
     this.keepaliveTimeout = keepaliveTimeout;
     this.idleTimeout = idleTimeout;
+    this.channelPoolSize = channelPoolSize;
+    this.transport = transport;
     this.connRecycleTime = connRecycleTime;
     this.certContext =
         new OpenSslContext(trustCertCollectionFilePath, keyCertChainFilePath, keyFilePath);
@@ -257,10 +301,40 @@ public class ChannelFactory implements AutoCloseable {
       String jksKeyPassword,
       String jksTrustPath,
       String jksTrustPassword) {
+    this(
+        maxFrameSize,
+        keepaliveTime,
+        keepaliveTimeout,
+        idleTimeout,
+        1,
+        null,
+        connRecycleTime,
+        certReloadInterval,
+        jksKeyPath,
+        jksKeyPassword,
+        jksTrustPath,
+        jksTrustPassword);
+  }
+
+  public ChannelFactory(
+      int maxFrameSize,
+      int keepaliveTime,
+      int keepaliveTimeout,
+      int idleTimeout,
+      int channelPoolSize,
+      NettyTransport transport,
+      long connRecycleTime,
+      long certReloadInterval,
+      String jksKeyPath,
+      String jksKeyPassword,
+      String jksTrustPath,
+      String jksTrustPassword) {
     this.maxFrameSize = maxFrameSize;
     this.keepaliveTime = keepaliveTime;
     this.keepaliveTimeout = keepaliveTimeout;
     this.idleTimeout = idleTimeout;
+    this.channelPoolSize = channelPoolSize;
+    this.transport = transport;
     this.connRecycleTime = connRecycleTime;
     this.certContext = new JksContext(jksKeyPath, jksKeyPassword, jksTrustPath, jksTrustPassword);
     this.recycler = Executors.newSingleThreadScheduledExecutor();
@@ -307,6 +381,18 @@ public class ChannelFactory implements AutoCloseable {
 
   private ManagedChannel createChannel(
       SslContextBuilder sslContextBuilder, String address, HostMapping mapping) {
+    if (channelPoolSize <= 1) {
+      return createSingleChannel(sslContextBuilder, address, mapping);
+    }
+    List<ManagedChannel> channels = new ArrayList<>(channelPoolSize);
+    for (int i = 0; i < channelPoolSize; i++) {
+      channels.add(createSingleChannel(sslContextBuilder, address, mapping));
+    }
+    return new ChannelPool(address, channels);
+  }
+
+  private ManagedChannel createSingleChannel(
+      SslContextBuilder sslContextBuilder, String address, HostMapping mapping) {
     URI uri, mapped;
     try {
       uri = PDUtils.addrToUri(address);
@@ -328,6 +414,9 @@ public class ChannelFactory implements AutoCloseable {
             .keepAliveTimeout(keepaliveTimeout, TimeUnit.SECONDS)
             .keepAliveWithoutCalls(true)
             .idleTimeout(idleTimeout, TimeUnit.SECONDS);
+    if (transport != null) {
+      transport.configure(builder);
+    }
 
     if (sslContextBuilder == null) {
       return builder.usePlaintext().build();
@@ -363,6 +452,10 @@ public class ChannelFactory implements AutoCloseable {
     }
     connPool.clear();
 
+    if (transport != null) {
+      transport.close();
+    }
+
     if (recycler != null) {
       recycler.shutdown();
     }
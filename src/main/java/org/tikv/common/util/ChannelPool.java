@@ -0,0 +1,197 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.util;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ConnectivityState;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.prometheus.client.Gauge;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A channel over several channels, i.e. HTTP/2 connections, to the same address. Each call is sent
+ * on the channel with fewer calls in flight of two channels picked at random (power of two
+ * choices), so a busy connection does not hold up the calls to the store.
+ */
+class ChannelPool extends ManagedChannel {
+  public static final Gauge CHANNEL_IN_FLIGHT_CALLS =
+      Gauge.build()
+          .name("client_java_grpc_channel_in_flight_calls")
+          .help("number of calls in flight on a grpc channel.")
+          .labelNames("address", "channel")
+          .register();
+
+  private final ManagedChannel[] channels;
+  private final AtomicInteger[] inFlight;
+  private final Gauge.Child[] inFlightGauges;
+
+  ChannelPool(String address, List<ManagedChannel> channels) {
+    if (channels.size() < 2) {
+      throw new IllegalArgumentException("a channel pool needs at least 2 channels");
+    }
+    this.channels = channels.toArray(new ManagedChannel[0]);
+    this.inFlight = new AtomicInteger[channels.size()];
+    this.inFlightGauges = new Gauge.Child[channels.size()];
+    for (int i = 0; i < channels.size(); i++) {
+      inFlight[i] = new AtomicInteger();
+      inFlightGauges[i] = CHANNEL_IN_FLIGHT_CALLS.labels(address, String.valueOf(i));
+    }
+  }
+
+  int getInFlight(int channel) {
+    return inFlight[channel].get();
+  }
+
+  private int select() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(channels.length);
+    // a different channel from the first one
+    int second = (first + 1 + random.nextInt(channels.length - 1)) % channels.length;
+    return inFlight[second].get() < inFlight[first].get() ? second : first;
+  }
+
+  @Override
+  public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+      MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+    int index = select();
+    return new InFlightCall<>(channels[index].newCall(method, callOptions), index);
+  }
+
+  @Override
+  public String authority() {
+    return channels[0].authority();
+  }
+
+  @Override
+  public ConnectivityState getState(boolean requestConnection) {
+    // READY if any channel is ready, the connection is requested on all of them
+    ConnectivityState state = null;
+    for (ManagedChannel channel : channels) {
+      ConnectivityState channelState = channel.getState(requestConnection);
+      if (state == null || channelState == ConnectivityState.READY) {
+        state = channelState;
+      }
+    }
+    return state;
+  }
+
+  @Override
+  public void resetConnectBackoff() {
+    for (ManagedChannel channel : channels) {
+      channel.resetConnectBackoff();
+    }
+  }
+
+  @Override
+  public ManagedChannel shutdown() {
+    for (ManagedChannel channel : channels) {
+      channel.shutdown();
+    }
+    return this;
+  }
+
+  @Override
+  public ManagedChannel shutdownNow() {
+    for (ManagedChannel channel : channels) {
+      channel.shutdownNow();
+    }
+    return this;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    for (ManagedChannel channel : channels) {
+      if (!channel.isShutdown()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    for (ManagedChannel channel : channels) {
+      if (!channel.isTerminated()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (ManagedChannel channel : channels) {
+      long remaining = deadline - System.nanoTime();
+      if (!channel.awaitTermination(Math.max(remaining, 0), TimeUnit.NANOSECONDS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Counts the call as in flight on its channel from its start to its close. */
+  private class InFlightCall<ReqT, RespT>
+      extends ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT> {
+    private final int index;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    private InFlightCall(ClientCall<ReqT, RespT> delegate, int index) {
+      super(delegate);
+      this.index = index;
+    }
+
+    @Override
+    public void start(Listener<RespT> responseListener, Metadata headers) {
+      inFlight[index].incrementAndGet();
+      inFlightGauges[index].inc();
+      try {
+        super.start(
+            new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(
+                responseListener) {
+              @Override
+              public void onClose(Status status, Metadata trailers) {
+                release();
+                super.onClose(status, trailers);
+              }
+            },
+            headers);
+      } catch (RuntimeException e) {
+        release();
+        throw e;
+      }
+    }
+
+    private void release() {
+      if (released.compareAndSet(false, true)) {
+        inFlight[index].decrementAndGet();
+        inFlightGauges[index].dec();
+      }
+    }
+  }
+}
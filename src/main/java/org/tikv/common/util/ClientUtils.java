@@ -19,12 +19,17 @@ package org.tikv.common.util;
 
 import com.google.protobuf.ByteString;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.tikv.common.exception.TiKVException;
+import org.tikv.common.key.Key;
 import org.tikv.common.region.RegionManager;
 import org.tikv.common.region.RegionStoreClient;
 import org.tikv.common.region.TiRegion;
@@ -117,6 +122,29 @@ public class ClientUtils {
     return retryBatches;
   }
 
+  public static List<Batch> getBatches(
+      BackOffer backOffer,
+      List<ByteString> keys,
+      AdaptiveBatchSizer batchSizer,
+      RegionStoreClient.RegionStoreClientBuilder clientBuilder) {
+    Map<TiRegion, List<ByteString>> groupKeys =
+        groupKeysByRegion(clientBuilder.getRegionManager(), keys, backOffer);
+    List<Batch> retryBatches = new ArrayList<>();
+
+    for (Map.Entry<TiRegion, List<ByteString>> entry : groupKeys.entrySet()) {
+      AdaptiveBatchSizer.Limits limits = batchSizer.get(entry.getKey());
+      appendBatches(
+          backOffer,
+          retryBatches,
+          entry.getKey(),
+          entry.getValue(),
+          limits.getBytes(),
+          limits.getKeys());
+    }
+
+    return retryBatches;
+  }
+
   public static Map<TiRegion, List<ByteString>> groupKeysByRegion(
       RegionManager regionManager, Set<ByteString> keys, BackOffer backoffer) {
     return groupKeysByRegion(regionManager, new ArrayList<>(keys), backoffer, true);
@@ -139,10 +167,16 @@ public class ClientUtils {
     if (!sorted) {
       keys.sort((k1, k2) -> FastByteComparisons.compareTo(k1.toByteArray(), k2.toByteArray()));
     }
+    if (keys.isEmpty()) {
+      return groups;
+    }
+    // a cache miss also loads the following regions up to the last key, so that the regions of a
+    // cold key set are resolved in a few PD calls
+    ByteString prefetchEndKey = Key.toRawKey(keys.get(keys.size() - 1)).next().toByteString();
     TiRegion lastRegion = null;
     for (ByteString key : keys) {
       if (lastRegion == null || !lastRegion.contains(key)) {
-        lastRegion = regionManager.getRegionByKey(key, backoffer);
+        lastRegion = regionManager.getRegionByKey(key, prefetchEndKey, backoffer);
       }
       groups.computeIfAbsent(lastRegion, k -> new ArrayList<>()).add(key);
     }
@@ -169,6 +203,43 @@ public class ClientUtils {
     }
   }
 
+  /**
+   * Submit the task to the completion service after the delay. The delay is waited on the timer, so
+   * that no thread of the completion service is held meanwhile. The returned future is only meant
+   * to be cancelled, which cancels the task whether it is still waiting on the timer or submitted.
+   */
+  public static <T> Future<?> submitAfter(
+      ExecutorCompletionService<T> completionService,
+      ScheduledExecutorService timer,
+      Callable<T> task,
+      long delayMs) {
+    if (delayMs <= 0) {
+      return completionService.submit(task);
+    }
+    CompletableFuture<Void> handle = new CompletableFuture<>();
+    ScheduledFuture<?> scheduled =
+        timer.schedule(
+            () -> {
+              Future<T> submitted = completionService.submit(task);
+              // runs at once if the handle is already cancelled
+              handle.whenComplete((v, e) -> submitted.cancel(true));
+            },
+            delayMs,
+            TimeUnit.MILLISECONDS);
+    handle.whenComplete((v, e) -> scheduled.cancel(false));
+    return handle;
+  }
+
+  /**
+   * Submit the outcome of the future to the completion service once it is done, so that no thread
+   * of the completion service waits for it. Cancelling the returned future cancels the future.
+   */
+  public static <T> Future<?> submitAsync(
+      ExecutorCompletionService<T> completionService, CompletableFuture<T> future) {
+    future.whenComplete((v, e) -> completionService.submit(future::get));
+    return future;
+  }
+
   public static <T> void getTasks(
       ExecutorCompletionService<List<T>> completionService,
       Queue<List<T>> taskQueue,
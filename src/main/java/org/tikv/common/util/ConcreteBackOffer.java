@@ -48,6 +48,11 @@ public class ConcreteBackOffer implements BackOffer {
   private int totalSleep;
   private final long deadline;
   private final SlowLog slowLog;
+  // record the first back off of an attempt instead of sleeping it, see newNonBlockingBackOff
+  private final boolean nonBlocking;
+  private long deferredSleep;
+  // the back offer a non-blocking copy charges its back offs to, like the blocking retry loop does
+  private final ConcreteBackOffer source;
 
   public static final Histogram BACKOFF_DURATION =
       HistogramUtils.buildDuration()
@@ -67,9 +72,11 @@ public class ConcreteBackOffer implements BackOffer {
     this.backOffFunctionMap = new ConcurrentHashMap<>();
     this.deadline = deadline;
     this.slowLog = slowLog;
+    this.nonBlocking = false;
+    this.source = null;
   }
 
-  private ConcreteBackOffer(ConcreteBackOffer source) {
+  private ConcreteBackOffer(ConcreteBackOffer source, boolean nonBlocking) {
     this.clusterId = source.clusterId;
     this.maxSleep = source.maxSleep;
     this.totalSleep = source.totalSleep;
@@ -77,6 +84,8 @@ public class ConcreteBackOffer implements BackOffer {
     this.backOffFunctionMap = source.backOffFunctionMap;
     this.deadline = source.deadline;
     this.slowLog = source.slowLog;
+    this.nonBlocking = nonBlocking;
+    this.source = nonBlocking ? source : null;
   }
 
   public static ConcreteBackOffer newDeadlineBackOff(
@@ -130,7 +139,25 @@ public class ConcreteBackOffer implements BackOffer {
   }
 
   public static ConcreteBackOffer create(BackOffer source) {
-    return new ConcreteBackOffer(((ConcreteBackOffer) source));
+    return new ConcreteBackOffer(((ConcreteBackOffer) source), false);
+  }
+
+  /**
+   * Creates a copy of the back offer for a retry loop which waits on a timer: the first back off
+   * requested during an attempt is recorded instead of slept, and the loop waits for {@link
+   * #takeDeferredSleepMs()} before the next attempt. Any further back off of the same attempt, e.g.
+   * of a nested retry loop, sleeps as usual. The copies made by {@link #create} sleep as usual.
+   * The back offs are also added to the total sleep of the source, as if it had slept them itself.
+   */
+  public static ConcreteBackOffer newNonBlockingBackOff(BackOffer source) {
+    return new ConcreteBackOffer(((ConcreteBackOffer) source), true);
+  }
+
+  /** Returns the back off recorded since the last call, which the caller has to wait for. */
+  public long takeDeferredSleepMs() {
+    long sleep = deferredSleep;
+    deferredSleep = 0;
+    return sleep;
   }
 
   /**
@@ -207,36 +234,58 @@ public class ConcreteBackOffer implements BackOffer {
     Histogram.Timer backOffTimer = BACKOFF_DURATION.labels(labels).startTimer();
     SlowLogSpan slowLogSpan = getSlowLog().start("backoff");
     slowLogSpan.addProperty("type", funcType.name());
-    BackOffFunction backOffFunction =
-        backOffFunctionMap.computeIfAbsent(funcType, this::createBackOffFunc);
 
     // Back off will not be done here
-    long sleep = backOffFunction.getSleepMs(maxSleepMs);
-    totalSleep += sleep;
-    // Check deadline
-    if (deadline > 0) {
-      long currentMs = System.currentTimeMillis();
-      if (currentMs + sleep >= deadline) {
-        logger.warn(String.format("Deadline %d is exceeded, errors:", deadline));
+    long sleep = nextSleepMs(funcType, maxSleepMs);
+    if (sleep < 0) {
+      slowLogSpan.end();
+      backOffTimer.observeDuration();
+      return false;
+    }
+
+    if (nonBlocking && deferredSleep == 0) {
+      deferredSleep = sleep;
+      slowLogSpan.end();
+      BACKOFF_DURATION.labels(labels).observe(sleep / 1000.0);
+    } else {
+      try {
+        Thread.sleep(sleep);
+      } catch (InterruptedException e) {
+        throw new GrpcException(e);
+      } finally {
         slowLogSpan.end();
         backOffTimer.observeDuration();
-        return false;
       }
     }
+    return !isMaxSleepExceeded();
+  }
 
-    try {
-      Thread.sleep(sleep);
-    } catch (InterruptedException e) {
-      throw new GrpcException(e);
-    } finally {
-      slowLogSpan.end();
-      backOffTimer.observeDuration();
+  /**
+   * Adds the next back off of the type to the total sleep, and returns it, or -1 if the deadline
+   * would be exceeded.
+   */
+  private long nextSleepMs(BackOffFunction.BackOffFuncType funcType, long maxSleepMs) {
+    BackOffFunction backOffFunction =
+        backOffFunctionMap.computeIfAbsent(funcType, this::createBackOffFunc);
+    long sleep = backOffFunction.getSleepMs(maxSleepMs);
+    totalSleep += sleep;
+    if (source != null) {
+      source.totalSleep += sleep;
+    }
+    // Check deadline
+    if (deadline > 0 && System.currentTimeMillis() + sleep >= deadline) {
+      logger.warn(String.format("Deadline %d is exceeded, errors:", deadline));
+      return -1;
     }
+    return sleep;
+  }
+
+  private boolean isMaxSleepExceeded() {
     if (maxSleep > 0 && totalSleep >= maxSleep) {
       logger.warn(String.format("BackOffer.maxSleep %dms is exceeded, errors:", maxSleep));
-      return false;
+      return true;
     }
-    return true;
+    return false;
   }
 
   @Override
@@ -252,6 +301,21 @@ public class ConcreteBackOffer implements BackOffer {
     }
   }
 
+  @Override
+  public long nextBackOffMs(BackOffFunction.BackOffFuncType funcType, Exception err) {
+    logger.debug(
+        String.format(
+            "%s, retry later(totalSleep %dms, maxSleep %dms)",
+            err.getMessage(), totalSleep, maxSleep));
+    errors.add(err);
+    long sleep = nextSleepMs(funcType, -1);
+    if (sleep < 0 || isMaxSleepExceeded()) {
+      logThrowError(err);
+    }
+    BACKOFF_DURATION.labels(funcType.name(), clusterId.toString()).observe(sleep / 1000.0);
+    return sleep;
+  }
+
   private void logThrowError(Exception err) {
     StringBuilder errMsg = new StringBuilder();
     for (int i = 0; i < errors.size(); i++) {
@@ -274,4 +338,9 @@ public class ConcreteBackOffer implements BackOffer {
   public Long getClusterId() {
     return clusterId;
   }
+
+  @Override
+  public long getTotalSleepMs() {
+    return totalSleep;
+  }
 }
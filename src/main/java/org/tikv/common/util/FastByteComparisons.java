@@ -19,6 +19,7 @@ package org.tikv.common.util;
 
 import com.google.common.primitives.Longs;
 import com.google.common.primitives.UnsignedBytes;
+import com.google.protobuf.ByteString;
 import java.lang.reflect.Field;
 import java.nio.ByteOrder;
 import java.security.AccessController;
@@ -41,6 +42,23 @@ public abstract class FastByteComparisons {
         b1, 0, b1.length, b2, 0, b2.length);
   }
 
+  /**
+   * Lexicographically compare two ByteStrings as unsigned bytes without copying them to arrays or
+   * allocating iterators.
+   */
+  public static int compareTo(ByteString b1, ByteString b2) {
+    int len1 = b1.size();
+    int len2 = b2.size();
+    int minLength = Math.min(len1, len2);
+    for (int i = 0; i < minLength; i++) {
+      int result = UnsignedBytes.compare(b1.byteAt(i), b2.byteAt(i));
+      if (result != 0) {
+        return result;
+      }
+    }
+    return len1 - len2;
+  }
+
   private interface Comparer<T> {
     int compareTo(T buffer1, int offset1, int length1, T buffer2, int offset2, int length2);
   }
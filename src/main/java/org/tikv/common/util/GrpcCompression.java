@@ -0,0 +1,187 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.util;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.MessageLite;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientStreamTracer;
+import io.grpc.CompressorRegistry;
+import io.grpc.ForwardingClientCall;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.stub.AbstractStub;
+import io.prometheus.client.Counter;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.tikv.common.TiConfiguration;
+import org.tikv.kvproto.TikvGrpc;
+
+/**
+ * Compresses the requests of the enabled method groups with the configured codec, except for the
+ * requests smaller than the threshold. The responses are compressed by TiKV if it is configured to,
+ * as gRPC advertises the codecs it can decompress on every call.
+ *
+ * <p>The raw and wire bytes of the calls of the enabled groups are counted in both directions, so
+ * the bandwidth saved can be compared with the CPU spent.
+ */
+public class GrpcCompression implements ClientInterceptor {
+  public static final Counter GRPC_RAW_BYTES =
+      Counter.build()
+          .name("client_java_grpc_raw_bytes")
+          .help("uncompressed bytes of grpc messages.")
+          .labelNames("group", "direction")
+          .register();
+
+  public static final Counter GRPC_WIRE_BYTES =
+      Counter.build()
+          .name("client_java_grpc_wire_bytes")
+          .help("bytes of grpc messages on the wire, after compression.")
+          .labelNames("group", "direction")
+          .register();
+
+  public enum MethodGroup {
+    BATCH_WRITE,
+    SCAN,
+    COPROCESSOR
+  }
+
+  private static final Map<String, MethodGroup> METHOD_GROUPS =
+      ImmutableMap.<String, MethodGroup>builder()
+          .put(TikvGrpc.getRawBatchPutMethod().getFullMethodName(), MethodGroup.BATCH_WRITE)
+          .put(TikvGrpc.getRawBatchDeleteMethod().getFullMethodName(), MethodGroup.BATCH_WRITE)
+          .put(TikvGrpc.getKvPrewriteMethod().getFullMethodName(), MethodGroup.BATCH_WRITE)
+          .put(TikvGrpc.getRawScanMethod().getFullMethodName(), MethodGroup.SCAN)
+          .put(TikvGrpc.getKvScanMethod().getFullMethodName(), MethodGroup.SCAN)
+          .put(TikvGrpc.getRawBatchGetMethod().getFullMethodName(), MethodGroup.SCAN)
+          .put(TikvGrpc.getKvBatchGetMethod().getFullMethodName(), MethodGroup.SCAN)
+          .put(TikvGrpc.getCoprocessorMethod().getFullMethodName(), MethodGroup.COPROCESSOR)
+          .put(TikvGrpc.getCoprocessorStreamMethod().getFullMethodName(), MethodGroup.COPROCESSOR)
+          .build();
+
+  private final String codec;
+  private final Map<MethodGroup, ByteCounter> counters = new EnumMap<>(MethodGroup.class);
+  private final int minMessageSize;
+
+  public GrpcCompression(String codec, Set<MethodGroup> groups, int minMessageSize) {
+    if (CompressorRegistry.getDefaultInstance().lookupCompressor(codec) == null) {
+      throw new IllegalArgumentException("unknown grpc compression codec: " + codec);
+    }
+    this.codec = codec;
+    for (MethodGroup group : groups) {
+      counters.put(group, new ByteCounter(group.name().toLowerCase(Locale.ROOT)));
+    }
+    this.minMessageSize = minMessageSize;
+  }
+
+  /** Returns null if compression is enabled for no method group. */
+  public static GrpcCompression create(TiConfiguration conf) {
+    Set<MethodGroup> groups = EnumSet.noneOf(MethodGroup.class);
+    if (conf.isGrpcCompressionBatchWriteEnable()) {
+      groups.add(MethodGroup.BATCH_WRITE);
+    }
+    if (conf.isGrpcCompressionScanEnable()) {
+      groups.add(MethodGroup.SCAN);
+    }
+    if (conf.isGrpcCompressionCoprocessorEnable()) {
+      groups.add(MethodGroup.COPROCESSOR);
+    }
+    if (groups.isEmpty()) {
+      return null;
+    }
+    return new GrpcCompression(
+        conf.getGrpcCompressionCodec(), groups, conf.getGrpcCompressionMinMessageSize());
+  }
+
+  public <S extends AbstractStub<S>> S apply(S stub) {
+    return stub.withInterceptors(this);
+  }
+
+  /** The method group of the method, or null if it is in none. */
+  static MethodGroup groupOf(MethodDescriptor<?, ?> method) {
+    return METHOD_GROUPS.get(method.getFullMethodName());
+  }
+
+  @Override
+  public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+      MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+    MethodGroup group = groupOf(method);
+    ByteCounter counter = group == null ? null : counters.get(group);
+    if (counter == null) {
+      return next.newCall(method, callOptions);
+    }
+    CallOptions options = callOptions.withCompression(codec).withStreamTracerFactory(counter);
+    return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(
+        next.newCall(method, options)) {
+      @Override
+      public void sendMessage(ReqT message) {
+        // small messages are not worth the CPU, and may even grow
+        if (message instanceof MessageLite) {
+          setMessageCompression(((MessageLite) message).getSerializedSize() >= minMessageSize);
+        }
+        super.sendMessage(message);
+      }
+    };
+  }
+
+  private static class ByteCounter extends ClientStreamTracer.Factory {
+    private final Counter.Child rawSent;
+    private final Counter.Child wireSent;
+    private final Counter.Child rawReceived;
+    private final Counter.Child wireReceived;
+
+    private ByteCounter(String group) {
+      this.rawSent = GRPC_RAW_BYTES.labels(group, "sent");
+      this.wireSent = GRPC_WIRE_BYTES.labels(group, "sent");
+      this.rawReceived = GRPC_RAW_BYTES.labels(group, "received");
+      this.wireReceived = GRPC_WIRE_BYTES.labels(group, "received");
+    }
+
+    @Override
+    public ClientStreamTracer newClientStreamTracer(
+        ClientStreamTracer.StreamInfo info, Metadata headers) {
+      return new ClientStreamTracer() {
+        @Override
+        public void outboundUncompressedSize(long bytes) {
+          rawSent.inc(bytes);
+        }
+
+        @Override
+        public void outboundWireSize(long bytes) {
+          wireSent.inc(bytes);
+        }
+
+        @Override
+        public void inboundUncompressedSize(long bytes) {
+          rawReceived.inc(bytes);
+        }
+
+        @Override
+        public void inboundWireSize(long bytes) {
+          wireReceived.inc(bytes);
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.util;
+
+import io.grpc.netty.NettyChannelBuilder;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Netty transport of the channels created by a {@link ChannelFactory}, shared by the TiKV and
+ * PD channels. With epoll enabled or a number of event loop threads, the channels share one event
+ * loop group on the native epoll transport, or on NIO if epoll is not available on the platform.
+ * Otherwise they use the default event loop group of gRPC.
+ */
+public class NettyTransport implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(NettyTransport.class);
+
+  private final EventLoopGroup eventLoopGroup;
+  private final Class<? extends Channel> channelType;
+  private final boolean tcpNoDelay;
+  private final int receiveBufferSize;
+
+  /**
+   * @param eventLoopThreads the number of event loop threads, 0 for the default of Netty
+   * @param receiveBufferSize SO_RCVBUF of the connections, 0 for the default of the OS
+   */
+  public NettyTransport(
+      boolean epollEnable, int eventLoopThreads, boolean tcpNoDelay, int receiveBufferSize) {
+    this.tcpNoDelay = tcpNoDelay;
+    this.receiveBufferSize = receiveBufferSize;
+    if (!epollEnable && eventLoopThreads <= 0) {
+      this.eventLoopGroup = null;
+      this.channelType = null;
+      return;
+    }
+    ThreadFactory threadFactory = new DefaultThreadFactory("tikv-client-netty", true);
+    if (epollEnable && Epoll.isAvailable()) {
+      this.eventLoopGroup = new EpollEventLoopGroup(eventLoopThreads, threadFactory);
+      this.channelType = EpollSocketChannel.class;
+    } else {
+      if (epollEnable) {
+        logger.warn("epoll is not available, fall back to nio", Epoll.unavailabilityCause());
+      }
+      this.eventLoopGroup = new NioEventLoopGroup(eventLoopThreads, threadFactory);
+      this.channelType = NioSocketChannel.class;
+    }
+  }
+
+  public boolean isEpoll() {
+    return channelType == EpollSocketChannel.class;
+  }
+
+  Class<? extends Channel> getChannelType() {
+    return channelType;
+  }
+
+  EventLoopGroup getEventLoopGroup() {
+    return eventLoopGroup;
+  }
+
+  void configure(NettyChannelBuilder builder) {
+    if (eventLoopGroup != null) {
+      builder.eventLoopGroup(eventLoopGroup).channelType(channelType);
+    }
+    builder.withOption(ChannelOption.TCP_NODELAY, tcpNoDelay);
+    if (receiveBufferSize > 0) {
+      builder.withOption(ChannelOption.SO_RCVBUF, receiveBufferSize);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (eventLoopGroup != null) {
+      eventLoopGroup.shutdownGracefully();
+    }
+  }
+}
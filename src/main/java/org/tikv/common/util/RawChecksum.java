@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.util;
+
+import java.util.Objects;
+
+/**
+ * Checksum of the raw kv pairs in a range, computed by TiKV. The crc64 of each kv pair is xor-ed,
+ * so checksums of disjoint ranges can be merged in any order.
+ */
+public class RawChecksum {
+  public static final RawChecksum EMPTY = new RawChecksum(0, 0, 0);
+
+  private final long crc64Xor;
+  private final long totalKvs;
+  private final long totalBytes;
+
+  public RawChecksum(long crc64Xor, long totalKvs, long totalBytes) {
+    this.crc64Xor = crc64Xor;
+    this.totalKvs = totalKvs;
+    this.totalBytes = totalBytes;
+  }
+
+  public long getCrc64Xor() {
+    return crc64Xor;
+  }
+
+  public long getTotalKvs() {
+    return totalKvs;
+  }
+
+  public long getTotalBytes() {
+    return totalBytes;
+  }
+
+  /** Merge with the checksum of a disjoint range. */
+  public RawChecksum merge(RawChecksum other) {
+    return new RawChecksum(
+        crc64Xor ^ other.crc64Xor, totalKvs + other.totalKvs, totalBytes + other.totalBytes);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof RawChecksum)) {
+      return false;
+    }
+    RawChecksum that = (RawChecksum) o;
+    return crc64Xor == that.crc64Xor && totalKvs == that.totalKvs && totalBytes == that.totalBytes;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(crc64Xor, totalKvs, totalBytes);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "RawChecksum{crc64Xor=%d, totalKvs=%d, totalBytes=%d}", crc64Xor, totalKvs, totalBytes);
+  }
+}
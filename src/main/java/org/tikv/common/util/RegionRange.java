@@ -20,13 +20,14 @@ package org.tikv.common.util;
 import com.google.protobuf.ByteString;
 import org.tikv.common.region.TiRegion;
 
-public class DeleteRange {
+/** A key range within a single region, e.g. of a delete range or a checksum request. */
+public class RegionRange {
   private final BackOffer backOffer;
   private final TiRegion region;
   private final ByteString startKey;
   private final ByteString endKey;
 
-  public DeleteRange(BackOffer backOffer, TiRegion region, ByteString startKey, ByteString endKey) {
+  public RegionRange(BackOffer backOffer, TiRegion region, ByteString startKey, ByteString endKey) {
     this.backOffer = ConcreteBackOffer.create(backOffer);
     this.region = region;
     this.startKey = startKey;
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.raw;
+
+import static java.util.Objects.requireNonNull;
+import static org.tikv.common.codec.KeyUtils.formatBytesUTF8;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.tikv.common.exception.TiKVException;
+import org.tikv.common.region.TiRegion;
+import org.tikv.common.util.FastByteComparisons;
+import org.tikv.kvproto.Kvrpcpb.KvPair;
+
+/**
+ * Iterates over the kv pairs of a range in key order, scanning the range region by region on an
+ * executor.
+ *
+ * <p>The range is split at region boundaries lazily, and up to `concurrency` regions are scanned at
+ * the same time. Scanned regions wait in a reorder buffer until all regions before them have been
+ * consumed. No more regions are submitted while the scanned but unconsumed kv pairs exceed
+ * `maxBufferedBytes`, unless no region is pending at all.
+ */
+abstract class ParallelScanIterator implements Iterator<KvPair> {
+  private final ExecutorService executor;
+  private final ByteString endKey;
+  private final int concurrency;
+  private final long maxBufferedBytes;
+
+  // start key of the next region to submit, null if the whole range has been submitted
+  private ByteString nextStartKey;
+  // regions submitted but not consumed yet, in key order
+  private final Queue<Future<RegionBatch>> pending = new ArrayDeque<>();
+  // bytes of regions scanned but not consumed yet
+  private final AtomicLong bufferedBytes = new AtomicLong();
+
+  private Iterator<KvPair> current = Collections.emptyIterator();
+  private long currentBytes = 0;
+
+  ParallelScanIterator(
+      ExecutorService executor,
+      ByteString startKey,
+      ByteString endKey,
+      int concurrency,
+      long maxBufferedBytes) {
+    this.executor = requireNonNull(executor, "executor is null");
+    this.nextStartKey = requireNonNull(startKey, "start key is null");
+    this.endKey = requireNonNull(endKey, "end key is null");
+    this.concurrency = concurrency;
+    this.maxBufferedBytes = maxBufferedBytes;
+    if (!endKey.isEmpty() && FastByteComparisons.compareTo(startKey, endKey) >= 0) {
+      this.nextStartKey = null;
+    }
+  }
+
+  /** Get the region containing `key`, null if it can not be found. */
+  abstract TiRegion locateRegion(ByteString key);
+
+  /** Scan all kv pairs in [startKey, endKey), an empty endKey means +∞. */
+  abstract List<KvPair> scanRange(ByteString startKey, ByteString endKey);
+
+  @Override
+  public boolean hasNext() {
+    while (!current.hasNext()) {
+      bufferedBytes.addAndGet(-currentBytes);
+      current = Collections.emptyIterator();
+      currentBytes = 0;
+      submit();
+      Future<RegionBatch> future = pending.poll();
+      if (future == null) {
+        return false;
+      }
+      RegionBatch batch = await(future);
+      current = batch.pairs.iterator();
+      currentBytes = batch.bytes;
+      // refill the window while the caller consumes this region
+      submit();
+    }
+    return true;
+  }
+
+  @Override
+  public KvPair next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return current.next();
+  }
+
+  private void submit() {
+    while (nextStartKey != null
+        && pending.size() < concurrency
+        && (pending.isEmpty() || bufferedBytes.get() < maxBufferedBytes)) {
+      ByteString start = nextStartKey;
+      TiRegion region = locateRegion(start);
+      if (region == null) {
+        cancel();
+        throw new TiKVException("Failed to locate the region of " + formatBytesUTF8(start));
+      }
+      ByteString regionEndKey = region.getEndKey();
+      ByteString end;
+      if (regionEndKey.isEmpty()
+          || !endKey.isEmpty() && FastByteComparisons.compareTo(regionEndKey, endKey) >= 0) {
+        end = endKey;
+        nextStartKey = null;
+      } else {
+        end = regionEndKey;
+        nextStartKey = regionEndKey;
+      }
+      pending.add(
+          executor.submit(
+              () -> {
+                RegionBatch batch = new RegionBatch(scanRange(start, end));
+                bufferedBytes.addAndGet(batch.bytes);
+                return batch;
+              }));
+    }
+  }
+
+  private RegionBatch await(Future<RegionBatch> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      cancel();
+      Thread.currentThread().interrupt();
+      throw new TiKVException("Current thread interrupted.", e);
+    } catch (ExecutionException e) {
+      cancel();
+      throw new TiKVException("Execution exception met.", e);
+    }
+  }
+
+  private void cancel() {
+    nextStartKey = null;
+    for (Future<RegionBatch> future : pending) {
+      future.cancel(true);
+    }
+    pending.clear();
+  }
+
+  private static final class RegionBatch {
+    private final List<KvPair> pairs;
+    private final long bytes;
+
+    private RegionBatch(List<KvPair> pairs) {
+      this.pairs = pairs;
+      long size = 0;
+      for (KvPair pair : pairs) {
+        size += pair.getSerializedSize();
+      }
+      this.bytes = size;
+    }
+  }
+}
@@ -0,0 +1,537 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.raw;
+
+import static org.tikv.common.util.ClientUtils.appendBatches;
+import static org.tikv.common.util.ClientUtils.getBatches;
+import static org.tikv.common.util.ClientUtils.groupKeysByRegion;
+import static org.tikv.raw.RawKVClient.RAW_REQUEST_FAILURE;
+import static org.tikv.raw.RawKVClient.RAW_REQUEST_LATENCY;
+import static org.tikv.raw.RawKVClient.RAW_REQUEST_SUCCESS;
+import static org.tikv.raw.RawKVClientBase.MAX_RAW_BATCH_LIMIT;
+import static org.tikv.raw.RawKVClientBase.MAX_RAW_SCAN_LIMIT;
+import static org.tikv.raw.RawKVClientBase.RAW_BATCH_GET_SIZE;
+import static org.tikv.raw.RawKVClientBase.RAW_BATCH_PUT_SIZE;
+
+import com.google.protobuf.ByteString;
+import io.prometheus.client.Histogram;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tikv.common.TiConfiguration;
+import org.tikv.common.TiSession;
+import org.tikv.common.exception.GrpcException;
+import org.tikv.common.exception.RegionException;
+import org.tikv.common.exception.StoreOverloadedException;
+import org.tikv.common.exception.TiKVException;
+import org.tikv.common.key.Key;
+import org.tikv.common.log.SlowLogEmptyImpl;
+import org.tikv.common.operation.RegionErrorHandler;
+import org.tikv.common.region.RegionStoreClient;
+import org.tikv.common.region.RegionStoreClient.RegionStoreClientBuilder;
+import org.tikv.common.region.TiRegion;
+import org.tikv.common.util.BackOffFunction;
+import org.tikv.common.util.BackOffer;
+import org.tikv.common.util.Batch;
+import org.tikv.common.util.ConcreteBackOffer;
+import org.tikv.common.util.Pair;
+import org.tikv.kvproto.Errorpb;
+import org.tikv.kvproto.Kvrpcpb.KvPair;
+
+/**
+ * RawKVAsyncClient is the non-blocking counterpart of {@link RawKVClient}. Every method returns a
+ * CompletableFuture at once: requests are sent through the TiKV future stub and retries are
+ * scheduled on the session's async retry pool instead of sleeping, so a handful of threads can keep
+ * a large number of requests in flight.
+ *
+ * <p>Dependent stages attached to the returned futures may run on gRPC threads and should not
+ * block. Region lookups that miss the region cache still query PD synchronously.
+ */
+public class RawKVAsyncClient implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(RawKVAsyncClient.class);
+
+  private final Long clusterId;
+  private final RegionStoreClientBuilder clientBuilder;
+  private final TiConfiguration conf;
+  private final boolean atomicForCAS;
+  private final ScheduledExecutorService retryThreadPool;
+
+  public RawKVAsyncClient(TiSession session, RegionStoreClientBuilder clientBuilder) {
+    Objects.requireNonNull(session, "session is null");
+    Objects.requireNonNull(clientBuilder, "clientBuilder is null");
+    this.conf = session.getConf();
+    this.clientBuilder = clientBuilder;
+    this.retryThreadPool = session.getThreadPoolForAsyncRetry();
+    this.atomicForCAS = conf.isEnableAtomicForCAS();
+    this.clusterId = session.getPDClient().getClusterId();
+  }
+
+  @Override
+  public void close() {}
+
+  /**
+   * Get a raw key-value pair from TiKV if key exists
+   *
+   * @param key raw key
+   * @return a future of the value of key, empty if the key does not exist
+   */
+  public CompletableFuture<Optional<ByteString>> getAsync(ByteString key) {
+    BackOffer backOffer = newBackOffer(conf.getRawKVReadTimeoutInMS());
+    return withMetrics(
+        "client_raw_get_async",
+        () ->
+            callWithRetryAsync(
+                backOffer, key, client -> client.rawGetAsync(backOffer, key, retryThreadPool)));
+  }
+
+  /**
+   * Get a list of raw key-value pair from TiKV if key exists
+   *
+   * @param keys list of raw key
+   * @return a future of the list of existing key-value pairs, in no particular order
+   */
+  public CompletableFuture<List<KvPair>> batchGetAsync(List<ByteString> keys) {
+    BackOffer backOffer = newBackOffer(conf.getRawKVBatchReadTimeoutInMS());
+    return withMetrics(
+        "client_raw_batch_get_async",
+        () ->
+            doSendBatchGetAsync(
+                getBatches(
+                    backOffer, keys, RAW_BATCH_GET_SIZE, MAX_RAW_BATCH_LIMIT, clientBuilder)));
+  }
+
+  /**
+   * Put a raw key-value pair to TiKV
+   *
+   * @param key raw key
+   * @param value raw value
+   */
+  public CompletableFuture<Void> putAsync(ByteString key, ByteString value) {
+    return putAsync(key, value, 0);
+  }
+
+  /**
+   * Put a raw key-value pair to TiKV
+   *
+   * @param key raw key
+   * @param value raw value
+   * @param ttl the ttl of the key (in seconds), 0 means the key will never be outdated
+   */
+  public CompletableFuture<Void> putAsync(ByteString key, ByteString value, long ttl) {
+    BackOffer backOffer = newBackOffer(conf.getRawKVWriteTimeoutInMS());
+    return withMetrics(
+        "client_raw_put_async",
+        () ->
+            callWithRetryAsync(
+                backOffer,
+                key,
+                client ->
+                    client.rawPutAsync(backOffer, key, value, ttl, atomicForCAS, retryThreadPool)));
+  }
+
+  /**
+   * Put a set of raw key-value pair to TiKV
+   *
+   * @param kvPairs kvPairs
+   */
+  public CompletableFuture<Void> batchPutAsync(Map<ByteString, ByteString> kvPairs) {
+    return batchPutAsync(kvPairs, 0);
+  }
+
+  /**
+   * Put a set of raw key-value pair to TiKV
+   *
+   * @param kvPairs kvPairs
+   * @param ttl the TTL of keys to be put (in seconds), 0 means the keys will never be outdated
+   */
+  public CompletableFuture<Void> batchPutAsync(Map<ByteString, ByteString> kvPairs, long ttl) {
+    BackOffer backOffer = newBackOffer(conf.getRawKVBatchWriteTimeoutInMS());
+    return withMetrics(
+        "client_raw_batch_put_async",
+        () ->
+            doSendBatchPutAsync(
+                splitBatchPut(backOffer, new ArrayList<>(kvPairs.keySet()), kvPairs::get), ttl));
+  }
+
+  /**
+   * Delete a raw key-value pair from TiKV if key exists
+   *
+   * @param key raw key to be deleted
+   */
+  public CompletableFuture<Void> deleteAsync(ByteString key) {
+    BackOffer backOffer = newBackOffer(conf.getRawKVWriteTimeoutInMS());
+    return withMetrics(
+        "client_raw_delete_async",
+        () ->
+            callWithRetryAsync(
+                backOffer,
+                key,
+                client -> client.rawDeleteAsync(backOffer, key, atomicForCAS, retryThreadPool)));
+  }
+
+  /**
+   * Scan raw key-value pairs from TiKV in range [startKey, endKey)
+   *
+   * @param startKey raw start key, inclusive
+   * @param endKey raw end key, exclusive
+   * @param limit limit of key-value pairs scanned, should be less than {@link
+   *     RawKVClientBase#MAX_RAW_SCAN_LIMIT}
+   * @return a future of the list of key-value pairs in range
+   */
+  public CompletableFuture<List<KvPair>> scanAsync(
+      ByteString startKey, ByteString endKey, int limit) {
+    return scanAsync(startKey, endKey, limit, false);
+  }
+
+  /**
+   * Scan raw key-value pairs from TiKV in range [startKey, endKey)
+   *
+   * @param startKey raw start key, inclusive
+   * @param endKey raw end key, exclusive
+   * @param limit limit of key-value pairs scanned, should be less than {@link
+   *     RawKVClientBase#MAX_RAW_SCAN_LIMIT}
+   * @param keyOnly whether to scan in key-only mode
+   * @return a future of the list of key-value pairs in range
+   */
+  public CompletableFuture<List<KvPair>> scanAsync(
+      ByteString startKey, ByteString endKey, int limit, boolean keyOnly) {
+    if (limit > MAX_RAW_SCAN_LIMIT) {
+      CompletableFuture<List<KvPair>> result = new CompletableFuture<>();
+      result.completeExceptionally(
+          new TiKVException("limit should be less than MAX_RAW_SCAN_LIMIT"));
+      return result;
+    }
+    BackOffer backOffer = newBackOffer(conf.getRawKVScanTimeoutInMS());
+    return withMetrics(
+        "client_raw_scan_async",
+        () ->
+            doScanAsync(
+                backOffer, startKey, Key.toRawKey(endKey), limit, keyOnly, new ArrayList<>()));
+  }
+
+  /**
+   * Scan raw key-value pairs from TiKV in range [startKey, ♾)
+   *
+   * @param startKey raw start key, inclusive
+   * @param limit limit of key-value pairs scanned, should be less than {@link
+   *     RawKVClientBase#MAX_RAW_SCAN_LIMIT}
+   * @return a future of the list of key-value pairs in range
+   */
+  public CompletableFuture<List<KvPair>> scanAsync(ByteString startKey, int limit) {
+    return scanAsync(startKey, ByteString.EMPTY, limit, false);
+  }
+
+  private BackOffer newBackOffer(int timeoutInMs) {
+    return ConcreteBackOffer.newDeadlineBackOff(
+        timeoutInMs, SlowLogEmptyImpl.INSTANCE, clusterId);
+  }
+
+  private <T> CompletableFuture<T> withMetrics(
+      String label, Supplier<CompletableFuture<T>> request) {
+    String[] labels = new String[] {label, clusterId.toString()};
+    Histogram.Timer requestTimer = RAW_REQUEST_LATENCY.labels(labels).startTimer();
+    CompletableFuture<T> future;
+    try {
+      future = request.get();
+    } catch (Exception e) {
+      future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+    }
+    return future.whenComplete(
+        (value, e) -> {
+          requestTimer.observeDuration();
+          if (e == null) {
+            RAW_REQUEST_SUCCESS.labels(labels).inc();
+          } else {
+            RAW_REQUEST_FAILURE.labels(labels).inc();
+          }
+        });
+  }
+
+  /**
+   * Send the request to the region of the key, and retry it after a back off delay on the retry
+   * pool when TiKV reports an error. Region cache is already refreshed by {@link
+   * RegionStoreClient} when the attempt fails, so every retry re-locates the key.
+   */
+  private <T> CompletableFuture<T> callWithRetryAsync(
+      BackOffer backOffer, ByteString key, Function<RegionStoreClient, CompletableFuture<T>> call) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    attemptAsync(backOffer, () -> call.apply(clientBuilder.build(key, backOffer)), result);
+    return result;
+  }
+
+  private <T> void attemptAsync(
+      BackOffer backOffer, Supplier<CompletableFuture<T>> attempt, CompletableFuture<T> result) {
+    if (result.isDone()) {
+      return;
+    }
+    CompletableFuture<T> future;
+    try {
+      future = attempt.get();
+    } catch (Exception e) {
+      future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+    }
+    future.whenComplete(
+        (value, e) -> {
+          if (e == null) {
+            result.complete(value);
+            return;
+          }
+          Throwable cause = unwrap(e);
+          if (!(cause instanceof TiKVException)) {
+            result.completeExceptionally(cause);
+            return;
+          }
+          try {
+            long sleep = backOffer.nextBackOffMs(backOffType(cause), (TiKVException) cause);
+            logger.warn("Retry for async raw request error", cause);
+            retryThreadPool.schedule(
+                () -> attemptAsync(backOffer, attempt, result), sleep, TimeUnit.MILLISECONDS);
+          } catch (Exception retryError) {
+            result.completeExceptionally(retryError);
+          }
+        });
+  }
+
+  private CompletableFuture<List<KvPair>> doSendBatchGetAsync(List<Batch> batches) {
+    List<CompletableFuture<List<KvPair>>> futures = new ArrayList<>();
+    for (Batch batch : batches) {
+      futures.add(doSendBatchGetInBatchesAsync(batch));
+    }
+    return allAsList(futures)
+        .thenApply(
+            results -> results.stream().flatMap(List::stream).collect(Collectors.toList()));
+  }
+
+  private CompletableFuture<List<KvPair>> doSendBatchGetInBatchesAsync(Batch batch) {
+    BackOffer backOffer = batch.getBackOffer();
+    CompletableFuture<List<KvPair>> future;
+    try {
+      RegionStoreClient client = clientBuilder.build(batch.getRegion(), backOffer);
+      future = client.rawBatchGetAsync(backOffer, batch.getKeys(), retryThreadPool);
+    } catch (Exception e) {
+      future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+    }
+    return future
+        .handle(
+            (pairs, e) -> {
+              if (e == null) {
+                return CompletableFuture.completedFuture(pairs);
+              }
+              // re-split the keys of the failed batch by the refreshed regions
+              return retryLater(
+                  backOffer,
+                  e,
+                  () ->
+                      doSendBatchGetAsync(
+                          getBatches(
+                              backOffer,
+                              batch.getKeys(),
+                              RAW_BATCH_GET_SIZE,
+                              MAX_RAW_BATCH_LIMIT,
+                              clientBuilder)));
+            })
+        .thenCompose(Function.identity());
+  }
+
+  private List<Batch> splitBatchPut(
+      BackOffer backOffer, List<ByteString> keys, Function<ByteString, ByteString> values) {
+    Map<TiRegion, List<ByteString>> groupKeys =
+        groupKeysByRegion(clientBuilder.getRegionManager(), keys, backOffer);
+    List<Batch> batches = new ArrayList<>();
+    for (Map.Entry<TiRegion, List<ByteString>> entry : groupKeys.entrySet()) {
+      appendBatches(
+          backOffer,
+          batches,
+          entry.getKey(),
+          entry.getValue(),
+          entry.getValue().stream().map(values).collect(Collectors.toList()),
+          RAW_BATCH_PUT_SIZE,
+          MAX_RAW_BATCH_LIMIT);
+    }
+    return batches;
+  }
+
+  private CompletableFuture<Void> doSendBatchPutAsync(List<Batch> batches, long ttl) {
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (Batch batch : batches) {
+      futures.add(doSendBatchPutInBatchesAsync(batch, ttl));
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+  }
+
+  private CompletableFuture<Void> doSendBatchPutInBatchesAsync(Batch batch, long ttl) {
+    BackOffer backOffer = batch.getBackOffer();
+    CompletableFuture<Void> future;
+    try {
+      RegionStoreClient client = clientBuilder.build(batch.getRegion(), backOffer);
+      future = client.rawBatchPutAsync(backOffer, batch, ttl, atomicForCAS, retryThreadPool);
+    } catch (Exception e) {
+      future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+    }
+    return future
+        .handle(
+            (ignored, e) -> {
+              if (e == null) {
+                return CompletableFuture.<Void>completedFuture(null);
+              }
+              return retryLater(
+                  backOffer,
+                  e,
+                  () ->
+                      doSendBatchPutAsync(
+                          splitBatchPut(backOffer, batch.getKeys(), batch.getMap()::get), ttl));
+            })
+        .thenCompose(Function.identity());
+  }
+
+  private CompletableFuture<List<KvPair>> doScanAsync(
+      BackOffer backOffer,
+      ByteString startKey,
+      Key endKey,
+      int limit,
+      boolean keyOnly,
+      List<KvPair> result) {
+    int scanLimit = Math.min(limit - result.size(), conf.getScanBatchSize());
+    if (scanLimit <= 0) {
+      return CompletableFuture.completedFuture(result);
+    }
+    return callWithRetryAsync(
+            backOffer,
+            startKey,
+            client ->
+                client
+                    .rawScanAsync(backOffer, startKey, scanLimit, keyOnly, retryThreadPool)
+                    .thenApply(pairs -> Pair.create(client.getRegion(), pairs)))
+        .thenCompose(
+            regionPairs -> {
+              List<KvPair> pairs = regionPairs.second;
+              boolean hasEndKey = !endKey.toByteString().isEmpty();
+              for (KvPair pair : pairs) {
+                if (hasEndKey && Key.toRawKey(pair.getKey()).compareTo(endKey) >= 0) {
+                  return CompletableFuture.completedFuture(result);
+                }
+                result.add(pair);
+              }
+              ByteString nextKey;
+              if (pairs.size() < scanLimit) {
+                // the region is drained, continue from the next region
+                nextKey = regionPairs.first.getEndKey();
+                if (nextKey.isEmpty()
+                    || hasEndKey && Key.toRawKey(nextKey).compareTo(endKey) >= 0) {
+                  return CompletableFuture.completedFuture(result);
+                }
+              } else {
+                nextKey = Key.toRawKey(pairs.get(pairs.size() - 1).getKey()).next().toByteString();
+              }
+              return doScanAsync(backOffer, nextKey, endKey, limit, keyOnly, result);
+            });
+  }
+
+  private <T> CompletableFuture<T> retryLater(
+      BackOffer backOffer, Throwable e, Supplier<CompletableFuture<T>> retry) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    Throwable cause = unwrap(e);
+    if (!(cause instanceof TiKVException)) {
+      result.completeExceptionally(cause);
+      return result;
+    }
+    try {
+      long sleep = backOffer.nextBackOffMs(backOffType(cause), (TiKVException) cause);
+      logger.warn("ReSplitting ranges for async batch request", cause);
+      retryThreadPool.schedule(
+          () -> {
+            try {
+              retry
+                  .get()
+                  .whenComplete(
+                      (value, error) -> {
+                        if (error == null) {
+                          result.complete(value);
+                        } else {
+                          result.completeExceptionally(unwrap(error));
+                        }
+                      });
+            } catch (Exception retryError) {
+              result.completeExceptionally(retryError);
+            }
+          },
+          sleep,
+          TimeUnit.MILLISECONDS);
+    } catch (Exception retryError) {
+      result.completeExceptionally(retryError);
+    }
+    return result;
+  }
+
+  /**
+   * Pick the back off for a failed attempt like {@link RegionErrorHandler} does: the region cache
+   * is already updated by {@link RegionStoreClient}, only the wait differs.
+   */
+  private static BackOffFunction.BackOffFuncType backOffType(Throwable e) {
+    if (e instanceof StoreOverloadedException) {
+      return BackOffFunction.BackOffFuncType.BoServerBusy;
+    }
+    if (e instanceof RegionException) {
+      Errorpb.Error error = ((RegionException) e).getRegionErr();
+      if (error.hasServerIsBusy()) {
+        return BackOffFunction.BackOffFuncType.BoServerBusy;
+      }
+      if (error.hasNotLeader()
+          && error.getNotLeader().getLeader().getStoreId()
+              != RegionErrorHandler.NO_LEADER_STORE_ID) {
+        return BackOffFunction.BackOffFuncType.BoUpdateLeader;
+      }
+      if (error.getMessage().contains("TsoBatchUsedUp")) {
+        return BackOffFunction.BackOffFuncType.BoTsoBatchUsedUp;
+      }
+      return BackOffFunction.BackOffFuncType.BoRegionMiss;
+    }
+    if (e instanceof GrpcException) {
+      return BackOffFunction.BackOffFuncType.BoTiKVRPC;
+    }
+    return BackOffFunction.BackOffFuncType.BoRegionMiss;
+  }
+
+  private static <T> CompletableFuture<List<T>> allAsList(List<CompletableFuture<T>> futures) {
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+        .thenApply(
+            ignored -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+  }
+
+  private static Throwable unwrap(Throwable e) {
+    if (e instanceof CompletionException && e.getCause() != null) {
+      return e.getCause();
+    }
+    return e;
+  }
+}
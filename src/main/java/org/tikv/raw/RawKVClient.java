@@ -23,13 +23,17 @@ import static org.tikv.common.util.ClientUtils.getBatches;
 import static org.tikv.common.util.ClientUtils.getTasks;
 import static org.tikv.common.util.ClientUtils.getTasksWithOutput;
 import static org.tikv.common.util.ClientUtils.groupKeysByRegion;
+import static org.tikv.common.util.ClientUtils.submitAfter;
+import static org.tikv.common.util.ClientUtils.submitAsync;
 
 import com.google.protobuf.ByteString;
 import io.prometheus.client.Counter;
 import io.prometheus.client.Histogram;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -37,11 +41,17 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +60,8 @@ import org.tikv.common.TiSession;
 import org.tikv.common.codec.KeyUtils;
 import org.tikv.common.exception.GrpcException;
 import org.tikv.common.exception.RawCASConflictException;
+import org.tikv.common.exception.RegionException;
+import org.tikv.common.exception.StoreOverloadedException;
 import org.tikv.common.exception.TiKVException;
 import org.tikv.common.importer.ImporterClient;
 import org.tikv.common.importer.SwitchTiKVModeClient;
@@ -58,17 +70,20 @@ import org.tikv.common.log.SlowLog;
 import org.tikv.common.log.SlowLogEmptyImpl;
 import org.tikv.common.log.SlowLogImpl;
 import org.tikv.common.log.SlowLogSpan;
+import org.tikv.common.operation.iterator.RawReverseScanIterator;
 import org.tikv.common.operation.iterator.RawScanIterator;
 import org.tikv.common.region.RegionStoreClient;
 import org.tikv.common.region.RegionStoreClient.RegionStoreClientBuilder;
 import org.tikv.common.region.TiRegion;
+import org.tikv.common.util.AdaptiveBatchSizer;
 import org.tikv.common.util.BackOffFunction;
 import org.tikv.common.util.BackOffer;
 import org.tikv.common.util.Batch;
 import org.tikv.common.util.ConcreteBackOffer;
-import org.tikv.common.util.DeleteRange;
 import org.tikv.common.util.HistogramUtils;
 import org.tikv.common.util.Pair;
+import org.tikv.common.util.RawChecksum;
+import org.tikv.common.util.RegionRange;
 import org.tikv.common.util.ScanOption;
 import org.tikv.kvproto.Kvrpcpb.KvPair;
 
@@ -84,6 +99,13 @@ public class RawKVClient implements RawKVClientBase {
   private final ExecutorService batchDeleteThreadPool;
   private final ExecutorService batchScanThreadPool;
   private final ExecutorService deleteRangeThreadPool;
+  private final ExecutorService scanPrefetchThreadPool;
+  // waits the back offs of the failed batches if they do not block, otherwise null
+  private final ScheduledExecutorService retryTimer;
+  private final RawKVReadCache readCache;
+  private final AdaptiveBatchSizer batchPutSizer;
+  private final AdaptiveBatchSizer batchGetSizer;
+  private final AdaptiveBatchSizer batchDeleteSizer;
   private static final Logger logger = LoggerFactory.getLogger(RawKVClient.class);
 
   public static final Histogram RAW_REQUEST_LATENCY =
@@ -107,6 +129,27 @@ public class RawKVClient implements RawKVClientBase {
           .labelNames("type", "cluster")
           .register();
 
+  public static final Counter RAW_READ_CACHE_HIT =
+      Counter.build()
+          .name("client_java_raw_read_cache_hit")
+          .help("client raw read cache hit.")
+          .labelNames("type", "cluster")
+          .register();
+
+  public static final Counter RAW_READ_CACHE_MISS =
+      Counter.build()
+          .name("client_java_raw_read_cache_miss")
+          .help("client raw read cache miss.")
+          .labelNames("type", "cluster")
+          .register();
+
+  public static final Counter RAW_READ_CACHE_EVICTION =
+      Counter.build()
+          .name("client_java_raw_read_cache_eviction")
+          .help("client raw read cache eviction, including expiration.")
+          .labelNames("cluster")
+          .register();
+
   private static final TiKVException ERR_MAX_SCAN_LIMIT_EXCEEDED =
       new TiKVException("limit should be less than MAX_RAW_SCAN_LIMIT");
 
@@ -121,9 +164,32 @@ public class RawKVClient implements RawKVClientBase {
     this.batchDeleteThreadPool = session.getThreadPoolForBatchDelete();
     this.batchScanThreadPool = session.getThreadPoolForBatchScan();
     this.deleteRangeThreadPool = session.getThreadPoolForDeleteRange();
+    this.scanPrefetchThreadPool = session.getThreadPoolForScanPrefetch();
+    this.retryTimer =
+        conf.isRawKVNonBlockingBackOffEnable() ? session.getThreadPoolForAsyncRetry() : null;
     this.atomicForCAS = conf.isEnableAtomicForCAS();
     this.clusterId = session.getPDClient().getClusterId();
     this.pdAddresses = session.getPDClient().getPdAddrs();
+    this.readCache =
+        conf.isRawKVReadCacheEnable()
+            ? new RawKVReadCache(
+                conf.getRawKVReadCacheCapacity(),
+                conf.getRawKVReadCacheTtlInMS(),
+                clusterId.toString())
+            : null;
+    this.batchPutSizer = newBatchSizer("client_raw_batch_put", RAW_BATCH_PUT_SIZE);
+    this.batchGetSizer = newBatchSizer("client_raw_batch_get", RAW_BATCH_GET_SIZE);
+    this.batchDeleteSizer = newBatchSizer("client_raw_batch_delete", RAW_BATCH_DELETE_SIZE);
+  }
+
+  private AdaptiveBatchSizer newBatchSizer(String type, int batchSizeInBytes) {
+    return new AdaptiveBatchSizer(
+        type,
+        batchSizeInBytes,
+        MAX_RAW_BATCH_LIMIT,
+        conf.isRawKVAdaptiveBatchEnable(),
+        conf.getRawKVAdaptiveBatchTargetLatencyInMS(),
+        clusterId.toString());
   }
 
   private SlowLog withClusterInfo(SlowLog logger) {
@@ -161,7 +227,7 @@ public class RawKVClient implements RawKVClientBase {
           RAW_REQUEST_SUCCESS.labels(labels).inc();
           return;
         } catch (final TiKVException e) {
-          backOffer.doBackOff(BackOffFunction.BackOffFuncType.BoRegionMiss, e);
+          backOffer.doBackOff(backOffType(e), e);
           logger.warn("Retry for put error", e);
         }
       }
@@ -170,6 +236,7 @@ public class RawKVClient implements RawKVClientBase {
       slowLog.setError(e);
       throw e;
     } finally {
+      invalidateReadCache(key, ttl);
       requestTimer.observeDuration();
       span.end();
       slowLog.log();
@@ -223,7 +290,7 @@ public class RawKVClient implements RawKVClientBase {
           RAW_REQUEST_SUCCESS.labels(labels).inc();
           return;
         } catch (final TiKVException e) {
-          backOffer.doBackOff(BackOffFunction.BackOffFuncType.BoRegionMiss, e);
+          backOffer.doBackOff(backOffType(e), e);
           logger.warn("Retry for putIfAbsent error", e);
         }
       }
@@ -232,6 +299,7 @@ public class RawKVClient implements RawKVClientBase {
       slowLog.setError(e);
       throw e;
     } finally {
+      invalidateReadCache(key, ttl);
       requestTimer.observeDuration();
       span.end();
       slowLog.log();
@@ -264,6 +332,9 @@ public class RawKVClient implements RawKVClientBase {
       slowLog.setError(e);
       throw e;
     } finally {
+      if (readCache != null) {
+        readCache.invalidateAll(kvPairs.keySet(), ttl);
+      }
       requestTimer.observeDuration();
       span.end();
       slowLog.log();
@@ -282,14 +353,29 @@ public class RawKVClient implements RawKVClientBase {
     ConcreteBackOffer backOffer =
         ConcreteBackOffer.newDeadlineBackOff(conf.getRawKVReadTimeoutInMS(), slowLog, clusterId);
     try {
+      long stamp = 0;
+      if (readCache != null) {
+        Optional<ByteString> cached = readCache.getIfPresent(key);
+        if (cached != null) {
+          RAW_READ_CACHE_HIT.labels(labels).inc();
+          RAW_REQUEST_SUCCESS.labels(labels).inc();
+          span.addProperty("cache", "hit");
+          return cached;
+        }
+        RAW_READ_CACHE_MISS.labels(labels).inc();
+        stamp = readCache.stamp();
+      }
       while (true) {
         try (RegionStoreClient client = clientBuilder.build(key, backOffer)) {
           span.addProperty("region", client.getRegion().toString());
           Optional<ByteString> result = client.rawGet(backOffer, key);
+          if (readCache != null) {
+            readCache.put(key, result, stamp);
+          }
           RAW_REQUEST_SUCCESS.labels(labels).inc();
           return result;
         } catch (final TiKVException e) {
-          backOffer.doBackOff(BackOffFunction.BackOffFuncType.BoRegionMiss, e);
+          backOffer.doBackOff(backOffType(e), e);
           logger.warn("Retry for get error", e);
         }
       }
@@ -316,7 +402,10 @@ public class RawKVClient implements RawKVClientBase {
             conf.getRawKVBatchReadTimeoutInMS(), slowLog, clusterId);
     try {
       long deadline = System.currentTimeMillis() + conf.getRawKVBatchReadTimeoutInMS();
-      List<KvPair> result = doSendBatchGet(backOffer, keys, deadline);
+      List<KvPair> result =
+          readCache == null
+              ? doSendBatchGet(backOffer, keys, deadline)
+              : doSendBatchGetWithCache(backOffer, keys, deadline, labels);
       RAW_REQUEST_SUCCESS.labels(labels).inc();
       return result;
     } catch (Exception e) {
@@ -349,6 +438,9 @@ public class RawKVClient implements RawKVClientBase {
       slowLog.setError(e);
       throw e;
     } finally {
+      if (readCache != null) {
+        readCache.invalidateAll(keys);
+      }
       requestTimer.observeDuration();
       span.end();
       slowLog.log();
@@ -369,10 +461,17 @@ public class RawKVClient implements RawKVClientBase {
         try (RegionStoreClient client = clientBuilder.build(key, backOffer)) {
           span.addProperty("region", client.getRegion().toString());
           Optional<Long> result = client.rawGetKeyTTL(backOffer, key);
+          if (readCache != null) {
+            if (!result.isPresent()) {
+              readCache.invalidate(key);
+            } else if (result.get() > 0) {
+              readCache.limitTtl(key, result.get());
+            }
+          }
           RAW_REQUEST_SUCCESS.labels(labels).inc();
           return result;
         } catch (final TiKVException e) {
-          backOffer.doBackOff(BackOffFunction.BackOffFuncType.BoRegionMiss, e);
+          backOffer.doBackOff(backOffType(e), e);
           logger.warn("Retry for getKeyTTL error", e);
         }
       }
@@ -493,6 +592,42 @@ public class RawKVClient implements RawKVClientBase {
     }
   }
 
+  @Override
+  public List<KvPair> scanReverse(ByteString startKey, ByteString endKey, int limit) {
+    return scanReverse(startKey, endKey, limit, false);
+  }
+
+  @Override
+  public List<KvPair> scanReverse(
+      ByteString startKey, ByteString endKey, int limit, boolean keyOnly) {
+    String[] labels = withClusterId("client_raw_reverse_scan");
+    Histogram.Timer requestTimer = RAW_REQUEST_LATENCY.labels(labels).startTimer();
+    SlowLog slowLog = withClusterInfo(new SlowLogImpl(conf.getRawKVScanSlowLogInMS()));
+    SlowLogSpan span = slowLog.start("scanReverse");
+    span.addProperty("startKey", KeyUtils.formatBytesUTF8(startKey));
+    span.addProperty("endKey", KeyUtils.formatBytesUTF8(endKey));
+    span.addProperty("limit", String.valueOf(limit));
+    span.addProperty("keyOnly", String.valueOf(keyOnly));
+    ConcreteBackOffer backOffer =
+        ConcreteBackOffer.newDeadlineBackOff(conf.getRawKVScanTimeoutInMS(), slowLog, clusterId);
+    try {
+      Iterator<KvPair> iterator =
+          rawReverseScanIterator(startKey, endKey, limit, keyOnly, backOffer);
+      List<KvPair> result = new ArrayList<>();
+      iterator.forEachRemaining(result::add);
+      RAW_REQUEST_SUCCESS.labels(labels).inc();
+      return result;
+    } catch (Exception e) {
+      RAW_REQUEST_FAILURE.labels(labels).inc();
+      slowLog.setError(e);
+      throw e;
+    } finally {
+      requestTimer.observeDuration();
+      span.end();
+      slowLog.log();
+    }
+  }
+
   @Override
   public List<KvPair> scan(ByteString startKey, int limit) {
     return scan(startKey, limit, false);
@@ -520,24 +655,7 @@ public class RawKVClient implements RawKVClientBase {
     ConcreteBackOffer backOffer =
         ConcreteBackOffer.newDeadlineBackOff(conf.getRawKVScanTimeoutInMS(), slowLog, clusterId);
     try {
-      ByteString newStartKey = startKey;
-      List<KvPair> result = new ArrayList<>();
-      while (true) {
-        Iterator<KvPair> iterator =
-            rawScanIterator(
-                conf,
-                clientBuilder,
-                newStartKey,
-                endKey,
-                conf.getScanBatchSize(),
-                keyOnly,
-                backOffer);
-        if (!iterator.hasNext()) {
-          break;
-        }
-        iterator.forEachRemaining(result::add);
-        newStartKey = Key.toRawKey(result.get(result.size() - 1).getKey()).next().toByteString();
-      }
+      List<KvPair> result = doScanRange(startKey, endKey, keyOnly, backOffer);
       RAW_REQUEST_SUCCESS.labels(labels).inc();
       return result;
     } catch (Exception e) {
@@ -551,6 +669,95 @@ public class RawKVClient implements RawKVClientBase {
     }
   }
 
+  /**
+   * Scan all raw key-value pairs from TiKV in range [startKey, endKey), scanning up to {@link
+   * TiConfiguration#getRawKVParallelScanConcurrency()} regions at the same time.
+   *
+   * @param startKey raw start key, inclusive
+   * @param endKey raw end key, exclusive
+   * @param keyOnly whether to scan in key-only mode
+   * @return list of key-value pairs in range, in key order
+   */
+  public List<KvPair> parallelScan(ByteString startKey, ByteString endKey, boolean keyOnly) {
+    String[] labels = withClusterId("client_raw_parallel_scan");
+    Histogram.Timer requestTimer = RAW_REQUEST_LATENCY.labels(labels).startTimer();
+    try {
+      List<KvPair> result = new ArrayList<>();
+      parallelScan0(startKey, endKey, keyOnly).forEachRemaining(result::add);
+      RAW_REQUEST_SUCCESS.labels(labels).inc();
+      return result;
+    } catch (Exception e) {
+      RAW_REQUEST_FAILURE.labels(labels).inc();
+      throw e;
+    } finally {
+      requestTimer.observeDuration();
+    }
+  }
+
+  public List<KvPair> parallelScan(ByteString startKey, ByteString endKey) {
+    return parallelScan(startKey, endKey, false);
+  }
+
+  /**
+   * Scan all raw key-value pairs from TiKV in range [startKey, endKey), scanning up to {@link
+   * TiConfiguration#getRawKVParallelScanConcurrency()} regions at the same time. Regions scanned
+   * ahead of the caller are buffered up to {@link
+   * TiConfiguration#getRawKVParallelScanMaxBufferedBytes()} bytes.
+   *
+   * @param startKey raw start key, inclusive
+   * @param endKey raw end key, exclusive
+   * @param keyOnly whether to scan in key-only mode
+   * @return iterator of key-value pairs in range, in key order
+   */
+  public Iterator<KvPair> parallelScan0(ByteString startKey, ByteString endKey, boolean keyOnly) {
+    return new ParallelScanIterator(
+        batchScanThreadPool,
+        startKey,
+        endKey,
+        conf.getRawKVParallelScanConcurrency(),
+        conf.getRawKVParallelScanMaxBufferedBytes()) {
+      @Override
+      TiRegion locateRegion(ByteString key) {
+        return clientBuilder.getRegionManager().getRegionByKey(key, defaultBackOff());
+      }
+
+      @Override
+      List<KvPair> scanRange(ByteString start, ByteString end) {
+        BackOffer backOffer =
+            ConcreteBackOffer.newDeadlineBackOff(
+                conf.getRawKVScanTimeoutInMS(), SlowLogEmptyImpl.INSTANCE, clusterId);
+        return doScanRange(start, end, keyOnly, backOffer);
+      }
+    };
+  }
+
+  public Iterator<KvPair> parallelScan0(ByteString startKey, ByteString endKey) {
+    return parallelScan0(startKey, endKey, false);
+  }
+
+  private List<KvPair> doScanRange(
+      ByteString startKey, ByteString endKey, boolean keyOnly, BackOffer backOffer) {
+    ByteString newStartKey = startKey;
+    List<KvPair> result = new ArrayList<>();
+    while (true) {
+      Iterator<KvPair> iterator =
+          rawScanIterator(
+              conf,
+              clientBuilder,
+              newStartKey,
+              endKey,
+              conf.getScanBatchSize(),
+              keyOnly,
+              backOffer);
+      if (!iterator.hasNext()) {
+        break;
+      }
+      iterator.forEachRemaining(result::add);
+      newStartKey = Key.toRawKey(result.get(result.size() - 1).getKey()).next().toByteString();
+    }
+    return result;
+  }
+
   private List<KvPair> scan(ScanOption scanOption) {
     ByteString startKey = scanOption.getStartKey();
     ByteString endKey = scanOption.getEndKey();
@@ -591,7 +798,7 @@ public class RawKVClient implements RawKVClientBase {
           RAW_REQUEST_SUCCESS.labels(labels).inc();
           return;
         } catch (final TiKVException e) {
-          backOffer.doBackOff(BackOffFunction.BackOffFuncType.BoRegionMiss, e);
+          backOffer.doBackOff(backOffType(e), e);
           logger.warn("Retry for delete error", e);
         }
       }
@@ -600,6 +807,7 @@ public class RawKVClient implements RawKVClientBase {
       slowLog.setError(e);
       throw e;
     } finally {
+      invalidateReadCache(key);
       requestTimer.observeDuration();
       span.end();
       slowLog.log();
@@ -620,6 +828,29 @@ public class RawKVClient implements RawKVClientBase {
     } catch (Exception e) {
       RAW_REQUEST_FAILURE.labels(labels).inc();
       throw e;
+    } finally {
+      if (readCache != null) {
+        readCache.invalidateAll();
+      }
+      requestTimer.observeDuration();
+    }
+  }
+
+  @Override
+  public RawChecksum checksum(ByteString startKey, ByteString endKey) {
+    String[] labels = withClusterId("client_raw_checksum");
+    Histogram.Timer requestTimer = RAW_REQUEST_LATENCY.labels(labels).startTimer();
+    ConcreteBackOffer backOffer =
+        ConcreteBackOffer.newDeadlineBackOff(
+            conf.getRawKVChecksumTimeoutInMS(), SlowLogEmptyImpl.INSTANCE, clusterId);
+    try {
+      long deadline = System.currentTimeMillis() + conf.getRawKVChecksumTimeoutInMS();
+      RawChecksum checksum = doSendChecksum(backOffer, startKey, endKey, deadline);
+      RAW_REQUEST_SUCCESS.labels(labels).inc();
+      return checksum;
+    } catch (Exception e) {
+      RAW_REQUEST_FAILURE.labels(labels).inc();
+      throw e;
     } finally {
       requestTimer.observeDuration();
     }
@@ -702,6 +933,9 @@ public class RawKVClient implements RawKVClientBase {
         doIngest(region, kvs, ttl);
       }
     } finally {
+      if (readCache != null) {
+        readCache.invalidateAll();
+      }
       // swith tikv to normal mode
       switchTiKVModeClient.stopKeepTiKVToImportMode();
       switchTiKVModeClient.switchTiKVToNormalMode();
@@ -727,21 +961,22 @@ public class RawKVClient implements RawKVClientBase {
     ExecutorCompletionService<List<Batch>> completionService =
         new ExecutorCompletionService<>(batchPutThreadPool);
 
-    List<Future<List<Batch>>> futureList = new ArrayList<>();
+    List<Future<?>> futureList = new ArrayList<>();
 
     Map<TiRegion, List<ByteString>> groupKeys =
         groupKeysByRegion(clientBuilder.getRegionManager(), kvPairs.keySet(), backOffer);
     List<Batch> batches = new ArrayList<>();
 
     for (Map.Entry<TiRegion, List<ByteString>> entry : groupKeys.entrySet()) {
+      AdaptiveBatchSizer.Limits limits = batchPutSizer.get(entry.getKey());
       appendBatches(
           backOffer,
           batches,
           entry.getKey(),
           entry.getValue(),
           entry.getValue().stream().map(kvPairs::get).collect(Collectors.toList()),
-          RAW_BATCH_PUT_SIZE,
-          MAX_RAW_BATCH_LIMIT);
+          limits.getBytes(),
+          limits.getKeys());
     }
     Queue<List<Batch>> taskQueue = new LinkedList<>();
     taskQueue.offer(batches);
@@ -749,15 +984,28 @@ public class RawKVClient implements RawKVClientBase {
     while (!taskQueue.isEmpty()) {
       List<Batch> task = taskQueue.poll();
       for (Batch batch : task) {
-        futureList.add(
-            completionService.submit(
-                () -> doSendBatchPutInBatchesWithRetry(batch.getBackOffer(), batch, ttl)));
+        if (batch.isRetry()) {
+          futureList.add(
+              submitAfter(
+                  completionService,
+                  retryTimer,
+                  () -> doSendBatchPutWithRefetchRegion(batch.getBackOffer(), batch),
+                  batch.getRetryDelayMs()));
+        } else if (retryTimer != null) {
+          futureList.add(
+              submitAsync(
+                  completionService, doSendBatchPutAsync(batch.getBackOffer(), batch, ttl)));
+        } else {
+          futureList.add(
+              completionService.submit(
+                  () -> doSendBatchPutInBatchesWithRetry(batch.getBackOffer(), batch, ttl)));
+        }
       }
 
       try {
         getTasks(completionService, taskQueue, task, deadline - System.currentTimeMillis());
       } catch (Exception e) {
-        for (Future<List<Batch>> future : futureList) {
+        for (Future<?> future : futureList) {
           future.cancel(true);
         }
         throw e;
@@ -766,33 +1014,66 @@ public class RawKVClient implements RawKVClientBase {
   }
 
   private List<Batch> doSendBatchPutInBatchesWithRetry(BackOffer backOffer, Batch batch, long ttl) {
+    long startMs = System.currentTimeMillis();
+    long sleptMs = backOffer.getTotalSleepMs();
     try (RegionStoreClient client = clientBuilder.build(batch.getRegion(), backOffer)) {
       client.setTimeout(conf.getRawKVBatchWriteTimeoutInMS());
       client.rawBatchPut(backOffer, batch, ttl, atomicForCAS);
+      onBatchSuccess(batchPutSizer, batch, backOffer, startMs, sleptMs);
       return new ArrayList<>();
     } catch (final TiKVException e) {
+      onBatchFailure(batchPutSizer, batch, e);
       // TODO: any elegant way to re-split the ranges if fails?
-      backOffer.doBackOff(BackOffFunction.BackOffFuncType.BoRegionMiss, e);
+      backOffer.doBackOff(backOffType(e), e);
       logger.warn("ReSplitting ranges for BatchPutRequest", e);
       // retry
       return doSendBatchPutWithRefetchRegion(backOffer, batch);
     }
   }
 
+  /**
+   * Sends the batch like doSendBatchPutInBatchesWithRetry, with the back offs waited on the retry
+   * timer. A failed batch is not regrouped at once but returned as a retry batch, which is
+   * regrouped and resent once its back off is over.
+   */
+  private CompletableFuture<List<Batch>> doSendBatchPutAsync(
+      BackOffer backOffer, Batch batch, long ttl) {
+    long startMs = System.currentTimeMillis();
+    long sleptMs = backOffer.getTotalSleepMs();
+    return sendBatchAsync(
+        backOffer,
+        batch,
+        client -> {
+          client.setTimeout(conf.getRawKVBatchWriteTimeoutInMS());
+          return client.rawBatchPutAsync(backOffer, batch, ttl, atomicForCAS, retryTimer);
+        },
+        (v, e) -> {
+          if (e == null) {
+            onBatchSuccess(batchPutSizer, batch, backOffer, startMs, sleptMs);
+            return new ArrayList<>();
+          }
+          onBatchFailure(batchPutSizer, batch, e);
+          long sleep = backOffer.nextBackOffMs(backOffType(e), e);
+          logger.warn("ReSplitting ranges for BatchPutRequest", e);
+          return Collections.singletonList(batch.retryAfter(backOffer, sleep));
+        });
+  }
+
   private List<Batch> doSendBatchPutWithRefetchRegion(BackOffer backOffer, Batch batch) {
     Map<TiRegion, List<ByteString>> groupKeys =
         groupKeysByRegion(clientBuilder.getRegionManager(), batch.getKeys(), backOffer);
     List<Batch> retryBatches = new ArrayList<>();
 
     for (Map.Entry<TiRegion, List<ByteString>> entry : groupKeys.entrySet()) {
+      AdaptiveBatchSizer.Limits limits = batchPutSizer.get(entry.getKey());
       appendBatches(
           backOffer,
           retryBatches,
           entry.getKey(),
           entry.getValue(),
           entry.getValue().stream().map(batch.getMap()::get).collect(Collectors.toList()),
-          RAW_BATCH_PUT_SIZE,
-          MAX_RAW_BATCH_LIMIT);
+          limits.getBytes(),
+          limits.getKeys());
     }
 
     return retryBatches;
@@ -802,10 +1083,9 @@ public class RawKVClient implements RawKVClientBase {
     ExecutorCompletionService<Pair<List<Batch>, List<KvPair>>> completionService =
         new ExecutorCompletionService<>(batchGetThreadPool);
 
-    List<Future<Pair<List<Batch>, List<KvPair>>>> futureList = new ArrayList<>();
+    List<Future<?>> futureList = new ArrayList<>();
 
-    List<Batch> batches =
-        getBatches(backOffer, keys, RAW_BATCH_GET_SIZE, MAX_RAW_BATCH_LIMIT, this.clientBuilder);
+    List<Batch> batches = getBatches(backOffer, keys, batchGetSizer, this.clientBuilder);
 
     Queue<List<Batch>> taskQueue = new LinkedList<>();
     List<KvPair> result = new ArrayList<>();
@@ -814,16 +1094,31 @@ public class RawKVClient implements RawKVClientBase {
     while (!taskQueue.isEmpty()) {
       List<Batch> task = taskQueue.poll();
       for (Batch batch : task) {
-        futureList.add(
-            completionService.submit(
-                () -> doSendBatchGetInBatchesWithRetry(batch.getBackOffer(), batch)));
+        if (batch.isRetry()) {
+          futureList.add(
+              submitAfter(
+                  completionService,
+                  retryTimer,
+                  () ->
+                      Pair.create(
+                          doSendBatchGetWithRefetchRegion(batch.getBackOffer(), batch),
+                          new ArrayList<>()),
+                  batch.getRetryDelayMs()));
+        } else if (retryTimer != null) {
+          futureList.add(
+              submitAsync(completionService, doSendBatchGetAsync(batch.getBackOffer(), batch)));
+        } else {
+          futureList.add(
+              completionService.submit(
+                  () -> doSendBatchGetInBatchesWithRetry(batch.getBackOffer(), batch)));
+        }
       }
       try {
         result.addAll(
             getTasksWithOutput(
                 completionService, taskQueue, task, deadline - System.currentTimeMillis()));
       } catch (Exception e) {
-        for (Future<Pair<List<Batch>, List<KvPair>>> future : futureList) {
+        for (Future<?> future : futureList) {
           future.cancel(true);
         }
         throw e;
@@ -833,15 +1128,52 @@ public class RawKVClient implements RawKVClientBase {
     return result;
   }
 
+  private List<KvPair> doSendBatchGetWithCache(
+      BackOffer backOffer, List<ByteString> keys, long deadline, String[] labels) {
+    List<KvPair> result = new ArrayList<>(keys.size());
+    List<ByteString> missedKeys = new ArrayList<>();
+    for (ByteString key : keys) {
+      Optional<ByteString> cached = readCache.getIfPresent(key);
+      if (cached == null) {
+        missedKeys.add(key);
+      } else if (cached.isPresent()) {
+        result.add(KvPair.newBuilder().setKey(key).setValue(cached.get()).build());
+      }
+    }
+    RAW_READ_CACHE_HIT.labels(labels).inc(keys.size() - missedKeys.size());
+    RAW_READ_CACHE_MISS.labels(labels).inc(missedKeys.size());
+    if (missedKeys.isEmpty()) {
+      return result;
+    }
+
+    long stamp = readCache.stamp();
+    List<KvPair> fetched = doSendBatchGet(backOffer, missedKeys, deadline);
+    Set<ByteString> foundKeys = new HashSet<>();
+    for (KvPair pair : fetched) {
+      foundKeys.add(pair.getKey());
+      readCache.put(pair.getKey(), Optional.of(pair.getValue()), stamp);
+    }
+    for (ByteString key : missedKeys) {
+      if (!foundKeys.contains(key)) {
+        readCache.put(key, Optional.empty(), stamp);
+      }
+    }
+    result.addAll(fetched);
+    return result;
+  }
+
   private Pair<List<Batch>, List<KvPair>> doSendBatchGetInBatchesWithRetry(
       BackOffer backOffer, Batch batch) {
-
+    long startMs = System.currentTimeMillis();
+    long sleptMs = backOffer.getTotalSleepMs();
     try (RegionStoreClient client = clientBuilder.build(batch.getRegion(), backOffer)) {
       List<KvPair> partialResult = client.rawBatchGet(backOffer, batch.getKeys());
+      onBatchSuccess(batchGetSizer, batch, backOffer, startMs, sleptMs);
       return Pair.create(new ArrayList<>(), partialResult);
     } catch (final TiKVException e) {
-      backOffer.doBackOff(BackOffFunction.BackOffFuncType.BoRegionMiss, e);
-      clientBuilder.getRegionManager().invalidateRegion(batch.getRegion());
+      onBatchFailure(batchGetSizer, batch, e);
+      backOffer.doBackOff(backOffType(e), e);
+      invalidateRegion(batch.getRegion(), e);
       logger.warn("ReSplitting ranges for BatchGetRequest", e);
 
       // retry
@@ -849,19 +1181,39 @@ public class RawKVClient implements RawKVClientBase {
     }
   }
 
+  private CompletableFuture<Pair<List<Batch>, List<KvPair>>> doSendBatchGetAsync(
+      BackOffer backOffer, Batch batch) {
+    long startMs = System.currentTimeMillis();
+    long sleptMs = backOffer.getTotalSleepMs();
+    return sendBatchAsync(
+        backOffer,
+        batch,
+        client -> client.rawBatchGetAsync(backOffer, batch.getKeys(), retryTimer),
+        (partialResult, e) -> {
+          if (e == null) {
+            onBatchSuccess(batchGetSizer, batch, backOffer, startMs, sleptMs);
+            return Pair.create(new ArrayList<>(), partialResult);
+          }
+          onBatchFailure(batchGetSizer, batch, e);
+          long sleep = backOffer.nextBackOffMs(backOffType(e), e);
+          invalidateRegion(batch.getRegion(), e);
+          logger.warn("ReSplitting ranges for BatchGetRequest", e);
+          return Pair.create(
+              Collections.singletonList(batch.retryAfter(backOffer, sleep)), new ArrayList<>());
+        });
+  }
+
   private List<Batch> doSendBatchGetWithRefetchRegion(BackOffer backOffer, Batch batch) {
-    return getBatches(
-        backOffer, batch.getKeys(), RAW_BATCH_GET_SIZE, MAX_RAW_BATCH_LIMIT, clientBuilder);
+    return getBatches(backOffer, batch.getKeys(), batchGetSizer, clientBuilder);
   }
 
   private void doSendBatchDelete(BackOffer backOffer, List<ByteString> keys, long deadline) {
     ExecutorCompletionService<List<Batch>> completionService =
         new ExecutorCompletionService<>(batchDeleteThreadPool);
 
-    List<Future<List<Batch>>> futureList = new ArrayList<>();
+    List<Future<?>> futureList = new ArrayList<>();
 
-    List<Batch> batches =
-        getBatches(backOffer, keys, RAW_BATCH_DELETE_SIZE, MAX_RAW_BATCH_LIMIT, this.clientBuilder);
+    List<Batch> batches = getBatches(backOffer, keys, batchDeleteSizer, this.clientBuilder);
 
     Queue<List<Batch>> taskQueue = new LinkedList<>();
     taskQueue.offer(batches);
@@ -869,14 +1221,26 @@ public class RawKVClient implements RawKVClientBase {
     while (!taskQueue.isEmpty()) {
       List<Batch> task = taskQueue.poll();
       for (Batch batch : task) {
-        futureList.add(
-            completionService.submit(
-                () -> doSendBatchDeleteInBatchesWithRetry(batch.getBackOffer(), batch)));
+        if (batch.isRetry()) {
+          futureList.add(
+              submitAfter(
+                  completionService,
+                  retryTimer,
+                  () -> doSendBatchDeleteWithRefetchRegion(batch.getBackOffer(), batch),
+                  batch.getRetryDelayMs()));
+        } else if (retryTimer != null) {
+          futureList.add(
+              submitAsync(completionService, doSendBatchDeleteAsync(batch.getBackOffer(), batch)));
+        } else {
+          futureList.add(
+              completionService.submit(
+                  () -> doSendBatchDeleteInBatchesWithRetry(batch.getBackOffer(), batch)));
+        }
       }
       try {
         getTasks(completionService, taskQueue, task, deadline - System.currentTimeMillis());
       } catch (Exception e) {
-        for (Future<List<Batch>> future : futureList) {
+        for (Future<?> future : futureList) {
           future.cancel(true);
         }
         throw e;
@@ -885,12 +1249,16 @@ public class RawKVClient implements RawKVClientBase {
   }
 
   private List<Batch> doSendBatchDeleteInBatchesWithRetry(BackOffer backOffer, Batch batch) {
+    long startMs = System.currentTimeMillis();
+    long sleptMs = backOffer.getTotalSleepMs();
     try (RegionStoreClient client = clientBuilder.build(batch.getRegion(), backOffer)) {
       client.rawBatchDelete(backOffer, batch.getKeys(), atomicForCAS);
+      onBatchSuccess(batchDeleteSizer, batch, backOffer, startMs, sleptMs);
       return new ArrayList<>();
     } catch (final TiKVException e) {
-      backOffer.doBackOff(BackOffFunction.BackOffFuncType.BoRegionMiss, e);
-      clientBuilder.getRegionManager().invalidateRegion(batch.getRegion());
+      onBatchFailure(batchDeleteSizer, batch, e);
+      backOffer.doBackOff(backOffType(e), e);
+      invalidateRegion(batch.getRegion(), e);
       logger.warn("ReSplitting ranges for BatchGetRequest", e);
 
       // retry
@@ -898,9 +1266,98 @@ public class RawKVClient implements RawKVClientBase {
     }
   }
 
+  private CompletableFuture<List<Batch>> doSendBatchDeleteAsync(BackOffer backOffer, Batch batch) {
+    long startMs = System.currentTimeMillis();
+    long sleptMs = backOffer.getTotalSleepMs();
+    return sendBatchAsync(
+        backOffer,
+        batch,
+        client -> client.rawBatchDeleteAsync(backOffer, batch.getKeys(), atomicForCAS, retryTimer),
+        (v, e) -> {
+          if (e == null) {
+            onBatchSuccess(batchDeleteSizer, batch, backOffer, startMs, sleptMs);
+            return new ArrayList<>();
+          }
+          onBatchFailure(batchDeleteSizer, batch, e);
+          long sleep = backOffer.nextBackOffMs(backOffType(e), e);
+          invalidateRegion(batch.getRegion(), e);
+          logger.warn("ReSplitting ranges for BatchDeleteRequest", e);
+          return Collections.singletonList(batch.retryAfter(backOffer, sleep));
+        });
+  }
+
   private List<Batch> doSendBatchDeleteWithRefetchRegion(BackOffer backOffer, Batch batch) {
-    return getBatches(
-        backOffer, batch.getKeys(), RAW_BATCH_DELETE_SIZE, MAX_RAW_BATCH_LIMIT, clientBuilder);
+    return getBatches(backOffer, batch.getKeys(), batchDeleteSizer, clientBuilder);
+  }
+
+  /**
+   * Sends a batch through the async API of the region store client, so that no thread waits for
+   * the response or for the back offs of the region errors, and passes the outcome to the handler:
+   * the response, or the TiKVException of the call. Any other failure fails the batch. Cancelling
+   * the returned future cancels the call.
+   */
+  private <T, R> CompletableFuture<R> sendBatchAsync(
+      BackOffer backOffer,
+      Batch batch,
+      Function<RegionStoreClient, CompletableFuture<T>> send,
+      BiFunction<T, TiKVException, R> handler) {
+    CompletableFuture<T> call;
+    try {
+      RegionStoreClient client = clientBuilder.build(batch.getRegion(), backOffer);
+      call = send.apply(client);
+      call.whenComplete((v, e) -> client.close());
+    } catch (TiKVException e) {
+      call = new CompletableFuture<>();
+      call.completeExceptionally(e);
+    }
+    CompletableFuture<T> sent = call;
+    CompletableFuture<R> result =
+        sent.handle(
+            (v, error) -> {
+              Throwable e = error instanceof CompletionException ? error.getCause() : error;
+              if (e != null && !(e instanceof TiKVException)) {
+                throw new CompletionException(e);
+              }
+              return handler.apply(v, (TiKVException) e);
+            });
+    result.whenComplete(
+        (v, e) -> {
+          if (result.isCancelled()) {
+            sent.cancel(true);
+          }
+        });
+    return result;
+  }
+
+  /**
+   * Feeds the latency of a batch to the sizer, unless the batch backed off on the way, e.g. on a
+   * region miss, since its latency then mostly measures the back off rather than the store.
+   */
+  private static void onBatchSuccess(
+      AdaptiveBatchSizer batchSizer, Batch batch, BackOffer backOffer, long startMs, long sleptMs) {
+    if (backOffer.getTotalSleepMs() == sleptMs) {
+      batchSizer.onSuccess(batch.getRegion(), System.currentTimeMillis() - startMs);
+    }
+  }
+
+  private static void onBatchFailure(AdaptiveBatchSizer batchSizer, Batch batch, TiKVException e) {
+    // stale region info says nothing about the load of the store
+    if (!(e instanceof RegionException)) {
+      batchSizer.onFailure(batch.getRegion());
+    }
+  }
+
+  /** A store overloaded by the requests of this client is busy, its regions are not stale. */
+  private static BackOffFunction.BackOffFuncType backOffType(TiKVException e) {
+    return e instanceof StoreOverloadedException
+        ? BackOffFunction.BackOffFuncType.BoServerBusy
+        : BackOffFunction.BackOffFuncType.BoRegionMiss;
+  }
+
+  private void invalidateRegion(TiRegion region, TiKVException e) {
+    if (!(e instanceof StoreOverloadedException)) {
+      clientBuilder.getRegionManager().invalidateRegion(region);
+    }
   }
 
   private ByteString calcKeyByCondition(boolean condition, ByteString key1, ByteString key2) {
@@ -912,24 +1369,17 @@ public class RawKVClient implements RawKVClientBase {
 
   private void doSendDeleteRange(
       BackOffer backOffer, ByteString startKey, ByteString endKey, long deadline) {
-    ExecutorCompletionService<List<DeleteRange>> completionService =
+    ExecutorCompletionService<List<RegionRange>> completionService =
         new ExecutorCompletionService<>(deleteRangeThreadPool);
 
-    List<Future<List<DeleteRange>>> futureList = new ArrayList<>();
+    List<Future<List<RegionRange>>> futureList = new ArrayList<>();
 
-    List<TiRegion> regions = fetchRegionsFromRange(backOffer, startKey, endKey);
-    List<DeleteRange> ranges = new ArrayList<>();
-    for (int i = 0; i < regions.size(); i++) {
-      TiRegion region = regions.get(i);
-      ByteString start = calcKeyByCondition(i == 0, startKey, region.getStartKey());
-      ByteString end = calcKeyByCondition(i == regions.size() - 1, endKey, region.getEndKey());
-      ranges.add(new DeleteRange(backOffer, region, start, end));
-    }
-    Queue<List<DeleteRange>> taskQueue = new LinkedList<>();
+    List<RegionRange> ranges = splitRangeByRegion(backOffer, startKey, endKey);
+    Queue<List<RegionRange>> taskQueue = new LinkedList<>();
     taskQueue.offer(ranges);
     while (!taskQueue.isEmpty()) {
-      List<DeleteRange> task = taskQueue.poll();
-      for (DeleteRange range : task) {
+      List<RegionRange> task = taskQueue.poll();
+      for (RegionRange range : task) {
         futureList.add(
             completionService.submit(
                 () -> doSendDeleteRangeWithRetry(range.getBackOffer(), range)));
@@ -937,7 +1387,7 @@ public class RawKVClient implements RawKVClientBase {
       try {
         getTasks(completionService, taskQueue, task, deadline - System.currentTimeMillis());
       } catch (Exception e) {
-        for (Future<List<DeleteRange>> future : futureList) {
+        for (Future<List<RegionRange>> future : futureList) {
           future.cancel(true);
         }
         throw e;
@@ -945,14 +1395,14 @@ public class RawKVClient implements RawKVClientBase {
     }
   }
 
-  private List<DeleteRange> doSendDeleteRangeWithRetry(BackOffer backOffer, DeleteRange range) {
+  private List<RegionRange> doSendDeleteRangeWithRetry(BackOffer backOffer, RegionRange range) {
     try (RegionStoreClient client = clientBuilder.build(range.getRegion(), backOffer)) {
       client.setTimeout(conf.getScanTimeout());
       client.rawDeleteRange(backOffer, range.getStartKey(), range.getEndKey());
       return new ArrayList<>();
     } catch (final TiKVException e) {
-      backOffer.doBackOff(BackOffFunction.BackOffFuncType.BoRegionMiss, e);
-      clientBuilder.getRegionManager().invalidateRegion(range.getRegion());
+      backOffer.doBackOff(backOffType(e), e);
+      invalidateRegion(range.getRegion(), e);
       logger.warn("ReSplitting ranges for BatchDeleteRangeRequest", e);
 
       // retry
@@ -960,19 +1410,74 @@ public class RawKVClient implements RawKVClientBase {
     }
   }
 
-  private List<DeleteRange> doSendDeleteRangeWithRefetchRegion(
-      BackOffer backOffer, DeleteRange range) {
-    List<TiRegion> regions =
-        fetchRegionsFromRange(backOffer, range.getStartKey(), range.getEndKey());
-    List<DeleteRange> retryRanges = new ArrayList<>();
+  private List<RegionRange> doSendDeleteRangeWithRefetchRegion(
+      BackOffer backOffer, RegionRange range) {
+    return splitRangeByRegion(backOffer, range.getStartKey(), range.getEndKey());
+  }
+
+  private RawChecksum doSendChecksum(
+      BackOffer backOffer, ByteString startKey, ByteString endKey, long deadline) {
+    ExecutorCompletionService<Pair<List<RegionRange>, List<RawChecksum>>> completionService =
+        new ExecutorCompletionService<>(batchScanThreadPool);
+
+    List<Future<Pair<List<RegionRange>, List<RawChecksum>>>> futureList = new ArrayList<>();
+
+    Queue<List<RegionRange>> taskQueue = new LinkedList<>();
+    taskQueue.offer(splitRangeByRegion(backOffer, startKey, endKey));
+    RawChecksum result = RawChecksum.EMPTY;
+    while (!taskQueue.isEmpty()) {
+      List<RegionRange> task = taskQueue.poll();
+      for (RegionRange range : task) {
+        futureList.add(
+            completionService.submit(() -> doSendChecksumWithRetry(range.getBackOffer(), range)));
+      }
+      try {
+        List<RawChecksum> checksums =
+            getTasksWithOutput(
+                completionService, taskQueue, task, deadline - System.currentTimeMillis());
+        for (RawChecksum checksum : checksums) {
+          result = result.merge(checksum);
+        }
+      } catch (Exception e) {
+        for (Future<Pair<List<RegionRange>, List<RawChecksum>>> future : futureList) {
+          future.cancel(true);
+        }
+        throw e;
+      }
+    }
+    return result;
+  }
+
+  private Pair<List<RegionRange>, List<RawChecksum>> doSendChecksumWithRetry(
+      BackOffer backOffer, RegionRange range) {
+    try (RegionStoreClient client = clientBuilder.build(range.getRegion(), backOffer)) {
+      client.setTimeout(conf.getScanTimeout());
+      RawChecksum checksum = client.rawChecksum(backOffer, range.getStartKey(), range.getEndKey());
+      return Pair.create(new ArrayList<>(), Collections.singletonList(checksum));
+    } catch (final TiKVException e) {
+      backOffer.doBackOff(backOffType(e), e);
+      invalidateRegion(range.getRegion(), e);
+      logger.warn("ReSplitting ranges for RawChecksumRequest", e);
+
+      // retry
+      return Pair.create(
+          splitRangeByRegion(backOffer, range.getStartKey(), range.getEndKey()),
+          new ArrayList<>());
+    }
+  }
+
+  /** Split [startKey, endKey) into the ranges of the regions covering it. */
+  private List<RegionRange> splitRangeByRegion(
+      BackOffer backOffer, ByteString startKey, ByteString endKey) {
+    List<TiRegion> regions = fetchRegionsFromRange(backOffer, startKey, endKey);
+    List<RegionRange> ranges = new ArrayList<>();
     for (int i = 0; i < regions.size(); i++) {
       TiRegion region = regions.get(i);
-      ByteString start = calcKeyByCondition(i == 0, range.getStartKey(), region.getStartKey());
-      ByteString end =
-          calcKeyByCondition(i == regions.size() - 1, range.getEndKey(), region.getEndKey());
-      retryRanges.add(new DeleteRange(backOffer, region, start, end));
+      ByteString start = calcKeyByCondition(i == 0, startKey, region.getStartKey());
+      ByteString end = calcKeyByCondition(i == regions.size() - 1, endKey, region.getEndKey());
+      ranges.add(new RegionRange(backOffer, region, start, end));
     }
-    return retryRanges;
+    return ranges;
   }
 
   private static Map<ByteString, ByteString> mapKeysToValues(
@@ -990,7 +1495,8 @@ public class RawKVClient implements RawKVClientBase {
     while (startKey.isEmpty()
         || endKey.isEmpty()
         || Key.toRawKey(startKey).compareTo(Key.toRawKey(endKey)) < 0) {
-      TiRegion currentRegion = clientBuilder.getRegionManager().getRegionByKey(startKey, backOffer);
+      TiRegion currentRegion =
+          clientBuilder.getRegionManager().getRegionByKey(startKey, endKey, backOffer);
       regions.add(currentRegion);
       startKey = currentRegion.getEndKey();
       if (currentRegion.getEndKey().isEmpty()) {
@@ -1011,7 +1517,17 @@ public class RawKVClient implements RawKVClientBase {
     if (limit > MAX_RAW_SCAN_LIMIT) {
       throw ERR_MAX_SCAN_LIMIT_EXCEEDED;
     }
-    return new RawScanIterator(conf, builder, startKey, endKey, limit, keyOnly, backOffer);
+    return new RawScanIterator(
+        conf, builder, startKey, endKey, limit, keyOnly, backOffer, scanPrefetchThreadPool);
+  }
+
+  private Iterator<KvPair> rawReverseScanIterator(
+      ByteString startKey, ByteString endKey, int limit, boolean keyOnly, BackOffer backOffer) {
+    if (limit > MAX_RAW_SCAN_LIMIT) {
+      throw ERR_MAX_SCAN_LIMIT_EXCEEDED;
+    }
+    return new RawReverseScanIterator(
+        conf, clientBuilder, startKey, endKey, limit, keyOnly, backOffer);
   }
 
   /**
@@ -1026,6 +1542,32 @@ public class RawKVClient implements RawKVClientBase {
     return scan0(startKey, endKey, limit, false);
   }
 
+  /**
+   * Scan raw key-value pairs from TiKV in range [startKey, endKey) in descending order
+   *
+   * @param startKey raw start key, inclusive
+   * @param endKey raw end key, exclusive, can not be empty
+   * @param limit limit of key-value pairs scanned, should be less than {@link #MAX_RAW_SCAN_LIMIT}
+   * @param keyOnly whether to scan in key-only mode
+   * @return iterator of key-value pairs in range, the greatest key first
+   */
+  public Iterator<KvPair> scanReverse0(
+      ByteString startKey, ByteString endKey, int limit, boolean keyOnly) {
+    String[] labels = withClusterId("client_raw_reverse_scan");
+    Histogram.Timer requestTimer = RAW_REQUEST_LATENCY.labels(labels).startTimer();
+    try {
+      Iterator<KvPair> iterator =
+          rawReverseScanIterator(startKey, endKey, limit, keyOnly, defaultBackOff());
+      RAW_REQUEST_SUCCESS.labels(labels).inc();
+      return iterator;
+    } catch (Exception e) {
+      RAW_REQUEST_FAILURE.labels(labels).inc();
+      throw e;
+    } finally {
+      requestTimer.observeDuration();
+    }
+  }
+
   /**
    * Scan raw key-value pairs from TiKV in range [startKey, ♾)
    *
@@ -1182,6 +1724,16 @@ public class RawKVClient implements RawKVClientBase {
     }
   }
 
+  private void invalidateReadCache(ByteString key) {
+    invalidateReadCache(key, 0);
+  }
+
+  private void invalidateReadCache(ByteString key, long ttl) {
+    if (readCache != null) {
+      readCache.invalidate(key, ttl);
+    }
+  }
+
   private BackOffer defaultBackOff() {
     return ConcreteBackOffer.newCustomBackOff(conf.getRawKVDefaultBackoffInMS(), clusterId);
   }
@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.Optional;
 import org.tikv.common.TiSession;
 import org.tikv.common.util.Pair;
+import org.tikv.common.util.RawChecksum;
 import org.tikv.common.util.ScanOption;
 import org.tikv.kvproto.Kvrpcpb;
 
@@ -193,6 +194,28 @@ public interface RawKVClientBase extends AutoCloseable {
    */
   List<Kvrpcpb.KvPair> scan(ByteString startKey, ByteString endKey, int limit, boolean keyOnly);
 
+  /**
+   * Scan raw key-value pairs from TiKV in range [startKey, endKey) in descending order
+   *
+   * @param startKey raw start key, inclusive
+   * @param endKey raw end key, exclusive, can not be empty
+   * @param limit limit of key-value pairs scanned, should be less than {@link #MAX_RAW_SCAN_LIMIT}
+   * @return list of key-value pairs in range, the greatest key first
+   */
+  List<Kvrpcpb.KvPair> scanReverse(ByteString startKey, ByteString endKey, int limit);
+
+  /**
+   * Scan raw key-value pairs from TiKV in range [startKey, endKey) in descending order
+   *
+   * @param startKey raw start key, inclusive
+   * @param endKey raw end key, exclusive, can not be empty
+   * @param limit limit of key-value pairs scanned, should be less than {@link #MAX_RAW_SCAN_LIMIT}
+   * @param keyOnly whether to scan in key-only mode
+   * @return list of key-value pairs in range, the greatest key first
+   */
+  List<Kvrpcpb.KvPair> scanReverse(
+      ByteString startKey, ByteString endKey, int limit, boolean keyOnly);
+
   /**
    * Scan raw key-value pairs from TiKV in range [startKey, ♾)
    *
@@ -273,6 +296,16 @@ public interface RawKVClientBase extends AutoCloseable {
    */
   void deletePrefix(ByteString key);
 
+  /**
+   * Compute the checksum of all raw key-value pairs in range [startKey, endKey) on TiKV, without
+   * transferring the key-value pairs to the client
+   *
+   * @param startKey raw start key, inclusive
+   * @param endKey raw end key, exclusive
+   * @return crc64-xor checksum, number of key-value pairs and total bytes of the range
+   */
+  RawChecksum checksum(ByteString startKey, ByteString endKey);
+
   /** Get the session of the current client */
   TiSession getSession();
 }
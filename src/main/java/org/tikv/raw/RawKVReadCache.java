@@ -0,0 +1,165 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.raw;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.protobuf.ByteString;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size bounded, in-process cache of raw values read by a {@link RawKVClient}. Absent keys are
+ * cached as well.
+ *
+ * <p>Entries expire after a fixed time, and no later than the TTL of the value once it is known,
+ * either from a write with a TTL through the same client or through {@link #limitTtl}. Writes
+ * through the same client invalidate the written keys, writes by other clients are only observed
+ * after the entries expire.
+ *
+ * <p>A read populates the cache only if no key was invalidated since the read started, so that a
+ * value read before a concurrent write can not be cached after the write invalidated it.
+ */
+public class RawKVReadCache {
+  private final Cache<ByteString, Entry> cache;
+  // when the values written with a TTL through the client expire, applied once they are read back
+  private final Cache<ByteString, Long> writtenExpireAtMs;
+  private final AtomicLong generation = new AtomicLong();
+
+  public RawKVReadCache(long capacity, long ttlInMS, String clusterId) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumSize(capacity)
+            .expireAfterWrite(ttlInMS, TimeUnit.MILLISECONDS)
+            .<ByteString, Entry>removalListener(
+                notification -> {
+                  if (notification.wasEvicted()) {
+                    RawKVClient.RAW_READ_CACHE_EVICTION.labels(clusterId).inc();
+                  }
+                })
+            .build();
+    this.writtenExpireAtMs = CacheBuilder.newBuilder().maximumSize(capacity).build();
+  }
+
+  /**
+   * Get the cached value of `key`.
+   *
+   * @return null if `key` is not cached, Optional.empty() if `key` is cached as absent
+   */
+  public Optional<ByteString> getIfPresent(ByteString key) {
+    Entry entry = cache.getIfPresent(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.expireAtMs > 0 && System.currentTimeMillis() >= entry.expireAtMs) {
+      cache.asMap().remove(key, entry);
+      return null;
+    }
+    return entry.value;
+  }
+
+  /** Get the stamp to pass to {@link #put} for a read that starts now. */
+  public long stamp() {
+    return generation.get();
+  }
+
+  /** Cache the value of `key` read by a request that started at `stamp`. */
+  public void put(ByteString key, Optional<ByteString> value, long stamp) {
+    if (generation.get() != stamp) {
+      return;
+    }
+    Long expireAtMs = value.isPresent() ? writtenExpireAtMs.getIfPresent(key) : null;
+    cache.put(key, new Entry(value, expireAtMs == null ? 0 : expireAtMs));
+    if (generation.get() != stamp) {
+      // raced with a write, the value may be stale already
+      cache.invalidate(key);
+    }
+  }
+
+  /** Make the cached value of `key` expire no later than its TTL of `ttlInSeconds`. */
+  public void limitTtl(ByteString key, long ttlInSeconds) {
+    long expireAtMs = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlInSeconds);
+    cache
+        .asMap()
+        .computeIfPresent(
+            key,
+            (k, entry) ->
+                entry.expireAtMs > 0 && entry.expireAtMs <= expireAtMs
+                    ? entry
+                    : new Entry(entry.value, expireAtMs));
+  }
+
+  public void invalidate(ByteString key) {
+    invalidate(key, 0);
+  }
+
+  /**
+   * Invalidate `key` written with a TTL of `ttlInSeconds`, 0 means the value never expires. The
+   * value is cached no longer than its TTL once it is read back.
+   */
+  public void invalidate(ByteString key, long ttlInSeconds) {
+    recordTtl(key, ttlInSeconds, System.currentTimeMillis());
+    generation.incrementAndGet();
+    cache.invalidate(key);
+  }
+
+  public void invalidateAll(Iterable<ByteString> keys) {
+    invalidateAll(keys, 0);
+  }
+
+  /** Invalidate `keys` written with a TTL of `ttlInSeconds`, see {@link #invalidate}. */
+  public void invalidateAll(Iterable<ByteString> keys, long ttlInSeconds) {
+    long nowMs = System.currentTimeMillis();
+    for (ByteString key : keys) {
+      recordTtl(key, ttlInSeconds, nowMs);
+    }
+    generation.incrementAndGet();
+    cache.invalidateAll(keys);
+  }
+
+  // recorded before the generation moves on, so that any read which may see the write sees the TTL
+  private void recordTtl(ByteString key, long ttlInSeconds, long nowMs) {
+    if (ttlInSeconds > 0) {
+      writtenExpireAtMs.put(key, nowMs + TimeUnit.SECONDS.toMillis(ttlInSeconds));
+    } else {
+      writtenExpireAtMs.invalidate(key);
+    }
+  }
+
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    writtenExpireAtMs.invalidateAll();
+    cache.invalidateAll();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  private static final class Entry {
+    private final Optional<ByteString> value;
+    // 0 means the entry only expires after the ttl of the cache
+    private final long expireAtMs;
+
+    private Entry(Optional<ByteString> value, long expireAtMs) {
+      this.value = value;
+      this.expireAtMs = expireAtMs;
+    }
+  }
+}
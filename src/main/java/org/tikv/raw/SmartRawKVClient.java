@@ -29,6 +29,7 @@ import org.tikv.common.TiSession;
 import org.tikv.common.exception.CircuitBreakerOpenException;
 import org.tikv.common.util.HistogramUtils;
 import org.tikv.common.util.Pair;
+import org.tikv.common.util.RawChecksum;
 import org.tikv.common.util.ScanOption;
 import org.tikv.kvproto.Kvrpcpb;
 import org.tikv.service.failsafe.CircuitBreaker;
@@ -155,6 +156,19 @@ public class SmartRawKVClient implements RawKVClientBase {
     return callWithCircuitBreaker("scan", () -> client.scan(startKey, endKey, limit, keyOnly));
   }
 
+  @Override
+  public List<Kvrpcpb.KvPair> scanReverse(ByteString startKey, ByteString endKey, int limit) {
+    return callWithCircuitBreaker(
+        "scanReverse", () -> client.scanReverse(startKey, endKey, limit));
+  }
+
+  @Override
+  public List<Kvrpcpb.KvPair> scanReverse(
+      ByteString startKey, ByteString endKey, int limit, boolean keyOnly) {
+    return callWithCircuitBreaker(
+        "scanReverse", () -> client.scanReverse(startKey, endKey, limit, keyOnly));
+  }
+
   @Override
   public List<Kvrpcpb.KvPair> scan(ByteString startKey, int limit) {
     return callWithCircuitBreaker("scan", () -> client.scan(startKey, limit));
@@ -205,6 +219,11 @@ public class SmartRawKVClient implements RawKVClientBase {
     callWithCircuitBreaker("deletePrefix", () -> client.deletePrefix(key));
   }
 
+  @Override
+  public RawChecksum checksum(ByteString startKey, ByteString endKey) {
+    return callWithCircuitBreaker("checksum", () -> client.checksum(startKey, endKey));
+  }
+
   @Override
   public TiSession getSession() {
     return client.getSession();
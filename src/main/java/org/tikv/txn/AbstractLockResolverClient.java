@@ -79,7 +79,14 @@ public interface AbstractLockResolverClient {
       RegionStoreClient.RegionStoreClientBuilder clientBuilder) {
     if (StoreVersion.compareTo(store.getStore().getVersion(), Version.RESOLVE_LOCK_V3) < 0) {
       return new LockResolverClientV2(
-          conf, region, store, blockingStub, asyncStub, channelFactory, regionManager);
+          conf,
+          region,
+          store,
+          blockingStub,
+          asyncStub,
+          channelFactory,
+          regionManager,
+          clientBuilder);
     } else if (StoreVersion.compareTo(store.getStore().getVersion(), Version.RESOLVE_LOCK_V4) < 0) {
       return new LockResolverClientV3(
           conf,
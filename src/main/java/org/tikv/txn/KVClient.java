@@ -265,7 +265,8 @@ public class KVClient implements AutoCloseable {
       ByteString startKey,
       ByteString endKey,
       long version) {
-    return new ConcreteScanIterator(conf, builder, startKey, endKey, version);
+    return new ConcreteScanIterator(
+        conf, builder, startKey, endKey, version, tiSession.getThreadPoolForScanPrefetch());
   }
 
   private Iterator<Kvrpcpb.KvPair> scanIterator(
@@ -274,7 +275,8 @@ public class KVClient implements AutoCloseable {
       ByteString startKey,
       long version,
       int limit) {
-    return new ConcreteScanIterator(conf, builder, startKey, version, limit);
+    return new ConcreteScanIterator(
+        conf, builder, startKey, version, limit, tiSession.getThreadPoolForScanPrefetch());
   }
 
   private void doIngest(TiRegion region, List<Pair<ByteString, ByteString>> sortedList)
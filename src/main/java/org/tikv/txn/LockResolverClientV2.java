@@ -23,13 +23,9 @@ import com.google.protobuf.ByteString;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +36,7 @@ import org.tikv.common.exception.TiClientInternalException;
 import org.tikv.common.operation.KVErrorHandler;
 import org.tikv.common.region.AbstractRegionStoreClient;
 import org.tikv.common.region.RegionManager;
+import org.tikv.common.region.RegionStoreClient;
 import org.tikv.common.region.TiRegion;
 import org.tikv.common.region.TiRegion.RegionVerID;
 import org.tikv.common.region.TiStore;
@@ -59,18 +56,8 @@ public class LockResolverClientV2 extends AbstractRegionStoreClient
     implements AbstractLockResolverClient {
   private static final Logger logger = LoggerFactory.getLogger(LockResolverClientV2.class);
 
-  private final ReadWriteLock readWriteLock;
-
-  /**
-   * Note: Because the internal of long is same as unsigned_long and Txn id are never changed. Be
-   * careful to compare between two tso the `resolved` mapping is as {@code Map<TxnId, TxnStatus>}
-   * TxnStatus represents a txn's final status. It should be Commit or Rollback. if TxnStatus > 0,
-   * means the commit ts, otherwise abort
-   */
-  private final Map<Long, Long> resolved;
-
-  /** the list is chain of txn for O(1) lru cache */
-  private final Queue<Long> recentResolved;
+  /** txn id -> final status of the txn, see {@link ResolvedTxnCache} */
+  private final ResolvedTxnCache<TxnStatus> resolvedTxnCache;
 
   public LockResolverClientV2(
       TiConfiguration conf,
@@ -79,45 +66,17 @@ public class LockResolverClientV2 extends AbstractRegionStoreClient
       TikvBlockingStub blockingStub,
       TikvFutureStub asyncStub,
       ChannelFactory channelFactory,
-      RegionManager regionManager) {
+      RegionManager regionManager,
+      RegionStoreClient.RegionStoreClientBuilder clientBuilder) {
     super(conf, region, store, channelFactory, blockingStub, asyncStub, regionManager);
-    resolved = new HashMap<>();
-    recentResolved = new LinkedList<>();
-    readWriteLock = new ReentrantReadWriteLock();
-  }
-
-  private void saveResolved(long txnID, long status) {
-    try {
-      readWriteLock.writeLock().lock();
-      if (resolved.containsKey(txnID)) {
-        return;
-      }
-
-      resolved.put(txnID, status);
-      recentResolved.add(txnID);
-      if (recentResolved.size() > RESOLVED_TXN_CACHE_SIZE) {
-        Long front = recentResolved.remove();
-        resolved.remove(front);
-      }
-    } finally {
-      readWriteLock.writeLock().unlock();
-    }
-  }
-
-  private Long getResolved(Long txnID) {
-    try {
-      readWriteLock.readLock().lock();
-      return resolved.get(txnID);
-    } finally {
-      readWriteLock.readLock().unlock();
-    }
+    resolvedTxnCache = clientBuilder.getResolvedTxnCache();
   }
 
   private Long getTxnStatus(BackOffer bo, Long txnID, ByteString primary) {
-    Long status = getResolved(txnID);
+    TxnStatus resolved = resolvedTxnCache.get(txnID);
 
-    if (status != null) {
-      return status;
+    if (resolved != null) {
+      return resolved.getCommitTS();
     }
 
     while (true) {
@@ -143,7 +102,7 @@ public class LockResolverClientV2 extends AbstractRegionStoreClient
               false);
       CleanupResponse resp = callWithRetry(bo, TikvGrpc.getKvCleanupMethod(), factory, handler);
 
-      status = 0L;
+      long status = 0L;
 
       if (resp == null) {
         logger.error("getKvCleanupMethod failed without a cause");
@@ -168,7 +127,7 @@ public class LockResolverClientV2 extends AbstractRegionStoreClient
         status = resp.getCommitVersion();
       }
 
-      saveResolved(txnID, status);
+      resolvedTxnCache.put(txnID, new TxnStatus(0L, status));
       return status;
     }
   }
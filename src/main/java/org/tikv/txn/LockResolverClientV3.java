@@ -23,13 +23,9 @@ import com.google.protobuf.ByteString;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,18 +52,8 @@ public class LockResolverClientV3 extends AbstractRegionStoreClient
     implements AbstractLockResolverClient {
   private static final Logger logger = LoggerFactory.getLogger(LockResolverClientV3.class);
 
-  private final ReadWriteLock readWriteLock;
-
-  /**
-   * Note: Because the internal of long is same as unsigned_long and Txn id are never changed. Be
-   * careful to compare between two tso the `resolved` mapping is as {@code Map<TxnId, TxnStatus>}
-   * TxnStatus represents a txn's final status. It should be Commit or Rollback. if TxnStatus > 0,
-   * means the commit ts, otherwise abort
-   */
-  private final Map<Long, TxnStatus> resolved;
-
-  /** the list is chain of txn for O(1) lru cache */
-  private final Queue<Long> recentResolved;
+  /** txn id -> final status of the txn, see {@link ResolvedTxnCache} */
+  private final ResolvedTxnCache<TxnStatus> resolvedTxnCache;
 
   private final PDClient pdClient;
 
@@ -84,9 +70,7 @@ public class LockResolverClientV3 extends AbstractRegionStoreClient
       PDClient pdClient,
       RegionStoreClient.RegionStoreClientBuilder clientBuilder) {
     super(conf, region, store, channelFactory, blockingStub, asyncStub, regionManager);
-    resolved = new HashMap<>();
-    recentResolved = new LinkedList<>();
-    readWriteLock = new ReentrantReadWriteLock();
+    resolvedTxnCache = clientBuilder.getResolvedTxnCache();
     this.pdClient = pdClient;
     this.clientBuilder = clientBuilder;
   }
@@ -219,7 +203,7 @@ public class LockResolverClientV3 extends AbstractRegionStoreClient
   }
 
   private TxnStatus getTxnStatus(BackOffer bo, Long txnID, ByteString primary, Long currentTS) {
-    TxnStatus status = getResolved(txnID);
+    TxnStatus status = resolvedTxnCache.get(txnID);
     if (status != null) {
       return status;
     }
@@ -244,7 +228,7 @@ public class LockResolverClientV3 extends AbstractRegionStoreClient
           new KVErrorHandler<>(
               regionManager,
               primaryKeyRegionStoreClient,
-              primaryKeyRegionStoreClient.lockResolverClient,
+              primaryKeyRegionStoreClient.getLockResolverClient(),
               resp -> resp.hasRegionError() ? resp.getRegionError() : null,
               resp -> resp.hasError() ? resp.getError() : null,
               resolveLockResult -> null,
@@ -287,35 +271,9 @@ public class LockResolverClientV3 extends AbstractRegionStoreClient
         status = new TxnStatus(0L, resp.getCommitVersion());
       }
 
-      saveResolved(txnID, status);
+      resolvedTxnCache.put(txnID, status);
       return status;
     }
   }
 
-  private void saveResolved(long txnID, TxnStatus status) {
-    try {
-      readWriteLock.writeLock().lock();
-      if (resolved.containsKey(txnID)) {
-        return;
-      }
-
-      resolved.put(txnID, status);
-      recentResolved.add(txnID);
-      if (recentResolved.size() > RESOLVED_TXN_CACHE_SIZE) {
-        Long front = recentResolved.remove();
-        resolved.remove(front);
-      }
-    } finally {
-      readWriteLock.writeLock().unlock();
-    }
-  }
-
-  private TxnStatus getResolved(Long txnID) {
-    try {
-      readWriteLock.readLock().lock();
-      return resolved.get(txnID);
-    } finally {
-      readWriteLock.readLock().unlock();
-    }
-  }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.txn;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A bounded FIFO cache of the final status of resolved transactions, keyed by txn id.
+ *
+ * <p>The status of a txn never changes once it is resolved, so one cache can be shared by all lock
+ * resolvers of a session. Once the cache is full, the earliest resolved txn is evicted.
+ */
+public class ResolvedTxnCache<V> {
+  private final long capacity;
+
+  private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+
+  private final Map<Long, V> resolved = new HashMap<>();
+
+  /** the list is chain of txn for O(1) lru cache */
+  private final Queue<Long> recentResolved = new LinkedList<>();
+
+  public ResolvedTxnCache(long capacity) {
+    this.capacity = capacity;
+  }
+
+  public void put(long txnID, V status) {
+    try {
+      readWriteLock.writeLock().lock();
+      if (resolved.containsKey(txnID)) {
+        return;
+      }
+
+      resolved.put(txnID, status);
+      recentResolved.add(txnID);
+      if (recentResolved.size() > capacity) {
+        Long front = recentResolved.remove();
+        resolved.remove(front);
+      }
+    } finally {
+      readWriteLock.writeLock().unlock();
+    }
+  }
+
+  public V get(long txnID) {
+    try {
+      readWriteLock.readLock().lock();
+      return resolved.get(txnID);
+    } finally {
+      readWriteLock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    try {
+      readWriteLock.readLock().lock();
+      return resolved.size();
+    } finally {
+      readWriteLock.readLock().unlock();
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.tikv.common.region.RegionManager;
+import org.tikv.common.region.RegionStoreClient;
+import org.tikv.common.region.RegionStoreClient.RegionStoreClientBuilder;
+import org.tikv.common.region.TiStore;
+import org.tikv.common.util.ConcreteBackOffer;
+import org.tikv.kvproto.Metapb;
+
+public class BatchCommandsTest extends MockServerTest {
+  private static final int THREADS = 16;
+  private static final int KEYS_PER_THREAD = 50;
+
+  private RegionStoreClientBuilder createBuilder() {
+    return new RegionStoreClientBuilder(
+        session.getConf(),
+        session.getChannelFactory(),
+        new RegionManager(session.getConf(), session.getPDClient()),
+        session.getPDClient());
+  }
+
+  private TiStore createStore() {
+    Metapb.Store meta =
+        Metapb.Store.newBuilder()
+            .setAddress(LOCAL_ADDR + ":" + port)
+            .setId(1)
+            .setState(Metapb.StoreState.Up)
+            .setVersion("6.1.0")
+            .build();
+    return new TiStore(meta);
+  }
+
+  @Test
+  public void concurrentRawGetTest() throws Exception {
+    session.getConf().setBatchCommandsEnable(true).setBatchCommandsMaxWaitInUs(200);
+    for (int i = 0; i < THREADS * KEYS_PER_THREAD; i++) {
+      server.put("key" + i, "value" + i);
+    }
+
+    RegionStoreClientBuilder builder = createBuilder();
+    TiStore store = createStore();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        int base = t * KEYS_PER_THREAD;
+        futures.add(
+            executor.submit(
+                () -> {
+                  // RegionStoreClient is not thread-safe, use one per thread
+                  RegionStoreClient client = builder.build(region, store);
+                  int matched = 0;
+                  for (int i = base; i < base + KEYS_PER_THREAD; i++) {
+                    Optional<ByteString> value =
+                        client.rawGet(
+                            ConcreteBackOffer.newCustomBackOff(1000),
+                            ByteString.copyFromUtf8("key" + i));
+                    if (value.isPresent() && value.get().toStringUtf8().equals("value" + i)) {
+                      matched++;
+                    }
+                  }
+                  return matched;
+                }));
+      }
+      for (Future<Integer> future : futures) {
+        assertEquals(KEYS_PER_THREAD, (int) future.get());
+      }
+      int requests = THREADS * KEYS_PER_THREAD;
+      int batches = server.getBatchCommandsCount();
+      assertTrue(batches > 0);
+      assertTrue(batches <= requests);
+    } finally {
+      executor.shutdownNow();
+      builder.close();
+    }
+  }
+
+  @Test
+  public void rawPutAndDeleteTest() {
+    session.getConf().setBatchCommandsEnable(true);
+    RegionStoreClientBuilder builder = createBuilder();
+    try {
+      RegionStoreClient client = builder.build(region, createStore());
+      ByteString key = ByteString.copyFromUtf8("key");
+      client.rawPut(
+          ConcreteBackOffer.newCustomBackOff(1000),
+          key,
+          ByteString.copyFromUtf8("value"),
+          0,
+          false);
+      client.rawDelete(ConcreteBackOffer.newCustomBackOff(1000), key, false);
+      assertEquals(2, server.getBatchCommandsCount());
+    } finally {
+      builder.close();
+    }
+  }
+}
@@ -23,6 +23,7 @@ import java.net.ServerSocket;
 import java.util.Arrays;
 import org.tikv.common.codec.Codec.BytesCodec;
 import org.tikv.common.codec.CodecDataOutput;
+import org.tikv.common.region.TiRegion;
 import org.tikv.kvproto.Metapb.Peer;
 import org.tikv.kvproto.Metapb.PeerRole;
 import org.tikv.kvproto.Metapb.Region;
@@ -87,6 +88,20 @@ public class GrpcUtils {
         .build();
   }
 
+  /** Makes a single-peer region of the given store whose leader is that peer. */
+  public static TiRegion makeTiRegion(
+      TiConfiguration conf, String startKey, String endKey, long storeId) {
+    Peer peer = makePeer(storeId * 10, storeId);
+    Region meta =
+        makeRegion(
+            1,
+            ByteString.copyFromUtf8(startKey),
+            ByteString.copyFromUtf8(endKey),
+            makeRegionEpoch(0, 0),
+            peer);
+    return new TiRegion(conf, meta, peer, meta.getPeersList(), Lists.newArrayList());
+  }
+
   public static GetRegionResponse makeGetRegionResponse(long clusterId, Region region) {
     return GetRegionResponse.newBuilder()
         .setHeader(makeDefaultHeader(clusterId))
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common;
+
+import com.google.protobuf.ByteString;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tikv.common.region.HedgedReadPolicy;
+import org.tikv.raw.RawKVClient;
+
+public class HedgedReadTest extends MockThreeStoresTest {
+  @Test
+  public void hedgeToFollowerTest() throws Exception {
+    updateConf(conf -> conf.setRawKVHedgedReadEnable(true).setRawKVHedgedReadDelayInMS(10));
+    ByteString key = ByteString.copyFromUtf8("key");
+    ByteString value = ByteString.copyFromUtf8("value");
+    put(key, value);
+    // the followers serve the reads of their own peers
+    servers.get(1).setRegion(region.switchPeer(stores.get(1).getId()));
+    servers.get(2).setRegion(region.switchPeer(stores.get(2).getId()));
+
+    RawKVClient client = session.createRawClient();
+    Assert.assertEquals(value, client.get(key).get());
+
+    double hedged = HedgedReadPolicy.HEDGED_READS.labels("follower").get();
+    servers.get(0).setRawGetDelay(1000);
+    long start = System.nanoTime();
+    Assert.assertEquals(value, client.get(key).get());
+    // answered by a follower long before the leader
+    Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+    Assert.assertEquals(hedged + 1, HedgedReadPolicy.HEDGED_READS.labels("follower").get(), 0);
+  }
+
+  @Test
+  public void awaitLeaderTest() throws Exception {
+    updateConf(conf -> conf.setRawKVHedgedReadEnable(true).setRawKVHedgedReadDelayInMS(10));
+    ByteString key = ByteString.copyFromUtf8("key");
+    ByteString value = ByteString.copyFromUtf8("value");
+    put(key, value);
+
+    // the followers fail the reads since they do not serve the peers of their regions
+    RawKVClient client = session.createRawClient();
+    Assert.assertEquals(value, client.get(key).get());
+    servers.get(0).setRawGetDelay(200);
+    int leaderReads = servers.get(0).getRawGetCount();
+    Assert.assertEquals(value, client.get(key).get());
+    // the answer of the leader is awaited rather than asked again
+    Assert.assertEquals(leaderReads + 1, servers.get(0).getRawGetCount());
+  }
+}
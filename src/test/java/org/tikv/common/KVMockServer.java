@@ -41,6 +41,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -55,6 +57,7 @@ import org.tikv.kvproto.Errorpb.Error;
 import org.tikv.kvproto.Kvrpcpb;
 import org.tikv.kvproto.Kvrpcpb.Context;
 import org.tikv.kvproto.TikvGrpc;
+import org.tikv.kvproto.Tikvpb;
 
 public class KVMockServer extends TikvGrpc.TikvImplBase {
 
@@ -71,6 +74,9 @@ public class KVMockServer extends TikvGrpc.TikvImplBase {
   private final Map<Key, Supplier<Kvrpcpb.LockInfo.Builder>> lockMap = new HashMap<>();
   private final Map<Long, Supplier<Kvrpcpb.CheckTxnStatusResponse.Builder>> txnStatusMap =
       new HashMap<>();
+  private final AtomicInteger batchCommandsCount = new AtomicInteger(0);
+  private final AtomicInteger rawGetCount = new AtomicInteger(0);
+  private volatile long rawGetDelayMs = 0;
 
   // for KV error
   public static final int ABORT = 1;
@@ -98,6 +104,18 @@ public class KVMockServer extends TikvGrpc.TikvImplBase {
     return port;
   }
 
+  public int getBatchCommandsCount() {
+    return batchCommandsCount.get();
+  }
+
+  public int getRawGetCount() {
+    return rawGetCount.get();
+  }
+
+  public void setRawGetDelay(long rawGetDelayMs) {
+    this.rawGetDelayMs = rawGetDelayMs;
+  }
+
   public void setRegion(TiRegion region) {
     this.region = region;
   }
@@ -205,12 +223,16 @@ public class KVMockServer extends TikvGrpc.TikvImplBase {
   public void rawGet(
       org.tikv.kvproto.Kvrpcpb.RawGetRequest request,
       io.grpc.stub.StreamObserver<org.tikv.kvproto.Kvrpcpb.RawGetResponse> responseObserver) {
+    rawGetCount.incrementAndGet();
     try {
       switch (state) {
         case Fail:
           throw new Exception(State.Fail.toString());
         default:
       }
+      if (rawGetDelayMs > 0) {
+        Thread.sleep(rawGetDelayMs);
+      }
       Key key = toRawKey(request.getKey());
       Kvrpcpb.RawGetResponse.Builder builder = Kvrpcpb.RawGetResponse.newBuilder();
 
@@ -242,6 +264,34 @@ public class KVMockServer extends TikvGrpc.TikvImplBase {
     }
   }
 
+  @Override
+  public void rawBatchGet(
+      org.tikv.kvproto.Kvrpcpb.RawBatchGetRequest request,
+      io.grpc.stub.StreamObserver<org.tikv.kvproto.Kvrpcpb.RawBatchGetResponse>
+          responseObserver) {
+    try {
+      Kvrpcpb.RawBatchGetResponse.Builder builder = Kvrpcpb.RawBatchGetResponse.newBuilder();
+
+      Error e = verifyContext(request.getContext());
+      if (e != null) {
+        responseObserver.onNext(builder.setRegionError(e).build());
+        responseObserver.onCompleted();
+        return;
+      }
+
+      for (ByteString key : request.getKeysList()) {
+        ByteString value = dataMap.get(toRawKey(key));
+        if (value != null) {
+          builder.addPairs(Kvrpcpb.KvPair.newBuilder().setKey(key).setValue(value));
+        }
+      }
+      responseObserver.onNext(builder.build());
+      responseObserver.onCompleted();
+    } catch (Exception e) {
+      responseObserver.onError(Status.INTERNAL.asRuntimeException());
+    }
+  }
+
   @Override
   public void rawPut(
       org.tikv.kvproto.Kvrpcpb.RawPutRequest request,
@@ -301,6 +351,59 @@ public class KVMockServer extends TikvGrpc.TikvImplBase {
     }
   }
 
+  // a stand-in for the crc64 of a kv pair, xor-ed into the checksum of a range like TiKV does
+  public static long checksumOf(ByteString key, ByteString value) {
+    return key.hashCode() * 31L + value.hashCode();
+  }
+
+  @Override
+  public void rawChecksum(
+      org.tikv.kvproto.Kvrpcpb.RawChecksumRequest request,
+      io.grpc.stub.StreamObserver<org.tikv.kvproto.Kvrpcpb.RawChecksumResponse>
+          responseObserver) {
+    try {
+      Kvrpcpb.RawChecksumResponse.Builder builder = Kvrpcpb.RawChecksumResponse.newBuilder();
+
+      Error e = verifyContext(request.getContext());
+      if (e != null) {
+        responseObserver.onNext(builder.setRegionError(e).build());
+        responseObserver.onCompleted();
+        return;
+      }
+
+      long checksum = 0;
+      long totalKvs = 0;
+      long totalBytes = 0;
+      for (Kvrpcpb.KeyRange range : request.getRangesList()) {
+        Key startKey = toRawKey(range.getStartKey());
+        Supplier<Errorpb.Error.Builder> errProvider = regionErrMap.get(startKey);
+        if (errProvider != null) {
+          Error.Builder eb = errProvider.get();
+          if (eb != null) {
+            builder.setRegionError(eb.build());
+            break;
+          }
+        }
+
+        SortedMap<Key, ByteString> kvs =
+            range.getEndKey().isEmpty()
+                ? dataMap.tailMap(startKey)
+                : dataMap.subMap(startKey, toRawKey(range.getEndKey()));
+        for (Map.Entry<Key, ByteString> kv : kvs.entrySet()) {
+          ByteString key = kv.getKey().toByteString();
+          checksum ^= checksumOf(key, kv.getValue());
+          totalKvs++;
+          totalBytes += key.size() + kv.getValue().size();
+        }
+      }
+      builder.setChecksum(checksum).setTotalKvs(totalKvs).setTotalBytes(totalBytes);
+      responseObserver.onNext(builder.build());
+      responseObserver.onCompleted();
+    } catch (Exception e) {
+      responseObserver.onError(Status.INTERNAL.asRuntimeException());
+    }
+  }
+
   @Override
   public void kvGet(
       org.tikv.kvproto.Kvrpcpb.GetRequest request,
@@ -575,6 +678,70 @@ public class KVMockServer extends TikvGrpc.TikvImplBase {
     return port;
   }
 
+  @Override
+  public StreamObserver<Tikvpb.BatchCommandsRequest> batchCommands(
+      StreamObserver<Tikvpb.BatchCommandsResponse> responseObserver) {
+    return new StreamObserver<Tikvpb.BatchCommandsRequest>() {
+      @Override
+      public void onNext(Tikvpb.BatchCommandsRequest request) {
+        batchCommandsCount.incrementAndGet();
+        Tikvpb.BatchCommandsResponse.Builder builder = Tikvpb.BatchCommandsResponse.newBuilder();
+        for (int i = 0; i < request.getRequestsCount(); i++) {
+          Tikvpb.BatchCommandsRequest.Request req = request.getRequests(i);
+          Tikvpb.BatchCommandsResponse.Response.Builder resp =
+              Tikvpb.BatchCommandsResponse.Response.newBuilder();
+          switch (req.getCmdCase()) {
+            case RAW_GET:
+              rawGet(
+                  req.getRawGet(), new UnaryObserver<Kvrpcpb.RawGetResponse>(resp::setRawGet));
+              break;
+            case RAW_PUT:
+              rawPut(
+                  req.getRawPut(), new UnaryObserver<Kvrpcpb.RawPutResponse>(resp::setRawPut));
+              break;
+            case RAW_DELETE:
+              rawDelete(
+                  req.getRawDelete(),
+                  new UnaryObserver<Kvrpcpb.RawDeleteResponse>(resp::setRawDelete));
+              break;
+            default:
+          }
+          builder.addResponses(resp).addRequestIds(request.getRequestIds(i));
+        }
+        synchronized (responseObserver) {
+          responseObserver.onNext(builder.build());
+        }
+      }
+
+      @Override
+      public void onError(Throwable t) {}
+
+      @Override
+      public void onCompleted() {
+        responseObserver.onCompleted();
+      }
+    };
+  }
+
+  private static class UnaryObserver<T> implements StreamObserver<T> {
+    private final Consumer<T> consumer;
+
+    private UnaryObserver(Consumer<T> consumer) {
+      this.consumer = consumer;
+    }
+
+    @Override
+    public void onNext(T value) {
+      consumer.accept(value);
+    }
+
+    @Override
+    public void onError(Throwable t) {}
+
+    @Override
+    public void onCompleted() {}
+  }
+
   private static class HealCheck extends HealthImplBase {
     @Override
     public void check(
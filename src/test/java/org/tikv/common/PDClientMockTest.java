@@ -22,7 +22,14 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -83,6 +90,37 @@ public class PDClientMockTest extends PDMockServerTest {
     }
   }
 
+  @Test
+  public void testTsoBatch() throws Exception {
+    try (PDClient client = session.getPDClient()) {
+      List<CompletableFuture<TiTimestamp>> futures = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        futures.add(client.getTimestampAsync());
+      }
+      Set<Long> versions = new HashSet<>();
+      for (CompletableFuture<TiTimestamp> future : futures) {
+        versions.add(future.get().getVersion());
+      }
+      // concurrent requests get distinct timestamps
+      assertEquals(100, versions.size());
+      assertTrue(client.getTimestamp(defaultBackOff()).getVersion() > Collections.max(versions));
+    }
+  }
+
+  @Test
+  public void testTsoAfterClose() throws Exception {
+    PDClient client = session.getPDClient();
+    client.close();
+    // the requests after close fail at once instead of waiting for a stopped dispatcher
+    CompletableFuture<TiTimestamp> future = client.getTimestampAsync();
+    try {
+      future.get(1, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof GrpcException);
+    }
+  }
+
   @Test
   public void testGetRegionByKey() throws Exception {
     byte[] startKey = new byte[] {1, 0, 2, 4};
@@ -78,25 +78,30 @@ public class PDMockServer extends PDGrpc.PDImplBase {
       private long physical = System.currentTimeMillis();
       private long logical = 0;
 
-      private void updateTso() {
-        logical++;
+      private void updateTso(int count) {
+        logical += count;
         if (logical >= (1 << 18)) {
-          logical = 0;
+          logical = count;
           physical++;
         }
         physical = Math.max(physical, System.currentTimeMillis());
       }
 
       @Override
-      public void onNext(TsoRequest value) {}
+      public void onNext(TsoRequest value) {
+        updateTso(value.getCount());
+        resp.onNext(
+            GrpcUtils.makeTsoResponse(clusterId, physical, logical)
+                .toBuilder()
+                .setCount(value.getCount())
+                .build());
+      }
 
       @Override
       public void onError(Throwable t) {}
 
       @Override
       public void onCompleted() {
-        updateTso();
-        resp.onNext(GrpcUtils.makeTsoResponse(clusterId, physical, logical));
         resp.onCompleted();
       }
     };
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tikv.common.region.TiRegion;
+import org.tikv.common.region.TiStore;
+import org.tikv.common.util.FastByteComparisons;
+import org.tikv.common.util.RawChecksum;
+import org.tikv.kvproto.Metapb;
+import org.tikv.kvproto.Pdpb;
+import org.tikv.raw.RawKVClient;
+
+public class RawChecksumTest extends PDMockServerTest {
+  private static final List<String> KEYS = ImmutableList.of("a", "b", "n", "z");
+
+  // region 1 covers all keys until it is split at "m" into region 1 and region 2
+  private final Metapb.Region whole = makeRegion(1, "", "", 1, 1);
+  private final Metapb.Region left = makeRegion(1, "", "m", 2, 1);
+  private final Metapb.Region right = makeRegion(2, "m", "", 2, 2);
+
+  private final List<KVMockServer> servers = new ArrayList<>();
+  private List<Metapb.Store> stores;
+  // the regions known by PD
+  private volatile List<Metapb.Region> regions = ImmutableList.of(whole);
+
+  private static Metapb.Region makeRegion(
+      long id, String startKey, String endKey, long version, long storeId) {
+    return GrpcUtils.makeRegion(
+        id,
+        ByteString.copyFromUtf8(startKey),
+        ByteString.copyFromUtf8(endKey),
+        GrpcUtils.makeRegionEpoch(1, version),
+        GrpcUtils.makePeer(storeId, storeId));
+  }
+
+  @Before
+  @Override
+  public void setup() throws IOException {
+    super.setup();
+
+    int[] ports = {GrpcUtils.getFreePort(), GrpcUtils.getFreePort()};
+    stores =
+        ImmutableList.of(
+            Metapb.Store.newBuilder()
+                .setAddress(LOCAL_ADDR + ":" + ports[0])
+                .setVersion("5.0.0")
+                .setId(1)
+                .build(),
+            Metapb.Store.newBuilder()
+                .setAddress(LOCAL_ADDR + ":" + ports[1])
+                .setVersion("5.0.0")
+                .setId(2)
+                .build());
+    leader.addGetRegionListener(
+        request -> {
+          Metapb.Region region = locate(request.getRegionKey());
+          return Pdpb.GetRegionResponse.newBuilder()
+              .setRegion(region)
+              .setLeader(region.getPeers(0))
+              .build();
+        });
+    leader.addScanRegionsListener(
+        request -> {
+          Pdpb.ScanRegionsResponse.Builder builder = Pdpb.ScanRegionsResponse.newBuilder();
+          for (Metapb.Region region : regions) {
+            ByteString end = region.getEndKey();
+            if (end.isEmpty() || FastByteComparisons.compareTo(end, request.getStartKey()) > 0) {
+              builder.addRegions(
+                  Pdpb.Region.newBuilder().setRegion(region).setLeader(region.getPeers(0)));
+            }
+          }
+          return builder.build();
+        });
+    leader.addGetStoreListener(
+        request ->
+            Pdpb.GetStoreResponse.newBuilder()
+                .setStore(stores.get((int) request.getStoreId() - 1))
+                .build());
+
+    for (int i = 0; i < ports.length; i++) {
+      KVMockServer server = new KVMockServer();
+      server.start(createRegion(i == 0 ? whole : right), ports[i]);
+      // every server has all the keys, the requests only cover the keys of its region
+      for (String key : KEYS) {
+        server.put(key, key + "-value");
+      }
+      servers.add(server);
+    }
+  }
+
+  @After
+  public void stopServers() {
+    for (KVMockServer server : servers) {
+      server.stop();
+    }
+  }
+
+  private Metapb.Region locate(ByteString key) {
+    for (Metapb.Region region : regions) {
+      ByteString end = region.getEndKey();
+      if (FastByteComparisons.compareTo(region.getStartKey(), key) <= 0
+          && (end.isEmpty() || FastByteComparisons.compareTo(key, end) < 0)) {
+        return region;
+      }
+    }
+    throw new IllegalStateException();
+  }
+
+  private TiRegion createRegion(Metapb.Region meta) {
+    return new TiRegion(
+        session.getConf(),
+        meta,
+        meta.getPeers(0),
+        meta.getPeersList(),
+        stores.stream().map(TiStore::new).collect(Collectors.toList()));
+  }
+
+  private void split() {
+    regions = ImmutableList.of(left, right);
+    servers.get(0).setRegion(createRegion(left));
+  }
+
+  private static RawChecksum expected(String... keys) {
+    RawChecksum checksum = RawChecksum.EMPTY;
+    for (String key : keys) {
+      ByteString k = ByteString.copyFromUtf8(key);
+      ByteString v = ByteString.copyFromUtf8(key + "-value");
+      checksum =
+          checksum.merge(new RawChecksum(KVMockServer.checksumOf(k, v), 1, k.size() + v.size()));
+    }
+    return checksum;
+  }
+
+  private static RawChecksum checksum(RawKVClient client, String startKey, String endKey) {
+    return client.checksum(ByteString.copyFromUtf8(startKey), ByteString.copyFromUtf8(endKey));
+  }
+
+  @Test
+  public void mergeTest() {
+    RawChecksum a = new RawChecksum(0b0110, 1, 10);
+    RawChecksum b = new RawChecksum(0b0011, 2, 20);
+    assertEquals(new RawChecksum(0b0101, 3, 30), a.merge(b));
+    assertEquals(a.merge(b), b.merge(a));
+    assertEquals(a, a.merge(RawChecksum.EMPTY));
+    // the crc64 of a pair counted twice cancels out
+    assertEquals(new RawChecksum(0, 2, 20), a.merge(a));
+  }
+
+  @Test
+  public void multiRegionTest() {
+    split();
+    try (RawKVClient client = session.createRawClient()) {
+      // the checksums of the two regions are merged
+      assertEquals(expected("a", "b", "n", "z"), checksum(client, "", ""));
+      assertEquals(expected("b", "n"), checksum(client, "b", "o"));
+      // a range within one region
+      assertEquals(expected("n"), checksum(client, "m", "o"));
+    }
+  }
+
+  @Test
+  public void regionErrorTest() {
+    try (RawKVClient client = session.createRawClient()) {
+      assertEquals(expected("a", "b", "n", "z"), checksum(client, "", ""));
+
+      // the cached region is stale, the range is split again by the new regions and retried
+      split();
+      assertEquals(expected("a", "b", "n", "z"), checksum(client, "", ""));
+      TiRegion cached = session.getRegionManager().getRegionByKey(ByteString.copyFromUtf8("a"));
+      assertEquals(left.getRegionEpoch(), cached.getRegionEpoch());
+    }
+  }
+}
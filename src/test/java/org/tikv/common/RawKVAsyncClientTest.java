@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.tikv.common.exception.GrpcException;
+import org.tikv.kvproto.Errorpb;
+import org.tikv.raw.RawKVAsyncClient;
+
+public class RawKVAsyncClientTest extends MockServerTest {
+
+  @Test
+  public void testGetAsync() throws Exception {
+    int count = 100;
+    for (int i = 0; i < count; i++) {
+      server.put("key" + i, "value" + i);
+    }
+    try (RawKVAsyncClient client = session.createRawAsyncClient()) {
+      List<CompletableFuture<Optional<ByteString>>> futures = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        futures.add(client.getAsync(ByteString.copyFromUtf8("key" + i)));
+      }
+      for (int i = 0; i < count; i++) {
+        Optional<ByteString> value = futures.get(i).get(5, TimeUnit.SECONDS);
+        assertTrue(value.isPresent());
+        assertEquals("value" + i, value.get().toStringUtf8());
+      }
+    }
+  }
+
+  @Test
+  public void testRetryOnRegionError() throws Exception {
+    AtomicInteger attempts = new AtomicInteger(0);
+    server.putError(
+        "key",
+        () ->
+            attempts.incrementAndGet() <= 2
+                ? Errorpb.Error.newBuilder()
+                    .setStaleCommand(Errorpb.StaleCommand.getDefaultInstance())
+                : null);
+    try (RawKVAsyncClient client = session.createRawAsyncClient()) {
+      client
+          .putAsync(ByteString.copyFromUtf8("key"), ByteString.copyFromUtf8("value"))
+          .get(5, TimeUnit.SECONDS);
+      assertEquals(3, attempts.get());
+    }
+  }
+
+  @Test
+  public void testRetryExhausted() throws Exception {
+    session.getConf().setRawKVWriteTimeoutInMS(200);
+    server.putError(
+        "key",
+        () ->
+            Errorpb.Error.newBuilder().setServerIsBusy(Errorpb.ServerIsBusy.getDefaultInstance()));
+    try (RawKVAsyncClient client = session.createRawAsyncClient()) {
+      client.deleteAsync(ByteString.copyFromUtf8("key")).get(5, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof GrpcException);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.google.protobuf.ByteString;
+import java.util.Optional;
+import org.junit.Test;
+import org.tikv.raw.RawKVClient;
+import org.tikv.raw.RawKVReadCache;
+
+public class RawKVReadCacheTest extends MockServerTest {
+
+  private RawKVClient createClient() {
+    session.getConf().setRawKVReadCacheEnable(true);
+    return session.createRawClient();
+  }
+
+  private static ByteString bs(String s) {
+    return ByteString.copyFromUtf8(s);
+  }
+
+  @Test
+  public void getTest() {
+    String[] labels = new String[] {"client_raw_get", session.getPDClient().getClusterId() + ""};
+    try (RawKVClient client = createClient()) {
+      server.put("key", "v1");
+      assertEquals(bs("v1"), client.get(bs("key")).get());
+
+      // a write by another client is not observed until the entry expires
+      double hits = RawKVClient.RAW_READ_CACHE_HIT.labels(labels).get();
+      server.put("key", "v2");
+      assertEquals(bs("v1"), client.get(bs("key")).get());
+      assertEquals(1, RawKVClient.RAW_READ_CACHE_HIT.labels(labels).get() - hits, 0);
+
+      // a write through the same client invalidates the entry, the mock server ignores the write
+      client.put(bs("key"), bs("v3"));
+      assertEquals(bs("v2"), client.get(bs("key")).get());
+
+      double misses = RawKVClient.RAW_READ_CACHE_MISS.labels(labels).get();
+      client.delete(bs("key"));
+      client.get(bs("key"));
+      assertEquals(1, RawKVClient.RAW_READ_CACHE_MISS.labels(labels).get() - misses, 0);
+    }
+  }
+
+  @Test
+  public void staleReadIsNotCachedTest() {
+    RawKVReadCache cache = new RawKVReadCache(10, 60000, "0");
+    long stamp = cache.stamp();
+    // a write invalidates the key while the read is in flight
+    cache.invalidate(bs("key"));
+    cache.put(bs("key"), Optional.of(bs("stale")), stamp);
+    assertNull(cache.getIfPresent(bs("key")));
+
+    cache.put(bs("key"), Optional.empty(), cache.stamp());
+    assertEquals(Optional.empty(), cache.getIfPresent(bs("key")));
+  }
+
+  @Test
+  public void writtenTtlTest() throws Exception {
+    RawKVReadCache cache = new RawKVReadCache(10, 60000, "0");
+    // the value written with a TTL is cached no longer than the TTL once read back
+    cache.invalidate(bs("key"), 1);
+    cache.put(bs("key"), Optional.of(bs("value")), cache.stamp());
+    assertEquals(Optional.of(bs("value")), cache.getIfPresent(bs("key")));
+    Thread.sleep(1100);
+    assertNull(cache.getIfPresent(bs("key")));
+
+    // a later write without a TTL drops the TTL
+    cache.invalidate(bs("key"));
+    cache.put(bs("key"), Optional.of(bs("value")), cache.stamp());
+    Thread.sleep(1100);
+    assertEquals(Optional.of(bs("value")), cache.getIfPresent(bs("key")));
+  }
+}
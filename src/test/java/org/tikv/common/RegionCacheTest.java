@@ -0,0 +1,252 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.ByteString;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.tikv.common.region.RegionCache;
+import org.tikv.common.region.TiRegion;
+import org.tikv.kvproto.Metapb;
+
+public class RegionCacheTest {
+  private final TiConfiguration conf = TiConfiguration.createRawDefault();
+
+  private TiRegion createRegion(long id, String startKey, String endKey, long version) {
+    Metapb.Peer peer = Metapb.Peer.newBuilder().setId(id * 10).setStoreId(1).build();
+    Metapb.Region meta =
+        Metapb.Region.newBuilder()
+            .setId(id)
+            .setStartKey(ByteString.copyFromUtf8(startKey))
+            .setEndKey(ByteString.copyFromUtf8(endKey))
+            .setRegionEpoch(Metapb.RegionEpoch.newBuilder().setConfVer(1).setVersion(version))
+            .addPeers(peer)
+            .build();
+    return new TiRegion(conf, meta, peer, meta.getPeersList(), ImmutableList.of());
+  }
+
+  private static String key(int i) {
+    return i == 0 ? "" : String.valueOf((char) ('a' + i));
+  }
+
+  private TiRegion get(RegionCache cache, String key) {
+    return cache.getRegionByKey(ByteString.copyFromUtf8(key), null);
+  }
+
+  @Test
+  public void getRegionByKeyTest() {
+    RegionCache cache = new RegionCache();
+    TiRegion first = createRegion(1, "", "b", 1);
+    TiRegion second = createRegion(2, "b", "d", 1);
+    TiRegion last = createRegion(3, "f", "", 1);
+    cache.putRegion(first);
+    cache.putRegion(second);
+    cache.putRegion(last);
+
+    double hits = RegionCache.REGION_CACHE_HIT.get();
+    double misses = RegionCache.REGION_CACHE_MISS.get();
+    assertSame(first, get(cache, ""));
+    assertSame(first, get(cache, "a"));
+    assertSame(second, get(cache, "b"));
+    assertSame(second, get(cache, "cz"));
+    // [d, f) is not cached
+    assertNull(get(cache, "d"));
+    assertNull(get(cache, "e"));
+    assertSame(last, get(cache, "f"));
+    assertSame(last, get(cache, "zzz"));
+    assertEquals(6, RegionCache.REGION_CACHE_HIT.get() - hits, 0);
+    assertEquals(2, RegionCache.REGION_CACHE_MISS.get() - misses, 0);
+  }
+
+  @Test
+  public void splitByRegionsTest() {
+    RegionCache cache = new RegionCache();
+    assertEquals(ImmutableList.of(ByteString.EMPTY, ByteString.EMPTY), cache.splitByRegions(4));
+
+    // the keys share a prefix, so the ranges follow the regions rather than the key bytes
+    for (int i = 0; i < 100; i++) {
+      String startKey = i == 0 ? "" : String.format("user%03d", i);
+      String endKey = i == 99 ? "" : String.format("user%03d", i + 1);
+      cache.putRegion(createRegion(i + 1, startKey, endKey, 1));
+    }
+    assertEquals(
+        ImmutableList.of(
+            ByteString.EMPTY,
+            ByteString.copyFromUtf8("user025"),
+            ByteString.copyFromUtf8("user050"),
+            ByteString.copyFromUtf8("user075"),
+            ByteString.EMPTY),
+        cache.splitByRegions(4));
+  }
+
+  @Test
+  public void getRegionByEndKeyTest() {
+    RegionCache cache = new RegionCache();
+    TiRegion first = createRegion(1, "", "b", 1);
+    TiRegion second = createRegion(2, "b", "d", 1);
+    TiRegion last = createRegion(3, "f", "", 1);
+    cache.putRegion(first);
+    cache.putRegion(second);
+    cache.putRegion(last);
+
+    assertSame(first, cache.getRegionByEndKey(ByteString.copyFromUtf8("a")));
+    // the keys before a region start key belong to the previous region
+    assertSame(first, cache.getRegionByEndKey(ByteString.copyFromUtf8("b")));
+    assertSame(second, cache.getRegionByEndKey(ByteString.copyFromUtf8("d")));
+    // [d, f) is not cached
+    assertNull(cache.getRegionByEndKey(ByteString.copyFromUtf8("e")));
+    assertNull(cache.getRegionByEndKey(ByteString.copyFromUtf8("f")));
+    assertSame(last, cache.getRegionByEndKey(ByteString.copyFromUtf8("zzz")));
+  }
+
+  @Test
+  public void overlappedRegionTest() {
+    RegionCache cache = new RegionCache();
+    cache.putRegion(createRegion(1, "a", "c", 1));
+    cache.putRegion(createRegion(2, "c", "e", 1));
+
+    // region 1 merges region 2
+    TiRegion merged = createRegion(1, "a", "e", 2);
+    cache.putRegion(merged);
+    assertSame(merged, get(cache, "b"));
+    assertSame(merged, get(cache, "d"));
+
+    // invalidating a region that is no longer cached keeps the merged region
+    cache.invalidateRegion(createRegion(2, "c", "e", 1));
+    assertSame(merged, get(cache, "d"));
+
+    cache.invalidateRegion(merged);
+    assertNull(get(cache, "b"));
+  }
+
+  @Test
+  public void createRegionOnLookupTest() {
+    AtomicInteger created = new AtomicInteger();
+    RegionCache cache =
+        new RegionCache(
+            (meta, leader) -> {
+              created.incrementAndGet();
+              return new TiRegion(conf, meta, leader, meta.getPeersList(), ImmutableList.of());
+            },
+            0);
+    TiRegion first = createRegion(1, "", "b", 1);
+    TiRegion second = createRegion(2, "b", "", 1);
+    cache.insertRegionToCache(first.getMeta(), first.getLeader());
+    cache.insertRegionToCache(second.getMeta(), second.getLeader());
+    assertEquals(0, created.get());
+    assertEquals(2, cache.getAllRegionMetas().size());
+
+    TiRegion region = get(cache, "a");
+    assertEquals(first, region);
+    assertEquals(1, created.get());
+    // the created region is kept
+    assertSame(region, get(cache, ""));
+    assertSame(region, cache.putRegion(first));
+    cache.insertRegionToCache(first.getMeta(), first.getLeader());
+    assertSame(region, get(cache, "a"));
+    assertEquals(1, created.get());
+
+    cache.invalidateRegion(region);
+    assertNull(get(cache, "a"));
+    assertEquals(second, get(cache, "c"));
+    assertEquals(2, created.get());
+
+    // a refreshed region is created by the next lookup
+    TiRegion refreshed = createRegion(2, "b", "", 2);
+    cache.refreshRegion(refreshed.getMeta(), refreshed.getLeader());
+    assertEquals(2, created.get());
+    assertEquals(refreshed, get(cache, "c"));
+    assertEquals(3, created.get());
+  }
+
+  @Test
+  public void createRegionFailureTest() {
+    RegionCache cache = new RegionCache((meta, leader) -> null, 0);
+    TiRegion region = createRegion(1, "", "", 1);
+    cache.insertRegionToCache(region.getMeta(), region.getLeader());
+
+    // a region that can not be created is a miss, until it is loaded again
+    double misses = RegionCache.REGION_CACHE_MISS.get();
+    assertNull(get(cache, "a"));
+    assertEquals(1, RegionCache.REGION_CACHE_MISS.get() - misses, 0);
+    assertSame(region, cache.putRegion(region));
+    assertSame(region, get(cache, "a"));
+  }
+
+  @Test
+  public void skipStaleInsertTest() {
+    RegionCache cache =
+        new RegionCache(
+            (meta, leader) ->
+                new TiRegion(conf, meta, leader, meta.getPeersList(), ImmutableList.of()),
+            0);
+    // the region is split after a ScanRegions call, which returns the region before the split
+    TiRegion split = createRegion(1, "", "b", 2);
+    TiRegion stale = createRegion(1, "", "", 1);
+    cache.putRegion(split);
+    cache.insertRegionToCache(stale.getMeta(), stale.getLeader());
+    assertEquals(split, get(cache, "a"));
+    assertNull(get(cache, "c"));
+
+    TiRegion newer = createRegion(1, "", "c", 3);
+    cache.insertRegionToCache(newer.getMeta(), newer.getLeader());
+    assertEquals(newer, get(cache, "b"));
+  }
+
+  @Test
+  public void evictLeastRecentlyUsedTest() throws InterruptedException {
+    RegionCache cache = new RegionCache(null, 10);
+    for (int i = 0; i < 10; i++) {
+      cache.putRegion(createRegion(i + 1, key(i), key(i + 1), 1));
+    }
+    Thread.sleep(1);
+    TiRegion first = get(cache, key(0));
+    Thread.sleep(1);
+    TiRegion last = createRegion(11, key(10), "", 1);
+
+    double evicted = RegionCache.REGION_CACHE_EVICTION.get();
+    cache.putRegion(last);
+    // all the entries are sampled in a small cache, so the least recently used one is evicted
+    assertEquals(1, RegionCache.REGION_CACHE_EVICTION.get() - evicted, 0);
+    assertEquals(10, cache.getAllRegionMetas().size());
+    assertNull(get(cache, key(1)));
+    assertSame(first, get(cache, key(0)));
+    assertSame(last, get(cache, key(10)));
+  }
+
+  @Test
+  public void evictSampledTest() {
+    int maxSize = 100;
+    RegionCache cache = new RegionCache(null, maxSize);
+    TiRegion hot = createRegion(1, "", "a", 1);
+    cache.putRegion(hot);
+    for (int i = 0; i < 1000; i++) {
+      String startKey = String.format("a%04d", i);
+      String endKey = i == 999 ? "" : String.format("a%04d", i + 1);
+      cache.putRegion(createRegion(i + 2, startKey, endKey, 1));
+      // the hot region is always the most recently used one of the samples
+      assertSame(hot, get(cache, "0"));
+    }
+    assertEquals(maxSize, cache.getAllRegionMetas().size());
+  }
+}
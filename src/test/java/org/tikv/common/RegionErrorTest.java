@@ -17,15 +17,20 @@
 
 package org.tikv.common;
 
+import com.google.common.collect.ImmutableList;
 import com.google.protobuf.ByteString;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.tikv.common.region.TiRegion;
 import org.tikv.common.region.TiStore;
+import org.tikv.kvproto.Kvrpcpb.KvPair;
 import org.tikv.kvproto.Metapb;
+import org.tikv.raw.RawKVAsyncClient;
 import org.tikv.raw.RawKVClient;
 
 public class RegionErrorTest extends MockThreeStoresTest {
@@ -50,35 +55,78 @@ public class RegionErrorTest extends MockThreeStoresTest {
 
       Assert.assertEquals(Optional.of(value), client.get(key));
 
-      Metapb.Region newMeta =
-          Metapb.Region.newBuilder()
-              .mergeFrom(this.region.getMeta())
-              .setRegionEpoch(Metapb.RegionEpoch.newBuilder().setConfVer(2).setVersion(3))
-              .setStartKey(PDClientV2MockTest.encode(requestKey))
-              .setEndKey(PDClientV2MockTest.encode(requestKey.concat(ByteString.copyFromUtf8("0"))))
-              .build();
-
-      // Increase the region epoch for the cluster,
-      // this will cause the cluster return an EpochNotMatch region error.
-      TiRegion newRegion =
-          new TiRegion(
-              this.region.getConf(),
-              newMeta,
-              this.region.getLeader(),
-              this.region.getPeersList(),
-              stores.stream().map(TiStore::new).collect(Collectors.toList()));
-
-      // Update the region of each server
-      for (KVMockServer server : servers) {
-        server.setRegion(newRegion);
-      }
-
-      // Forbid the client get region from PD leader.
-      leader.addGetRegionListener(request -> null);
+      splitRegion(requestKey);
 
       // The get should success since the region cache
       // will be updated the currentRegions of `EpochNotMatch` error.
       Assert.assertEquals(Optional.of(value), client.get(key));
     }
   }
+
+  @Test
+  public void testOnEpochNotMatchAsync() throws Exception {
+    try (RawKVAsyncClient client = session.createRawAsyncClient()) {
+      ByteString key = ByteString.copyFromUtf8("key-test-epoch-not-match-async");
+      ByteString value = ByteString.copyFromUtf8("value");
+
+      ByteString requestKey = session.getPDClient().getCodec().encodeKey(key);
+      put(requestKey, value);
+
+      Assert.assertEquals(Optional.of(value), client.getAsync(key).get(5, TimeUnit.SECONDS));
+
+      splitRegion(requestKey);
+
+      // The async calls handle the region errors like the blocking ones.
+      Assert.assertEquals(Optional.of(value), client.getAsync(key).get(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void testOnEpochNotMatchBatchGet() throws Exception {
+    // the batches are sent by the async calls, which retry on the timer
+    updateConf(conf -> conf.setRawKVNonBlockingBackOffEnable(true));
+    try (RawKVClient client = createClient()) {
+      ByteString key = ByteString.copyFromUtf8("key-test-epoch-not-match-batch");
+      ByteString value = ByteString.copyFromUtf8("value");
+
+      ByteString requestKey = client.getSession().getPDClient().getCodec().encodeKey(key);
+      put(requestKey, value);
+
+      List<KvPair> expected =
+          ImmutableList.of(KvPair.newBuilder().setKey(key).setValue(value).build());
+      Assert.assertEquals(expected, client.batchGet(ImmutableList.of(key)));
+
+      splitRegion(requestKey);
+
+      Assert.assertEquals(expected, client.batchGet(ImmutableList.of(key)));
+    }
+  }
+
+  private void splitRegion(ByteString requestKey) {
+    Metapb.Region newMeta =
+        Metapb.Region.newBuilder()
+            .mergeFrom(this.region.getMeta())
+            .setRegionEpoch(Metapb.RegionEpoch.newBuilder().setConfVer(2).setVersion(3))
+            .setStartKey(PDClientV2MockTest.encode(requestKey))
+            .setEndKey(PDClientV2MockTest.encode(requestKey.concat(ByteString.copyFromUtf8("0"))))
+            .build();
+
+    // Increase the region epoch for the cluster,
+    // this will cause the cluster return an EpochNotMatch region error.
+    TiRegion newRegion =
+        new TiRegion(
+            this.region.getConf(),
+            newMeta,
+            this.region.getLeader(),
+            this.region.getPeersList(),
+            stores.stream().map(TiStore::new).collect(Collectors.toList()));
+
+    // Update the region of each server
+    for (KVMockServer server : servers) {
+      server.setRegion(newRegion);
+    }
+
+    // Forbid the client get region from PD leader.
+    leader.addGetRegionListener(request -> null);
+  }
 }
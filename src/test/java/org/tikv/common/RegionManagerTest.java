@@ -18,12 +18,24 @@
 package org.tikv.common;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.RangeMap;
 import com.google.common.collect.TreeRangeMap;
+import com.google.common.primitives.Longs;
 import com.google.protobuf.ByteString;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
 import org.junit.Test;
@@ -32,10 +44,15 @@ import org.tikv.common.region.RegionManager;
 import org.tikv.common.region.TiRegion;
 import org.tikv.common.region.TiStore;
 import org.tikv.common.region.TiStoreType;
+import org.tikv.common.util.BackOffer;
+import org.tikv.common.util.ConcreteBackOffer;
+import org.tikv.common.util.FastByteComparisons;
 import org.tikv.common.util.KeyRangeUtils;
 import org.tikv.common.util.Pair;
 import org.tikv.kvproto.Metapb;
 import org.tikv.kvproto.Metapb.StoreState;
+import org.tikv.kvproto.Pdpb;
+import org.tikv.kvproto.Pdpb.ScanRegionsResponse;
 
 public class RegionManagerTest extends PDMockServerTest {
 
@@ -228,4 +245,284 @@ public class RegionManagerTest extends PDMockServerTest {
     assertEquals(secondPair.first.getId(), regionId);
     assertEquals(secondPair.second.getId(), secondStoreId);
   }
+
+  @Test
+  public void prefetchRegionsOnMiss() {
+    AtomicInteger getRegionCount = new AtomicInteger(0);
+    AtomicInteger scanRegionsCount = new AtomicInteger(0);
+    List<Pdpb.Region> regions = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Metapb.Peer peer = GrpcUtils.makePeer(i + 1, 10);
+      regions.add(
+          Pdpb.Region.newBuilder()
+              .setRegion(
+                  GrpcUtils.makeRegion(
+                      i + 1,
+                      GrpcUtils.encodeKey(new byte[] {(byte) (i * 10)}),
+                      GrpcUtils.encodeKey(new byte[] {(byte) (i * 10 + 10)}),
+                      GrpcUtils.makeRegionEpoch(1, 1),
+                      peer))
+              .setLeader(peer)
+              .build());
+    }
+    leader.addGetRegionListener(
+        request -> {
+          getRegionCount.incrementAndGet();
+          return GrpcUtils.makeGetRegionResponse(
+              leader.getClusterId(), regions.get(0).getRegion());
+        });
+    leader.addScanRegionsListener(
+        request -> {
+          scanRegionsCount.incrementAndGet();
+          return ScanRegionsResponse.newBuilder().addAllRegions(regions).build();
+        });
+    leader.addGetStoreListener(
+        request ->
+            GrpcUtils.makeGetStoreResponse(
+                leader.getClusterId(), GrpcUtils.makeStore(10, "127.0.0.1", StoreState.Up)));
+
+    // a point lookup only loads its own region
+    assertEquals(1, mgr.getRegionByKey(ByteString.copyFrom(new byte[] {5})).getId());
+    assertEquals(1, getRegionCount.get());
+    assertEquals(0, scanRegionsCount.get());
+
+    // a range lookup loads the following regions by the same ScanRegions call
+    BackOffer backOffer = ConcreteBackOffer.newGetBackOff(CLUSTER_ID);
+    ByteString key = ByteString.copyFrom(new byte[] {15});
+    assertEquals(2, mgr.getRegionByKey(key, ByteString.EMPTY, backOffer).getId());
+    assertEquals(3, mgr.getRegionByKey(ByteString.copyFrom(new byte[] {25})).getId());
+    assertEquals(1, scanRegionsCount.get());
+    assertEquals(1, getRegionCount.get());
+  }
+
+  @Test
+  public void warmUpOnEmptyCache() throws Exception {
+    AtomicInteger getRegionCount = new AtomicInteger(0);
+    AtomicInteger inflight = new AtomicInteger(0);
+    AtomicInteger maxInflight = new AtomicInteger(0);
+    Metapb.Peer peer = GrpcUtils.makePeer(1, 10);
+    List<Metapb.Region> regions = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      regions.add(
+          GrpcUtils.makeRegion(
+              i + 1,
+              i == 0 ? ByteString.EMPTY : GrpcUtils.encodeKey(new byte[] {(byte) (i * 16)}),
+              i == 15 ? ByteString.EMPTY : GrpcUtils.encodeKey(new byte[] {(byte) (i * 16 + 16)}),
+              GrpcUtils.makeRegionEpoch(1, 1),
+              peer));
+    }
+    leader.addGetRegionListener(
+        request -> {
+          getRegionCount.incrementAndGet();
+          return null;
+        });
+    leader.addScanRegionsListener(
+        request -> {
+          maxInflight.accumulateAndGet(inflight.incrementAndGet(), Math::max);
+          try {
+            Thread.sleep(100);
+          } catch (InterruptedException ignored) {
+          }
+          ScanRegionsResponse.Builder builder = ScanRegionsResponse.newBuilder();
+          for (Metapb.Region region : regions) {
+            ByteString start = region.getStartKey();
+            ByteString end = region.getEndKey();
+            if (builder.getRegionsCount() < request.getLimit()
+                && (end.isEmpty() || FastByteComparisons.compareTo(end, request.getStartKey()) > 0)
+                && (request.getEndKey().isEmpty()
+                    || FastByteComparisons.compareTo(start, request.getEndKey()) < 0)) {
+              builder.addRegions(Pdpb.Region.newBuilder().setRegion(region).setLeader(peer));
+            }
+          }
+          inflight.decrementAndGet();
+          return builder.build();
+        });
+    // the stores are loaded by the warm-up, so the TiRegions are created from the cached stores
+    Metapb.Store store =
+        GrpcUtils.makeStore(10, LOCAL_ADDR + ":" + GrpcUtils.getFreePort(), StoreState.Up);
+    leader.addGetAllStoresListener(
+        request -> Pdpb.GetAllStoresResponse.newBuilder().addStores(store).build());
+    leader.addGetStoreListener(
+        request -> GrpcUtils.makeGetStoreResponse(leader.getClusterId(), store));
+
+    // nothing is cached, the regions after the first page are still loaded concurrently
+    session.getConf().setScanRegionsLimit(2);
+    session.getConf().setWarmUpConcurrency(4);
+    session.loadRegionCache(ConcreteBackOffer.newRawKVBackOff(CLUSTER_ID));
+    assertTrue(maxInflight.get() > 1);
+    for (int i = 0; i < 16; i++) {
+      ByteString key = ByteString.copyFrom(new byte[] {(byte) (i * 16 + 1)});
+      assertEquals(i + 1, mgr.getRegionByKey(key).getId());
+    }
+    assertEquals(0, getRegionCount.get());
+  }
+
+  @Test
+  public void splitByKeyPrefix() {
+    ByteString startKey = ByteString.copyFrom(new byte[] {(byte) 0x80});
+    List<ByteString> boundaries = TiSession.splitByKeyPrefix(startKey, 4);
+    assertEquals(5, boundaries.size());
+    assertEquals(startKey, boundaries.get(0));
+    assertEquals(ByteString.EMPTY, boundaries.get(4));
+    for (int i = 1; i < 4; i++) {
+      assertTrue(FastByteComparisons.compareTo(boundaries.get(i - 1), boundaries.get(i)) < 0);
+    }
+
+    // no key is left after the largest prefix
+    startKey = ByteString.copyFrom(Longs.toByteArray(-1L));
+    assertEquals(
+        ImmutableList.of(startKey, ByteString.EMPTY), TiSession.splitByKeyPrefix(startKey, 4));
+  }
+
+  @Test
+  public void coalesceConcurrentLookups() throws Exception {
+    long regionId = 233;
+    AtomicInteger getRegionCount = new AtomicInteger(0);
+    leader.addGetRegionListener(
+        request -> {
+          getRegionCount.incrementAndGet();
+          try {
+            Thread.sleep(100);
+          } catch (InterruptedException ignored) {
+          }
+          return GrpcUtils.makeGetRegionResponse(
+              leader.getClusterId(),
+              GrpcUtils.makeRegion(
+                  regionId,
+                  GrpcUtils.encodeKey(new byte[] {1}),
+                  GrpcUtils.encodeKey(new byte[] {100}),
+                  GrpcUtils.makeRegionEpoch(1, 1),
+                  GrpcUtils.makePeer(1, 10)));
+        });
+    leader.addGetStoreListener(
+        request ->
+            GrpcUtils.makeGetStoreResponse(
+                leader.getClusterId(), GrpcUtils.makeStore(10, "127.0.0.1", StoreState.Up)));
+
+    double coalesced =
+        RegionManager.COALESCED_REGION_LOOKUPS.labels(String.valueOf(CLUSTER_ID)).get();
+    ExecutorService executor = Executors.newFixedThreadPool(10);
+    List<Future<TiRegion>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      ByteString key = ByteString.copyFrom(new byte[] {(byte) (i + 10)});
+      futures.add(executor.submit(() -> mgr.getRegionByKey(key)));
+    }
+    for (Future<TiRegion> future : futures) {
+      assertEquals(regionId, future.get().getId());
+    }
+    executor.shutdown();
+    // the concurrent misses share one PD request
+    assertEquals(1, getRegionCount.get());
+    assertEquals(
+        coalesced + 9,
+        RegionManager.COALESCED_REGION_LOOKUPS.labels(String.valueOf(CLUSTER_ID)).get(),
+        0);
+  }
+
+  @Test
+  public void disjointLookupsDoNotWait() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger getRegionCount = new AtomicInteger(0);
+    leader.addScanRegionsListener(request -> ScanRegionsResponse.getDefaultInstance());
+    leader.addGetRegionListener(
+        request -> {
+          if (getRegionCount.incrementAndGet() == 1) {
+            // the lookup of the first key is kept in flight, within the PD timeout
+            started.countDown();
+            try {
+              release.await(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ignored) {
+            }
+            return GrpcUtils.makeGetRegionResponse(
+                leader.getClusterId(),
+                GrpcUtils.makeRegion(
+                    1,
+                    GrpcUtils.encodeKey(new byte[] {0}),
+                    GrpcUtils.encodeKey(new byte[] {50}),
+                    GrpcUtils.makeRegionEpoch(1, 1),
+                    GrpcUtils.makePeer(1, 10)));
+          }
+          return GrpcUtils.makeGetRegionResponse(
+              leader.getClusterId(),
+              GrpcUtils.makeRegion(
+                  3,
+                  GrpcUtils.encodeKey(new byte[] {60}),
+                  GrpcUtils.encodeKey(new byte[] {100}),
+                  GrpcUtils.makeRegionEpoch(1, 1),
+                  GrpcUtils.makePeer(3, 10)));
+        });
+    leader.addGetStoreListener(
+        request ->
+            GrpcUtils.makeGetStoreResponse(
+                leader.getClusterId(), GrpcUtils.makeStore(10, "127.0.0.1", StoreState.Up)));
+    // the cached region between the keys tells that they are in different regions, the regions
+    // in the cache are decoded
+    Metapb.Peer peer = GrpcUtils.makePeer(2, 10);
+    mgr.insertRegionToCache(
+        GrpcUtils.makeRegion(
+            2,
+            ByteString.copyFrom(new byte[] {50}),
+            ByteString.copyFrom(new byte[] {60}),
+            GrpcUtils.makeRegionEpoch(1, 1),
+            peer),
+        peer);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<TiRegion> first =
+          executor.submit(() -> mgr.getRegionByKey(ByteString.copyFrom(new byte[] {10})));
+      started.await();
+      assertEquals(3, mgr.getRegionByKey(ByteString.copyFrom(new byte[] {70})).getId());
+      // not held by the lookup in flight
+      assertFalse(first.isDone());
+      release.countDown();
+      assertEquals(1, first.get().getId());
+      assertEquals(2, getRegionCount.get());
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void refreshUsedRegions() {
+    AtomicInteger leaderIndex = new AtomicInteger(0);
+    AtomicInteger scanRegionsCount = new AtomicInteger(0);
+    leader.addScanRegionsListener(
+        request -> {
+          scanRegionsCount.incrementAndGet();
+          Metapb.Peer[] peers = {GrpcUtils.makePeer(1, 10), GrpcUtils.makePeer(2, 20)};
+          Metapb.Region region =
+              GrpcUtils.makeRegion(
+                  1,
+                  GrpcUtils.encodeKey(new byte[] {0}),
+                  GrpcUtils.encodeKey(new byte[] {100}),
+                  GrpcUtils.makeRegionEpoch(1, 1),
+                  peers);
+          return ScanRegionsResponse.newBuilder()
+              .addRegions(
+                  Pdpb.Region.newBuilder().setRegion(region).setLeader(peers[leaderIndex.get()]))
+              .build();
+        });
+    leader.addGetStoreListener(
+        request ->
+            GrpcUtils.makeGetStoreResponse(
+                leader.getClusterId(),
+                GrpcUtils.makeStore(request.getStoreId(), "127.0.0.1", StoreState.Up)));
+
+    // the region is loaded by the ScanRegions of a range lookup
+    ByteString key = ByteString.copyFrom(new byte[] {5});
+    BackOffer backOffer = ConcreteBackOffer.newGetBackOff(CLUSTER_ID);
+    TiRegion region = mgr.getRegionByKey(key, ByteString.EMPTY, backOffer);
+    assertEquals(10, region.getLeader().getStoreId());
+    // an unchanged region is kept
+    mgr.refreshRegions();
+    assertSame(region, mgr.getRegionByKey(key));
+    // the leader transfer is picked up before a request fails with NotLeader
+    leaderIndex.set(1);
+    mgr.refreshRegions();
+    assertEquals(20, mgr.getRegionByKey(key).getLeader().getStoreId());
+    assertEquals(3, scanRegionsCount.get());
+  }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.operation.iterator;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.tikv.common.GrpcUtils;
+import org.tikv.common.TiConfiguration;
+import org.tikv.common.region.TiRegion;
+import org.tikv.common.util.ConcreteBackOffer;
+import org.tikv.common.util.Pair;
+import org.tikv.kvproto.Kvrpcpb;
+
+public class RawReverseScanIteratorTest {
+  private final TiConfiguration conf = TiConfiguration.createRawDefault();
+  // start keys of the regions
+  private final List<String> regionStartKeys = ImmutableList.of("", "b", "d");
+  private final List<String> keys = ImmutableList.of("a1", "a2", "b1", "c1", "c2", "d1");
+  private final List<String> loads = new ArrayList<>();
+
+  private List<String> scan(String startKey, String endKey, int limit) {
+    RawReverseScanIterator iterator =
+        new RawReverseScanIterator(
+            conf,
+            null,
+            ByteString.copyFromUtf8(startKey),
+            ByteString.copyFromUtf8(endKey),
+            limit,
+            false,
+            ConcreteBackOffer.newRawKVBackOff()) {
+          @Override
+          Pair<TiRegion, List<Kvrpcpb.KvPair>> loadRegion(ByteString end, int limit) {
+            loads.add(end.toStringUtf8());
+            for (int i = regionStartKeys.size() - 1; i >= 0; i--) {
+              String regionStart = regionStartKeys.get(i);
+              if (end.toStringUtf8().compareTo(regionStart) > 0) {
+                String regionEnd = i + 1 < regionStartKeys.size() ? regionStartKeys.get(i + 1) : "";
+                List<Kvrpcpb.KvPair> pairs =
+                    keys.stream()
+                        .filter(k -> k.compareTo(regionStart) >= 0 && k.compareTo(startKey) >= 0)
+                        .filter(k -> k.compareTo(end.toStringUtf8()) < 0)
+                        .sorted(Comparator.reverseOrder())
+                        .limit(limit)
+                        .map(
+                            k ->
+                                Kvrpcpb.KvPair.newBuilder()
+                                    .setKey(ByteString.copyFromUtf8(k))
+                                    .setValue(ByteString.copyFromUtf8(k))
+                                    .build())
+                        .collect(Collectors.toList());
+                return Pair.create(GrpcUtils.makeTiRegion(conf, regionStart, regionEnd, 1), pairs);
+              }
+            }
+            throw new IllegalStateException();
+          }
+        };
+    List<String> result = new ArrayList<>();
+    iterator.forEachRemaining(pair -> result.add(pair.getKey().toStringUtf8()));
+    return result;
+  }
+
+  @Test
+  public void reverseScanTest() {
+    assertEquals(ImmutableList.of("d1", "c2", "c1", "b1", "a2", "a1"), scan("", "z", 100));
+    assertEquals(ImmutableList.of("z", "d", "b"), loads);
+  }
+
+  @Test
+  public void reverseScanWithLimitTest() {
+    assertEquals(ImmutableList.of("d1", "c2", "c1"), scan("", "z", 3));
+    // stops once the limit is reached, without visiting the first region
+    assertEquals(ImmutableList.of("z", "d"), loads);
+  }
+
+  @Test
+  public void reverseScanWithStartKeyTest() {
+    assertEquals(ImmutableList.of("c1", "b1"), scan("b1", "c2", 100));
+    assertEquals(ImmutableList.of("c2"), loads);
+    loads.clear();
+    assertEquals(ImmutableList.of(), scan("c", "c", 100));
+    assertEquals(ImmutableList.of(), loads);
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.operation.iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.tikv.common.GrpcUtils;
+import org.tikv.common.TiConfiguration;
+import org.tikv.common.region.TiRegion;
+import org.tikv.common.util.ConcreteBackOffer;
+import org.tikv.common.util.Pair;
+import org.tikv.kvproto.Kvrpcpb;
+import org.tikv.util.ExecutorRule;
+
+public class ScanIteratorTest {
+  private final TiConfiguration conf = TiConfiguration.createRawDefault();
+  @Rule public ExecutorRule executor = new ExecutorRule(1);
+  // region start key -> keys of the region
+  private final List<Pair<String, List<String>>> regions =
+      ImmutableList.of(
+          Pair.create("", ImmutableList.of("a1", "a2")),
+          Pair.create("b", ImmutableList.of("b1", "c1")),
+          Pair.create("d", ImmutableList.of("d1")));
+  private final List<String> loads = new ArrayList<>();
+
+  private RawScanIterator createIterator(ExecutorService prefetchExecutor) {
+    return new RawScanIterator(
+        conf,
+        null,
+        ByteString.EMPTY,
+        ByteString.EMPTY,
+        100,
+        false,
+        ConcreteBackOffer.newRawKVBackOff(),
+        prefetchExecutor) {
+      @Override
+      Pair<TiRegion, List<Kvrpcpb.KvPair>> loadRegion(ByteString startKey, int limit) {
+        synchronized (loads) {
+          loads.add(startKey.toStringUtf8());
+        }
+        for (int i = regions.size() - 1; i >= 0; i--) {
+          String regionStart = regions.get(i).first;
+          if (startKey.toStringUtf8().compareTo(regionStart) >= 0) {
+            String regionEnd = i + 1 < regions.size() ? regions.get(i + 1).first : "";
+            List<Kvrpcpb.KvPair> pairs =
+                regions.get(i).second.stream()
+                    .filter(k -> k.compareTo(startKey.toStringUtf8()) >= 0)
+                    .map(
+                        k ->
+                            Kvrpcpb.KvPair.newBuilder()
+                                .setKey(ByteString.copyFromUtf8(k))
+                                .setValue(ByteString.copyFromUtf8(k))
+                                .build())
+                    .collect(Collectors.toList());
+            return Pair.create(GrpcUtils.makeTiRegion(conf, regionStart, regionEnd, 1), pairs);
+          }
+        }
+        throw new IllegalStateException();
+      }
+    };
+  }
+
+  private List<String> drain(RawScanIterator iterator) {
+    List<String> keys = new ArrayList<>();
+    while (iterator.hasNext()) {
+      keys.add(iterator.next().getKey().toStringUtf8());
+    }
+    return keys;
+  }
+
+  @Test
+  public void scanWithoutPrefetchTest() {
+    assertEquals(ImmutableList.of("a1", "a2", "b1", "c1", "d1"), drain(createIterator(null)));
+    assertEquals(ImmutableList.of("", "b", "d"), loads);
+  }
+
+  @Test
+  public void prefetchTest() throws Exception {
+    conf.setScanPrefetchDepth(1);
+    RawScanIterator iterator = createIterator(executor.get());
+    assertTrue(iterator.hasNext());
+    assertEquals("a1", iterator.next().getKey().toStringUtf8());
+
+    // the next region is loaded while the first one is consumed
+    long deadline = System.currentTimeMillis() + 5000;
+    while (loadCount() < 2 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Thread.sleep(100);
+    // but no more than the prefetch depth
+    assertEquals(2, loadCount());
+
+    List<String> keys = drain(iterator);
+    assertEquals(ImmutableList.of("a2", "b1", "c1", "d1"), keys);
+    assertEquals(ImmutableList.of("", "b", "d"), loads);
+  }
+
+  private int loadCount() {
+    synchronized (loads) {
+      return loads.size();
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.region;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.ByteString;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.Test;
+import org.tikv.common.TiConfiguration;
+import org.tikv.common.util.Pair;
+import org.tikv.kvproto.Metapb;
+
+public class CompactRegionTest {
+  private final TiConfiguration conf = TiConfiguration.createRawDefault();
+
+  private static ByteString key(int i) {
+    return i == 0 ? ByteString.EMPTY : ByteString.copyFromUtf8(String.format("t_%08d_r", i));
+  }
+
+  // region i covers [key(i), key(i + 1)), each boundary key is a copy as if parsed from PD
+  private static Metapb.Region createMeta(int i, int count) {
+    Metapb.Region.Builder builder =
+        Metapb.Region.newBuilder()
+            .setId(i + 1)
+            .setStartKey(key(i))
+            .setEndKey(i == count - 1 ? ByteString.EMPTY : key(i + 1))
+            .setRegionEpoch(Metapb.RegionEpoch.newBuilder().setConfVer(5).setVersion(i + 100));
+    for (int j = 1; j <= 3; j++) {
+      builder.addPeers(
+          Metapb.Peer.newBuilder().setId(i * 10L + j).setStoreId(j).setRole(Metapb.PeerRole.Voter));
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void toMetaTest() {
+    Metapb.Region meta =
+        createMeta(1, 3).toBuilder()
+            .addPeers(
+                Metapb.Peer.newBuilder().setId(14).setStoreId(4).setRole(Metapb.PeerRole.Learner))
+            .build();
+    CompactRegion region =
+        new CompactRegion(meta, meta.getPeers(1), meta.getStartKey(), meta.getEndKey(), null);
+    assertEquals(meta, region.toMeta());
+    assertTrue(region.matches(meta));
+    assertEquals(meta.getPeers(1), region.getLeader());
+    assertEquals(2, region.getLeaderStoreId());
+    assertFalse(region.matches(createMeta(1, 3)));
+
+    // the first peer is the leader if it is unknown
+    region = new CompactRegion(meta, null, meta.getStartKey(), meta.getEndKey(), null);
+    assertEquals(Metapb.Peer.getDefaultInstance(), region.getLeader());
+    assertEquals(1, region.getLeaderStoreId());
+  }
+
+  @Test
+  public void sharedBoundaryTest() {
+    RegionCache cache = new RegionCache();
+    int count = 100;
+    for (int i = 0; i < count; i++) {
+      Metapb.Region meta = createMeta(i, count);
+      cache.insertRegionToCache(meta, meta.getPeers(0));
+    }
+    List<Pair<Metapb.Region, Metapb.Peer>> regions = cache.getAllRegionMetas();
+    regions.sort(Comparator.comparingLong(r -> r.first.getId()));
+    assertEquals(count, regions.size());
+    for (int i = 0; i + 1 < count; i++) {
+      assertEquals(createMeta(i, count), regions.get(i).first);
+      assertSame(regions.get(i).first.getEndKey(), regions.get(i + 1).first.getStartKey());
+    }
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  // the heap retained by a cache of `count` regions, either compact or as TiRegions
+  private long cacheFootprint(int count, boolean compact) {
+    long before = usedMemory();
+    RegionCache cache =
+        new RegionCache(
+            (meta, leader) ->
+                new TiRegion(conf, meta, leader, meta.getPeersList(), ImmutableList.of()),
+            0);
+    for (int i = 0; i < count; i++) {
+      Metapb.Region meta = createMeta(i, count);
+      if (compact) {
+        cache.insertRegionToCache(meta, meta.getPeers(0));
+      } else {
+        cache.insertRegionToCache(
+            new TiRegion(conf, meta, meta.getPeers(0), meta.getPeersList(), ImmutableList.of()));
+      }
+    }
+    long footprint = usedMemory() - before;
+    // keep the cache reachable until it is measured
+    assertEquals(count, cache.getAllRegionMetas().size());
+    return footprint;
+  }
+
+  @Test
+  public void footprintTest() {
+    int count = 100000;
+    long full = cacheFootprint(count, false);
+    // the regions inserted by their meta have no TiRegion until they are looked up
+    long compact = cacheFootprint(count, true);
+    // the proto meta and the lists of a TiRegion take more than the compact region itself
+    assertTrue(
+        String.format("compact %d bytes, full %d bytes", compact, full), compact * 2 < full);
+  }
+}
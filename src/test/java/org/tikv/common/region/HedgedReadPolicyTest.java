@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.region;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.tikv.common.TiConfiguration;
+
+public class HedgedReadPolicyTest {
+  @Test
+  public void fixedDelayTest() {
+    assertNull(HedgedReadPolicy.create(TiConfiguration.createRawDefault()));
+    HedgedReadPolicy policy =
+        HedgedReadPolicy.create(
+            TiConfiguration.createRawDefault()
+                .setRawKVHedgedReadEnable(true)
+                .setRawKVHedgedReadDelayInMS(5));
+    for (int i = 0; i < 100; i++) {
+      policy.record(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(5), policy.getDelayNanos());
+  }
+
+  @Test
+  public void adaptiveDelayTest() {
+    HedgedReadPolicy policy = new HedgedReadPolicy(1, 90);
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(1), policy.getDelayNanos());
+    // latencies of 1ms to 100ms
+    for (int i = 1; i <= 100; i++) {
+      policy.record(TimeUnit.MILLISECONDS.toNanos(i));
+    }
+    // the delay is computed once every 32 latencies, the last time over the first 96
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(87), policy.getDelayNanos());
+
+    // never under the fixed delay
+    policy = new HedgedReadPolicy(50, 90);
+    for (int i = 0; i < 64; i++) {
+      policy.record(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(50), policy.getDelayNanos());
+  }
+}
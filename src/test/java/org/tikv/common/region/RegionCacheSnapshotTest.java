@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.region;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tikv.common.TiConfiguration;
+import org.tikv.common.util.Pair;
+import org.tikv.kvproto.Metapb;
+
+public class RegionCacheSnapshotTest {
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private final TiConfiguration conf = TiConfiguration.createRawDefault();
+
+  private TiRegion createRegion(long id, String startKey, String endKey) {
+    Metapb.Peer leader = Metapb.Peer.newBuilder().setId(id * 10 + 2).setStoreId(2).build();
+    Metapb.Region meta =
+        Metapb.Region.newBuilder()
+            .setId(id)
+            .setStartKey(ByteString.copyFromUtf8(startKey))
+            .setEndKey(ByteString.copyFromUtf8(endKey))
+            .setRegionEpoch(Metapb.RegionEpoch.newBuilder().setConfVer(3).setVersion(id))
+            .addPeers(Metapb.Peer.newBuilder().setId(id * 10 + 1).setStoreId(1))
+            .addPeers(leader)
+            .build();
+    return new TiRegion(conf, meta, leader, meta.getPeersList(), ImmutableList.of());
+  }
+
+  @Test
+  public void saveAndLoadTest() throws IOException {
+    Path path = folder.getRoot().toPath().resolve("snapshot").resolve("regions");
+    TiStore store =
+        new TiStore(Metapb.Store.newBuilder().setId(1).setAddress("127.0.0.1:20160").build());
+    TiRegion region1 = createRegion(1, "", "b");
+    TiRegion region2 = createRegion(2, "b", "");
+    RegionCacheSnapshot.save(
+        path,
+        42,
+        ImmutableList.of(store),
+        ImmutableList.of(
+            Pair.create(region1.getMeta(), region1.getLeader()),
+            Pair.create(region2.getMeta(), region2.getLeader())));
+
+    RegionCacheSnapshot snapshot = RegionCacheSnapshot.load(path, 42);
+    assertEquals(ImmutableList.of(store.getStore()), snapshot.getStores());
+    assertEquals(2, snapshot.getRegions().size());
+    assertEquals(region1.getMeta(), snapshot.getRegions().get(0).first);
+    assertEquals(region1.getLeader(), snapshot.getRegions().get(0).second);
+    assertEquals(region2.getMeta(), snapshot.getRegions().get(1).first);
+
+    // a snapshot of another cluster is rejected
+    try {
+      RegionCacheSnapshot.load(path, 43);
+      fail();
+    } catch (IOException ignored) {
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.region;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptors;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.tikv.common.exception.StoreOverloadedException;
+import org.tikv.kvproto.TikvGrpc;
+
+public class StoreConcurrencyLimiterTest {
+  private static final String ADDRESS = "127.0.0.1:20160";
+
+  /** A channel whose calls are kept open until the test closes them. */
+  private static class PendingChannel extends Channel {
+    private final List<ClientCall.Listener<?>> listeners = new ArrayList<>();
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+        MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+      return new ClientCall<ReqT, RespT>() {
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+          listeners.add(responseListener);
+        }
+
+        @Override
+        public void request(int numMessages) {}
+
+        @Override
+        public void cancel(String message, Throwable cause) {}
+
+        @Override
+        public void halfClose() {}
+
+        @Override
+        public void sendMessage(ReqT message) {}
+      };
+    }
+
+    @Override
+    public String authority() {
+      return ADDRESS;
+    }
+  }
+
+  private static Status start(Channel channel) {
+    Status[] closed = new Status[1];
+    ClientCall<?, ?> call = channel.newCall(TikvGrpc.getRawGetMethod(), CallOptions.DEFAULT);
+    call.start(
+        new ClientCall.Listener<Object>() {
+          @Override
+          public void onClose(Status status, Metadata trailers) {
+            closed[0] = status;
+          }
+        },
+        new Metadata());
+    return closed[0];
+  }
+
+  @Test
+  public void rejectOverLimitTest() {
+    PendingChannel pending = new PendingChannel();
+    StoreConcurrencyLimiter limiter = new StoreConcurrencyLimiter(ADDRESS, 2, 10, 0);
+    Channel channel = ClientInterceptors.intercept(pending, limiter);
+
+    assertNull(start(channel));
+    assertNull(start(channel));
+    assertEquals(2, limiter.getInFlight());
+
+    // the third call is failed without being sent
+    Status status = start(channel);
+    assertEquals(Status.Code.RESOURCE_EXHAUSTED, status.getCode());
+    assertTrue(status.getCause() instanceof StoreOverloadedException);
+    assertEquals(2, pending.listeners.size());
+
+    // a finished call gives its slot back
+    pending.listeners.get(0).onClose(Status.OK, new Metadata());
+    assertEquals(1, limiter.getInFlight());
+    assertNull(start(channel));
+  }
+
+  @Test
+  public void waitForSlotTest() throws Exception {
+    StoreConcurrencyLimiter limiter = new StoreConcurrencyLimiter(ADDRESS, 1, 10, 0);
+    assertTrue(limiter.acquire(0));
+    long start = System.nanoTime();
+    assertFalse(limiter.acquire(TimeUnit.MILLISECONDS.toNanos(50)));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+
+    Thread releaser =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(50);
+              } catch (InterruptedException ignored) {
+              }
+              limiter.release(-1, false);
+            });
+    releaser.start();
+    assertTrue(limiter.acquire(TimeUnit.SECONDS.toNanos(10)));
+    releaser.join();
+    assertEquals(1, limiter.getInFlight());
+  }
+
+  private static void run(StoreConcurrencyLimiter limiter, int requests, long latencyNanos) {
+    for (int i = 0; i < requests; i++) {
+      int limit = limiter.getLimit();
+      for (int j = 0; j < limit; j++) {
+        assertTrue(limiter.acquire(0));
+      }
+      for (int j = 0; j < limit; j++) {
+        limiter.release(latencyNanos, false);
+      }
+    }
+  }
+
+  @Test
+  public void adjustLimitTest() {
+    StoreConcurrencyLimiter limiter = new StoreConcurrencyLimiter(ADDRESS, 8, 100, 0);
+
+    // the limit grows while the latency is steady
+    run(limiter, 20, TimeUnit.MILLISECONDS.toNanos(1));
+    assertEquals(100, limiter.getLimit());
+
+    // and shrinks when the store starts to queue the requests
+    run(limiter, 5, TimeUnit.MILLISECONDS.toNanos(10));
+    int limit = limiter.getLimit();
+    assertTrue(limit < 100);
+
+    // as well as when the requests time out
+    assertTrue(limiter.acquire(0));
+    limiter.release(-1, true);
+    assertTrue(limiter.getLimit() < limit);
+  }
+}
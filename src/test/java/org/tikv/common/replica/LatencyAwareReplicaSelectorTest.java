@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.replica;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.tikv.common.TiConfiguration;
+import org.tikv.common.region.TiRegion;
+import org.tikv.common.region.TiStore;
+import org.tikv.common.region.TiStoreType;
+import org.tikv.kvproto.Kvrpcpb;
+import org.tikv.kvproto.Metapb;
+
+public class LatencyAwareReplicaSelectorTest {
+  private static String address(int id) {
+    return "store" + id + ":20160";
+  }
+
+  private static Metapb.Region meta() {
+    Metapb.Region.Builder meta = Metapb.Region.newBuilder().setId(1);
+    for (int i = 1; i <= 3; i++) {
+      meta.addPeers(Metapb.Peer.newBuilder().setId(i).setStoreId(i));
+    }
+    return meta.build();
+  }
+
+  private static List<TiStore> stores() {
+    List<TiStore> stores = new ArrayList<>();
+    for (int i = 1; i <= 3; i++) {
+      stores.add(new TiStore(Metapb.Store.newBuilder().setId(i).setAddress(address(i)).build()));
+    }
+    return stores;
+  }
+
+  private static Region region() {
+    Metapb.Region meta = meta();
+    return new Region(meta, meta.getPeers(0), meta.getPeersList(), stores());
+  }
+
+  private static void request(
+      LatencyAwareReplicaSelector selector, int store, long latencyMs, boolean failed) {
+    selector.onRequestStart(address(store));
+    selector.onRequestEnd(address(store), TimeUnit.MILLISECONDS.toNanos(latencyMs), failed);
+  }
+
+  @Test
+  public void selectFastestTest() {
+    LatencyAwareReplicaSelector selector = new LatencyAwareReplicaSelector(false);
+    Region region = region();
+    request(selector, 2, 100, false);
+    request(selector, 3, 1, false);
+    for (int i = 0; i < 10; i++) {
+      List<Store> selected = selector.select(region);
+      assertEquals(2, selected.size());
+      assertEquals(3, selected.get(0).getId());
+      assertFalse(selected.get(1).isLeader());
+    }
+
+    // requests in flight make a store more costly
+    for (int i = 0; i < 200; i++) {
+      selector.onRequestStart(address(3));
+    }
+    assertEquals(2, selector.select(region).get(0).getId());
+  }
+
+  @Test
+  public void avoidFailedStoreTest() {
+    LatencyAwareReplicaSelector selector = new LatencyAwareReplicaSelector(true);
+    Region region = region();
+    request(selector, 1, 50, false);
+    request(selector, 2, 50, false);
+    request(selector, 3, 1, false);
+    request(selector, 3, 1, true);
+    for (int i = 0; i < 10; i++) {
+      List<Store> selected = selector.select(region);
+      assertEquals(3, selected.size());
+      // the failed store is selected last
+      assertEquals(3, selected.get(2).getId());
+    }
+  }
+
+  @Test
+  public void selectPerRequestTest() {
+    LatencyAwareReplicaSelector selector = new LatencyAwareReplicaSelector(false);
+    TiConfiguration conf = TiConfiguration.createRawDefault();
+    conf.setReplicaSelector(selector);
+    Metapb.Region meta = meta();
+    List<TiStore> stores = stores();
+    TiRegion region = new TiRegion(conf, meta, meta.getPeers(0), meta.getPeersList(), stores);
+    Metapb.Peer current = region.getCurrentReplica();
+    List<Metapb.Peer> replicas = region.getReplicaList();
+
+    request(selector, 2, 1, false);
+    request(selector, 3, 100, false);
+    assertEquals(2, region.selectReplicaList().get(0).getStoreId());
+    request(selector, 2, 1000, false);
+    request(selector, 3, 1, false);
+    assertEquals(3, region.selectReplicaList().get(0).getStoreId());
+    // the order of a request is not kept in the shared region
+    assertSame(current, region.getCurrentReplica());
+    assertSame(replicas, region.getReplicaList());
+
+    // a request addresses the replica on the store it is sent to
+    Kvrpcpb.Context context =
+        region.getReplicaContext(stores.get(2), Collections.emptySet(), TiStoreType.TiKV);
+    assertEquals(meta.getPeers(2), context.getPeer());
+    assertTrue(context.getReplicaRead());
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.tikv.common.GrpcUtils;
+import org.tikv.common.TiConfiguration;
+import org.tikv.common.region.TiRegion;
+
+public class AdaptiveBatchSizerTest {
+  private final TiConfiguration conf = TiConfiguration.createRawDefault();
+
+  private static double gauge(String store) {
+    return AdaptiveBatchSizer.BATCH_MAX_BYTES.labels("test", store, "0").get();
+  }
+
+  @Test
+  public void aimdTest() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer("test", 1600, 160, true, 100, "0");
+    TiRegion store1 = GrpcUtils.makeTiRegion(conf, "", "", 1);
+    TiRegion store2 = GrpcUtils.makeTiRegion(conf, "", "", 2);
+
+    // additive increase on fast batches
+    sizer.onSuccess(store1, 10);
+    assertEquals(1800, sizer.get(store1).getBytes());
+    assertEquals(180, sizer.get(store1).getKeys());
+    assertEquals(1800, gauge("1"), 0);
+    // the limits are tracked per store
+    assertEquals(1600, sizer.get(store2).getBytes());
+
+    // multiplicative decrease on slow or failed batches
+    sizer.onSuccess(store1, 1000);
+    assertEquals(900, sizer.get(store1).getBytes());
+    assertEquals(90, sizer.get(store1).getKeys());
+    sizer.onFailure(store1);
+    assertEquals(450, sizer.get(store1).getBytes());
+    assertEquals(450, gauge("1"), 0);
+
+    // bounded by 1/16 and 4 times the initial limits
+    for (int i = 0; i < 10; i++) {
+      sizer.onFailure(store2);
+    }
+    assertEquals(100, sizer.get(store2).getBytes());
+    assertEquals(10, sizer.get(store2).getKeys());
+    for (int i = 0; i < 100; i++) {
+      sizer.onSuccess(store2, 0);
+    }
+    assertEquals(6400, sizer.get(store2).getBytes());
+    assertEquals(640, sizer.get(store2).getKeys());
+  }
+
+  @Test
+  public void disabledTest() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer("test", 1600, 160, false, 100, "0");
+    TiRegion region = GrpcUtils.makeTiRegion(conf, "", "", 3);
+    sizer.onFailure(region);
+    sizer.onSuccess(region, 0);
+    assertEquals(1600, sizer.get(region).getBytes());
+    assertEquals(160, sizer.get(region).getKeys());
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.google.protobuf.ByteString;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import java.io.ByteArrayInputStream;
+import org.junit.Test;
+import org.tikv.kvproto.Kvrpcpb.KvPair;
+import org.tikv.kvproto.Kvrpcpb.RawScanRequest;
+import org.tikv.kvproto.Kvrpcpb.RawScanResponse;
+import org.tikv.kvproto.TikvGrpc;
+
+public class AliasingMarshallerTest {
+  private static RawScanResponse scanResponse(int count) {
+    RawScanResponse.Builder builder = RawScanResponse.newBuilder();
+    for (int i = 0; i < count; i++) {
+      builder.addKvs(
+          KvPair.newBuilder()
+              .setKey(ByteString.copyFromUtf8(String.format("key%05d", i)))
+              .setValue(ByteString.copyFromUtf8(String.format("value%05d", i))));
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void parseTest() {
+    AliasingMarshaller<RawScanResponse> marshaller =
+        new AliasingMarshaller<>(RawScanResponse.getDefaultInstance());
+    RawScanResponse expected = scanResponse(100);
+    RawScanResponse resp = marshaller.parse(marshaller.stream(expected));
+    assertEquals(expected, resp);
+    // the values are views of the received frame, not copies of it
+    ByteString value = resp.getKvs(0).getValue();
+    assertEquals("BoundedByteString", value.getClass().getSimpleName());
+
+    // a stream of unknown length is read as well
+    resp = marshaller.parse(new ByteArrayInputStream(expected.toByteArray()));
+    assertEquals(expected, resp);
+  }
+
+  @Test
+  public void invalidMessageTest() {
+    AliasingMarshaller<RawScanResponse> marshaller =
+        new AliasingMarshaller<>(RawScanResponse.getDefaultInstance());
+    byte[] frame = scanResponse(10).toByteArray();
+    try {
+      marshaller.parse(new ByteArrayInputStream(frame, 0, frame.length / 2));
+      fail();
+    } catch (StatusRuntimeException e) {
+      assertEquals(Status.Code.INTERNAL, e.getStatus().getCode());
+    }
+  }
+
+  @Test
+  public void aliasResponsesTest() {
+    MethodDescriptor<RawScanRequest, RawScanResponse> method =
+        AliasingMarshaller.aliasResponses(
+            TikvGrpc.getRawScanMethod(), RawScanResponse.getDefaultInstance());
+    assertEquals(TikvGrpc.getRawScanMethod().getFullMethodName(), method.getFullMethodName());
+    assertSame(TikvGrpc.getRawScanMethod().getRequestMarshaller(), method.getRequestMarshaller());
+    RawScanResponse expected = scanResponse(3);
+    assertEquals(expected, method.parseResponse(method.streamResponse(expected)));
+  }
+}
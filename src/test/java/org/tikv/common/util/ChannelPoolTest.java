@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.util;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.testing.TestMethodDescriptors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class ChannelPoolTest {
+  private static final String ADDRESS = "channel-pool-test:20160";
+
+  /** A channel that keeps the listeners of the started calls, to close them later. */
+  private static class FakeChannel extends ManagedChannel {
+    private final List<ClientCall.Listener<?>> listeners = new ArrayList<>();
+
+    private void closeAll() {
+      for (ClientCall.Listener<?> listener : listeners) {
+        listener.onClose(Status.OK, new Metadata());
+      }
+      listeners.clear();
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+        MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+      return new ClientCall<ReqT, RespT>() {
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+          listeners.add(responseListener);
+        }
+
+        @Override
+        public void request(int numMessages) {}
+
+        @Override
+        public void cancel(String message, Throwable cause) {}
+
+        @Override
+        public void halfClose() {}
+
+        @Override
+        public void sendMessage(ReqT message) {}
+      };
+    }
+
+    @Override
+    public String authority() {
+      return ADDRESS;
+    }
+
+    @Override
+    public ManagedChannel shutdown() {
+      return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return false;
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return false;
+    }
+
+    @Override
+    public ManagedChannel shutdownNow() {
+      return this;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+      return false;
+    }
+  }
+
+  private static void startCall(ChannelPool pool) {
+    pool.newCall(TestMethodDescriptors.voidMethod(), CallOptions.DEFAULT)
+        .start(new ClientCall.Listener<Void>() {}, new Metadata());
+  }
+
+  private static double gauge(int channel) {
+    return ChannelPool.CHANNEL_IN_FLIGHT_CALLS.labels(ADDRESS, String.valueOf(channel)).get();
+  }
+
+  @Test
+  public void leastInFlightTest() {
+    FakeChannel first = new FakeChannel();
+    FakeChannel second = new FakeChannel();
+    ChannelPool pool = new ChannelPool(ADDRESS, ImmutableList.of(first, second));
+
+    // with two channels both are compared, so the calls go to the less loaded one
+    for (int i = 0; i < 10; i++) {
+      startCall(pool);
+    }
+    assertEquals(5, pool.getInFlight(0));
+    assertEquals(5, pool.getInFlight(1));
+    assertEquals(5, gauge(0), 0);
+
+    first.closeAll();
+    assertEquals(0, pool.getInFlight(0));
+    assertEquals(0, gauge(0), 0);
+    for (int i = 0; i < 4; i++) {
+      startCall(pool);
+    }
+    assertEquals(4, pool.getInFlight(0));
+    assertEquals(5, pool.getInFlight(1));
+    assertEquals(4, first.listeners.size());
+
+    second.closeAll();
+    first.closeAll();
+    assertEquals(0, gauge(1), 0);
+  }
+}
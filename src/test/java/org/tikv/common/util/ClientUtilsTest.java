@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Test;
+
+public class ClientUtilsTest {
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+  private final ExecutorCompletionService<Boolean> completionService =
+      new ExecutorCompletionService<>(executor);
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+    timer.shutdownNow();
+  }
+
+  @Test
+  public void cancelBeforeSubmitTest() throws Exception {
+    AtomicBoolean ran = new AtomicBoolean();
+    Future<?> future =
+        ClientUtils.submitAfter(completionService, timer, () -> ran.getAndSet(true), 50);
+    future.cancel(true);
+    Thread.sleep(100);
+    assertFalse(ran.get());
+    assertNull(completionService.poll());
+  }
+
+  @Test
+  public void cancelAfterSubmitTest() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    AtomicBoolean interrupted = new AtomicBoolean();
+    Future<?> future =
+        ClientUtils.submitAfter(
+            completionService,
+            timer,
+            () -> {
+              started.countDown();
+              try {
+                Thread.sleep(10_000);
+              } catch (InterruptedException e) {
+                interrupted.set(true);
+              }
+              return true;
+            },
+            10);
+    assertTrue(started.await(1, TimeUnit.SECONDS));
+    // the submitted task is cancelled too
+    future.cancel(true);
+    assertTrue(completionService.poll(1, TimeUnit.SECONDS).isCancelled());
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+    assertTrue(interrupted.get());
+  }
+}
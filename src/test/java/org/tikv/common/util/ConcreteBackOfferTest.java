@@ -0,0 +1,45 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.tikv.common.exception.GrpcException;
+import org.tikv.common.util.BackOffFunction.BackOffFuncType;
+
+public class ConcreteBackOfferTest {
+  // NoJitter from 2ms: 2, 4, 8, ...
+  private static final BackOffFuncType TYPE = BackOffFuncType.BoTxnNotFound;
+
+  @Test
+  public void nextBackOffTest() {
+    ConcreteBackOffer backOffer = ConcreteBackOffer.newCustomBackOff(5);
+    assertEquals(2, backOffer.nextBackOffMs(TYPE, new Exception("first")));
+
+    // 2 + 4 exceeds the max sleep
+    try {
+      backOffer.nextBackOffMs(TYPE, new Exception("second"));
+      fail();
+    } catch (GrpcException e) {
+      assertEquals("second", e.getCause().getMessage());
+    }
+    assertEquals(2, backOffer.errors.size());
+  }
+}
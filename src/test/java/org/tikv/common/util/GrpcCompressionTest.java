@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.protobuf.ByteString;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptors;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.Test;
+import org.tikv.common.TiConfiguration;
+import org.tikv.kvproto.Kvrpcpb.KvPair;
+import org.tikv.kvproto.Kvrpcpb.RawBatchPutRequest;
+import org.tikv.kvproto.Kvrpcpb.RawGetRequest;
+import org.tikv.kvproto.TikvGrpc;
+
+public class GrpcCompressionTest {
+  /** A channel that records the options of the calls and the compression of the messages. */
+  private static class RecordingChannel extends Channel {
+    private final List<CallOptions> options = new ArrayList<>();
+    private final List<Boolean> compressed = new ArrayList<>();
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+        MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+      options.add(callOptions);
+      return new ClientCall<ReqT, RespT>() {
+        private boolean compression = false;
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {}
+
+        @Override
+        public void request(int numMessages) {}
+
+        @Override
+        public void cancel(String message, Throwable cause) {}
+
+        @Override
+        public void halfClose() {}
+
+        @Override
+        public void setMessageCompression(boolean enabled) {
+          compression = enabled;
+        }
+
+        @Override
+        public void sendMessage(ReqT message) {
+          compressed.add(compression);
+        }
+      };
+    }
+
+    @Override
+    public String authority() {
+      return "grpc-compression-test:20160";
+    }
+  }
+
+  private static <ReqT> void send(Channel channel, MethodDescriptor<ReqT, ?> method, ReqT req) {
+    ClientCall<ReqT, ?> call = channel.newCall(method, CallOptions.DEFAULT);
+    call.start(new ClientCall.Listener<Object>() {}, new Metadata());
+    call.sendMessage(req);
+    call.halfClose();
+  }
+
+  private static RawBatchPutRequest batchPut(int count) {
+    RawBatchPutRequest.Builder builder = RawBatchPutRequest.newBuilder();
+    for (int i = 0; i < count; i++) {
+      builder.addPairs(
+          KvPair.newBuilder()
+              .setKey(ByteString.copyFromUtf8("key" + i))
+              .setValue(ByteString.copyFromUtf8("value" + i)));
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void compressEnabledGroupsTest() {
+    RecordingChannel recorder = new RecordingChannel();
+    GrpcCompression compression =
+        new GrpcCompression("gzip", EnumSet.of(GrpcCompression.MethodGroup.BATCH_WRITE), 1024);
+    Channel channel = ClientInterceptors.intercept(recorder, compression);
+
+    // a large batch put is compressed
+    send(channel, TikvGrpc.getRawBatchPutMethod(), batchPut(1000));
+    assertEquals("gzip", recorder.options.get(0).getCompressor());
+    assertTrue(recorder.compressed.get(0));
+
+    // a small one is not
+    send(channel, TikvGrpc.getRawBatchPutMethod(), batchPut(1));
+    assertFalse(recorder.compressed.get(1));
+
+    // the methods of no enabled group are left alone
+    send(channel, TikvGrpc.getRawGetMethod(), RawGetRequest.getDefaultInstance());
+    assertNull(recorder.options.get(2).getCompressor());
+  }
+
+  @Test
+  public void createTest() {
+    TiConfiguration conf = TiConfiguration.createRawDefault();
+    assertNull(GrpcCompression.create(conf));
+    conf.setGrpcCompressionScanEnable(true);
+    assertEquals(
+        GrpcCompression.MethodGroup.SCAN, GrpcCompression.groupOf(TikvGrpc.getRawScanMethod()));
+    assertNotNull(GrpcCompression.create(conf));
+    try {
+      conf.setGrpcCompressionCodec("unknown");
+      fail();
+    } catch (IllegalArgumentException ignored) {
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.common.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.junit.Test;
+
+public class NettyTransportTest {
+  @Test
+  public void defaultTransportTest() {
+    try (NettyTransport transport = new NettyTransport(false, 0, true, 0)) {
+      // the channels use the event loop group of gRPC
+      assertNull(transport.getEventLoopGroup());
+      assertFalse(transport.isEpoll());
+    }
+  }
+
+  @Test
+  public void nioTransportTest() {
+    try (NettyTransport transport = new NettyTransport(false, 2, true, 0)) {
+      assertFalse(transport.isEpoll());
+      assertSame(NioSocketChannel.class, transport.getChannelType());
+      assertTrue(transport.getEventLoopGroup() instanceof NioEventLoopGroup);
+    }
+  }
+
+  @Test
+  public void sharedEventLoopGroupTest() {
+    NettyTransport transport = new NettyTransport(true, 2, true, 1 << 20);
+    String os = System.getProperty("os.name").toLowerCase();
+    String arch = System.getProperty("os.arch");
+    if (os.startsWith("linux") && (arch.equals("amd64") || arch.equals("x86_64"))) {
+      // the native library of netty-transport-native-epoll is shipped for linux-x86_64
+      assertTrue(String.valueOf(Epoll.unavailabilityCause()), transport.isEpoll());
+      assertSame(EpollSocketChannel.class, transport.getChannelType());
+      assertTrue(transport.getEventLoopGroup() instanceof EpollEventLoopGroup);
+    } else {
+      // epoll falls back to NIO on the platforms without it
+      assertSame(NioSocketChannel.class, transport.getChannelType());
+      assertTrue(transport.getEventLoopGroup() instanceof NioEventLoopGroup);
+    }
+    ChannelFactory factory = new ChannelFactory(1024, 10, 3, 60, 2, transport);
+    assertNotNull(factory.getChannel("127.0.0.1:2379", uri -> uri));
+    assertNotNull(factory.getChannel("127.0.0.1:20160", uri -> uri));
+    factory.close();
+    assertTrue(transport.getEventLoopGroup().isShuttingDown());
+  }
+}
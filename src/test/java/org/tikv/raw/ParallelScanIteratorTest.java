@@ -0,0 +1,156 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.raw;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.tikv.common.GrpcUtils;
+import org.tikv.common.TiConfiguration;
+import org.tikv.common.exception.TiKVException;
+import org.tikv.common.region.TiRegion;
+import org.tikv.kvproto.Kvrpcpb.KvPair;
+import org.tikv.util.ExecutorRule;
+
+public class ParallelScanIteratorTest {
+  private final TiConfiguration conf = TiConfiguration.createRawDefault();
+  @Rule public ExecutorRule executor = new ExecutorRule(4);
+  // start keys of the regions
+  private final List<String> regionStartKeys = ImmutableList.of("", "b", "c", "d", "e");
+  private final List<String> keys = ImmutableList.of("a1", "a2", "b1", "c1", "c2", "e1", "f1");
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private final AtomicInteger scans = new AtomicInteger();
+
+  private ParallelScanIterator createIterator(
+      String startKey, String endKey, int concurrency, long maxBufferedBytes) {
+    return new ParallelScanIterator(
+        executor.get(),
+        ByteString.copyFromUtf8(startKey),
+        ByteString.copyFromUtf8(endKey),
+        concurrency,
+        maxBufferedBytes) {
+      @Override
+      TiRegion locateRegion(ByteString key) {
+        // the region of the keys from "z" is unknown
+        if (key.toStringUtf8().startsWith("z")) {
+          return null;
+        }
+        for (int i = regionStartKeys.size() - 1; i >= 0; i--) {
+          if (key.toStringUtf8().compareTo(regionStartKeys.get(i)) >= 0) {
+            String end = i + 1 < regionStartKeys.size() ? regionStartKeys.get(i + 1) : "";
+            return GrpcUtils.makeTiRegion(conf, regionStartKeys.get(i), end, 1);
+          }
+        }
+        throw new IllegalStateException();
+      }
+
+      @Override
+      List<KvPair> scanRange(ByteString start, ByteString end) {
+        scans.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+          // the earlier regions finish later
+          Thread.sleep(start.isEmpty() ? 60 : ('f' - start.byteAt(0)) * 10L);
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        } finally {
+          inFlight.decrementAndGet();
+        }
+        if (start.toStringUtf8().equals("d")) {
+          throw new IllegalStateException("region unavailable");
+        }
+        return keys.stream()
+            .filter(k -> k.compareTo(start.toStringUtf8()) >= 0)
+            .filter(k -> end.isEmpty() || k.compareTo(end.toStringUtf8()) < 0)
+            .map(
+                k ->
+                    KvPair.newBuilder()
+                        .setKey(ByteString.copyFromUtf8(k))
+                        .setValue(ByteString.copyFromUtf8(k))
+                        .build())
+            .collect(Collectors.toList());
+      }
+    };
+  }
+
+  private static List<String> drain(ParallelScanIterator iterator) {
+    List<String> result = new ArrayList<>();
+    iterator.forEachRemaining(pair -> result.add(pair.getKey().toStringUtf8()));
+    return result;
+  }
+
+  @Test
+  public void scanInKeyOrderTest() {
+    assertEquals(
+        ImmutableList.of("a2", "b1", "c1"), drain(createIterator("a2", "c2", 4, Long.MAX_VALUE)));
+    assertEquals(3, scans.get());
+    assertTrue(maxInFlight.get() > 1);
+    assertTrue(maxInFlight.get() <= 4);
+
+    assertEquals(ImmutableList.of("e1", "f1"), drain(createIterator("e", "", 4, Long.MAX_VALUE)));
+    assertEquals(ImmutableList.of(), drain(createIterator("c", "c", 4, Long.MAX_VALUE)));
+  }
+
+  @Test
+  public void boundedBufferTest() throws Exception {
+    ParallelScanIterator iterator = createIterator("", "d", 2, 1);
+    assertEquals("a1", iterator.next().getKey().toStringUtf8());
+    Thread.sleep(100);
+    // the buffer is full once the first region is scanned
+    assertEquals(2, scans.get());
+
+    assertEquals(ImmutableList.of("a2", "b1", "c1"), drain(iterator));
+    assertEquals(3, scans.get());
+  }
+
+  @Test
+  public void scanFailureTest() {
+    ParallelScanIterator iterator = createIterator("", "", 2, Long.MAX_VALUE);
+    List<String> result = new ArrayList<>();
+    try {
+      iterator.forEachRemaining(pair -> result.add(pair.getKey().toStringUtf8()));
+      fail();
+    } catch (TiKVException e) {
+      assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+    }
+    assertEquals(ImmutableList.of("a1", "a2", "b1", "c1", "c2"), result);
+  }
+
+  @Test
+  public void regionNotFoundTest() {
+    ParallelScanIterator iterator = createIterator("z", "", 2, Long.MAX_VALUE);
+    try {
+      iterator.hasNext();
+      fail();
+    } catch (TiKVException e) {
+      assertEquals(0, scans.get());
+    }
+    assertFalse(iterator.hasNext());
+  }
+}
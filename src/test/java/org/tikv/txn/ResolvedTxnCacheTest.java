@@ -0,0 +1,42 @@
+/*
+ * Copyright 2022 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.txn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class ResolvedTxnCacheTest {
+
+  @Test
+  public void evictOldestTest() {
+    ResolvedTxnCache<Long> cache = new ResolvedTxnCache<>(2);
+    cache.put(1, 10L);
+    cache.put(2, 20L);
+    // the status of a resolved txn never changes
+    cache.put(1, 11L);
+    assertEquals(10L, (long) cache.get(1));
+
+    cache.put(3, 30L);
+    assertEquals(2, cache.size());
+    assertNull(cache.get(1));
+    assertEquals(20L, (long) cache.get(2));
+    assertEquals(30L, (long) cache.get(3));
+  }
+}
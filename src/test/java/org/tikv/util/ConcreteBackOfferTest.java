@@ -85,4 +85,14 @@ public class ConcreteBackOfferTest {
     }
     Assert.assertEquals(backOffer.errors.size(), taskCnt);
   }
+
+  @Test
+  public void totalSleepTest() {
+    ConcreteBackOffer backOffer = ConcreteBackOffer.newRawKVBackOff();
+    Assert.assertEquals(0, backOffer.getTotalSleepMs());
+    long sleep = backOffer.nextBackOffMs(BackOffFuncType.BoRegionMiss, new Exception("miss"));
+    Assert.assertEquals(sleep, backOffer.getTotalSleepMs());
+    // the copies start from the back off of the source
+    Assert.assertEquals(sleep, ConcreteBackOffer.create(backOffer).getTotalSleepMs());
+  }
 }
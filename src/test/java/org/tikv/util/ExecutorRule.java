@@ -0,0 +1,46 @@
+/*
+ * Copyright 2021 TiKV Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tikv.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.rules.ExternalResource;
+
+/** A fixed thread pool for a single test, shut down once the test finishes. */
+public class ExecutorRule extends ExternalResource {
+  private final int threads;
+  private ExecutorService executor;
+
+  public ExecutorRule(int threads) {
+    this.threads = threads;
+  }
+
+  @Override
+  protected void before() {
+    executor = Executors.newFixedThreadPool(threads);
+  }
+
+  @Override
+  protected void after() {
+    executor.shutdownNow();
+  }
+
+  public ExecutorService get() {
+    return executor;
+  }
+}